@@ -54,7 +54,6 @@ import act.util.*;
 import act.view.ViewManager;
 import act.xio.Network;
 import act.xio.NetworkHandler;
-import act.xio.undertow.UndertowNetwork;
 import org.osgl.$;
 import org.osgl.cache.CacheService;
 import org.osgl.exception.NotAppliedException;
@@ -818,7 +817,7 @@ public final class Act {
 
     private static void initNetworkLayer() {
         LOGGER.debug("initializing network layer ...");
-        network = new UndertowNetwork();
+        network = conf.network();
     }
 
     private static void destroyNetworkLayer() {
@@ -26,17 +26,22 @@ import act.ResponseImplBase;
 import act.conf.AppConfig;
 import act.controller.ResponseCache;
 import act.data.MapUtil;
+import act.data.MultipartParts;
 import act.data.RequestBodyParser;
 import act.event.ActEvent;
 import act.event.EventBus;
 import act.event.SystemEvent;
 import act.handler.RequestHandler;
+import act.handler.builtin.controller.RequestHandlerProxy;
 import act.i18n.LocaleResolver;
+import act.inject.genie.SessionScopeCache;
 import act.route.Router;
 import act.security.CORS;
 import act.util.ActContext;
 import act.util.MissingAuthenticationHandler;
 import act.util.PropertySpec;
+import act.xio.NetworkDispatcher;
+import act.xio.NetworkJob;
 import org.osgl.$;
 import org.osgl.concurrent.ContextLocal;
 import org.osgl.http.H;
@@ -80,6 +85,7 @@ public class ActionContext extends ActContext.Base<ActionContext> implements Des
     private Set<Map.Entry<String, String[]>> requestParamCache;
     private Map<String, String> extraParams;
     private volatile Map<String, String[]> bodyParams;
+    private boolean bodyConsumed;
     private Map<String, String[]> allParams;
     private String actionPath; // e.g. com.mycorp.myapp.controller.AbcController.foo
     private State state;
@@ -98,6 +104,9 @@ public class ActionContext extends ActContext.Base<ActionContext> implements Des
     private MissingAuthenticationHandler forceMissingAuthenticationHandler;
     private MissingAuthenticationHandler forceCsrfCheckingFailureHandler;
     private String urlContext;
+    private NetworkDispatcher dispatcher;
+    private volatile boolean suspended;
+    private boolean express;
 
 
     @Inject
@@ -265,6 +274,64 @@ public class ActionContext extends ActContext.Base<ActionContext> implements Des
         return this;
     }
 
+    /**
+     * Set the dispatcher of the network exchange this context is created for
+     */
+    public ActionContext dispatcher(NetworkDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+        return this;
+    }
+
+    /**
+     * Suspend the request so the network exchange stays open after the
+     * handling thread returns. The response will be applied and this context
+     * destroyed later by the thread that resumes the request.
+     */
+    public ActionContext suspend() {
+        this.suspended = true;
+        if (null != dispatcher) {
+            dispatcher.suspend();
+        }
+        return this;
+    }
+
+    /**
+     * Continue handling the request with the job specified on a worker
+     * thread. The request is suspended and the job is responsible to
+     * finish the response and destroy this context.
+     */
+    public void dispatch(NetworkJob job) {
+        this.suspended = true;
+        if (null == dispatcher) {
+            job.run();
+        } else {
+            dispatcher.dispatch(job);
+        }
+    }
+
+    /**
+     * Set whether the request is handled on the network IO thread
+     */
+    public ActionContext express(boolean express) {
+        this.express = express;
+        return this;
+    }
+
+    /**
+     * Returns whether the request is handled on the network IO thread,
+     * in which case blocking IO is not allowed
+     */
+    public boolean express() {
+        return express;
+    }
+
+    /**
+     * Returns whether the request has been {@link #suspend() suspended}
+     */
+    public boolean suspended() {
+        return suspended;
+    }
+
     public String portId() {
         return router().portId();
     }
@@ -363,9 +430,10 @@ public class ActionContext extends ActContext.Base<ActionContext> implements Des
                 if (null == bodyParams) {
                     Map<String, String[]> map = C.newMap();
                     H.Method method = request.method();
-                    if (H.Method.POST == method || H.Method.PUT == method || H.Method.PATCH == method) {
+                    if ((H.Method.POST == method || H.Method.PUT == method || H.Method.PATCH == method) && !multipartStreaming()) {
                         RequestBodyParser parser = RequestBodyParser.get(request);
                         map = parser.parse(this);
+                        bodyConsumed = true;
                     }
                     bodyParams = map;
                 }
@@ -374,6 +442,32 @@ public class ActionContext extends ActContext.Base<ActionContext> implements Des
         return bodyParams;
     }
 
+    /**
+     * Returns a {@link MultipartParts} that streams the parts of a multipart
+     * request body without buffering them into temporary files.
+     *
+     * The request body of an action that declares a `MultipartParts` parameter
+     * is not parsed into body parameters, thus the parts can be streamed even
+     * after parameters have been accessed, e.g. by locale resolving or CSRF
+     * checking.
+     *
+     * @return the multipart parts of the request body
+     */
+    public synchronized MultipartParts multipartParts() {
+        E.illegalStateIf(bodyConsumed, "request body has already been consumed");
+        bodyConsumed = true;
+        if (null == bodyParams) {
+            bodyParams = C.newMap();
+        }
+        return new MultipartParts(this);
+    }
+
+    private boolean multipartStreaming() {
+        return handler instanceof RequestHandlerProxy
+                && request.contentType() == H.Format.FORM_MULTIPART_DATA
+                && ((RequestHandlerProxy) handler).multipartStreaming();
+    }
+
     public Map<String, String[]> allParams() {
         return allParams;
     }
@@ -756,6 +850,7 @@ public class ActionContext extends ActContext.Base<ActionContext> implements Des
         localeResolver.dissolve();
         app().eventBus().emit(new SessionWillDissolveEvent(this));
         try {
+            flushSessionScope();
             dissolveFlash();
             dissolveSession();
             state = State.SESSION_DISSOLVED;
@@ -915,6 +1010,13 @@ public class ActionContext extends ActContext.Base<ActionContext> implements Des
         }
     }
 
+    private void flushSessionScope() {
+        SessionScopeCache cache = app().sessionScopeCache();
+        if (null != cache) {
+            cache.flush(this);
+        }
+    }
+
     private void dissolveFlash() {
         Cookie c = Act.sessionManager().dissolveFlash(this);
         if (null != c) {
@@ -30,6 +30,7 @@ import act.app.util.NamedPort;
 import act.boot.BootstrapClassLoader;
 import act.boot.app.BlockIssueSignal;
 import act.cli.CliDispatcher;
+import act.cli.CliNioServer;
 import act.cli.bytecode.CommanderByteCodeScanner;
 import act.conf.AppConfLoader;
 import act.conf.AppConfig;
@@ -48,6 +49,7 @@ import act.inject.DependencyInjectionBinder;
 import act.inject.DependencyInjector;
 import act.inject.genie.GenieInjector;
 import act.inject.genie.GenieModuleScanner;
+import act.inject.genie.SessionScopeCache;
 import act.inject.param.JsonDTOClassManager;
 import act.inject.param.ParamValueLoaderManager;
 import act.job.AppJobManager;
@@ -60,6 +62,7 @@ import act.route.Router;
 import act.util.*;
 import act.view.ActErrorResult;
 import act.view.ImplicitVariableProvider;
+import act.view.ZXingRenderer;
 import act.view.rythm.JodaDateTimeFormatter;
 import act.view.rythm.JodaTransformers;
 import act.view.rythm.RythmTransformerScanner;
@@ -67,6 +70,12 @@ import act.view.rythm.RythmView;
 import act.ws.SecureTicketCodec;
 import act.ws.SecureTicketHandler;
 import act.ws.WebSocketConnectionManager;
+import act.xio.HttpClient;
+import act.xio.AdaptiveDispatch;
+import act.xio.Warmer;
+import act.xio.AdmissionControl;
+import act.xio.Compression;
+import act.xio.PooledHttpClient;
 import org.osgl.$;
 import org.osgl.Osgl;
 import org.osgl.cache.CacheService;
@@ -83,7 +92,10 @@ import org.rythmengine.utils.I18N;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Singleton;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.lang.annotation.Annotation;
 import java.util.*;
 
@@ -125,7 +137,9 @@ public class App extends DestroyableBase {
     private AppCodeScannerManager scannerManager;
     private DbServiceManager dbServiceManager;
     private AppJobManager jobManager;
+    private volatile StartupProfiler startupProfiler;
     private CliServer cliServer;
+    private CliNioServer cliNioServer;
     private MailerConfigManager mailerConfigManager;
     private StringValueResolverManager resolverManager;
     private SingletonRegistry singletonRegistry;
@@ -136,11 +150,19 @@ public class App extends DestroyableBase {
     private AppServiceRegistry appServiceRegistry;
     private Map<String, Daemon> daemonRegistry;
     private WebSocketConnectionManager webSocketConnectionManager;
+    private PooledHttpClient httpClient;
+    private AdmissionControl admissionControl;
+    private Compression compression;
+    private ZXingRenderer zxingRenderer;
+    private SessionScopeCache sessionScopeCache;
+    private AdaptiveDispatch adaptiveDispatch;
+    private Warmer warmer;
     private AppCrypto crypto;
     private IdGenerator idGenerator;
     private CacheService cache;
     // used in dev mode only
     private CompilationException compilationException;
+    private CompiledSourceCache compiledSourceCache;
     private AppEventId currentState;
     private Set<AppEventId> eventEmitted;
     private Thread mainThread;
@@ -361,6 +383,34 @@ public class App extends DestroyableBase {
         return crypto;
     }
 
+    public HttpClient httpClient() {
+        return httpClient;
+    }
+
+    public AdmissionControl admissionControl() {
+        return admissionControl;
+    }
+
+    public Compression compression() {
+        return compression;
+    }
+
+    public ZXingRenderer zxingRenderer() {
+        return zxingRenderer;
+    }
+
+    public SessionScopeCache sessionScopeCache() {
+        return sessionScopeCache;
+    }
+
+    public AdaptiveDispatch adaptiveDispatch() {
+        return adaptiveDispatch;
+    }
+
+    public Warmer warmer() {
+        return warmer;
+    }
+
     /**
      * The base dir where an application sit within
      */
@@ -388,6 +438,17 @@ public class App extends DestroyableBase {
         return layout;
     }
 
+    /**
+     * Returns the compiled source cache that survives class loader refreshes
+     * in dev mode
+     */
+    synchronized CompiledSourceCache compiledSourceCache() {
+        if (null == compiledSourceCache) {
+            compiledSourceCache = new CompiledSourceCache();
+        }
+        return compiledSourceCache;
+    }
+
     public boolean checkUpdates(boolean async) {
         if (!Act.isDev()) {
             return false;
@@ -512,6 +573,9 @@ public class App extends DestroyableBase {
         currentState = null;
         final long ms = $.ms();
         LOGGER.info("App starting ....");
+        startupProfiler = new StartupProfiler();
+        final StartupProfiler.Span startup = startupProfiler.start("app", "startup");
+        phase("prepare");
         profile = null;
         blockIssue = null;
         blockIssueCause = null;
@@ -524,48 +588,89 @@ public class App extends DestroyableBase {
         restarting = mainThread.getName().contains("job");
         eventEmitted = C.newSet();
 
+        phase("initSingletonRegistry");
         initSingletonRegistry();
+        phase("initEventBus");
         initEventBus();
         emit(EVENT_BUS_INITIALIZED);
 
         try {
 
+            phase("loadConfig");
             loadConfig();
             emit(CONFIG_LOADED);
 
+            phase("initCache");
             initCache();
+            phase("initDataPropertyRepository");
             initDataPropertyRepository();
+            phase("initCrypto");
             initCrypto();
+            phase("initIdGenerator");
             initIdGenerator();
+            phase("initJobManager");
             initJobManager();
+            phase("initDaemonRegistry");
             initDaemonRegistry();
 
+            phase("initInterceptorManager");
             initInterceptorManager();
+            phase("initResolverManager");
             initResolverManager();
+            phase("initBinderManager");
             initBinderManager();
+            phase("initUploadFileStorageService");
             initUploadFileStorageService();
+            phase("initRouters");
             initRouters();
             emit(ROUTER_INITIALIZED);
+            phase("loadRoutes");
             loadRoutes();
             emit(ROUTER_LOADED);
+            phase("initCliDispatcher");
             initCliDispatcher();
+            phase("initCliServer");
             initCliServer();
 
+            phase("initWebSocketConnectionManager");
             initWebSocketConnectionManager();
+            phase("initHttpClient");
+            initHttpClient();
+            phase("initAdmissionControl");
+            initAdmissionControl();
+            phase("initCompression");
+            initCompression();
+            phase("initZXingRenderer");
+            initZXingRenderer();
+            phase("initSessionScopeCache");
+            initSessionScopeCache();
+            phase("initAdaptiveDispatch");
+            initAdaptiveDispatch();
+            phase("initWarmer");
+            initWarmer();
+            phase("initDbServiceManager");
             initDbServiceManager();
 
+            phase("viewManager.reset");
             Act.viewManager().reset();
+            phase("loadGlobalPlugin");
             loadGlobalPlugin();
             emit(APP_ACT_PLUGIN_LOADED);
+            phase("initScannerManager");
             initScannerManager();
+            phase("loadActScanners");
             loadActScanners();
+            phase("loadBuiltInScanners");
             loadBuiltInScanners();
             emit(PRE_LOAD_CLASSES);
 
+            phase("initClassLoader");
             initClassLoader();
             emit(AppEventId.CLASS_LOADER_INITIALIZED);
+            phase("preloadClasses");
             preloadClasses();
             try {
+                phase("scanAppCodes");
                 scanAppCodes();
                 compilationException = null;
             } catch (CompilationException e) {
@@ -580,12 +685,17 @@ public class App extends DestroyableBase {
                 emit(CLASS_LOADED);
             }
 
+            phase("viewManager.reload");
             Act.viewManager().reload(this);
 
+            phase("loadDependencyInjector");
             loadDependencyInjector();
             emit(DEPENDENCY_INJECTOR_LOADED);
+            phase("initJsonDTOClassManager");
             initJsonDTOClassManager();
+            phase("initParamValueLoaderManager");
             initParamValueLoaderManager();
+            phase("initMailerConfigManager");
             initMailerConfigManager();
 
             // setting context class loader here might lead to memory leaks
@@ -594,7 +704,9 @@ public class App extends DestroyableBase {
             // old app class loader instance after the app been refreshed
             // - Thread.currentThread().setContextClassLoader(classLoader());
 
+            phase("initHttpConfig");
             initHttpConfig();
+            phase("initViewManager");
             initViewManager();
 
             // let's any emit the dependency injector loaded event
@@ -605,6 +717,7 @@ public class App extends DestroyableBase {
             // are cleared
             emit(DEPENDENCY_INJECTOR_PROVISIONED);
             emit(SINGLETON_PROVISIONED);
+            phase("preloadConfigurations");
             config().preloadConfigurations();
             Runnable runnable = new Runnable() {
                 @Override
@@ -612,12 +725,17 @@ public class App extends DestroyableBase {
                     if (null != blockIssueCause) {
                         setBlockIssue(blockIssueCause);
                     }
+                    phase("freezeRouters");
+                    freezeRouters();
                     emit(PRE_START);
                     emit(STATELESS_PROVISIONED);
                     emit(START);
+                    phase("daemonKeeper");
                     daemonKeeper();
                     LOGGER.info("App[%s] loaded in %sms", name(), $.ms() - ms);
                     emit(POST_START);
+                    startup.stop();
+                    finishStartupProfile();
                 }
             };
             if (!dbServiceManager().hasDbService() || eventEmitted(DB_SVC_LOADED)) {
@@ -627,6 +745,8 @@ public class App extends DestroyableBase {
             }
         } catch (BlockIssueSignal e) {
             // ignore
+        } finally {
+            startupProfiler.endPhase();
         }
     }
 
@@ -766,6 +886,13 @@ public class App extends DestroyableBase {
         return eventBus;
     }
 
+    /**
+     * Returns the profiler recording the last start up of the app
+     */
+    public StartupProfiler startupProfiler() {
+        return startupProfiler;
+    }
+
     public AppJobManager jobManager() {
         return jobManager;
     }
@@ -893,7 +1020,20 @@ public class App extends DestroyableBase {
         eventEmitted().add(appEvent);
         EventBus bus = eventBus();
         if (null != bus) {
-            bus.emit(appEvent);
+            StartupProfiler profiler = startupProfiler;
+            StartupProfiler.Span span = null;
+            if (null != profiler) {
+                // events are not part of the phase emitting them
+                profiler.endPhase();
+                span = profiler.start("event", appEvent.name());
+            }
+            try {
+                bus.emit(appEvent);
+            } finally {
+                if (null != span) {
+                    span.stop();
+                }
+            }
         }
     }
 
@@ -1055,6 +1195,9 @@ public class App extends DestroyableBase {
     private void initCliServer() {
         if (config().cliEnabled()) {
             cliServer = new CliServer(this);
+            if (config().cliNioEnabled()) {
+                cliNioServer = new CliNioServer(this);
+            }
         }
     }
 
@@ -1062,6 +1205,17 @@ public class App extends DestroyableBase {
         if (null != cliServer) {
             cliServer.destroy();
         }
+        if (null != cliNioServer) {
+            cliNioServer.destroy();
+            cliNioServer = null;
+        }
+    }
+
+    private void freezeRouters() {
+        router.freeze();
+        for (Router r : moreRouters.values()) {
+            r.freeze();
+        }
     }
 
     private void initRouters() {
@@ -1139,6 +1293,29 @@ public class App extends DestroyableBase {
         mailerConfigManager = new MailerConfigManager(this);
     }
 
+    private void phase(String name) {
+        startupProfiler.phase(name);
+    }
+
+    private void finishStartupProfile() {
+        startupProfiler.finish();
+        String file = config().startupTraceFile();
+        if (null == file) {
+            return;
+        }
+        File traceFile = new File(file);
+        Writer writer = null;
+        try {
+            writer = new OutputStreamWriter(new FileOutputStream(traceFile), "UTF-8");
+            startupProfiler.writeTrace(writer);
+            LOGGER.info("start up trace written to %s", traceFile.getAbsolutePath());
+        } catch (IOException e) {
+            LOGGER.warn(e, "error writing start up trace to %s", file);
+        } finally {
+            IO.close(writer);
+        }
+    }
+
     private void loadGlobalPlugin() {
         Act.appServicePluginManager().applyTo(this);
     }
@@ -1204,6 +1381,9 @@ public class App extends DestroyableBase {
     }
 
     private void initClassLoader() {
+        if (classLoader instanceof DevModeClassLoader) {
+            ((DevModeClassLoader) classLoader).closeDetectors();
+        }
         classLoader = Act.mode().classLoader(this);
     }
 
@@ -1228,6 +1408,37 @@ public class App extends DestroyableBase {
         webSocketConnectionManager = new WebSocketConnectionManager(this);
     }
 
+    private void initHttpClient() {
+        httpClient = new PooledHttpClient(this);
+        registerSingleton(HttpClient.class, httpClient);
+        // singletons are looked up by exact class
+        registerSingleton(PooledHttpClient.class, httpClient);
+    }
+
+    private void initAdmissionControl() {
+        admissionControl = new AdmissionControl(this);
+    }
+
+    private void initCompression() {
+        compression = new Compression(this);
+    }
+
+    private void initZXingRenderer() {
+        zxingRenderer = new ZXingRenderer(this);
+    }
+
+    private void initSessionScopeCache() {
+        sessionScopeCache = new SessionScopeCache(this);
+    }
+
+    private void initAdaptiveDispatch() {
+        adaptiveDispatch = new AdaptiveDispatch(this);
+    }
+
+    private void initWarmer() {
+        warmer = new Warmer(this);
+    }
+
     private void initParamValueLoaderManager() {
         new ParamValueLoaderManager(this);
     }
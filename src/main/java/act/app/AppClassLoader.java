@@ -265,102 +265,112 @@ public class AppClassLoader
             }
             libClsCache.put(className, ba);
             act.metric.Timer timer = metric.startTimer("act:classload:scan:bytecode:" + className);
-            List<ByteCodeVisitor> visitors = C.newList();
-            List<AppByteCodeScanner> scanners = C.newList();
-            for (AppByteCodeScanner scanner : scannerManager.byteCodeScanners()) {
-                if (scanner.start(className)) {
-                    //LOGGER.trace("scanner %s added to the list", scanner.getClass().getName());
-                    visitors.add(scanner.byteCodeVisitor());
-                    scanners.add(scanner);
-                }
-            }
-            if (visitors.isEmpty()) {
-                continue;
-            }
-            ByteCodeVisitor theVisitor = ByteCodeVisitor.chain(visitors);
-            EnvMatcher matcher = new EnvMatcher();
-            matcher.setDownstream(theVisitor);
-            ClassReader cr = new ClassReader(ba);
+            StartupProfiler.Span span = StartupProfiler.start(app, "scan", className);
             try {
-                cr.accept(matcher, 0);
-            } catch (EnvNotMatchException e) {
-                continue;
-            } catch (AsmException e) {
-                Throwable t = e.getCause();
-                if (t instanceof ClassNotFoundException) {
-                    continue;
-                } else {
-                    logger.error(e, "Error scanning bytecode at %s", e.context());
-                    ActErrorResult error = ActErrorResult.scanningError(e);
-                    if (Act.isDev()) {
-                        app.setBlockIssue(error);
-                    } else {
-                        throw error;
+                List<ByteCodeVisitor> visitors = C.newList();
+                List<AppByteCodeScanner> scanners = C.newList();
+                for (AppByteCodeScanner scanner : scannerManager.byteCodeScanners()) {
+                    if (scanner.start(className)) {
+                        //LOGGER.trace("scanner %s added to the list", scanner.getClass().getName());
+                        visitors.add(scanner.byteCodeVisitor());
+                        scanners.add(scanner);
                     }
                 }
-            }
-            for (AppByteCodeScanner scanner : scanners) {
-                scanner.scanFinished(className);
-                Map<Class<? extends AppByteCodeScanner>, Set<String>> ss = scanner.dependencyClasses();
-                if (ss.isEmpty()) {
-                    //LOGGER.trace("no dependencies found for %s by scanner %s", className, scanner);
+                if (visitors.isEmpty()) {
                     continue;
                 }
-                for (Class<? extends AppByteCodeScanner> scannerClass : ss.keySet()) {
-                    AppByteCodeScanner scannerA = scannerManager.byteCodeScannerByClass(scannerClass);
-                    for (String dependencyClass : ss.get(scannerClass)) {
-                        logger.trace("dependencies[%s] found for %s by scanner %s", dependencyClass, className, scannerA);
-                        List<AppByteCodeScanner> l = dependencies.get(dependencyClass);
-                        if (null == l) {
-                            l = C.newList();
-                            dependencies.put(dependencyClass, l);
+                ByteCodeVisitor theVisitor = ByteCodeVisitor.chain(visitors);
+                EnvMatcher matcher = new EnvMatcher();
+                matcher.setDownstream(theVisitor);
+                ClassReader cr = new ClassReader(ba);
+                try {
+                    cr.accept(matcher, 0);
+                } catch (EnvNotMatchException e) {
+                    continue;
+                } catch (AsmException e) {
+                    Throwable t = e.getCause();
+                    if (t instanceof ClassNotFoundException) {
+                        continue;
+                    } else {
+                        logger.error(e, "Error scanning bytecode at %s", e.context());
+                        ActErrorResult error = ActErrorResult.scanningError(e);
+                        if (Act.isDev()) {
+                            app.setBlockIssue(error);
+                        } else {
+                            throw error;
                         }
-                        if (!l.contains(scanner)) l.add(scannerA);
                     }
                 }
+                for (AppByteCodeScanner scanner : scanners) {
+                    scanner.scanFinished(className);
+                    Map<Class<? extends AppByteCodeScanner>, Set<String>> ss = scanner.dependencyClasses();
+                    if (ss.isEmpty()) {
+                        //LOGGER.trace("no dependencies found for %s by scanner %s", className, scanner);
+                        continue;
+                    }
+                    for (Class<? extends AppByteCodeScanner> scannerClass : ss.keySet()) {
+                        AppByteCodeScanner scannerA = scannerManager.byteCodeScannerByClass(scannerClass);
+                        for (String dependencyClass : ss.get(scannerClass)) {
+                            logger.trace("dependencies[%s] found for %s by scanner %s", dependencyClass, className, scannerA);
+                            List<AppByteCodeScanner> l = dependencies.get(dependencyClass);
+                            if (null == l) {
+                                l = C.newList();
+                                dependencies.put(dependencyClass, l);
+                            }
+                            if (!l.contains(scanner)) l.add(scannerA);
+                        }
+                    }
+                }
+                timer.stop();
+            } finally {
+                span.stop();
             }
-            timer.stop();
         }
         // loop through dependencies until it's all processed
         while (!dependencies.isEmpty()) {
             String className = dependencies.keySet().iterator().next();
             act.metric.Timer timer = metric.startTimer("act:classload:scan:bytecode:" + className);
-            List<AppByteCodeScanner> scanners = dependencies.remove(className);
-            List<ByteCodeVisitor> visitors = C.newList();
-            for (AppByteCodeScanner scanner : scanners) {
-                scanner.start(className);
-                visitors.add(scanner.byteCodeVisitor());
-            }
-            ByteCodeVisitor theVisitor = ByteCodeVisitor.chain(visitors);
-            byte[] bytes = bytecodeProvider.apply(className);
-            libClsCache.put(className, bytes);
-            ClassReader cr = new ClassReader(bytes);
+            StartupProfiler.Span span = StartupProfiler.start(app, "scan", className);
             try {
-                cr.accept(theVisitor, 0);
-            } catch (AsmException e) {
-                throw ActErrorResult.of(e);
-            }
-            for (AppByteCodeScanner scanner : scanners) {
-                scanner.scanFinished(className);
-                Map<Class<? extends AppByteCodeScanner>, Set<String>> ss = scanner.dependencyClasses();
-                if (ss.isEmpty()) {
-                    logger.trace("no dependencies found for %s by scanner %s", className, scanner);
-                    continue;
+                List<AppByteCodeScanner> scanners = dependencies.remove(className);
+                List<ByteCodeVisitor> visitors = C.newList();
+                for (AppByteCodeScanner scanner : scanners) {
+                    scanner.start(className);
+                    visitors.add(scanner.byteCodeVisitor());
+                }
+                ByteCodeVisitor theVisitor = ByteCodeVisitor.chain(visitors);
+                byte[] bytes = bytecodeProvider.apply(className);
+                libClsCache.put(className, bytes);
+                ClassReader cr = new ClassReader(bytes);
+                try {
+                    cr.accept(theVisitor, 0);
+                } catch (AsmException e) {
+                    throw ActErrorResult.of(e);
                 }
-                for (Class<? extends AppByteCodeScanner> scannerClass : ss.keySet()) {
-                    AppByteCodeScanner scannerA = scannerManager.byteCodeScannerByClass(scannerClass);
-                    for (String dependencyClass : ss.get(scannerClass)) {
-                        logger.trace("dependencies[%s] found for %s by scanner %s", dependencyClass, className, scannerA);
-                        List<AppByteCodeScanner> l = dependencies.get(dependencyClass);
-                        if (null == l) {
-                            l = C.newList();
-                            dependencies.put(dependencyClass, l);
+                for (AppByteCodeScanner scanner : scanners) {
+                    scanner.scanFinished(className);
+                    Map<Class<? extends AppByteCodeScanner>, Set<String>> ss = scanner.dependencyClasses();
+                    if (ss.isEmpty()) {
+                        logger.trace("no dependencies found for %s by scanner %s", className, scanner);
+                        continue;
+                    }
+                    for (Class<? extends AppByteCodeScanner> scannerClass : ss.keySet()) {
+                        AppByteCodeScanner scannerA = scannerManager.byteCodeScannerByClass(scannerClass);
+                        for (String dependencyClass : ss.get(scannerClass)) {
+                            logger.trace("dependencies[%s] found for %s by scanner %s", dependencyClass, className, scannerA);
+                            List<AppByteCodeScanner> l = dependencies.get(dependencyClass);
+                            if (null == l) {
+                                l = C.newList();
+                                dependencies.put(dependencyClass, l);
+                            }
+                            if (!l.contains(scanner)) l.add(scannerA);
                         }
-                        if (!l.contains(scanner)) l.add(scannerA);
                     }
                 }
+                timer.stop();
+            } finally {
+                span.stop();
             }
-            timer.stop();
         }
     }
 
@@ -198,6 +198,12 @@ class AppCompiler extends DestroyableBase {
                 if (Act.isDev()) {
                     source = classLoader.source(type);
                     if (null != source) {
+                        // reuse bytecode restored from compiled source cache
+                        bytes = type.contains("$") ? source.bytes(S.afterFirst(type, "$")) : source.bytes();
+                        if (null != bytes) {
+                            ClassFileReader classFileReader = new ClassFileReader(bytes, type.toCharArray(), true);
+                            return new NameEnvironmentAnswer(classFileReader, null);
+                        }
                         return new NameEnvironmentAnswer(source.compilationUnit(), null);
                     }
                 }
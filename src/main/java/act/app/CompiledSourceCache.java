@@ -0,0 +1,205 @@
+package act.app;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.asm.ClassReader;
+import org.osgl.logging.L;
+import org.osgl.logging.Logger;
+import org.osgl.util.C;
+import org.osgl.util.S;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the bytecode compiled out of app sources across dev mode
+ * class loader refreshes, so that only the changed sources and the
+ * sources depend on them need to be recompiled.
+ *
+ * Dependencies are figured out from the constant pool of the compiled
+ * bytecode. **Note** compile time constants are inlined by javac and
+ * thus cannot be tracked. Changing a `static final` constant might
+ * require touching the source files that use it.
+ */
+class CompiledSourceCache {
+
+    private static final Logger LOGGER = L.get(CompiledSourceCache.class);
+
+    private static final Pattern DESC_PATTERN = Pattern.compile("L([\\w/$]+)[;<]");
+
+    private static class Entry {
+        long ts;
+        byte[] bytes;
+        Map<String, byte[]> innerBytes;
+        Set<String> dependencies;
+    }
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    // source file timestamps captured before compile
+    private final Map<String, Long> pendingTimestamps = new HashMap<>();
+
+    /**
+     * Restore compiled bytecode into sources that are not changed since
+     * last compilation.
+     *
+     * @param sources all app sources indexed by class name
+     * @return the class names need to be (re)compiled
+     */
+    synchronized Set<String> restore(Map<String, Source> sources) {
+        pendingTimestamps.clear();
+        Set<String> stale = C.newSet();
+        for (Map.Entry<String, Source> pair : sources.entrySet()) {
+            String className = pair.getKey();
+            long ts = pair.getValue().file().lastModified();
+            pendingTimestamps.put(className, ts);
+            Entry entry = entries.get(className);
+            if (null == entry || entry.ts != ts) {
+                stale.add(className);
+            }
+        }
+        Iterator<String> itr = entries.keySet().iterator();
+        while (itr.hasNext()) {
+            String className = itr.next();
+            if (!sources.containsKey(className)) {
+                // source file removed
+                stale.add(className);
+                itr.remove();
+            }
+        }
+        if (!stale.isEmpty() && !entries.isEmpty()) {
+            addDependents(stale);
+        }
+        for (Map.Entry<String, Source> pair : sources.entrySet()) {
+            String className = pair.getKey();
+            if (stale.contains(className)) {
+                continue;
+            }
+            Entry entry = entries.get(className);
+            Source source = pair.getValue();
+            source.compiled(entry.bytes);
+            for (Map.Entry<String, byte[]> inner : entry.innerBytes.entrySet()) {
+                source.compiled(inner.getKey(), inner.getValue());
+            }
+        }
+        stale.retainAll(sources.keySet());
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("%s of %s sources need to be compiled", stale.size(), sources.size());
+        }
+        return stale;
+    }
+
+    /**
+     * Save compiled bytecode of a source
+     *
+     * @param source the source that has been compiled
+     */
+    synchronized void save(Source source) {
+        byte[] bytes = source.bytes();
+        if (null == bytes) {
+            return;
+        }
+        String className = source.className();
+        Long ts = pendingTimestamps.remove(className);
+        Entry entry = new Entry();
+        entry.ts = null == ts ? source.file().lastModified() : ts;
+        entry.bytes = bytes;
+        entry.innerBytes = new HashMap<>();
+        entry.dependencies = C.newSet();
+        dependencies(bytes, entry.dependencies);
+        for (String innerName : source.innerClassNames()) {
+            byte[] innerBytes = source.bytes(innerName);
+            entry.innerBytes.put(innerName, innerBytes);
+            dependencies(innerBytes, entry.dependencies);
+        }
+        entry.dependencies.remove(className);
+        entries.put(className, entry);
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        pendingTimestamps.clear();
+    }
+
+    private void addDependents(Set<String> stale) {
+        Map<String, Set<String>> dependents = new HashMap<>();
+        for (Map.Entry<String, Entry> pair : entries.entrySet()) {
+            String className = pair.getKey();
+            for (String dep : pair.getValue().dependencies) {
+                Set<String> set = dependents.get(dep);
+                if (null == set) {
+                    set = C.newSet();
+                    dependents.put(dep, set);
+                }
+                set.add(className);
+            }
+        }
+        Deque<String> queue = new ArrayDeque<>(stale);
+        while (!queue.isEmpty()) {
+            Set<String> set = dependents.get(queue.poll());
+            if (null == set) {
+                continue;
+            }
+            for (String className : set) {
+                if (stale.add(className)) {
+                    queue.add(className);
+                }
+            }
+        }
+    }
+
+    private static void dependencies(byte[] bytes, Set<String> dependencies) {
+        if (null == bytes) {
+            return;
+        }
+        ClassReader cr = new ClassReader(bytes);
+        char[] buf = new char[cr.getMaxStringLength()];
+        for (int i = 1, n = cr.getItemCount(); i < n; ++i) {
+            int offset = cr.getItem(i);
+            if (offset <= 0) {
+                continue;
+            }
+            int tag = cr.b[offset - 1];
+            if (1 == tag) {
+                // CONSTANT_Utf8: scan descriptors and signatures
+                int len = cr.readUnsignedShort(offset);
+                String s = new String(cr.b, offset + 2, len, StandardCharsets.UTF_8);
+                Matcher m = DESC_PATTERN.matcher(s);
+                while (m.find()) {
+                    dependencies.add(className(m.group(1)));
+                }
+            } else if (7 == tag) {
+                // CONSTANT_Class
+                String s = cr.readUTF8(offset, buf);
+                if (null != s && !s.startsWith("[")) {
+                    dependencies.add(className(s));
+                }
+            }
+        }
+    }
+
+    private static String className(String internalName) {
+        String s = internalName.replace('/', '.');
+        return s.contains("$") ? S.beforeFirst(s, "$") : s;
+    }
+}
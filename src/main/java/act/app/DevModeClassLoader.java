@@ -21,12 +21,14 @@ package act.app;
  */
 
 import act.Act;
+import act.conf.AppConfig;
 import act.controller.meta.ControllerClassMetaInfo;
 import act.metric.Timer;
 import act.util.Files;
 import act.util.FsChangeDetector;
 import act.util.FsEvent;
 import act.util.FsEventListener;
+import act.util.WatchServiceChangeDetector;
 import org.osgl.$;
 import org.osgl.exception.NotAppliedException;
 import org.osgl.logging.L;
@@ -61,6 +63,7 @@ public class DevModeClassLoader extends AppClassLoader {
 
     @Override
     protected void releaseResources() {
+        closeDetectors();
         sources.clear();
         compiler.destroy();
         super.releaseResources();
@@ -156,8 +159,20 @@ public class DevModeClassLoader extends AppClassLoader {
     }
 
     private void compileSources() {
-        logger.debug("start to compile sources ...");
-        compiler.compile(sources.values());
+        CompiledSourceCache cache = app().compiledSourceCache();
+        Set<String> classNames = cache.restore(sources);
+        if (classNames.isEmpty()) {
+            return;
+        }
+        logger.debug("start to compile %s sources ...", classNames.size());
+        List<Source> toBeCompiled = new ArrayList<>(classNames.size());
+        for (String className : classNames) {
+            toBeCompiled.add(sources.get(className));
+        }
+        compiler.compile(toBeCompiled);
+        for (Source source : toBeCompiled) {
+            cache.save(source);
+        }
     }
 
     private void scanSources() {
@@ -296,8 +311,21 @@ public class DevModeClassLoader extends AppClassLoader {
 
     private void addDetector(File base, $.Predicate<String> predicate, FsEventListener listener) {
         if (null != base && base.isDirectory()) {
-            detectors.add(new FsChangeDetector(base, predicate, listener));
+            AppConfig config = app().config();
+            FsChangeDetector detector = config.devWatchServiceEnabled() ?
+                    new WatchServiceChangeDetector(base, predicate, config.devWatchServiceDebounce(), listener) :
+                    new FsChangeDetector(base, predicate, listener);
+            detectors.add(detector);
+        }
+    }
+
+    void closeDetectors() {
+        for (FsChangeDetector detector : detectors) {
+            if (detector instanceof WatchServiceChangeDetector) {
+                ((WatchServiceChangeDetector) detector).close();
+            }
         }
+        detectors.clear();
     }
 
     private final FsEventListener sourceChangeListener = new FsEventListener() {
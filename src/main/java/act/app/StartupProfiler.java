@@ -0,0 +1,326 @@
+package act.app;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Record the timeline of an app start up.
+ *
+ * A span is recorded for each phase of {@link App#refresh()}, each app event
+ * emitted, each event listener and job invoked, each class scanned and each
+ * plugin applied. Spans started on the same thread nest by time, which is how
+ * the Chrome trace viewer (`chrome://tracing` or https://ui.perfetto.dev)
+ * renders the {@link #writeTrace(Writer) exported trace}.
+ *
+ * Recording stops once the app started, after which starting a span costs
+ * nothing.
+ */
+public class StartupProfiler {
+
+    /**
+     * The maximum number of spans recorded
+     */
+    static final int MAX_SPANS = 100 * 1000;
+
+    private static final Span NULL_SPAN = new Span(null, null, null);
+
+    public static class Span {
+        private final StartupProfiler profiler;
+        private final String category;
+        private final String name;
+        private final long threadId;
+        private final String threadName;
+        private final long start;
+        private long duration = -1;
+
+        Span(StartupProfiler profiler, String category, String name) {
+            this.profiler = profiler;
+            this.category = category;
+            this.name = name;
+            Thread thread = Thread.currentThread();
+            this.threadId = thread.getId();
+            this.threadName = thread.getName();
+            this.start = null == profiler ? 0 : System.nanoTime() - profiler.origin;
+        }
+
+        public void stop() {
+            if (null == profiler || duration >= 0) {
+                return;
+            }
+            duration = System.nanoTime() - profiler.origin - start;
+            profiler.spans.add(this);
+        }
+
+        public String category() {
+            return category;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public String threadName() {
+            return threadName;
+        }
+
+        /**
+         * @return nanoseconds since the profiler has been created
+         */
+        public long start() {
+            return start;
+        }
+
+        /**
+         * @return nanoseconds spent in the span
+         */
+        public long duration() {
+            return duration;
+        }
+    }
+
+    /**
+     * Spans of the same category and name aggregated
+     */
+    public static class Summary {
+        private String category;
+        private String name;
+        private int count;
+        private long total;
+        private long self;
+
+        Summary(String category, String name) {
+            this.category = category;
+            this.name = name;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * @return milliseconds spent in the spans
+         */
+        public long getTotal() {
+            return TimeUnit.NANOSECONDS.toMillis(total);
+        }
+
+        /**
+         * @return milliseconds spent in the spans excluding nested spans
+         */
+        public long getSelf() {
+            return TimeUnit.NANOSECONDS.toMillis(self);
+        }
+    }
+
+    private final long origin = System.nanoTime();
+    private final Queue<Span> spans = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger started = new AtomicInteger();
+    private volatile boolean finished;
+    private Span phase;
+    private Thread phaseThread;
+
+    /**
+     * Start a span. The span is recorded when it is {@link Span#stop() stopped}
+     *
+     * @param category the category, e.g. `phase`, `event`, `job`
+     * @param name the name of the span
+     * @return the span started
+     */
+    public Span start(String category, String name) {
+        if (finished || started.incrementAndGet() > MAX_SPANS) {
+            return NULL_SPAN;
+        }
+        return new Span(this, category, name);
+    }
+
+    /**
+     * Stop the current phase and start a new one
+     *
+     * @param name the name of the new phase
+     */
+    public synchronized void phase(String name) {
+        if (null != phase) {
+            phase.stop();
+        }
+        phase = start("phase", name);
+        phaseThread = Thread.currentThread();
+    }
+
+    /**
+     * Stop the current phase if it is started on the same thread
+     */
+    public synchronized void endPhase() {
+        if (null != phase && Thread.currentThread() == phaseThread) {
+            phase.stop();
+            phase = null;
+            phaseThread = null;
+        }
+    }
+
+    /**
+     * Stop recording
+     */
+    public void finish() {
+        endPhase();
+        finished = true;
+    }
+
+    public boolean finished() {
+        return finished;
+    }
+
+    /**
+     * @return the recorded spans ordered by start time
+     */
+    public List<Span> spans() {
+        List<Span> list = new ArrayList<>(spans);
+        Collections.sort(list, new Comparator<Span>() {
+            @Override
+            public int compare(Span o1, Span o2) {
+                int n = Long.compare(o1.start, o2.start);
+                // the outer span goes first
+                return 0 != n ? n : Long.compare(o2.duration, o1.duration);
+            }
+        });
+        return list;
+    }
+
+    /**
+     * Aggregate spans by category and name, sorted by time spent in descending order
+     *
+     * @param bySelf sort by time excluding nested spans when `true`, otherwise by total time
+     * @return the summary list
+     */
+    public List<Summary> report(final boolean bySelf) {
+        Map<String, Summary> summaries = new HashMap<>();
+        Map<Long, Deque<Span>> stacks = new HashMap<>();
+        Map<Span, Long> childTime = new IdentityHashMap<>();
+        List<Span> list = spans();
+        for (Span span : list) {
+            Deque<Span> stack = stacks.get(span.threadId);
+            if (null == stack) {
+                stack = new ArrayDeque<>();
+                stacks.put(span.threadId, stack);
+            }
+            while (!stack.isEmpty() && !contains(stack.peek(), span)) {
+                stack.pop();
+            }
+            Span parent = stack.peek();
+            if (null != parent) {
+                Long l = childTime.get(parent);
+                childTime.put(parent, (null == l ? 0L : l) + span.duration);
+            }
+            stack.push(span);
+        }
+        for (Span span : list) {
+            String key = span.category + ":" + span.name;
+            Summary summary = summaries.get(key);
+            if (null == summary) {
+                summary = new Summary(span.category, span.name);
+                summaries.put(key, summary);
+            }
+            Long l = childTime.get(span);
+            summary.count++;
+            summary.total += span.duration;
+            summary.self += Math.max(0L, span.duration - (null == l ? 0L : l));
+        }
+        List<Summary> result = new ArrayList<>(summaries.values());
+        Collections.sort(result, new Comparator<Summary>() {
+            @Override
+            public int compare(Summary o1, Summary o2) {
+                return bySelf ? Long.compare(o2.self, o1.self) : Long.compare(o2.total, o1.total);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Write recorded spans in the Chrome trace event format
+     *
+     * @param writer the writer
+     * @throws IOException if failed writing to the writer
+     */
+    public void writeTrace(Writer writer) throws IOException {
+        JSONArray events = new JSONArray();
+        Map<Long, String> threads = new LinkedHashMap<>();
+        for (Span span : spans()) {
+            threads.put(span.threadId, span.threadName);
+            JSONObject event = new JSONObject(true);
+            event.put("name", span.name);
+            event.put("cat", span.category);
+            event.put("ph", "X");
+            event.put("ts", TimeUnit.NANOSECONDS.toMicros(span.start));
+            event.put("dur", TimeUnit.NANOSECONDS.toMicros(span.duration));
+            event.put("pid", 1);
+            event.put("tid", span.threadId);
+            events.add(event);
+        }
+        for (Map.Entry<Long, String> entry : threads.entrySet()) {
+            JSONObject event = new JSONObject(true);
+            event.put("name", "thread_name");
+            event.put("ph", "M");
+            event.put("pid", 1);
+            event.put("tid", entry.getKey());
+            JSONObject args = new JSONObject();
+            args.put("name", entry.getValue());
+            event.put("args", args);
+            events.add(event);
+        }
+        JSONObject trace = new JSONObject(true);
+        trace.put("traceEvents", events);
+        trace.put("displayTimeUnit", "ms");
+        JSON.writeJSONString(writer, trace);
+        writer.flush();
+    }
+
+    /**
+     * Start a span with the profiler of the app
+     *
+     * @see #start(String, String)
+     */
+    public static Span start(App app, String category, String name) {
+        StartupProfiler profiler = null == app ? null : app.startupProfiler();
+        return null == profiler ? NULL_SPAN : profiler.start(category, name);
+    }
+
+    private static boolean contains(Span outer, Span inner) {
+        return inner.start >= outer.start && inner.start + inner.duration <= outer.start + outer.duration;
+    }
+
+}
@@ -0,0 +1,99 @@
+package act.app;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.cli.CliContext;
+import act.cli.Command;
+import act.cli.Optional;
+import act.cli.Required;
+import act.cli.TableView;
+import act.util.PropertySpec;
+import org.osgl.util.IO;
+import org.osgl.util.S;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Report the app start up timeline recorded by {@link StartupProfiler}
+ */
+@SuppressWarnings("unused")
+public class StartupProfilerAdmin {
+
+    @Command(name = "act.startup.profile", help = "report time spent on app start up, in milliseconds")
+    @PropertySpec("category,name,count,total,self")
+    @TableView
+    public List<StartupProfiler.Summary> profile(
+            @Optional(lead = "-c,--category", help = "filter by category: app, phase, event, listener, job, scan or plugin") String category,
+            @Optional(lead = "-s,--self", help = "sort by time excluding nested spans") boolean self,
+            @Optional(lead = "-n,--limit", help = "specify the maximum number of entries", defVal = "30") int limit,
+            CliContext context
+    ) {
+        List<StartupProfiler.Summary> list = new ArrayList<>();
+        StartupProfiler profiler = profiler(context);
+        if (null == profiler) {
+            return list;
+        }
+        for (StartupProfiler.Summary summary : profiler.report(self)) {
+            if (list.size() >= limit) {
+                break;
+            }
+            if (S.blank(category) || S.eq(category, summary.getCategory())) {
+                list.add(summary);
+            }
+        }
+        return list;
+    }
+
+    @Command(name = "act.startup.trace", help = "export app start up timeline in the Chrome trace event format")
+    public void trace(
+            @Required("specify the file to write to") String file,
+            CliContext context
+    ) throws IOException {
+        StartupProfiler profiler = profiler(context);
+        if (null == profiler) {
+            return;
+        }
+        File target = new File(file);
+        Writer writer = new OutputStreamWriter(new FileOutputStream(target), "UTF-8");
+        try {
+            profiler.writeTrace(writer);
+        } finally {
+            IO.close(writer);
+        }
+        context.println("start up trace written to %s", target.getAbsolutePath());
+    }
+
+    private static StartupProfiler profiler(CliContext context) {
+        StartupProfiler profiler = App.instance().startupProfiler();
+        if (null == profiler) {
+            context.println("start up not recorded");
+        } else if (!profiler.finished()) {
+            context.println("app is still starting up, the report is incomplete");
+        }
+        return profiler;
+    }
+}
@@ -0,0 +1,40 @@
+package act.cli;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.app.App;
+import jline.console.ConsoleReader;
+
+/**
+ * The context of a command run on a {@link CliChannelSession}. Output is
+ * printed straight to the channel and streamed to the client
+ */
+class CliChannelContext extends CliContext {
+
+    CliChannelContext(String line, App app, ConsoleReader console, CliChannelSession session) {
+        super(line, app, console, session, true);
+    }
+
+    @Override
+    public boolean streaming() {
+        return true;
+    }
+}
@@ -0,0 +1,465 @@
+package act.cli;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.cli.event.CliSessionTerminate;
+import jline.UnsupportedTerminal;
+import jline.console.ConsoleReader;
+import org.osgl.$;
+import org.osgl.util.E;
+import org.osgl.util.IO;
+import org.osgl.util.S;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A CLI session served by {@link CliNioServer}.
+ *
+ * Bytes received are decoded into command lines on the selector thread and
+ * the commands are run one after another on a worker thread. Output written
+ * by the command is queued and sent by the selector thread when the channel
+ * is writable, and the command is blocked when too much output is waiting
+ * for the client to read.
+ *
+ * `Ctrl-C`, i.e. either the `ETX` character or the telnet interrupt process
+ * command, interrupts the command running.
+ */
+class CliChannelSession extends CliSession {
+
+    // the output bytes waiting for the client to read before the command is blocked
+    static final int MAX_PENDING_OUTPUT = 256 * 1024;
+
+    private static final int MAX_LINE = 64 * 1024;
+
+    private static final int ETX = 3;
+
+    // telnet commands
+    private static final int IAC = 255;
+    private static final int IP = 244;
+    private static final int SB = 250;
+    private static final int SE = 240;
+    private static final int WILL = 251;
+
+    // telnet decoding states
+    private static final int DATA = 0;
+    private static final int COMMAND = 1;
+    private static final int OPTION = 2;
+    private static final int SUB = 3;
+    private static final int SUB_COMMAND = 4;
+
+    private final CliNioServer server;
+    private final CliNioServer.SelectorLoop loop;
+    private final SocketChannel channel;
+    private volatile SelectionKey key;
+
+    // accessed by the selector thread only
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+    private int state = DATA;
+
+    // guarded by this
+    private final Queue<String> commands = new ArrayDeque<>();
+    private boolean running;
+    private boolean inputClosed;
+
+    private volatile Thread worker;
+    private volatile boolean closing;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private final Queue<ByteBuffer> output = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pendingOutput = new AtomicLong();
+    private final AtomicBoolean writeRequested = new AtomicBoolean();
+    private final Object outputLock = new Object();
+    private final OutputStream out = new ChannelOutputStream();
+
+    // accessed by the worker thread only
+    private ConsoleReader console;
+
+    private final Runnable drain = new Runnable() {
+        @Override
+        public void run() {
+            drainCommands();
+        }
+    };
+
+    private final Runnable enableWrite = new Runnable() {
+        @Override
+        public void run() {
+            writeRequested.set(false);
+            SelectionKey key = CliChannelSession.this.key;
+            if (null != key && key.isValid()) {
+                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+            }
+        }
+    };
+
+    CliChannelSession(CliNioServer server, SocketChannel channel, CliNioServer.SelectorLoop loop) {
+        super(server.app());
+        this.server = server;
+        this.channel = channel;
+        this.loop = loop;
+    }
+
+    /**
+     * Returns the stream the command output shall be written to
+     */
+    OutputStream output() {
+        return out;
+    }
+
+    /**
+     * Check if there is a command running or waiting to run
+     */
+    synchronized boolean busy() {
+        return running || !commands.isEmpty();
+    }
+
+    /**
+     * Interrupt the command running if there is one
+     */
+    void cancel() {
+        Thread thread = worker;
+        if (null != thread) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public void stop() {
+        close();
+    }
+
+    @Override
+    public void stop(String message) {
+        enqueue(S.concat(message, "\n").getBytes(StandardCharsets.UTF_8));
+        closeAfterFlush();
+    }
+
+    void registered(SelectionKey key) {
+        this.key = key;
+    }
+
+    /**
+     * Called on the selector thread when the channel is readable
+     */
+    void read(ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        int n = channel.read(buffer);
+        if (n < 0) {
+            inputEnded();
+            return;
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            received(buffer.get() & 0xFF);
+        }
+        dispatch();
+    }
+
+    /**
+     * Called on the selector thread when the channel is writable
+     */
+    void write() throws IOException {
+        long written = 0;
+        ByteBuffer buffer;
+        while (null != (buffer = output.peek())) {
+            written += channel.write(buffer);
+            if (buffer.hasRemaining()) {
+                break;
+            }
+            output.poll();
+        }
+        if (written > 0) {
+            pendingOutput.addAndGet(-written);
+            synchronized (outputLock) {
+                outputLock.notifyAll();
+            }
+        }
+        if (output.isEmpty()) {
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+            if (closing) {
+                close();
+            }
+        }
+    }
+
+    /**
+     * Run the command line. This is called on the worker thread.
+     */
+    void execute(String line) {
+        app.checkUpdates(true);
+        try {
+            CliContext context = new CliChannelContext(line, app, console(), this);
+            try {
+                context.handle();
+            } finally {
+                context.flush();
+            }
+        } catch ($.Break b) {
+            Object payload = b.get();
+            if (payload instanceof Boolean) {
+                if ((Boolean) payload) {
+                    exit();
+                }
+            } else if (payload instanceof String) {
+                println((String) payload);
+            } else if (null != payload) {
+                println(S.fmt("INTERNAL ERROR: unknown payload type: %s", payload.getClass()));
+            }
+        } catch (IOException e) {
+            println("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Close the session after the output queued has been sent
+     */
+    void closeAfterFlush() {
+        closing = true;
+        requestWrite();
+    }
+
+    void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        synchronized (outputLock) {
+            outputLock.notifyAll();
+        }
+        cancel();
+        loop.execute(new Runnable() {
+            @Override
+            public void run() {
+                SelectionKey key = CliChannelSession.this.key;
+                if (null != key) {
+                    key.cancel();
+                }
+                IO.close(channel);
+            }
+        });
+        server.remove(this);
+        if (null != app.eventBus()) {
+            app.eventBus().emitSync(new CliSessionTerminate(this));
+        }
+    }
+
+    boolean closed() {
+        return closed.get();
+    }
+
+    private void received(int b) {
+        switch (state) {
+            case DATA:
+                if (IAC == b) {
+                    state = COMMAND;
+                } else if (ETX == b) {
+                    cancel();
+                } else if ('\n' == b) {
+                    completeLine();
+                } else if ('\r' != b && 0 != b && line.size() < MAX_LINE) {
+                    line.write(b);
+                }
+                break;
+            case COMMAND:
+                if (IP == b) {
+                    cancel();
+                    state = DATA;
+                } else if (SB == b) {
+                    state = SUB;
+                } else if (b >= WILL && b < IAC) {
+                    // WILL, WONT, DO and DONT are followed by an option code
+                    state = OPTION;
+                } else {
+                    if (IAC == b) {
+                        line.write(b);
+                    }
+                    state = DATA;
+                }
+                break;
+            case OPTION:
+                state = DATA;
+                break;
+            case SUB:
+                if (IAC == b) {
+                    state = SUB_COMMAND;
+                }
+                break;
+            case SUB_COMMAND:
+                state = SE == b ? DATA : SUB;
+                break;
+            default:
+                throw E.unexpected("unknown state: %s", state);
+        }
+    }
+
+    private void completeLine() {
+        String command = new String(line.toByteArray(), StandardCharsets.UTF_8).trim();
+        line.reset();
+        if (S.notBlank(command)) {
+            synchronized (this) {
+                commands.add(command);
+            }
+        }
+    }
+
+    private void inputEnded() {
+        key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+        completeLine();
+        synchronized (this) {
+            inputClosed = true;
+        }
+        dispatch();
+    }
+
+    private void dispatch() {
+        synchronized (this) {
+            if (running) {
+                return;
+            }
+            if (commands.isEmpty()) {
+                if (inputClosed) {
+                    closeAfterFlush();
+                }
+                return;
+            }
+            running = true;
+        }
+        try {
+            server.workers().execute(drain);
+        } catch (RejectedExecutionException e) {
+            // server is shutting down
+            close();
+        }
+    }
+
+    private void drainCommands() {
+        worker = Thread.currentThread();
+        try {
+            while (!closed()) {
+                String command;
+                synchronized (this) {
+                    command = commands.poll();
+                    if (null == command) {
+                        running = false;
+                        worker = null;
+                        if (inputClosed) {
+                            closeAfterFlush();
+                        }
+                        return;
+                    }
+                }
+                // clear the interruption caused by cancelling the previous command
+                Thread.interrupted();
+                touch();
+                execute(command);
+            }
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    private synchronized void exit() {
+        commands.clear();
+        closeAfterFlush();
+    }
+
+    private void println(String message) {
+        try {
+            out.write(S.concat(message, "\n").getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            // session closed
+        }
+    }
+
+    private ConsoleReader console() throws IOException {
+        if (null == console) {
+            // the console is used to print only, thus terminal is not needed
+            console = new ConsoleReader(new ByteArrayInputStream(new byte[0]), out, new UnsupportedTerminal());
+        }
+        return console;
+    }
+
+    private void requestWrite() {
+        if (writeRequested.compareAndSet(false, true)) {
+            loop.execute(enableWrite);
+        }
+    }
+
+    private long enqueue(byte[] bytes) {
+        output.add(ByteBuffer.wrap(bytes));
+        long pending = pendingOutput.addAndGet(bytes.length);
+        requestWrite();
+        return pending;
+    }
+
+    private class ChannelOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (closed()) {
+                throw new IOException("session closed");
+            }
+            if (0 == len) {
+                return;
+            }
+            byte[] bytes = new byte[len];
+            System.arraycopy(b, off, bytes, 0, len);
+            if (enqueue(bytes) > MAX_PENDING_OUTPUT) {
+                awaitDrained();
+            }
+        }
+
+        private void awaitDrained() throws IOException {
+            synchronized (outputLock) {
+                while (pendingOutput.get() > MAX_PENDING_OUTPUT && !closed()) {
+                    try {
+                        outputLock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("command cancelled");
+                    }
+                }
+            }
+            if (closed()) {
+                throw new IOException("session closed");
+            }
+        }
+    }
+
+}
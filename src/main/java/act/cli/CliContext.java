@@ -302,6 +302,30 @@ public class CliContext extends ActContext.Base<CliContext> implements IASCIITab
         return pw.checkError();
     }
 
+    /**
+     * Check if the command output is streamed to the client. If it is
+     * then views print all records of the result page by page instead
+     * of setting up a cursor for the user to iterate through.
+     *
+     * @return `true` if the command output is streamed
+     */
+    public boolean streaming() {
+        return false;
+    }
+
+    /**
+     * Check if the command has been cancelled, e.g. by `Ctrl-C` on a
+     * {@link CliNioServer non-blocking CLI session}. Long running commands
+     * shall call this method periodically.
+     *
+     * @throws CliException if the command has been cancelled
+     */
+    public void checkCancelled() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CliException("command cancelled");
+        }
+    }
+
     public void print(String template, Object ... args) {
         if (rawPrint) {
             print1(template, args);
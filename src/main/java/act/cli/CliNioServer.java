@@ -0,0 +1,295 @@
+package act.cli;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.app.App;
+import act.app.AppServiceBase;
+import act.app.AppThreadFactory;
+import act.cli.event.CliSessionStart;
+import act.conf.AppConfig;
+import org.osgl.$;
+import org.osgl.exception.ConfigurationException;
+import org.osgl.logging.LogManager;
+import org.osgl.logging.Logger;
+import org.osgl.util.IO;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A non-blocking CLI server that multiplexes sessions over a small number of
+ * selector threads.
+ *
+ * Unlike {@link act.app.CliServer}, which dedicates a thread running a JLine
+ * console to each session, sessions served by this server do not hold any
+ * thread while waiting for input. Commands are run on a pool of worker
+ * threads and their output is streamed to the client. This makes it suitable
+ * for scripts running commands, e.g. `echo "job.list" | nc localhost 5463`,
+ * while interactive sessions are still served by the JLine based CLI server.
+ *
+ * @see act.conf.AppConfigKey#CLI_NIO_ENABLED
+ */
+public class CliNioServer extends AppServiceBase<CliNioServer> {
+
+    private static final Logger logger = LogManager.get(CliNioServer.class);
+
+    private static final long EXPIRATION_CHECK_INTERVAL = 60 * 1000;
+
+    private final int expiration;
+    private final ConcurrentMap<String, CliChannelSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger nextLoop = new AtomicInteger();
+    private ServerSocketChannel serverChannel;
+    private SelectorLoop[] loops;
+    private ThreadPoolExecutor workers;
+    private volatile boolean running;
+    private int port;
+
+    public CliNioServer(App app) {
+        this(app, app.config());
+    }
+
+    private CliNioServer(App app, AppConfig config) {
+        this(app, config.cliNioPort(), config.cliNioSelectors(), config.maxCliSession(), config.cliSessionExpiration());
+    }
+
+    // for unit test
+    CliNioServer(App app, int port, int selectors, int workers, int expiration) {
+        super(app);
+        this.expiration = expiration;
+        start(port, selectors, workers);
+    }
+
+    /**
+     * Returns the port this server is listening to
+     */
+    public int port() {
+        return port;
+    }
+
+    /**
+     * Returns the number of sessions alive
+     */
+    public int sessionCount() {
+        return sessions.size();
+    }
+
+    @Override
+    protected void releaseResources() {
+        running = false;
+        IO.close(serverChannel);
+        for (CliChannelSession session : new ArrayList<>(sessions.values())) {
+            session.close();
+        }
+        sessions.clear();
+        for (SelectorLoop loop : loops) {
+            loop.selector.wakeup();
+        }
+        workers.shutdownNow();
+    }
+
+    void remove(CliChannelSession session) {
+        sessions.remove(session.id());
+    }
+
+    Executor workers() {
+        return workers;
+    }
+
+    CliChannelSession createSession(SocketChannel channel, SelectorLoop loop) {
+        return new CliChannelSession(this, channel, loop);
+    }
+
+    private void start(int port, int selectors, int workers) {
+        try {
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.configureBlocking(false);
+            serverChannel.socket().setReuseAddress(true);
+            serverChannel.socket().bind(new InetSocketAddress(port));
+            this.port = serverChannel.socket().getLocalPort();
+            loops = new SelectorLoop[selectors];
+            for (int i = 0; i < selectors; ++i) {
+                loops[i] = new SelectorLoop();
+            }
+            serverChannel.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            IO.close(serverChannel);
+            throw new ConfigurationException(e, "Cannot start CLI nio server on port: %s", port);
+        }
+        this.workers = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new AppThreadFactory("cli-nio-worker", true));
+        running = true;
+        AppThreadFactory threadFactory = new AppThreadFactory("cli-nio", true);
+        for (SelectorLoop loop : loops) {
+            threadFactory.newThread(loop).start();
+        }
+        logger.info("CLI nio server started on port: %s", this.port);
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while (null != (channel = serverChannel.accept())) {
+            try {
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+            } catch (IOException e) {
+                IO.close(channel);
+                continue;
+            }
+            int i = (nextLoop.getAndIncrement() & Integer.MAX_VALUE) % loops.length;
+            loops[i].register(channel);
+        }
+    }
+
+    class SelectorLoop implements Runnable {
+
+        private final Selector selector;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        // sessions served by this loop read into the same buffer one at a time
+        private final ByteBuffer readBuffer = ByteBuffer.allocate(4096);
+        private long lastExpirationCheck = $.ms();
+
+        SelectorLoop() throws IOException {
+            selector = Selector.open();
+        }
+
+        /**
+         * Run the task on the selector thread
+         */
+        void execute(Runnable task) {
+            tasks.add(task);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select(1000);
+                    runTasks();
+                    Iterator<SelectionKey> itr = selector.selectedKeys().iterator();
+                    while (itr.hasNext()) {
+                        SelectionKey key = itr.next();
+                        itr.remove();
+                        process(key);
+                    }
+                    checkExpiration();
+                }
+            } catch (ClosedSelectorException e) {
+                // server stopped
+            } catch (Exception e) {
+                logger.error(e, "Error processing CLI nio sessions");
+            } finally {
+                runTasks();
+                IO.close(selector);
+            }
+        }
+
+        private void register(final SocketChannel channel) {
+            execute(new Runnable() {
+                @Override
+                public void run() {
+                    CliChannelSession session = createSession(channel, SelectorLoop.this);
+                    try {
+                        session.registered(channel.register(selector, SelectionKey.OP_READ, session));
+                    } catch (IOException e) {
+                        IO.close(channel);
+                        return;
+                    }
+                    sessions.put(session.id(), session);
+                    if (null != app().eventBus()) {
+                        app().eventBus().emitSync(new CliSessionStart(session));
+                    }
+                }
+            });
+        }
+
+        private void process(SelectionKey key) {
+            if (!key.isValid()) {
+                return;
+            }
+            if (key.isAcceptable()) {
+                try {
+                    accept();
+                } catch (IOException e) {
+                    logger.warn(e, "Error accepting CLI connection");
+                }
+                return;
+            }
+            CliChannelSession session = (CliChannelSession) key.attachment();
+            try {
+                if (key.isReadable()) {
+                    session.read(readBuffer);
+                }
+                if (key.isValid() && key.isWritable()) {
+                    session.write();
+                }
+            } catch (IOException | CancelledKeyException e) {
+                session.close();
+            }
+        }
+
+        private void runTasks() {
+            Runnable task;
+            while (null != (task = tasks.poll())) {
+                try {
+                    task.run();
+                } catch (CancelledKeyException e) {
+                    // session closed
+                }
+            }
+        }
+
+        private void checkExpiration() {
+            if (this != loops[0]) {
+                return;
+            }
+            long now = $.ms();
+            if (now - lastExpirationCheck < EXPIRATION_CHECK_INTERVAL) {
+                return;
+            }
+            lastExpirationCheck = now;
+            for (CliChannelSession session : sessions.values()) {
+                if (!session.busy() && session.expired(expiration)) {
+                    session.stop("your session is timeout");
+                }
+            }
+        }
+    }
+
+}
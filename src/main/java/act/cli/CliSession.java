@@ -83,6 +83,16 @@ public class CliSession extends DestroyableBase implements Runnable {
         this.ts = $.ms();
     }
 
+    /**
+     * Construct a session that is not served by a JLine console
+     * @param app the app
+     */
+    protected CliSession(App app) {
+        this.app = app;
+        this.id = app.cuid();
+        this.ts = $.ms();
+    }
+
     public CliSession(Socket socket, CliServer server) {
         this.socket = $.NPE(socket);
         this.server = $.NPE(server);
@@ -141,6 +151,13 @@ public class CliSession extends DestroyableBase implements Runnable {
         return l < ($.ms() - ts);
     }
 
+    /**
+     * Update the last interaction time of this session
+     */
+    protected void touch() {
+        ts = $.ms();
+    }
+
     @Override
     protected void releaseResources() {
         stop();
@@ -39,6 +39,7 @@ package act.cli.ascii_table.impl;
 import act.cli.CliContext;
 import act.cli.ascii_table.ASCIITableHeader;
 import act.cli.ascii_table.spec.IASCIITableAware;
+import act.data.PropertyProjection;
 import org.osgl.$;
 import org.osgl.cache.CacheService;
 import org.osgl.util.Keyword;
@@ -69,6 +70,17 @@ public class CollectionASCIITableAware<T> implements IASCIITableAware {
 	}
 	
 	public CollectionASCIITableAware(List<T> objList, List<String> properties, List<String> title) {
+		this(objList, properties, title, null);
+	}
+
+	/**
+	 * Construct the table with properties specified by a {@link PropertyProjection}
+	 */
+	public CollectionASCIITableAware(List<T> objList, PropertyProjection projection, List<String> title) {
+		this(objList, projection.properties(), title, projection);
+	}
+
+	private CollectionASCIITableAware(List<T> objList, List<String> properties, List<String> title, PropertyProjection projection) {
 		if (objList != null && !objList.isEmpty() && properties != null && !properties.isEmpty()) {
 			//Populate header
 			String header;
@@ -114,8 +126,13 @@ public class CollectionASCIITableAware<T> implements IASCIITableAware {
 				rowData = new ArrayList<Object>();
 				
 				for (int j = 0 ; j < properties.size() ; j ++) {
-					rowData.add(getProperty(cache,
-							dataClazz, objList.get(i), properties.get(j)));
+					String property = properties.get(j);
+					if (null != projection && S.eq(property, projection.properties().get(j))) {
+						rowData.add(projection.get(objList.get(i), j));
+					} else {
+						rowData.add(getProperty(cache,
+								dataClazz, objList.get(i), property));
+					}
 				}
 				
 				data.add(rowData);
@@ -23,37 +23,50 @@ package act.cli.util;
 import act.cli.CliContext;
 import act.cli.view.CliView;
 import act.util.PropertySpec;
-import org.osgl.util.C;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 /**
- * Used to paginate table layout
+ * Used to paginate table layout.
+ *
+ * Records are pulled from the source page by page, thus a lazy source,
+ * e.g. a database cursor, is not loaded into memory at once.
  */
 public class TableCursor implements CliCursor {
 
-    private List data;
+    private Iterator data;
     private int pageSize;
-    private int pageNo;
+    // the total number of records or `-1` if unknown
+    private int total = -1;
+    // the number of records iterated
+    private int records;
     private PropertySpec.MetaInfo propertySpec;
 
     public TableCursor(List data, int pageSize, PropertySpec.MetaInfo propertySpec) {
+        this(data.iterator(), pageSize, propertySpec);
+        this.total = data.size();
+    }
+
+    public TableCursor(Iterator data, int pageSize, PropertySpec.MetaInfo propertySpec) {
         this.data = data;
         this.pageSize = pageSize;
         this.propertySpec = propertySpec;
     }
 
     private List get() {
-        int history = pageSize * pageNo++;
-        if (history >= data.size()) {
-            return C.list();
+        List page = new ArrayList(pageSize);
+        while (page.size() < pageSize && data.hasNext()) {
+            page.add(data.next());
         }
-        return C.list(data).drop(history).take(pageSize);
+        records += page.size();
+        return page;
     }
 
     @Override
     public boolean hasNext() {
-        return pageSize * pageNo < data.size();
+        return data.hasNext();
     }
 
     @Override
@@ -68,8 +81,12 @@ public class TableCursor implements CliCursor {
         }
     }
 
+    /**
+     * Returns the total number of records, or the number of records iterated
+     * so far if the source does not tell the total number
+     */
     @Override
     public int records() {
-        return data.size();
+        return total < 0 ? records : total;
     }
 }
@@ -28,11 +28,15 @@ import act.cli.util.CliCursor;
 import act.cli.util.MappedFastJsonNameFilter;
 import act.cli.util.TableCursor;
 import act.data.DataPropertyRepository;
+import act.data.PropertyProjection;
 import act.util.ActContext;
 import act.util.DisableFastJsonCircularReferenceDetect;
 import act.util.FastJsonPropertyPreFilter;
 import act.util.PropertySpec;
+import com.alibaba.fastjson.serializer.JSONSerializer;
+import com.alibaba.fastjson.serializer.SerialContext;
 import com.alibaba.fastjson.serializer.SerializeFilter;
+import com.alibaba.fastjson.serializer.SerializeWriter;
 import com.alibaba.fastjson.serializer.SerializerFeature;
 import org.osgl.$;
 import org.osgl.util.C;
@@ -71,6 +75,20 @@ public enum CliView {
 
             CliContext cliContext = (CliContext) context;
 
+            if (!(result instanceof Collection) && !(context instanceof CliOverHttpContext)) {
+                Iterator itr = iterator(result);
+                if (null != itr) {
+                    // page over the records instead of loading all of them into memory
+                    if (!itr.hasNext()) {
+                        return "no data";
+                    }
+                    TableCursor cursor = new TableCursor(itr, context.config().cliTablePageSize(), spec);
+                    cliContext.session().cursor(cursor);
+                    cursor.output(cliContext);
+                    return "";
+                }
+            }
+
             List dataList = toList(result);
             int pageSize = context instanceof CliOverHttpContext ? dataList.size() : context.config().cliTablePageSize();
             if (dataList.size() > pageSize) {
@@ -79,11 +97,52 @@ public enum CliView {
                 cursor.output(cliContext);
                 return "";
             }
-            Class<?> componentType;
             if (dataList.isEmpty()) {
                 return "no data";
             }
-            componentType = Object.class;
+            String tableString = table(dataList, spec, cliContext);
+            int itemsFound = dataList.size();
+            CliCursor cursor = cliContext.session().cursor();
+            String appendix = "";
+            if (null != cursor) {
+                itemsFound = cursor.records();
+                appendix = cursor.hasNext() ? "\nType \"it\" for more" : "";
+            }
+            return S.concat(tableString, "Items found: ", S.string(itemsFound), appendix);
+        }
+
+        /**
+         * Prints the records page by page when the output is streamed
+         */
+        @Override
+        public void print(Object result, PropertySpec.MetaInfo spec, CliContext context) {
+            Iterator itr = context.streaming() ? iterator(result) : null;
+            if (null == itr) {
+                super.print(result, spec, context);
+                return;
+            }
+            spec = PropertySpec.MetaInfo.withCurrent(spec, context);
+            if (null == spec) {
+                spec = new PropertySpec.MetaInfo();
+            }
+            int pageSize = context.config().cliTablePageSize();
+            int itemsFound = 0;
+            List page = new ArrayList(pageSize);
+            while (itr.hasNext()) {
+                context.checkCancelled();
+                page.add(itr.next());
+                if (page.size() == pageSize || !itr.hasNext()) {
+                    itemsFound += page.size();
+                    context.print(table(page, spec, context));
+                    context.flush();
+                    page.clear();
+                }
+            }
+            context.println(0 == itemsFound ? "no data" : S.concat("Items found: ", S.string(itemsFound)));
+        }
+
+        private String table(List dataList, PropertySpec.MetaInfo spec, CliContext context) {
+            Class<?> componentType = Object.class;
             for (Object o : dataList) {
                 if (null != o) {
                     componentType = o.getClass();
@@ -91,19 +150,16 @@ public enum CliView {
                 }
             }
             DataPropertyRepository repo = context.app().service(DataPropertyRepository.class);
-            List<String> outputFields = repo.outputFields(spec, componentType, context);
+            PropertyProjection projection = repo.projection(spec, componentType, context);
+            List<String> outputFields = projection.properties();
+            CollectionASCIITableAware tableAware;
             if (outputFields.isEmpty()) {
                 outputFields = C.list("this as Item");
+                tableAware = new CollectionASCIITableAware(dataList, outputFields, spec.labels(outputFields, context));
+            } else {
+                tableAware = new CollectionASCIITableAware(dataList, projection, spec.labels(outputFields, context));
             }
-            String tableString = cliContext.getTable(new CollectionASCIITableAware(dataList, outputFields, spec.labels(outputFields, context)));
-            int itemsFound = dataList.size();
-            CliCursor cursor = cliContext.session().cursor();
-            String appendix = "";
-            if (null != cursor) {
-                itemsFound = cursor.records();
-                appendix = cursor.hasNext() ? "\nType \"it\" for more" : "";
-            }
-            return S.concat(tableString, "Items found: ", S.string(itemsFound), appendix);
+            return context.getTable(tableAware);
         }
 
     },
@@ -133,6 +189,15 @@ public enum CliView {
             }
         }
 
+        @Override
+        public void print(Object result, PropertySpec.MetaInfo spec, CliContext context) {
+            if (!(result instanceof TreeNode) && result instanceof Iterable) {
+                TABLE.print(result, spec, context);
+            } else {
+                super.print(result, spec, context);
+            }
+        }
+
         private String toTreeString(TreeNode result) {
             StringBuilder sb = S.newBuilder();
             buildTree(sb, result, "", true);
@@ -177,71 +242,56 @@ public enum CliView {
 
         public String render(Object result, PropertySpec.MetaInfo spec, ActContext context, boolean format) {
             String json;
-            FastJsonPropertyPreFilter propertyFilter;
             spec = PropertySpec.MetaInfo.withCurrent(spec, context);
-            if (null == spec) {
-                propertyFilter = null;
-            } else {
-                propertyFilter = new FastJsonPropertyPreFilter();
-                List<String> outputs = spec.outputFields(context);
-                Set<String> excluded = spec.excludedFields(context);
-                if (excluded.isEmpty()) {
-                    if (outputs.isEmpty()) {
-                        propertyFilter = null; // no filter defined actually
-                    } else {
-                        // output fields only applied when excluded fields not presented
-                        propertyFilter.addIncludes(outputs);
-                        if (FastJsonPropertyPreFilter.hasPattern(outputs)) {
-                            // TODO: handle the case when result is an Iterable
-                            propertyFilter.setFullPaths(context.app().service(DataPropertyRepository.class).propertyListOf(result.getClass()));
-                        }
-                    }
-                } else {
-                    propertyFilter.addExcludes(excluded);
-                    if (FastJsonPropertyPreFilter.hasPattern(excluded)) {
-                        // TODO: handle the case when result is an Iterable
-                        propertyFilter.setFullPaths(context.app().service(DataPropertyRepository.class).propertyListOf(result.getClass()));
-                    }
-                }
+            SerializeFilter[] filters = null == spec ? null : jsonFilters(spec, componentType(result), context);
+
+            Boolean b = DisableFastJsonCircularReferenceDetect.option.get();
+            SerializeWriter out = format ? new SerializeWriter(SerializerFeature.PrettyFormat) : new SerializeWriter();
+            try {
+                jsonSerializer(out, filters, null != b && b).write(result);
+                json = out.toString();
+            } finally {
+                out.close();
             }
+            return json;
+        }
 
-            List<SerializerFeature> featureList = C.newList();
-            if (format) {
-                featureList.add(SerializerFeature.PrettyFormat);
+        /**
+         * Prints the records one by one as a JSON array when the output is streamed
+         */
+        @Override
+        public void print(Object result, PropertySpec.MetaInfo spec, CliContext context) {
+            Iterator itr = context.streaming() ? iterator(result) : null;
+            if (null == itr) {
+                super.print(result, spec, context);
+                return;
             }
-            if (null == propertyFilter) {
-                Boolean b = DisableFastJsonCircularReferenceDetect.option.get();
-                if (null != b && b) {
-                    featureList.add(SerializerFeature.DisableCircularReferenceDetect);
-                }
-                SerializerFeature[] featureArray = new SerializerFeature[featureList.size()];
-                featureArray = featureList.toArray(featureArray);
-                if (format) {
-                    json = com.alibaba.fastjson.JSON.toJSONString(result, featureArray);
-                } else {
-                    json = com.alibaba.fastjson.JSON.toJSONString(result);
-                }
-            } else {
-                // Note: we can't check DisableFastJsonCircularReferenceDetect here because if
-                // that option is set, then FastJson will skip the JsonSerializer.context setting
-                // and there is property filter mechanism will break
-                MappedFastJsonNameFilter nameFilter = new MappedFastJsonNameFilter(spec.labelMapping(context));
-
-                SerializerFeature[] featureArray = new SerializerFeature[featureList.size()];
-                featureArray = featureList.toArray(featureArray);
-
-                if (nameFilter.isEmpty()) {
-                    json = com.alibaba.fastjson.JSON.toJSONString(result, propertyFilter, featureArray);
-                } else {
-                    SerializeFilter[] filters = new SerializeFilter[2];
-                    filters[0] = nameFilter;
-                    filters[1] = propertyFilter;
-                    json = com.alibaba.fastjson.JSON.toJSONString(result, filters, featureArray);
-                }
+            context.print("[");
+            boolean first = true;
+            while (itr.hasNext()) {
+                context.checkCancelled();
+                Object o = itr.next();
+                context.print(first ? "\n" : ",\n");
+                context.print(null == o ? "null" : render(o, spec, context));
+                context.flush();
+                first = false;
             }
-            return json;
+            context.println(first ? "]" : "\n]");
         }
 
+        private Class<?> componentType(Object result) {
+            Class<?> type = result.getClass();
+            if (result instanceof Iterable) {
+                // use the type of the first element as component type
+                for (Object o : (Iterable) result) {
+                    if (null != o) {
+                        type = o.getClass();
+                        break;
+                    }
+                }
+            }
+            return type;
+        }
 
     },
 
@@ -261,6 +311,15 @@ public enum CliView {
                 return S.string(result);
             }
         }
+
+        @Override
+        public void print(Object result, PropertySpec.MetaInfo filter, CliContext context) {
+            if (result instanceof Iterable) {
+                TABLE.print(result, filter, context);
+            } else {
+                super.print(result, filter, context);
+            }
+        }
     },
 
     CSV() {
@@ -290,30 +349,61 @@ public enum CliView {
                 spec = new PropertySpec.MetaInfo();
                 spec.onValue("-not_exists");
             }
-            List<String> outputFields = repo.outputFields(spec, componentType, context);
+            PropertyProjection projection = repo.projection(spec, componentType, context);
             S.Buffer sb = S.buffer();
-            buildHeaderLine(sb, outputFields, spec.labelMapping());
+            buildHeaderLine(sb, projection.properties(), spec.labelMapping());
             for (Object entity : dataList) {
                 sb.append($.OS.lineSeparator());
-                buildDataLine(sb, entity, outputFields);
+                buildDataLine(sb, entity, projection);
             }
             return sb.toString();
         }
 
-        private void buildDataLine(S.Buffer sb, Object data, List<String> outputFields) {
-            Iterator<String> itr = outputFields.iterator();
-            String prop = itr.next();
-            sb.append(getProperty(data, prop));
-            while (itr.hasNext()) {
-                sb.append(",").append(getProperty(data, itr.next()));
+        /**
+         * Prints the records line by line instead of building the whole output
+         * in memory
+         */
+        @Override
+        public void print(Object result, PropertySpec.MetaInfo spec, CliContext context) {
+            Iterator itr = iterator(result);
+            if (null == itr) {
+                super.print(result, spec, context);
+                return;
+            }
+            if (!itr.hasNext()) {
+                context.println("no data");
+                return;
+            }
+            Object entity = itr.next();
+            DataPropertyRepository repo = context.app().service(DataPropertyRepository.class);
+            spec = PropertySpec.MetaInfo.withCurrent(spec, context);
+            if (null == spec) {
+                spec = new PropertySpec.MetaInfo();
+                spec.onValue("-not_exists");
+            }
+            PropertyProjection projection = repo.projection(spec, entity.getClass(), context);
+            S.Buffer sb = S.newBuffer();
+            buildHeaderLine(sb, projection.properties(), spec.labelMapping());
+            context.println(sb.toString());
+            for (int lines = 1; ; ++lines) {
+                context.checkCancelled();
+                sb = S.newBuffer();
+                buildDataLine(sb, entity, projection);
+                context.println(sb.toString());
+                if (!itr.hasNext()) {
+                    break;
+                }
+                if (0 == lines % FLUSH_LINES) {
+                    context.flush();
+                }
+                entity = itr.next();
             }
         }
 
-        private String getProperty(Object data, String prop) {
-            if ("this".equals(prop)) {
-                return (escape(data));
-            } else {
-                return escape($.getProperty(data, prop));
+        private void buildDataLine(S.Buffer sb, Object data, PropertyProjection projection) {
+            sb.append(escape(projection.get(data, 0)));
+            for (int i = 1, sz = projection.size(); i < sz; ++i) {
+                sb.append(",").append(escape(projection.get(data, i)));
             }
         }
 
@@ -340,14 +430,126 @@ public enum CliView {
 
     };
 
+    // the number of lines printed between flushes when streaming output
+    private static final int FLUSH_LINES = 100;
+
     public String render(Object result, PropertySpec.MetaInfo spec, ActContext context) {
         throw E.unsupport();
     }
 
+    /**
+     * Returns the fastjson filters that apply the property spec to
+     * the JSON output of entities of the component type specified.
+     *
+     * @param spec the property spec, must not be `null`
+     * @param componentType the type of the entity to be serialized
+     * @param context the current context
+     * @return the filters or `null` if the spec does not define any filter
+     */
+    public static SerializeFilter[] jsonFilters(PropertySpec.MetaInfo spec, Class<?> componentType, ActContext context) {
+        FastJsonPropertyPreFilter propertyFilter = new FastJsonPropertyPreFilter();
+        List<String> outputs = spec.outputFields(context);
+        Set<String> excluded = spec.excludedFields(context);
+        if (excluded.isEmpty()) {
+            if (outputs.isEmpty()) {
+                return null; // no filter defined actually
+            }
+            // output fields only applied when excluded fields not presented
+            propertyFilter.addIncludes(outputs);
+            if (FastJsonPropertyPreFilter.hasPattern(outputs)) {
+                propertyFilter.setFullPaths(context.app().service(DataPropertyRepository.class).propertyListOf(componentType));
+            }
+        } else {
+            propertyFilter.addExcludes(excluded);
+            if (FastJsonPropertyPreFilter.hasPattern(excluded)) {
+                propertyFilter.setFullPaths(context.app().service(DataPropertyRepository.class).propertyListOf(componentType));
+            }
+        }
+        MappedFastJsonNameFilter nameFilter = new MappedFastJsonNameFilter(spec.labelMapping(context));
+        if (nameFilter.isEmpty()) {
+            return new SerializeFilter[]{propertyFilter};
+        }
+        return new SerializeFilter[]{nameFilter, propertyFilter};
+    }
+
+    /**
+     * Returns a fastjson serializer that writes to the output specified
+     * with the filters applied.
+     *
+     * The property filter relies on the serializer context, which fastjson
+     * does not maintain once {@link SerializerFeature#DisableCircularReferenceDetect}
+     * is set. Thus when filters are presented and circular reference detect is
+     * disabled the context is kept while references are not recorded.
+     *
+     * @param out the output writer
+     * @param filters the filters returned by {@link #jsonFilters(PropertySpec.MetaInfo, Class, ActContext)}, could be `null`
+     * @param disableCircularReferenceDetect whether to output shared objects in full instead of `$ref`
+     * @return the serializer
+     */
+    public static JSONSerializer jsonSerializer(SerializeWriter out, SerializeFilter[] filters, boolean disableCircularReferenceDetect) {
+        JSONSerializer serializer;
+        if (null == filters) {
+            serializer = new JSONSerializer(out);
+            if (disableCircularReferenceDetect) {
+                serializer.config(SerializerFeature.DisableCircularReferenceDetect, true);
+            }
+            return serializer;
+        }
+        serializer = disableCircularReferenceDetect ? new NoReferenceJSONSerializer(out) : new JSONSerializer(out);
+        for (SerializeFilter filter : filters) {
+            serializer.addFilter(filter);
+        }
+        return serializer;
+    }
+
+    private static class NoReferenceJSONSerializer extends JSONSerializer {
+        NoReferenceJSONSerializer(SerializeWriter out) {
+            super(out);
+        }
+
+        @Override
+        public void setContext(SerialContext parent, Object object, Object fieldName, int features, int fieldFeatures) {
+            super.setContext(parent, object, fieldName, features, fieldFeatures);
+            references.remove(object);
+        }
+    }
+
     public void print(Object result, PropertySpec.MetaInfo spec, CliContext context) {
         context.println(render(result, spec, context));
     }
 
+    /**
+     * Returns an iterator of the records if the result is a collection of
+     * records, i.e. an {@link Iterable}, {@link Iterator} or {@link Enumeration},
+     * or `null` otherwise
+     */
+    protected Iterator iterator(Object result) {
+        if (result instanceof Iterable) {
+            return ((Iterable) result).iterator();
+        } else if (result instanceof Iterator) {
+            return (Iterator) result;
+        } else if (result instanceof Enumeration) {
+            final Enumeration enumeration = (Enumeration) result;
+            return new Iterator() {
+                @Override
+                public boolean hasNext() {
+                    return enumeration.hasMoreElements();
+                }
+
+                @Override
+                public Object next() {
+                    return enumeration.nextElement();
+                }
+
+                @Override
+                public void remove() {
+                    throw E.unsupport();
+                }
+            };
+        }
+        return null;
+    }
+
     protected List toList(Object result) {
         List dataList;
         if (result instanceof Iterable) {
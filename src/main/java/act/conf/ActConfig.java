@@ -20,6 +20,8 @@ package act.conf;
  * #L%
  */
 
+import act.xio.Network;
+import act.xio.undertow.UndertowNetwork;
 import org.osgl.util.E;
 
 import java.io.File;
@@ -101,6 +103,127 @@ public class ActConfig extends Config<ActConfigKey> {
         return xioStatistics;
     }
 
+    private Integer xioIoThreads;
+    public int xioIoThreads() {
+        if (null == xioIoThreads) {
+            xioIoThreads = getInteger(XIO_IO_THREADS);
+            if (null == xioIoThreads) {
+                xioIoThreads = 0;
+            }
+        }
+        return xioIoThreads;
+    }
+
+    private Integer xioBufferSize;
+    public int xioBufferSize() {
+        if (null == xioBufferSize) {
+            xioBufferSize = getInteger(XIO_BUFFER_SIZE);
+            if (null == xioBufferSize) {
+                xioBufferSize = 16 * 1024;
+            }
+        }
+        return xioBufferSize;
+    }
+
+    private Integer xioBufferPoolMax;
+    public int xioBufferPoolMax() {
+        if (null == xioBufferPoolMax) {
+            xioBufferPoolMax = getInteger(XIO_BUFFER_POOL_MAX);
+            if (null == xioBufferPoolMax) {
+                xioBufferPoolMax = 0;
+            }
+        }
+        return xioBufferPoolMax;
+    }
+
+    private Integer xioBufferPoolThreadCache;
+    public int xioBufferPoolThreadCache() {
+        if (null == xioBufferPoolThreadCache) {
+            xioBufferPoolThreadCache = getInteger(XIO_BUFFER_POOL_THREAD_CACHE);
+            if (null == xioBufferPoolThreadCache) {
+                xioBufferPoolThreadCache = 4;
+            }
+        }
+        return xioBufferPoolThreadCache;
+    }
+
+    private Integer xioBacklog;
+    public int xioBacklog() {
+        if (null == xioBacklog) {
+            xioBacklog = getInteger(XIO_BACKLOG);
+            if (null == xioBacklog) {
+                xioBacklog = 10000;
+            }
+        }
+        return xioBacklog;
+    }
+
+    private Integer xioIdleTimeout;
+    public int xioIdleTimeout() {
+        if (null == xioIdleTimeout) {
+            xioIdleTimeout = getInteger(XIO_IDLE_TIMEOUT);
+            if (null == xioIdleTimeout) {
+                xioIdleTimeout = 0;
+            }
+        }
+        return xioIdleTimeout;
+    }
+
+    private Integer xioRequestTimeout;
+    public int xioRequestTimeout() {
+        if (null == xioRequestTimeout) {
+            xioRequestTimeout = getInteger(XIO_REQUEST_TIMEOUT);
+            if (null == xioRequestTimeout) {
+                xioRequestTimeout = 60 * 1000;
+            }
+        }
+        return xioRequestTimeout;
+    }
+
+    private Integer xioMaxContentLength;
+    public int xioMaxContentLength() {
+        if (null == xioMaxContentLength) {
+            xioMaxContentLength = getInteger(XIO_MAX_CONTENT_LENGTH);
+            if (null == xioMaxContentLength) {
+                xioMaxContentLength = 10 * 1024 * 1024;
+            }
+        }
+        return xioMaxContentLength;
+    }
+
+    private Boolean xioHttp2;
+    public boolean xioHttp2Enabled() {
+        if (null == xioHttp2) {
+            xioHttp2 = get(XIO_HTTP2);
+            if (null == xioHttp2) {
+                xioHttp2 = false;
+            }
+        }
+        return xioHttp2;
+    }
+
+    private Integer xioHttp2MaxConcurrentStreams;
+    public int xioHttp2MaxConcurrentStreams() {
+        if (null == xioHttp2MaxConcurrentStreams) {
+            xioHttp2MaxConcurrentStreams = getInteger(XIO_HTTP2_MAX_CONCURRENT_STREAMS);
+            if (null == xioHttp2MaxConcurrentStreams) {
+                xioHttp2MaxConcurrentStreams = 0;
+            }
+        }
+        return xioHttp2MaxConcurrentStreams;
+    }
+
+    private Network network;
+    public Network network() {
+        if (null == network) {
+            network = get(NETWORK_SERVER_IMPL);
+            if (null == network) {
+                network = new UndertowNetwork();
+            }
+        }
+        return network;
+    }
+
     private static void validateDir(File dir, String conf) {
         if (!dir.exists() || !dir.isDirectory() || !dir.canRead()) {
             E.invalidConfiguration("%s is not a valid directory: %s", conf, dir.getAbsolutePath());
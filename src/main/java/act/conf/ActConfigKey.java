@@ -90,8 +90,112 @@ public enum ActConfigKey implements ConfigKey {
      */
     XIO_STATISTICS("xio.statistics.enabled"),
 
+    /**
+     * `act.xio.io_threads`
+     *
+     * specifies the number of IO threads
+     *
+     * Default value: `0` meaning two IO threads per CPU core
+     */
+    XIO_IO_THREADS("xio.io_threads"),
+
+    /**
+     * `act.xio.buffer.size`
+     *
+     * specifies the size in bytes of the buffers used for network IO. The buffers
+     * are pooled and shared by all ports
+     *
+     * Default value: `16384`
+     */
+    XIO_BUFFER_SIZE("xio.buffer.size"),
+
+    /**
+     * `act.xio.buffer.pool.max`
+     *
+     * specifies the maximum number of buffers kept in the buffer pool
+     *
+     * Default value: `0` meaning no limit
+     */
+    XIO_BUFFER_POOL_MAX("xio.buffer.pool.max"),
+
+    /**
+     * `act.xio.buffer.pool.thread_cache`
+     *
+     * specifies the number of buffers cached per thread before they
+     * are returned to the shared buffer pool
+     *
+     * Default value: `4`
+     */
+    XIO_BUFFER_POOL_THREAD_CACHE("xio.buffer.pool.thread_cache"),
+
+    /**
+     * `act.xio.backlog`
+     *
+     * specifies the maximum number of pending connections of the server socket
+     *
+     * Default value: `10000`
+     */
+    XIO_BACKLOG("xio.backlog"),
+
+    /**
+     * `act.xio.idle_timeout`
+     *
+     * specifies the time in milliseconds a connection can be idle, i.e.
+     * no data sent or received, before it is closed
+     *
+     * Default value: `0` meaning no idle timeout
+     */
+    XIO_IDLE_TIMEOUT("xio.idle_timeout"),
+
+    /**
+     * `act.xio.request_timeout`
+     *
+     * specifies the time in milliseconds a connection waits for the next
+     * request before it is closed
+     *
+     * Default value: `60000`
+     */
+    XIO_REQUEST_TIMEOUT("xio.request_timeout"),
+
+    /**
+     * `act.xio.max_content_length`
+     *
+     * specifies the maximum size in bytes of request content. It applies to
+     * {@code act.xio.netty.NettyNetwork}, which aggregates request content in
+     * memory; requests with larger content are answered with `413 Request
+     * Entity Too Large`
+     *
+     * Default value: `10485760`, i.e. 10MB
+     */
+    XIO_MAX_CONTENT_LENGTH("xio.max_content_length"),
+
+    /**
+     * `act.xio.http2.enabled`
+     *
+     * Enable/disable HTTP/2. When enabled, HTTP/2 is negotiated with ALPN on
+     * secure ports, and on plain ports clients can upgrade to h2c or start
+     * with HTTP/2 prior knowledge
+     *
+     * Default value: `false`
+     */
+    XIO_HTTP2("xio.http2.enabled"),
+
+    /**
+     * `act.xio.http2.max_concurrent_streams`
+     *
+     * specifies the maximum number of concurrent streams per HTTP/2 connection
+     *
+     * Default value: `0` meaning use the default setting of the network stack
+     */
+    XIO_HTTP2_MAX_CONCURRENT_STREAMS("xio.http2.max_concurrent_streams"),
+
     /**
      * {@code act.xio.impl} specifies the implementation for the network stack implementation
+     *
+     * Available implementations:
+     * - `act.xio.undertow.UndertowNetwork`: the default one
+     * - `act.xio.netty.NettyNetwork`: requires `netty-codec-http` and `netty-handler` (and optionally
+     *   `netty-transport-native-epoll` for the epoll transport on Linux) in the class path
      */
     NETWORK_SERVER_IMPL("xio.impl");
 
@@ -35,10 +35,13 @@ import act.db.util._SequenceNumberGenerator;
 import act.handler.UnknownHttpMethodProcessor;
 import act.handler.event.ResultEvent;
 import act.i18n.I18n;
+import act.job.FileJobStore;
+import act.job.JobStore;
 import act.security.CSRFProtector;
 import act.ws.DefaultSecureTicketCodec;
 import act.ws.SecureTicketCodec;
 import act.ws.UsernameSecureTicketCodec;
+import act.ws.WebSocketBroadcaster;
 import act.util.*;
 import act.view.TemplatePathResolver;
 import act.view.View;
@@ -145,6 +148,204 @@ public class AppConfig<T extends AppConfigurator> extends Config<AppConfigKey> i
         return AppConfigKey.valueOfIgnoreCase(s);
     }
 
+    private Boolean admissionControl;
+
+    protected T admissionControl(boolean enabled) {
+        this.admissionControl = enabled;
+        return me();
+    }
+
+    public boolean admissionControlEnabled() {
+        if (null == admissionControl) {
+            admissionControl = get(ADMISSION_ENABLED);
+            if (null == admissionControl) {
+                admissionControl = false;
+            }
+        }
+        return admissionControl;
+    }
+
+    private void _mergeAdmissionControl(AppConfig conf) {
+        if (!hasConfiguration(ADMISSION_ENABLED)) {
+            admissionControl = conf.admissionControl;
+        }
+    }
+
+    private int admissionLimitInitial = -1;
+
+    protected T admissionLimitInitial(int n) {
+        E.illegalArgumentIf(n < 1, "admission initial limit cannot be less than 1: %s", n);
+        this.admissionLimitInitial = n;
+        return me();
+    }
+
+    public int admissionLimitInitial() {
+        if (-1 == admissionLimitInitial) {
+            Integer I = getInteger(ADMISSION_LIMIT_INITIAL);
+            if (null == I) {
+                I = 20;
+            }
+            admissionLimitInitial = I;
+        }
+        return admissionLimitInitial;
+    }
+
+    private void _mergeAdmissionLimitInitial(AppConfig conf) {
+        if (!hasConfiguration(ADMISSION_LIMIT_INITIAL)) {
+            admissionLimitInitial = conf.admissionLimitInitial;
+        }
+    }
+
+    private int admissionLimitGlobalInitial = -1;
+
+    protected T admissionLimitGlobalInitial(int n) {
+        E.illegalArgumentIf(n < 1, "admission global initial limit cannot be less than 1: %s", n);
+        this.admissionLimitGlobalInitial = n;
+        return me();
+    }
+
+    public int admissionLimitGlobalInitial() {
+        if (-1 == admissionLimitGlobalInitial) {
+            Integer I = getInteger(ADMISSION_LIMIT_GLOBAL_INITIAL);
+            if (null == I) {
+                I = 200;
+            }
+            admissionLimitGlobalInitial = I;
+        }
+        return admissionLimitGlobalInitial;
+    }
+
+    private void _mergeAdmissionLimitGlobalInitial(AppConfig conf) {
+        if (!hasConfiguration(ADMISSION_LIMIT_GLOBAL_INITIAL)) {
+            admissionLimitGlobalInitial = conf.admissionLimitGlobalInitial;
+        }
+    }
+
+    private int admissionLimitMax = -1;
+
+    protected T admissionLimitMax(int n) {
+        E.illegalArgumentIf(n < 1, "admission max limit cannot be less than 1: %s", n);
+        this.admissionLimitMax = n;
+        return me();
+    }
+
+    public int admissionLimitMax() {
+        if (-1 == admissionLimitMax) {
+            Integer I = getInteger(ADMISSION_LIMIT_MAX);
+            if (null == I) {
+                I = 1000;
+            }
+            admissionLimitMax = I;
+        }
+        return admissionLimitMax;
+    }
+
+    private void _mergeAdmissionLimitMax(AppConfig conf) {
+        if (!hasConfiguration(ADMISSION_LIMIT_MAX)) {
+            admissionLimitMax = conf.admissionLimitMax;
+        }
+    }
+
+    private int admissionLimitMin = -1;
+
+    protected T admissionLimitMin(int n) {
+        E.illegalArgumentIf(n < 1, "admission min limit cannot be less than 1: %s", n);
+        this.admissionLimitMin = n;
+        return me();
+    }
+
+    public int admissionLimitMin() {
+        if (-1 == admissionLimitMin) {
+            Integer I = getInteger(ADMISSION_LIMIT_MIN);
+            if (null == I) {
+                I = 4;
+            }
+            admissionLimitMin = I;
+        }
+        return admissionLimitMin;
+    }
+
+    private void _mergeAdmissionLimitMin(AppConfig conf) {
+        if (!hasConfiguration(ADMISSION_LIMIT_MIN)) {
+            admissionLimitMin = conf.admissionLimitMin;
+        }
+    }
+
+    private int admissionQueueTimeout = -1;
+
+    protected T admissionQueueTimeout(int n) {
+        E.illegalArgumentIf(n < 0, "admission queue timeout cannot be less than 0: %s", n);
+        this.admissionQueueTimeout = n;
+        return me();
+    }
+
+    public int admissionQueueTimeout() {
+        if (-1 == admissionQueueTimeout) {
+            Integer I = getInteger(ADMISSION_QUEUE_TIMEOUT);
+            if (null == I) {
+                I = 100;
+            }
+            admissionQueueTimeout = I;
+        }
+        return admissionQueueTimeout;
+    }
+
+    private void _mergeAdmissionQueueTimeout(AppConfig conf) {
+        if (!hasConfiguration(ADMISSION_QUEUE_TIMEOUT)) {
+            admissionQueueTimeout = conf.admissionQueueTimeout;
+        }
+    }
+
+    private int admissionRetryAfter = -1;
+
+    protected T admissionRetryAfter(int n) {
+        E.illegalArgumentIf(n < 0, "admission retry after cannot be less than 0: %s", n);
+        this.admissionRetryAfter = n;
+        return me();
+    }
+
+    public int admissionRetryAfter() {
+        if (-1 == admissionRetryAfter) {
+            Integer I = getInteger(ADMISSION_RETRY_AFTER);
+            if (null == I) {
+                I = 1;
+            }
+            admissionRetryAfter = I;
+        }
+        return admissionRetryAfter;
+    }
+
+    private void _mergeAdmissionRetryAfter(AppConfig conf) {
+        if (!hasConfiguration(ADMISSION_RETRY_AFTER)) {
+            admissionRetryAfter = conf.admissionRetryAfter;
+        }
+    }
+
+    private int asyncTimeout = -1;
+
+    protected T asyncTimeout(int n) {
+        E.illegalArgumentIf(n < 0, "async timeout cannot be less than 0: %s", n);
+        this.asyncTimeout = n;
+        return me();
+    }
+
+    public int asyncTimeout() {
+        if (-1 == asyncTimeout) {
+            Integer I = getInteger(ASYNC_TIMEOUT);
+            if (null == I) {
+                I = 60000;
+            }
+            asyncTimeout = I;
+        }
+        return asyncTimeout;
+    }
+
+    private void _mergeAsyncTimeout(AppConfig conf) {
+        if (!hasConfiguration(ASYNC_TIMEOUT)) {
+            asyncTimeout = conf.asyncTimeout;
+        }
+    }
+
     private Boolean basicAuth;
 
     protected T enableBasicAuthentication(boolean b) {
@@ -692,6 +893,79 @@ public class AppConfig<T extends AppConfigurator> extends Config<AppConfigKey> i
         }
     }
 
+    private Boolean cliNio;
+
+    protected T cliNio(boolean enabled) {
+        this.cliNio = enabled;
+        return me();
+    }
+
+    public boolean cliNioEnabled() {
+        if (null == cliNio) {
+            cliNio = get(CLI_NIO_ENABLED);
+            if (null == cliNio) {
+                cliNio = false;
+            }
+        }
+        return cliNio;
+    }
+
+    private void _mergeCliNio(AppConfig conf) {
+        if (!hasConfiguration(CLI_NIO_ENABLED)) {
+            cliNio = conf.cliNio;
+        }
+    }
+
+    private int cliNioPort = -1;
+
+    protected T cliNioPort(int n) {
+        E.illegalArgumentIf(n < 1, "cli nio port cannot be less than 1: %s", n);
+        this.cliNioPort = n;
+        return me();
+    }
+
+    public int cliNioPort() {
+        if (-1 == cliNioPort) {
+            Integer I = getInteger(CLI_NIO_PORT);
+            if (null == I) {
+                I = 5463;
+            }
+            cliNioPort = I;
+        }
+        return cliNioPort;
+    }
+
+    private void _mergeCliNioPort(AppConfig conf) {
+        if (!hasConfiguration(CLI_NIO_PORT)) {
+            cliNioPort = conf.cliNioPort;
+        }
+    }
+
+    private int cliNioSelectors = -1;
+
+    protected T cliNioSelectors(int n) {
+        E.illegalArgumentIf(n < 1, "cli nio selectors cannot be less than 1: %s", n);
+        this.cliNioSelectors = n;
+        return me();
+    }
+
+    public int cliNioSelectors() {
+        if (-1 == cliNioSelectors) {
+            Integer I = getInteger(CLI_NIO_SELECTORS);
+            if (null == I) {
+                I = 2;
+            }
+            cliNioSelectors = I;
+        }
+        return cliNioSelectors;
+    }
+
+    private void _mergeCliNioSelectors(AppConfig conf) {
+        if (!hasConfiguration(CLI_NIO_SELECTORS)) {
+            cliNioSelectors = conf.cliNioSelectors;
+        }
+    }
+
     private int cliSessionExpiration = -1;
 
     protected T cliSessionExpiration(int expire) {
@@ -717,6 +991,352 @@ public class AppConfig<T extends AppConfigurator> extends Config<AppConfigKey> i
         }
     }
 
+    private Boolean devWatchService;
+
+    protected T devWatchService(boolean enabled) {
+        this.devWatchService = enabled;
+        return me();
+    }
+
+    public boolean devWatchServiceEnabled() {
+        if (null == devWatchService) {
+            devWatchService = get(DEV_WATCH_SERVICE);
+            if (null == devWatchService) {
+                devWatchService = true;
+            }
+        }
+        return devWatchService;
+    }
+
+    private void _mergeDevWatchService(AppConfig conf) {
+        if (!hasConfiguration(DEV_WATCH_SERVICE)) {
+            devWatchService = conf.devWatchService;
+        }
+    }
+
+    private int devWatchServiceDebounce = -1;
+
+    protected T devWatchServiceDebounce(int ms) {
+        E.illegalArgumentIf(ms < 0, "watch service debounce cannot be negative number: %s", ms);
+        this.devWatchServiceDebounce = ms;
+        return me();
+    }
+
+    public int devWatchServiceDebounce() {
+        if (-1 == devWatchServiceDebounce) {
+            Integer I = getInteger(DEV_WATCH_SERVICE_DEBOUNCE);
+            if (null == I) {
+                I = 50;
+            }
+            devWatchServiceDebounce = I;
+        }
+        return devWatchServiceDebounce;
+    }
+
+    private void _mergeDevWatchServiceDebounce(AppConfig conf) {
+        if (!hasConfiguration(DEV_WATCH_SERVICE_DEBOUNCE)) {
+            devWatchServiceDebounce = conf.devWatchServiceDebounce;
+        }
+    }
+
+    private int httpClientConnectTimeout = -1;
+
+    protected T httpClientConnectTimeout(int n) {
+        E.illegalArgumentIf(n < 0, "http client connect timeout cannot be less than 0: %s", n);
+        this.httpClientConnectTimeout = n;
+        return me();
+    }
+
+    public int httpClientConnectTimeout() {
+        if (-1 == httpClientConnectTimeout) {
+            Integer I = getInteger(HTTP_CLIENT_CONNECT_TIMEOUT);
+            if (null == I) {
+                I = 10000;
+            }
+            httpClientConnectTimeout = I;
+        }
+        return httpClientConnectTimeout;
+    }
+
+    private void _mergeHttpClientConnectTimeout(AppConfig conf) {
+        if (!hasConfiguration(HTTP_CLIENT_CONNECT_TIMEOUT)) {
+            httpClientConnectTimeout = conf.httpClientConnectTimeout;
+        }
+    }
+
+    private int httpClientMaxRequests = -1;
+
+    protected T httpClientMaxRequests(int n) {
+        E.illegalArgumentIf(n < 1, "http client max requests cannot be less than 1: %s", n);
+        this.httpClientMaxRequests = n;
+        return me();
+    }
+
+    public int httpClientMaxRequests() {
+        if (-1 == httpClientMaxRequests) {
+            Integer I = getInteger(HTTP_CLIENT_MAX_REQUESTS);
+            if (null == I) {
+                I = 64;
+            }
+            httpClientMaxRequests = I;
+        }
+        return httpClientMaxRequests;
+    }
+
+    private void _mergeHttpClientMaxRequests(AppConfig conf) {
+        if (!hasConfiguration(HTTP_CLIENT_MAX_REQUESTS)) {
+            httpClientMaxRequests = conf.httpClientMaxRequests;
+        }
+    }
+
+    private int httpClientMaxRequestsPerHost = -1;
+
+    protected T httpClientMaxRequestsPerHost(int n) {
+        E.illegalArgumentIf(n < 1, "http client max requests per host cannot be less than 1: %s", n);
+        this.httpClientMaxRequestsPerHost = n;
+        return me();
+    }
+
+    public int httpClientMaxRequestsPerHost() {
+        if (-1 == httpClientMaxRequestsPerHost) {
+            Integer I = getInteger(HTTP_CLIENT_MAX_REQUESTS_PER_HOST);
+            if (null == I) {
+                I = 8;
+            }
+            httpClientMaxRequestsPerHost = I;
+        }
+        return httpClientMaxRequestsPerHost;
+    }
+
+    private void _mergeHttpClientMaxRequestsPerHost(AppConfig conf) {
+        if (!hasConfiguration(HTTP_CLIENT_MAX_REQUESTS_PER_HOST)) {
+            httpClientMaxRequestsPerHost = conf.httpClientMaxRequestsPerHost;
+        }
+    }
+
+    private int httpClientPoolKeepAlive = -1;
+
+    protected T httpClientPoolKeepAlive(int n) {
+        E.illegalArgumentIf(n < 0, "http client pool keep alive cannot be less than 0: %s", n);
+        this.httpClientPoolKeepAlive = n;
+        return me();
+    }
+
+    public int httpClientPoolKeepAlive() {
+        if (-1 == httpClientPoolKeepAlive) {
+            Integer I = getInteger(HTTP_CLIENT_POOL_KEEP_ALIVE);
+            if (null == I) {
+                I = 300;
+            }
+            httpClientPoolKeepAlive = I;
+        }
+        return httpClientPoolKeepAlive;
+    }
+
+    private void _mergeHttpClientPoolKeepAlive(AppConfig conf) {
+        if (!hasConfiguration(HTTP_CLIENT_POOL_KEEP_ALIVE)) {
+            httpClientPoolKeepAlive = conf.httpClientPoolKeepAlive;
+        }
+    }
+
+    private int httpClientPoolMaxIdle = -1;
+
+    protected T httpClientPoolMaxIdle(int n) {
+        E.illegalArgumentIf(n < 0, "http client pool max idle cannot be less than 0: %s", n);
+        this.httpClientPoolMaxIdle = n;
+        return me();
+    }
+
+    public int httpClientPoolMaxIdle() {
+        if (-1 == httpClientPoolMaxIdle) {
+            Integer I = getInteger(HTTP_CLIENT_POOL_MAX_IDLE);
+            if (null == I) {
+                I = 16;
+            }
+            httpClientPoolMaxIdle = I;
+        }
+        return httpClientPoolMaxIdle;
+    }
+
+    private void _mergeHttpClientPoolMaxIdle(AppConfig conf) {
+        if (!hasConfiguration(HTTP_CLIENT_POOL_MAX_IDLE)) {
+            httpClientPoolMaxIdle = conf.httpClientPoolMaxIdle;
+        }
+    }
+
+    private int httpClientReadTimeout = -1;
+
+    protected T httpClientReadTimeout(int n) {
+        E.illegalArgumentIf(n < 0, "http client read timeout cannot be less than 0: %s", n);
+        this.httpClientReadTimeout = n;
+        return me();
+    }
+
+    public int httpClientReadTimeout() {
+        if (-1 == httpClientReadTimeout) {
+            Integer I = getInteger(HTTP_CLIENT_READ_TIMEOUT);
+            if (null == I) {
+                I = 30000;
+            }
+            httpClientReadTimeout = I;
+        }
+        return httpClientReadTimeout;
+    }
+
+    private void _mergeHttpClientReadTimeout(AppConfig conf) {
+        if (!hasConfiguration(HTTP_CLIENT_READ_TIMEOUT)) {
+            httpClientReadTimeout = conf.httpClientReadTimeout;
+        }
+    }
+
+    private int httpClientRetryBudget = -1;
+
+    protected T httpClientRetryBudget(int n) {
+        E.illegalArgumentIf(n < 0, "http client retry budget cannot be less than 0: %s", n);
+        this.httpClientRetryBudget = n;
+        return me();
+    }
+
+    public int httpClientRetryBudget() {
+        if (-1 == httpClientRetryBudget) {
+            Integer I = getInteger(HTTP_CLIENT_RETRY_BUDGET);
+            if (null == I) {
+                I = 20;
+            }
+            httpClientRetryBudget = I;
+        }
+        return httpClientRetryBudget;
+    }
+
+    private void _mergeHttpClientRetryBudget(AppConfig conf) {
+        if (!hasConfiguration(HTTP_CLIENT_RETRY_BUDGET)) {
+            httpClientRetryBudget = conf.httpClientRetryBudget;
+        }
+    }
+
+    private int httpClientRetryMax = -1;
+
+    protected T httpClientRetryMax(int n) {
+        E.illegalArgumentIf(n < 0, "http client retry max cannot be less than 0: %s", n);
+        this.httpClientRetryMax = n;
+        return me();
+    }
+
+    public int httpClientRetryMax() {
+        if (-1 == httpClientRetryMax) {
+            Integer I = getInteger(HTTP_CLIENT_RETRY_MAX);
+            if (null == I) {
+                I = 2;
+            }
+            httpClientRetryMax = I;
+        }
+        return httpClientRetryMax;
+    }
+
+    private void _mergeHttpClientRetryMax(AppConfig conf) {
+        if (!hasConfiguration(HTTP_CLIENT_RETRY_MAX)) {
+            httpClientRetryMax = conf.httpClientRetryMax;
+        }
+    }
+
+    private Boolean adaptiveDispatch;
+
+    protected T adaptiveDispatch(boolean enabled) {
+        this.adaptiveDispatch = enabled;
+        return me();
+    }
+
+    public boolean adaptiveDispatchEnabled() {
+        if (null == adaptiveDispatch) {
+            adaptiveDispatch = get(DISPATCH_ADAPTIVE);
+            if (null == adaptiveDispatch) {
+                adaptiveDispatch = false;
+            }
+        }
+        return adaptiveDispatch;
+    }
+
+    private void _mergeAdaptiveDispatch(AppConfig conf) {
+        if (!hasConfiguration(DISPATCH_ADAPTIVE)) {
+            adaptiveDispatch = conf.adaptiveDispatch;
+        }
+    }
+
+    private int adaptiveDispatchMaxDemotions = -1;
+
+    protected T adaptiveDispatchMaxDemotions(int n) {
+        E.illegalArgumentIf(n < 0, "max demotions cannot be less than 0: %s", n);
+        this.adaptiveDispatchMaxDemotions = n;
+        return me();
+    }
+
+    public int adaptiveDispatchMaxDemotions() {
+        if (-1 == adaptiveDispatchMaxDemotions) {
+            Integer I = getInteger(DISPATCH_ADAPTIVE_MAX_DEMOTIONS);
+            if (null == I) {
+                I = 3;
+            }
+            adaptiveDispatchMaxDemotions = I;
+        }
+        return adaptiveDispatchMaxDemotions;
+    }
+
+    private void _mergeAdaptiveDispatchMaxDemotions(AppConfig conf) {
+        if (!hasConfiguration(DISPATCH_ADAPTIVE_MAX_DEMOTIONS)) {
+            adaptiveDispatchMaxDemotions = conf.adaptiveDispatchMaxDemotions;
+        }
+    }
+
+    private int adaptiveDispatchSamples = -1;
+
+    protected T adaptiveDispatchSamples(int n) {
+        E.illegalArgumentIf(n < 1, "samples cannot be less than 1: %s", n);
+        this.adaptiveDispatchSamples = n;
+        return me();
+    }
+
+    public int adaptiveDispatchSamples() {
+        if (-1 == adaptiveDispatchSamples) {
+            Integer I = getInteger(DISPATCH_ADAPTIVE_SAMPLES);
+            if (null == I) {
+                I = 200;
+            }
+            adaptiveDispatchSamples = I;
+        }
+        return adaptiveDispatchSamples;
+    }
+
+    private void _mergeAdaptiveDispatchSamples(AppConfig conf) {
+        if (!hasConfiguration(DISPATCH_ADAPTIVE_SAMPLES)) {
+            adaptiveDispatchSamples = conf.adaptiveDispatchSamples;
+        }
+    }
+
+    private int adaptiveDispatchThreshold = -1;
+
+    protected T adaptiveDispatchThreshold(int n) {
+        E.illegalArgumentIf(n < 1, "threshold cannot be less than 1: %s", n);
+        this.adaptiveDispatchThreshold = n;
+        return me();
+    }
+
+    public int adaptiveDispatchThreshold() {
+        if (-1 == adaptiveDispatchThreshold) {
+            Integer I = getInteger(DISPATCH_ADAPTIVE_THRESHOLD);
+            if (null == I) {
+                I = 200;
+            }
+            adaptiveDispatchThreshold = I;
+        }
+        return adaptiveDispatchThreshold;
+    }
+
+    private void _mergeAdaptiveDispatchThreshold(AppConfig conf) {
+        if (!hasConfiguration(DISPATCH_ADAPTIVE_THRESHOLD)) {
+            adaptiveDispatchThreshold = conf.adaptiveDispatchThreshold;
+        }
+    }
+
     private String dspToken;
 
     protected T dspToken(final String tokenName) {
@@ -855,48 +1475,242 @@ public class AppConfig<T extends AppConfigurator> extends Config<AppConfigKey> i
         return me();
     }
 
-    public View defaultView() {
-        if (null == defViewName) {
-            defViewName = get(AppConfigKey.VIEW_DEFAULT);
-            if (null == defViewName) {
-                defViewName = "rythm";
+    public View defaultView() {
+        if (null == defViewName) {
+            defViewName = get(AppConfigKey.VIEW_DEFAULT);
+            if (null == defViewName) {
+                defViewName = "rythm";
+            }
+            defView = Act.viewManager().view(defViewName);
+        }
+        return defView;
+    }
+
+    private void _mergeDefaultView(AppConfig conf) {
+        if (!hasConfiguration(AppConfigKey.VIEW_DEFAULT)) {
+            defViewName = conf.defViewName;
+            defView = conf.defView;
+        }
+    }
+
+    private String xForwardedProtocol = null;
+
+    protected T forceHttps() {
+        xForwardedProtocol = "https";
+        return me();
+    }
+
+    public String xForwardedProtocol() {
+        if (null == xForwardedProtocol) {
+            xForwardedProtocol = get(X_FORWARD_PROTOCOL);
+            if (null == xForwardedProtocol) {
+                xForwardedProtocol = "http";
+            }
+        }
+        return xForwardedProtocol;
+    }
+
+    private void _mergeXForwardedProtocol(AppConfig conf) {
+        if (!hasConfiguration(X_FORWARD_PROTOCOL)) {
+            xForwardedProtocol = conf.xForwardedProtocol;
+        }
+    }
+
+
+    private int zxingCacheSize = -1;
+
+    protected T zxingCacheSize(int n) {
+        E.illegalArgumentIf(n < 0, "zxing cache size cannot be less than 0: %s", n);
+        this.zxingCacheSize = n;
+        return me();
+    }
+
+    public int zxingCacheSize() {
+        if (-1 == zxingCacheSize) {
+            Integer I = getInteger(ZXING_CACHE_SIZE);
+            if (null == I) {
+                I = 4 * 1024 * 1024;
+            }
+            zxingCacheSize = I;
+        }
+        return zxingCacheSize;
+    }
+
+    private void _mergeZxingCacheSize(AppConfig conf) {
+        if (!hasConfiguration(ZXING_CACHE_SIZE)) {
+            zxingCacheSize = conf.zxingCacheSize;
+        }
+    }
+
+    private String zxingCacheControl;
+
+    protected T zxingCacheControl(String cacheControl) {
+        this.zxingCacheControl = cacheControl;
+        return me();
+    }
+
+    public String zxingCacheControl() {
+        if (null == zxingCacheControl) {
+            zxingCacheControl = get(ZXING_CACHE_CONTROL);
+            if (null == zxingCacheControl) {
+                zxingCacheControl = "private, max-age=86400";
+            }
+        }
+        return zxingCacheControl;
+    }
+
+    private void _mergeZxingCacheControl(AppConfig conf) {
+        if (!hasConfiguration(ZXING_CACHE_CONTROL)) {
+            zxingCacheControl = conf.zxingCacheControl;
+        }
+    }
+
+    private int zxingRenderMax = -1;
+
+    protected T zxingRenderMax(int n) {
+        E.illegalArgumentIf(n < 1, "zxing render max cannot be less than 1: %s", n);
+        this.zxingRenderMax = n;
+        return me();
+    }
+
+    public int zxingRenderMax() {
+        if (-1 == zxingRenderMax) {
+            Integer I = getInteger(ZXING_RENDER_MAX);
+            if (null == I) {
+                I = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+            }
+            zxingRenderMax = I;
+        }
+        return zxingRenderMax;
+    }
+
+    private void _mergeZxingRenderMax(AppConfig conf) {
+        if (!hasConfiguration(ZXING_RENDER_MAX)) {
+            zxingRenderMax = conf.zxingRenderMax;
+        }
+    }
+
+    private int zxingRenderTimeout = -1;
+
+    protected T zxingRenderTimeout(int n) {
+        E.illegalArgumentIf(n < 0, "zxing render timeout cannot be less than 0: %s", n);
+        this.zxingRenderTimeout = n;
+        return me();
+    }
+
+    public int zxingRenderTimeout() {
+        if (-1 == zxingRenderTimeout) {
+            Integer I = getInteger(ZXING_RENDER_TIMEOUT);
+            if (null == I) {
+                I = 1000;
+            }
+            zxingRenderTimeout = I;
+        }
+        return zxingRenderTimeout;
+    }
+
+    private void _mergeZxingRenderTimeout(AppConfig conf) {
+        if (!hasConfiguration(ZXING_RENDER_TIMEOUT)) {
+            zxingRenderTimeout = conf.zxingRenderTimeout;
+        }
+    }
+
+    private Boolean compression;
+
+    protected T compression(boolean enabled) {
+        this.compression = enabled;
+        return me();
+    }
+
+    public boolean compressionEnabled() {
+        if (null == compression) {
+            compression = get(COMPRESSION_ENABLED);
+            if (null == compression) {
+                compression = true;
+            }
+        }
+        return compression;
+    }
+
+    private void _mergeCompression(AppConfig conf) {
+        if (!hasConfiguration(COMPRESSION_ENABLED)) {
+            compression = conf.compression;
+        }
+    }
+
+    private int compressionLevel = -1;
+
+    protected T compressionLevel(int n) {
+        E.illegalArgumentIf(n < 1 || n > 9, "compression level shall be between 1 and 9: %s", n);
+        this.compressionLevel = n;
+        return me();
+    }
+
+    public int compressionLevel() {
+        if (-1 == compressionLevel) {
+            Integer I = getInteger(COMPRESSION_LEVEL);
+            if (null == I) {
+                I = 6;
+            }
+            compressionLevel = I;
+        }
+        return compressionLevel;
+    }
+
+    private void _mergeCompressionLevel(AppConfig conf) {
+        if (!hasConfiguration(COMPRESSION_LEVEL)) {
+            compressionLevel = conf.compressionLevel;
+        }
+    }
+
+    private int compressionMinSize = -1;
+
+    protected T compressionMinSize(int n) {
+        E.illegalArgumentIf(n < 0, "compression min size cannot be less than 0: %s", n);
+        this.compressionMinSize = n;
+        return me();
+    }
+
+    public int compressionMinSize() {
+        if (-1 == compressionMinSize) {
+            Integer I = getInteger(COMPRESSION_MIN_SIZE);
+            if (null == I) {
+                I = 1024;
             }
-            defView = Act.viewManager().view(defViewName);
+            compressionMinSize = I;
         }
-        return defView;
+        return compressionMinSize;
     }
 
-    private void _mergeDefaultView(AppConfig conf) {
-        if (!hasConfiguration(AppConfigKey.VIEW_DEFAULT)) {
-            defViewName = conf.defViewName;
-            defView = conf.defView;
+    private void _mergeCompressionMinSize(AppConfig conf) {
+        if (!hasConfiguration(COMPRESSION_MIN_SIZE)) {
+            compressionMinSize = conf.compressionMinSize;
         }
     }
 
-    private String xForwardedProtocol = null;
+    private String compressionTypes;
 
-    protected T forceHttps() {
-        xForwardedProtocol = "https";
+    protected T compressionTypes(String types) {
+        compressionTypes = types;
         return me();
     }
 
-    public String xForwardedProtocol() {
-        if (null == xForwardedProtocol) {
-            xForwardedProtocol = get(X_FORWARD_PROTOCOL);
-            if (null == xForwardedProtocol) {
-                xForwardedProtocol = "http";
+    public String compressionTypes() {
+        if (null == compressionTypes) {
+            compressionTypes = get(COMPRESSION_TYPES);
+            if (null == compressionTypes) {
+                compressionTypes = "text/*,application/json,application/javascript,application/xml,image/svg+xml";
             }
         }
-        return xForwardedProtocol;
+        return compressionTypes;
     }
 
-    private void _mergeXForwardedProtocol(AppConfig conf) {
-        if (!hasConfiguration(X_FORWARD_PROTOCOL)) {
-            xForwardedProtocol = conf.xForwardedProtocol;
+    private void _mergeCompressionTypes(AppConfig conf) {
+        if (!hasConfiguration(COMPRESSION_TYPES)) {
+            compressionTypes = conf.compressionTypes;
         }
     }
 
-
     private Boolean contentSuffixAware = null;
 
     protected T contentSuffixAware(boolean b) {
@@ -1300,6 +2114,100 @@ public class AppConfig<T extends AppConfigurator> extends Config<AppConfigKey> i
         }
     }
 
+    private Boolean invokerBytecode;
+
+    protected T invokerBytecode(boolean enabled) {
+        this.invokerBytecode = enabled;
+        return me();
+    }
+
+    public boolean invokerBytecodeEnabled() {
+        if (null == invokerBytecode) {
+            invokerBytecode = get(AppConfigKey.INVOKER_BYTECODE);
+            if (null == invokerBytecode) {
+                invokerBytecode = true;
+            }
+        }
+        return invokerBytecode;
+    }
+
+    private void _mergeInvokerBytecode(AppConfig conf) {
+        if (!hasConfiguration(AppConfigKey.INVOKER_BYTECODE)) {
+            invokerBytecode = conf.invokerBytecode;
+        }
+    }
+
+    private Boolean propertyAccessorBytecode;
+
+    protected T propertyAccessorBytecode(boolean enabled) {
+        this.propertyAccessorBytecode = enabled;
+        return me();
+    }
+
+    public boolean propertyAccessorBytecodeEnabled() {
+        if (null == propertyAccessorBytecode) {
+            propertyAccessorBytecode = get(AppConfigKey.PROPERTY_ACCESSOR_BYTECODE);
+            if (null == propertyAccessorBytecode) {
+                propertyAccessorBytecode = true;
+            }
+        }
+        return propertyAccessorBytecode;
+    }
+
+    private void _mergePropertyAccessorBytecode(AppConfig conf) {
+        if (!hasConfiguration(AppConfigKey.PROPERTY_ACCESSOR_BYTECODE)) {
+            propertyAccessorBytecode = conf.propertyAccessorBytecode;
+        }
+    }
+
+    private Boolean jobDag;
+
+    protected T jobDag(boolean enabled) {
+        this.jobDag = enabled;
+        return me();
+    }
+
+    public boolean jobDagEnabled() {
+        if (null == jobDag) {
+            jobDag = get(JOB_DAG);
+            if (null == jobDag) {
+                jobDag = true;
+            }
+        }
+        return jobDag;
+    }
+
+    private void _mergeJobDag(AppConfig conf) {
+        if (!hasConfiguration(JOB_DAG)) {
+            jobDag = conf.jobDag;
+        }
+    }
+
+    private int jobDagPoolSize = -1;
+
+    protected T jobDagPoolSize(int n) {
+        E.illegalArgumentIf(n < 1, "job dag pool size cannot be less than 1: %s", n);
+        this.jobDagPoolSize = n;
+        return me();
+    }
+
+    public int jobDagPoolSize() {
+        if (-1 == jobDagPoolSize) {
+            Integer I = getInteger(JOB_DAG_POOL_SIZE);
+            if (null == I) {
+                I = Runtime.getRuntime().availableProcessors();
+            }
+            jobDagPoolSize = I;
+        }
+        return jobDagPoolSize;
+    }
+
+    private void _mergeJobDagPoolSize(AppConfig conf) {
+        if (!hasConfiguration(JOB_DAG_POOL_SIZE)) {
+            jobDagPoolSize = conf.jobDagPoolSize;
+        }
+    }
+
     private int jobPoolSize = -1;
 
     protected T jobPoolSize(int size) {
@@ -1325,6 +2233,145 @@ public class AppConfig<T extends AppConfigurator> extends Config<AppConfigKey> i
         }
     }
     
+    private Boolean jobStoreEnabled;
+
+    protected T jobStoreEnable(boolean enable) {
+        this.jobStoreEnabled = enable;
+        return me();
+    }
+
+    public boolean jobStoreEnabled() {
+        if (null == jobStoreEnabled) {
+            jobStoreEnabled = get(JOB_STORE);
+            if (null == jobStoreEnabled) {
+                jobStoreEnabled = false;
+            }
+        }
+        return jobStoreEnabled;
+    }
+
+    private void _mergeJobStoreEnabled(AppConfig conf) {
+        if (!hasConfiguration(JOB_STORE)) {
+            jobStoreEnabled = conf.jobStoreEnabled;
+        }
+    }
+
+    private String jobStoreFile;
+
+    protected T jobStoreFile(String file) {
+        E.illegalArgumentIf(S.blank(file), "job store file cannot be blank");
+        this.jobStoreFile = file;
+        return me();
+    }
+
+    public String jobStoreFile() {
+        if (null == jobStoreFile) {
+            String s = get(JOB_STORE_FILE);
+            jobStoreFile = S.blank(s) ? "job-store.log" : s;
+        }
+        return jobStoreFile;
+    }
+
+    private void _mergeJobStoreFile(AppConfig conf) {
+        if (!hasConfiguration(JOB_STORE_FILE)) {
+            jobStoreFile = conf.jobStoreFile;
+        }
+    }
+
+    private Boolean jobStoreFsync;
+
+    protected T jobStoreFsync(boolean enabled) {
+        this.jobStoreFsync = enabled;
+        return me();
+    }
+
+    public boolean jobStoreFsyncEnabled() {
+        if (null == jobStoreFsync) {
+            jobStoreFsync = get(JOB_STORE_FSYNC);
+            if (null == jobStoreFsync) {
+                jobStoreFsync = true;
+            }
+        }
+        return jobStoreFsync;
+    }
+
+    private void _mergeJobStoreFsync(AppConfig conf) {
+        if (!hasConfiguration(JOB_STORE_FSYNC)) {
+            jobStoreFsync = conf.jobStoreFsync;
+        }
+    }
+
+    private JobStore jobStore;
+
+    protected T jobStore(JobStore store) {
+        this.jobStore = $.notNull(store);
+        return me();
+    }
+
+    public JobStore jobStore() {
+        if (null == jobStore) {
+            jobStore = get(JOB_STORE_IMPL);
+            if (null == jobStore) {
+                jobStore = new FileJobStore();
+            }
+        }
+        return jobStore;
+    }
+
+    private void _mergeJobStore(AppConfig conf) {
+        if (!hasConfiguration(JOB_STORE_IMPL)) {
+            jobStore = conf.jobStore;
+        }
+    }
+
+    private Boolean jobWheel;
+
+    protected T jobWheel(boolean enabled) {
+        this.jobWheel = enabled;
+        return me();
+    }
+
+    public boolean jobWheelEnabled() {
+        if (null == jobWheel) {
+            jobWheel = get(JOB_WHEEL);
+            if (null == jobWheel) {
+                jobWheel = false;
+            }
+        }
+        return jobWheel;
+    }
+
+    private void _mergeJobWheel(AppConfig conf) {
+        if (!hasConfiguration(JOB_WHEEL)) {
+            jobWheel = conf.jobWheel;
+        }
+    }
+
+    private int jobWheelTick = -1;
+
+    protected T jobWheelTick(int n) {
+        E.illegalArgumentIf(n < 1, "job wheel tick cannot be less than 1: %s", n);
+        this.jobWheelTick = n;
+        return me();
+    }
+
+    public int jobWheelTick() {
+        if (-1 == jobWheelTick) {
+            Integer I = getInteger(JOB_WHEEL_TICK);
+            if (null == I) {
+                I = 10;
+            }
+            jobWheelTick = I;
+        }
+        return jobWheelTick;
+    }
+
+    private void _mergeJobWheelTick(AppConfig conf) {
+        if (!hasConfiguration(JOB_WHEEL_TICK)) {
+            jobWheelTick = conf.jobWheelTick;
+        }
+    }
+
     private int httpExternalPort = -1;
     
     protected T httpExternalPort(int port) {
@@ -1901,6 +2948,31 @@ public class AppConfig<T extends AppConfigurator> extends Config<AppConfigKey> i
     }
 
     private Osgl.Func0<H.Format> jsonContentTypeProvider = null;
+    private int renderStreamThreshold = -1;
+
+    protected T renderStreamThreshold(int n) {
+        E.illegalArgumentIf(n < 1, "render stream threshold cannot be less than 1: %s", n);
+        this.renderStreamThreshold = n;
+        return me();
+    }
+
+    public int renderStreamThreshold() {
+        if (-1 == renderStreamThreshold) {
+            Integer I = getInteger(RENDER_STREAM_THRESHOLD);
+            if (null == I) {
+                I = 10000;
+            }
+            renderStreamThreshold = I;
+        }
+        return renderStreamThreshold;
+    }
+
+    private void _mergeRenderStreamThreshold(AppConfig conf) {
+        if (!hasConfiguration(RENDER_STREAM_THRESHOLD)) {
+            renderStreamThreshold = conf.renderStreamThreshold;
+        }
+    }
+
     private Boolean renderJsonIeFix = null;
     private H.Format jsonIE;
     protected T renderJsonContentTypeIE(final String contentType) {
@@ -1990,6 +3062,127 @@ public class AppConfig<T extends AppConfigurator> extends Config<AppConfigKey> i
         }
     }
 
+    private String startupTraceFile;
+
+    protected T startupTraceFile(String file) {
+        this.startupTraceFile = file;
+        return me();
+    }
+
+    /**
+     * Returns the file to write start up trace to, or `null` if not specified
+     */
+    public String startupTraceFile() {
+        if (null == startupTraceFile) {
+            String s = get(STARTUP_TRACE_FILE);
+            startupTraceFile = null == s ? "" : s;
+        }
+        return S.blank(startupTraceFile) ? null : startupTraceFile;
+    }
+
+    private void _mergeStartupTraceFile(AppConfig conf) {
+        if (!hasConfiguration(STARTUP_TRACE_FILE)) {
+            startupTraceFile = conf.startupTraceFile;
+        }
+    }
+
+    private Boolean warmUp;
+
+    protected T warmUp(boolean enabled) {
+        this.warmUp = enabled;
+        return me();
+    }
+
+    public boolean warmUpEnabled() {
+        if (null == warmUp) {
+            warmUp = get(WARMUP);
+            if (null == warmUp) {
+                warmUp = true;
+            }
+        }
+        return warmUp;
+    }
+
+    private void _mergeWarmUp(AppConfig conf) {
+        if (!hasConfiguration(WARMUP)) {
+            warmUp = conf.warmUp;
+        }
+    }
+
+    private int warmUpIterations = -1;
+
+    protected T warmUpIterations(int n) {
+        E.illegalArgumentIf(n < 0, "warm up iterations cannot be less than 0: %s", n);
+        this.warmUpIterations = n;
+        return me();
+    }
+
+    public int warmUpIterations() {
+        if (-1 == warmUpIterations) {
+            Integer I = getInteger(WARMUP_ITERATIONS);
+            if (null == I) {
+                I = 100;
+            }
+            warmUpIterations = I;
+        }
+        return warmUpIterations;
+    }
+
+    private void _mergeWarmUpIterations(AppConfig conf) {
+        if (!hasConfiguration(WARMUP_ITERATIONS)) {
+            warmUpIterations = conf.warmUpIterations;
+        }
+    }
+
+    private String warmUpRequestsFile;
+
+    protected T warmUpRequestsFile(String file) {
+        this.warmUpRequestsFile = file;
+        return me();
+    }
+
+    /**
+     * Returns the file of warm up requests, or `null` if not specified
+     */
+    public String warmUpRequestsFile() {
+        if (null == warmUpRequestsFile) {
+            String s = get(WARMUP_REQUESTS_FILE);
+            warmUpRequestsFile = null == s ? "" : s;
+        }
+        return S.blank(warmUpRequestsFile) ? null : warmUpRequestsFile;
+    }
+
+    private void _mergeWarmUpRequestsFile(AppConfig conf) {
+        if (!hasConfiguration(WARMUP_REQUESTS_FILE)) {
+            warmUpRequestsFile = conf.warmUpRequestsFile;
+        }
+    }
+
+    private int warmUpTimeout = -1;
+
+    protected T warmUpTimeout(int n) {
+        E.illegalArgumentIf(n < 0, "warm up timeout cannot be less than 0: %s", n);
+        this.warmUpTimeout = n;
+        return me();
+    }
+
+    public int warmUpTimeout() {
+        if (-1 == warmUpTimeout) {
+            Integer I = getInteger(WARMUP_TIMEOUT);
+            if (null == I) {
+                I = 30000;
+            }
+            warmUpTimeout = I;
+        }
+        return warmUpTimeout;
+    }
+
+    private void _mergeWarmUpTimeout(AppConfig conf) {
+        if (!hasConfiguration(WARMUP_TIMEOUT)) {
+            warmUpTimeout = conf.warmUpTimeout;
+        }
+    }
+
     private String sessionKeyUsername = null;
 
     protected T sessionKeyUsername(String name) {
@@ -2111,6 +3304,31 @@ public class AppConfig<T extends AppConfigurator> extends Config<AppConfigKey> i
         }
     }
 
+    private int sessionScopeTouchInterval = -1;
+
+    protected T sessionScopeTouchInterval(int n) {
+        E.illegalArgumentIf(n < 0, "session scope touch interval cannot be less than 0: %s", n);
+        this.sessionScopeTouchInterval = n;
+        return me();
+    }
+
+    public int sessionScopeTouchInterval() {
+        if (-1 == sessionScopeTouchInterval) {
+            Integer I = getInteger(SESSION_SCOPE_TOUCH_INTERVAL);
+            if (null == I) {
+                I = 60;
+            }
+            sessionScopeTouchInterval = I;
+        }
+        return sessionScopeTouchInterval;
+    }
+
+    private void _mergeSessionScopeTouchInterval(AppConfig conf) {
+        if (!hasConfiguration(SESSION_SCOPE_TOUCH_INTERVAL)) {
+            sessionScopeTouchInterval = conf.sessionScopeTouchInterval;
+        }
+    }
+
     private Boolean sessionPersistent = null;
 
     protected T sessionPersistent(boolean persistenSession) {
@@ -2514,6 +3732,77 @@ public class AppConfig<T extends AppConfigurator> extends Config<AppConfigKey> i
         }
     }
 
+    private WebSocketBroadcaster.OverflowPolicy wsBroadcastOverflowPolicy;
+
+    protected T wsBroadcastOverflowPolicy(WebSocketBroadcaster.OverflowPolicy policy) {
+        this.wsBroadcastOverflowPolicy = $.notNull(policy);
+        return me();
+    }
+
+    public WebSocketBroadcaster.OverflowPolicy wsBroadcastOverflowPolicy() {
+        if (null == wsBroadcastOverflowPolicy) {
+            String s = get(WS_BROADCAST_OVERFLOW_POLICY);
+            wsBroadcastOverflowPolicy = null == s ? WebSocketBroadcaster.OverflowPolicy.DROP : WebSocketBroadcaster.OverflowPolicy.valueOf(s.trim().toUpperCase());
+        }
+        return wsBroadcastOverflowPolicy;
+    }
+
+    private void _mergeWsBroadcastOverflowPolicy(AppConfig conf) {
+        if (!hasConfiguration(WS_BROADCAST_OVERFLOW_POLICY)) {
+            wsBroadcastOverflowPolicy = conf.wsBroadcastOverflowPolicy;
+        }
+    }
+
+    private int wsBroadcastParallelThreshold = -1;
+
+    protected T wsBroadcastParallelThreshold(int n) {
+        E.illegalArgumentIf(n < 1, "websocket broadcast parallel threshold cannot be less than 1: %s", n);
+        this.wsBroadcastParallelThreshold = n;
+        return me();
+    }
+
+    public int wsBroadcastParallelThreshold() {
+        if (-1 == wsBroadcastParallelThreshold) {
+            Integer I = getInteger(WS_BROADCAST_PARALLEL_THRESHOLD);
+            if (null == I) {
+                I = 1024;
+            }
+            wsBroadcastParallelThreshold = I;
+        }
+        return wsBroadcastParallelThreshold;
+    }
+
+    private void _mergeWsBroadcastParallelThreshold(AppConfig conf) {
+        if (!hasConfiguration(WS_BROADCAST_PARALLEL_THRESHOLD)) {
+            wsBroadcastParallelThreshold = conf.wsBroadcastParallelThreshold;
+        }
+    }
+
+    private int wsBroadcastQueueLimit = -1;
+
+    protected T wsBroadcastQueueLimit(int n) {
+        E.illegalArgumentIf(n < 1, "websocket broadcast queue limit cannot be less than 1: %s", n);
+        this.wsBroadcastQueueLimit = n;
+        return me();
+    }
+
+    public int wsBroadcastQueueLimit() {
+        if (-1 == wsBroadcastQueueLimit) {
+            Integer I = getInteger(WS_BROADCAST_QUEUE_LIMIT);
+            if (null == I) {
+                I = 128;
+            }
+            wsBroadcastQueueLimit = I;
+        }
+        return wsBroadcastQueueLimit;
+    }
+
+    private void _mergeWsBroadcastQueueLimit(AppConfig conf) {
+        if (!hasConfiguration(WS_BROADCAST_QUEUE_LIMIT)) {
+            wsBroadcastQueueLimit = conf.wsBroadcastQueueLimit;
+        }
+    }
+
     private String wsTicketKey;
 
     protected T wsTicketeKey(String wsTicketKey) {
@@ -2609,6 +3898,16 @@ public class AppConfig<T extends AppConfigurator> extends Config<AppConfigKey> i
         _mergeAjaxCsrfCheckFailureHandler(conf);
         _mergeCookieDomain(conf);
         _mergeMaxCliSession(conf);
+        _mergeDevWatchService(conf);
+        _mergeDevWatchServiceDebounce(conf);
+        _mergeHttpClientConnectTimeout(conf);
+        _mergeHttpClientMaxRequests(conf);
+        _mergeHttpClientMaxRequestsPerHost(conf);
+        _mergeHttpClientPoolKeepAlive(conf);
+        _mergeHttpClientPoolMaxIdle(conf);
+        _mergeHttpClientReadTimeout(conf);
+        _mergeHttpClientRetryBudget(conf);
+        _mergeHttpClientRetryMax(conf);
         _mergeDspToken(conf);
         _mergeEnumResolvingCaseSensitive(conf);
         _mergeXForwardedProtocol(conf);
@@ -2672,6 +3971,49 @@ public class AppConfig<T extends AppConfigurator> extends Config<AppConfigKey> i
         _mergeUploadFileDownload(conf);
         _mergeSslSupport(conf);
         _mergeWsTicketKey(conf);
+        _mergeWsBroadcastOverflowPolicy(conf);
+        _mergeWsBroadcastParallelThreshold(conf);
+        _mergeWsBroadcastQueueLimit(conf);
+        _mergeInvokerBytecode(conf);
+        _mergePropertyAccessorBytecode(conf);
+        _mergeRenderStreamThreshold(conf);
+        _mergeAsyncTimeout(conf);
+        _mergeAdmissionControl(conf);
+        _mergeAdmissionLimitInitial(conf);
+        _mergeAdmissionLimitGlobalInitial(conf);
+        _mergeAdmissionLimitMax(conf);
+        _mergeAdmissionLimitMin(conf);
+        _mergeAdmissionQueueTimeout(conf);
+        _mergeAdmissionRetryAfter(conf);
+        _mergeCompression(conf);
+        _mergeCompressionLevel(conf);
+        _mergeCompressionMinSize(conf);
+        _mergeCompressionTypes(conf);
+        _mergeAdaptiveDispatch(conf);
+        _mergeAdaptiveDispatchMaxDemotions(conf);
+        _mergeAdaptiveDispatchSamples(conf);
+        _mergeAdaptiveDispatchThreshold(conf);
+        _mergeJobDag(conf);
+        _mergeJobDagPoolSize(conf);
+        _mergeStartupTraceFile(conf);
+        _mergeWarmUp(conf);
+        _mergeWarmUpIterations(conf);
+        _mergeWarmUpRequestsFile(conf);
+        _mergeWarmUpTimeout(conf);
+        _mergeJobWheel(conf);
+        _mergeJobWheelTick(conf);
+        _mergeJobStoreEnabled(conf);
+        _mergeJobStoreFile(conf);
+        _mergeJobStoreFsync(conf);
+        _mergeJobStore(conf);
+        _mergeCliNio(conf);
+        _mergeCliNioPort(conf);
+        _mergeCliNioSelectors(conf);
+        _mergeZxingCacheSize(conf);
+        _mergeZxingCacheControl(conf);
+        _mergeZxingRenderMax(conf);
+        _mergeZxingRenderTimeout(conf);
+        _mergeSessionScopeTouchInterval(conf);
 
         Set<String> keys = conf.propKeys();
         if (!keys.isEmpty()) {
@@ -53,6 +53,83 @@ import java.util.Map;
  */
 public enum AppConfigKey implements ConfigKey {
 
+    /**
+     * `act.admission.enabled` turns on/off admission control of requests
+     * dispatched to worker threads.
+     *
+     * When enabled, the number of in-flight requests is limited globally
+     * and per route. The limits are adjusted according to the measured
+     * handler latency: the limit shrinks when the latency grows above the
+     * no-load latency and grows back when the latency recovers.
+     * Requests exceeding the limit wait up to {@link #ADMISSION_QUEUE_TIMEOUT}
+     * and are rejected with `503 Service Unavailable` if still not admitted.
+     *
+     * Default value: `false`
+     *
+     * @see act.handler.RequestPriority
+     */
+    ADMISSION_ENABLED("admission.enabled"),
+
+    /**
+     * `act.admission.limit.initial` specifies the initial concurrency limit
+     * of a route
+     *
+     * Default value: `20`
+     */
+    ADMISSION_LIMIT_INITIAL("admission.limit.initial"),
+
+    /**
+     * `act.admission.limit.global.initial` specifies the initial concurrency
+     * limit of all requests
+     *
+     * Default value: `200`
+     */
+    ADMISSION_LIMIT_GLOBAL_INITIAL("admission.limit.global.initial"),
+
+    /**
+     * `act.admission.limit.max` specifies the maximum concurrency limit
+     * the adaptive algorithm can reach
+     *
+     * Default value: `1000`
+     */
+    ADMISSION_LIMIT_MAX("admission.limit.max"),
+
+    /**
+     * `act.admission.limit.min` specifies the minimum concurrency limit
+     * the adaptive algorithm can reach
+     *
+     * Default value: `4`
+     */
+    ADMISSION_LIMIT_MIN("admission.limit.min"),
+
+    /**
+     * `act.admission.queue_timeout` specifies the maximum time in milliseconds
+     * a request waits for admission, including the time it waits in the
+     * worker queue. A request never waits longer than `500` milliseconds.
+     *
+     * Default value: `100`
+     */
+    ADMISSION_QUEUE_TIMEOUT("admission.queue_timeout"),
+
+    /**
+     * `act.admission.retry_after` specifies the `Retry-After` header value
+     * in seconds of the response to rejected requests
+     *
+     * Default value: `1`
+     */
+    ADMISSION_RETRY_AFTER("admission.retry_after"),
+
+    /**
+     * `act.async.timeout` specifies the maximum time in milliseconds to wait
+     * for the `CompletionStage` returned by an action handler to complete.
+     * When timed out the request is responded with `503 Service Unavailable`.
+     *
+     * Set to `0` to wait without time limit
+     *
+     * Default value: `60000`
+     */
+    ASYNC_TIMEOUT("async.timeout"),
+
     /**
      * {@code act.basic_authentication.enabled} turn on/off Basic Authentication
      * in Act application.
@@ -139,6 +216,32 @@ public enum AppConfigKey implements ConfigKey {
     CLI_SESSION_MAX("cli.session.max"),
 
 
+    /**
+     * `act.cli.nio.enabled` turns on/off the non-blocking CLI server, which
+     * multiplexes CLI sessions over a small number of selector threads and
+     * streams command output. It serves script clients, e.g.
+     * `echo "job.list" | nc localhost 5463`, while the JLine based CLI server
+     * on {@link #CLI_PORT} still serves interactive sessions.
+     *
+     * Default value: `false`
+     */
+    CLI_NIO_ENABLED("cli.nio.enabled"),
+
+    /**
+     * `act.cli.nio.port` specifies the port the non-blocking CLI server listen to.
+     *
+     * Default value: `5463`
+     */
+    CLI_NIO_PORT("cli.nio.port"),
+
+    /**
+     * `act.cli.nio.selectors` specifies the number of selector threads of
+     * the non-blocking CLI server.
+     *
+     * Default value: `2`
+     */
+    CLI_NIO_SELECTORS("cli.nio.selectors"),
+
     /**
      * `act.cli_over_http.enabled` turn on/off CLI over http feature, which
      * allows ActFramework to handle http request sent through to the  {@link #CLI_OVER_HTTP_PORT}
@@ -177,6 +280,45 @@ public enum AppConfigKey implements ConfigKey {
      */
     CLI_OVER_HTTP_SYS_CMD("cli_over_http.syscmd.enabled"),
 
+    /**
+     * `act.compression.enabled` turns on/off response compression. When enabled
+     * responses are compressed with `gzip` or `deflate` according to the
+     * `Accept-Encoding` header of the request if the content type matches
+     * {@link #COMPRESSION_TYPES} and the content is not smaller than
+     * {@link #COMPRESSION_MIN_SIZE}
+     *
+     * Default value: `true`
+     */
+    COMPRESSION_ENABLED("compression.enabled"),
+
+    /**
+     * `act.compression.level` specifies the deflate compression level, from
+     * `1` (fastest) to `9` (best compression)
+     *
+     * Default value: `6`
+     */
+    COMPRESSION_LEVEL("compression.level"),
+
+    /**
+     * `act.compression.min_size` specifies the minimum size in bytes of the
+     * response content to be compressed. Smaller content is sent as it is because
+     * the compression overhead outweighs the bytes saved
+     *
+     * Default value: `1024`
+     */
+    COMPRESSION_MIN_SIZE("compression.min_size"),
+
+    /**
+     * `act.compression.types` specifies a comma separated list of content types
+     * to be compressed. A type ends with `/*` matches all sub types, e.g. `text/*`.
+     *
+     * Already compressed formats like images, audio, video and archives are never
+     * compressed regardless of this setting
+     *
+     * Default value: `text/*,application/json,application/javascript,application/xml,image/svg+xml`
+     */
+    COMPRESSION_TYPES("compression.types"),
+
     /**
      * `act.cookie.domain_provider.impl` specify the provider
      * that provides the cookie domain name
@@ -324,6 +466,66 @@ public enum AppConfigKey implements ConfigKey {
      */
     DB_SEQ_GENERATOR("db.seq_gen.impl"),
 
+    /**
+     * `act.dev.watch_service.enabled` turn on/off the {@link java.nio.file.WatchService}
+     * based file change detection in dev mode. When disabled or when the watch
+     * service is not available, the app falls back to walk through source and
+     * resource folders on every request to detect changes
+     *
+     * Default value: `true`
+     */
+    DEV_WATCH_SERVICE("dev.watch_service.enabled"),
+
+    /**
+     * `act.dev.watch_service.debounce` specifies the quiet period in milliseconds
+     * the watch service based change detector waits for a burst of file
+     * changes to settle down before triggering app reload
+     *
+     * Default value: `50`
+     */
+    DEV_WATCH_SERVICE_DEBOUNCE("dev.watch_service.debounce"),
+
+    /**
+     * `act.dispatch.adaptive.enabled` turn on/off adaptive dispatching.
+     *
+     * When enabled, the latency of request handlers that are not annotated
+     * with {@link act.handler.NonBlock} is measured on worker
+     * threads. A handler is promoted to express execution on the IO thread
+     * once it has been consistently faster than {@link #DISPATCH_ADAPTIVE_THRESHOLD}
+     * without blocking calls detected, and demoted back to worker threads
+     * as soon as it regresses.
+     *
+     * Default value: `false`
+     *
+     * @see act.xio.BlockingDetector
+     */
+    DISPATCH_ADAPTIVE("dispatch.adaptive.enabled"),
+
+    /**
+     * `act.dispatch.adaptive.max_demotions` specifies the number of demotions
+     * after which a handler is pinned to worker threads
+     *
+     * Default value: `3`
+     */
+    DISPATCH_ADAPTIVE_MAX_DEMOTIONS("dispatch.adaptive.max_demotions"),
+
+    /**
+     * `act.dispatch.adaptive.samples` specifies the number of consecutive
+     * fast and non-blocking requests required to promote a handler to
+     * express execution
+     *
+     * Default value: `200`
+     */
+    DISPATCH_ADAPTIVE_SAMPLES("dispatch.adaptive.samples"),
+
+    /**
+     * `act.dispatch.adaptive.threshold` specifies the latency threshold
+     * in microseconds for a handler to run on the IO thread
+     *
+     * Default value: `200`
+     */
+    DISPATCH_ADAPTIVE_THRESHOLD("dispatch.adaptive.threshold"),
+
     /**
      * `dsp.token` specifies the name of "double submission protect token"
      *
@@ -415,6 +617,76 @@ public enum AppConfigKey implements ConfigKey {
      */
     HOST("host"),
 
+    /**
+     * `act.http.client.connect_timeout` specifies the timeout in milliseconds
+     * the framework managed {@link act.xio.HttpClient} waits for a connection
+     * to be established
+     *
+     * Default value: `10000`
+     */
+    HTTP_CLIENT_CONNECT_TIMEOUT("http.client.connect_timeout"),
+
+    /**
+     * `act.http.client.max_requests` specifies the maximum number of
+     * concurrent requests the {@link act.xio.HttpClient} executes. Requests
+     * above this number are queued
+     *
+     * Default value: `64`
+     */
+    HTTP_CLIENT_MAX_REQUESTS("http.client.max_requests"),
+
+    /**
+     * `act.http.client.max_requests_per_host` specifies the maximum number of
+     * concurrent requests the {@link act.xio.HttpClient} executes against
+     * one single host. Requests above this number are queued
+     *
+     * Default value: `8`
+     */
+    HTTP_CLIENT_MAX_REQUESTS_PER_HOST("http.client.max_requests_per_host"),
+
+    /**
+     * `act.http.client.pool.keep_alive` specifies the time in seconds an idle
+     * connection is kept in the {@link act.xio.HttpClient} connection pool
+     *
+     * Default value: `300`
+     */
+    HTTP_CLIENT_POOL_KEEP_ALIVE("http.client.pool.keep_alive"),
+
+    /**
+     * `act.http.client.pool.max_idle` specifies the maximum number of idle
+     * connections kept in the {@link act.xio.HttpClient} connection pool
+     *
+     * Default value: `16`
+     */
+    HTTP_CLIENT_POOL_MAX_IDLE("http.client.pool.max_idle"),
+
+    /**
+     * `act.http.client.read_timeout` specifies the timeout in milliseconds
+     * the {@link act.xio.HttpClient} waits for data when reading response.
+     * The same value applies to writing request
+     *
+     * Default value: `30000`
+     */
+    HTTP_CLIENT_READ_TIMEOUT("http.client.read_timeout"),
+
+    /**
+     * `act.http.client.retry.budget` specifies the percentage of requests
+     * the {@link act.xio.HttpClient} is allowed to retry. This prevents
+     * retries from piling up on a failing remote service
+     *
+     * Default value: `20`
+     */
+    HTTP_CLIENT_RETRY_BUDGET("http.client.retry.budget"),
+
+    /**
+     * `act.http.client.retry.max` specifies the maximum number of times the
+     * {@link act.xio.HttpClient} retries an idempotent request that failed
+     * with an IO error
+     *
+     * Default value: `2`
+     */
+    HTTP_CLIENT_RETRY_MAX("http.client.retry.max"),
+
     /**
      * `act.http.external_server.enabled` specify if the app is running behind a front end
      * http server
@@ -545,6 +817,47 @@ public enum AppConfigKey implements ConfigKey {
      */
     ID_GEN_LONG_ENCODER("idgen.encoder.impl"),
 
+    /**
+     * `invoker.bytecode.enabled`
+     *
+     * When enabled Act generates an invoker class for each action handler
+     * method, which loads parameters into typed local variables and calls the
+     * method directly instead of going through reflection. Controller fields are
+     * set through generated setters.
+     *
+     * Generated accessors of properties selected by {@link act.util.PropertySpec}
+     * are switched by {@link #PROPERTY_ACCESSOR_BYTECODE} instead.
+     *
+     * Methods the generated invoker cannot handle, e.g. methods with validation
+     * constraints on parameters, always go through reflection
+     *
+     * Default value: `true`
+     */
+    INVOKER_BYTECODE("invoker.bytecode.enabled"),
+
+    /**
+     * {@code job.dag.enabled} when turned on, the jobs chained to an app event,
+     * e.g. {@link act.job.OnAppStart} jobs, are executed as a dependency graph
+     * built from {@link act.job.InvokeAfter}, {@link act.job.InvokeBefore} and
+     * {@link act.job.AlongWith}: annotated jobs not depending on each other run
+     * in parallel while jobs registered by the framework keep their registration
+     * order.
+     *
+     * Turn it off to run all jobs one after another on the thread emitting
+     * the event, in a deterministic order.
+     *
+     * Default value: `true`
+     */
+    JOB_DAG("job.dag.enabled"),
+
+    /**
+     * {@code job.dag.pool.size} specifies the maximum number of threads
+     * used to run app event jobs in parallel
+     *
+     * Default value: the number of available processors
+     */
+    JOB_DAG_POOL_SIZE("job.dag.pool.size"),
+
     /**
      * {@code job.pool.size} specifies the maximum number of threads
      * can exists in the application's job manager's thread pool
@@ -552,6 +865,61 @@ public enum AppConfigKey implements ConfigKey {
      */
     JOB_POOL_SIZE("job.pool.size"),
 
+    /**
+     * {@code job.store.enabled} turns on the durable job store. When enabled the
+     * next fire time and last completion of scheduled jobs, and the pending one
+     * shot jobs that implement {@link java.io.Serializable}, are persisted and
+     * restored after app restart, with the runs missed while the app is down
+     * handled according to the job's {@link act.job.MisfirePolicy}.
+     *
+     * Default value: `false`
+     */
+    JOB_STORE("job.store.enabled"),
+
+    /**
+     * {@code job.store.file} specifies the file used by the default
+     * {@link act.job.FileJobStore}. Relative path is resolved against the
+     * app base dir.
+     *
+     * Default value: `job-store.log`
+     */
+    JOB_STORE_FILE("job.store.file"),
+
+    /**
+     * {@code job.store.fsync} specifies whether {@link act.job.FileJobStore}
+     * shall force each batch of writes to the disk. Turn it off to trade
+     * durability on power loss for throughput.
+     *
+     * Default value: `true`
+     */
+    JOB_STORE_FSYNC("job.store.fsync"),
+
+    /**
+     * {@code job.store.impl} specifies the implementation of {@link act.job.JobStore}
+     *
+     * Default value: {@link act.job.FileJobStore}
+     */
+    JOB_STORE_IMPL("job.store.impl"),
+
+    /**
+     * {@code job.wheel.enabled} turns on the hashed timing wheel scheduler
+     * for the app job manager. The timing wheel schedules and cancels jobs
+     * in constant time and is recommended when the app keeps a large number
+     * of pending delayed jobs, e.g. session expiry notifications or retry timers.
+     *
+     * Default value: `false`
+     */
+    JOB_WHEEL("job.wheel.enabled"),
+
+    /**
+     * {@code job.wheel.tick} specifies the tick duration of the timing wheel
+     * scheduler in milliseconds. Delayed jobs are fired at the first tick
+     * after they expire.
+     *
+     * Default value: `10`
+     */
+    JOB_WHEEL_TICK("job.wheel.tick"),
+
     /**
      * {@code act.locale} specifies the application default locale
      * <p>Default value: {@link java.util.Locale#getDefault}</p>
@@ -630,6 +998,21 @@ public enum AppConfigKey implements ConfigKey {
      */
     PROFILE("profile"),
 
+    /**
+     * `property_accessor.bytecode.enabled`
+     *
+     * When enabled Act generates an accessor class for each projection of
+     * properties selected by {@link act.util.PropertySpec} declared with
+     * annotation, which reads the properties directly instead of going through
+     * reflection when rendering CSV and table output.
+     *
+     * Specs set at runtime through {@link act.util.PropertySpec#current} always
+     * go through reflection
+     *
+     * Default value: `true`
+     */
+    PROPERTY_ACCESSOR_BYTECODE("property_accessor.bytecode.enabled"),
+
     /**
      * `render.json.output_charset`
      *
@@ -651,6 +1034,23 @@ public enum AppConfigKey implements ConfigKey {
     RENDER_JSON_CONTENT_TYPE_IE("render.json.content_type.ie"),
 
 
+    /**
+     * `render.stream.threshold`
+     *
+     * Specifies the minimum number of elements in a collection returned by
+     * an action handler to get the collection streamed to the response when
+     * rendered as JSON or CSV. The rows are written through chunked transfer
+     * encoding as the collection is iterated instead of being rendered into
+     * a string first.
+     *
+     * Lazy sources, e.g. an `Iterator` or an `Iterable` that is not a
+     * `Collection`, are always streamed unless the handler is an express
+     * handler.
+     *
+     * Default value: `10000`
+     */
+    RENDER_STREAM_THRESHOLD("render.stream.threshold"),
+
     /**
      * {@code resolver.error_template_path.impl} specifies error page (template)
      * path resolver implementation
@@ -772,6 +1172,18 @@ public enum AppConfigKey implements ConfigKey {
      */
     SESSION_MAPPER_HEADER_PREFIX("session.mapper.header.prefix"),
 
+    /**
+     * `act.session.scope.touch_interval` specifies the minimum number of
+     * seconds between two refreshes of the TTL of a `@SessionScoped` bean in
+     * the session cache. Reading a bean refreshed within the interval does
+     * not write to the cache. The interval never exceeds half of the
+     * {@link #SESSION_TTL session TTL}. Set to `0` to refresh on every request
+     * reading the bean.
+     *
+     * Default value: `60`
+     */
+    SESSION_SCOPE_TOUCH_INTERVAL("session.scope.touch_interval"),
+
     /**
      * {@code session.secure.enabled} specifies whether the session cookie should
      * be set as secure. Enable secure session will cause session cookie only
@@ -803,6 +1215,17 @@ public enum AppConfigKey implements ConfigKey {
      */
     SSL("ssl.enabled"),
 
+    /**
+     * {@code startup.trace.file} specifies the file to which the app start up
+     * timeline is written in the Chrome trace event format once the app started.
+     * The file can be opened with `chrome://tracing` or https://ui.perfetto.dev
+     *
+     * The timeline can also be inspected with the `act.startup.profile` command
+     *
+     * Default value: none, i.e. the trace file is not written
+     */
+    STARTUP_TRACE_FILE("startup.trace.file"),
+
     /**
      * {@code act.target.version} specifies the java version
      * of the compile target code. This configuration is used only
@@ -862,6 +1285,73 @@ public enum AppConfigKey implements ConfigKey {
      */
     VIEW_DEFAULT("view.default"),
 
+    /**
+     * {@code warmup.enabled} turns on the warm up before the app accepts
+     * traffic: synthetic requests declared with {@link act.controller.annotation.WarmUp}
+     * on actions or read from {@link #WARMUP_REQUESTS_FILE the requests file}
+     * are replayed through the request handling pipeline to get the code
+     * compiled by JIT and the lazy initialized caches populated.
+     *
+     * Warm up is skipped in dev mode
+     *
+     * Default value: `true`
+     */
+    WARMUP("warmup.enabled"),
+
+    /**
+     * {@code warmup.iterations} specifies the number of times each warm up
+     * request is replayed
+     *
+     * Default value: `100`
+     */
+    WARMUP_ITERATIONS("warmup.iterations"),
+
+    /**
+     * {@code warmup.requests.file} specifies a file, or a resource in the
+     * class path, of warm up requests captured from the traffic. Each line
+     * is either `METHOD URL [BODY]` or an access log line in the common log
+     * format. Only safe requests, e.g. `GET`, are read from the file.
+     *
+     * Default value: none
+     */
+    WARMUP_REQUESTS_FILE("warmup.requests.file"),
+
+    /**
+     * {@code warmup.timeout} specifies the maximum time in milliseconds spent
+     * on warm up
+     *
+     * Default value: `30000`
+     */
+    WARMUP_TIMEOUT("warmup.timeout"),
+
+    /**
+     * `act.ws.broadcast.overflow_policy` specifies what to do when a websocket
+     * connection has too many outbound frames pending. Options:
+     *
+     * * `drop` - drop the frame for that connection
+     * * `disconnect` - close the slow connection
+     *
+     * Default value: `drop`
+     */
+    WS_BROADCAST_OVERFLOW_POLICY("ws.broadcast.overflow_policy"),
+
+    /**
+     * `act.ws.broadcast.parallel_threshold` specifies the number of recipients
+     * above which a broadcast is split into slices and fanned out in parallel
+     *
+     * Default value: `1024`
+     */
+    WS_BROADCAST_PARALLEL_THRESHOLD("ws.broadcast.parallel_threshold"),
+
+    /**
+     * `act.ws.broadcast.queue_limit` specifies the maximum number of outbound
+     * frames pending on a websocket connection. Once reached the
+     * {@link #WS_BROADCAST_OVERFLOW_POLICY overflow policy} applies
+     *
+     * Default value: `128`
+     */
+    WS_BROADCAST_QUEUE_LIMIT("ws.broadcast.queue_limit"),
+
     /**
      * `ws.key.ticket`
      *
@@ -873,6 +1363,44 @@ public enum AppConfigKey implements ConfigKey {
 
     X_FORWARD_PROTOCOL("x_forward_protocol"),
 
+    /**
+     * `act.zxing.cache.size` specifies the number of bytes the rendered
+     * barcode/QR code images can take in the render cache. Images are
+     * evicted in least recently used order once the budget is exceeded.
+     * Set to `0` to disable the render cache.
+     *
+     * Default value: `4194304`, i.e. 4MB
+     */
+    ZXING_CACHE_SIZE("zxing.cache.size"),
+
+    /**
+     * `act.zxing.cache_control` specifies the `Cache-Control` header sent
+     * with barcode/QR code images. The image is identified by a strong
+     * `ETag` derived from the content, format, error correction level and
+     * dimension, thus conditional requests are answered with `304` without
+     * rendering the image.
+     *
+     * Default value: `private, max-age=86400`
+     */
+    ZXING_CACHE_CONTROL("zxing.cache_control"),
+
+    /**
+     * `act.zxing.render.max` specifies the maximum number of barcode/QR code
+     * images rendered at the same time. Requests of images not found in the
+     * render cache wait for a render slot up to {@link #ZXING_RENDER_TIMEOUT}.
+     *
+     * Default value: half of the available processors, at least `1`
+     */
+    ZXING_RENDER_MAX("zxing.render.max"),
+
+    /**
+     * `act.zxing.render.timeout` specifies the milliseconds a request waits
+     * for a render slot before it is rejected with `503 Service Unavailable`
+     *
+     * Default value: `1000`
+     */
+    ZXING_RENDER_TIMEOUT("zxing.render.timeout"),
+
     ;
     private String key;
     private Object defVal;
@@ -25,6 +25,7 @@ import act.app.ActionContext;
 import act.conf.AppConfigKey;
 import act.controller.meta.HandlerMethodMetaInfo;
 import act.data.Versioned;
+import act.handler.RequestHandler;
 import act.route.Router;
 import act.util.DisableFastJsonCircularReferenceDetect;
 import act.util.FastJsonIterable;
@@ -939,7 +940,16 @@ public @interface Controller {
             } else if (v instanceof Map) {
                 return RenderJSON.of(status, v);
             } else {
+                RequestHandler handler = context.handler();
+                boolean stream = (requireJSON || context.accept() == H.Format.CSV)
+                        && (null == handler || !handler.express(context))
+                        && StreamRender.shouldStream(v, context.config().renderStreamThreshold());
                 if (requireJSON) {
+                    if (stream) {
+                        PropertySpec.MetaInfo propertySpec = PropertySpec.MetaInfo.withCurrent(meta, context);
+                        return new StreamRenderJSON(status, v, propertySpec, context)
+                                .disableCircularReferenceDetect(meta.disableJsonCircularRefDetect());
+                    }
                     // patch https://github.com/alibaba/fastjson/issues/478
                     if (meta.disableJsonCircularRefDetect()) {
                         DisableFastJsonCircularReferenceDetect.option.set(true);
@@ -963,6 +973,9 @@ public @interface Controller {
                     return new FilteredRenderXML(status, v, propertySpec, context);
                 } else if (context.accept() == H.Format.CSV) {
                     PropertySpec.MetaInfo propertySpec = PropertySpec.MetaInfo.withCurrent(meta, context);
+                    if (stream) {
+                        return new StreamRenderCSV(status, v, propertySpec, context);
+                    }
                     return RenderCSV.get(status, v, propertySpec, context);
                 } else {
                     boolean isArray = meta.returnType().getDescriptor().startsWith("[");
@@ -0,0 +1,62 @@
+package act.controller.annotation;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.annotation.*;
+
+/**
+ * Mark an action method to be warmed up before the app accepts traffic.
+ *
+ * The synthetic requests are sent with the HTTP method the action is
+ * routed to. If no URL is specified the route path is used, provided it
+ * does not contain path variables.
+ *
+ * **Note** requests with unsafe HTTP methods, e.g. `POST`, are really handled
+ * by the action, thus make sure it is fine to replay them.
+ *
+ * See {@link act.conf.AppConfigKey#WARMUP}
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface WarmUp {
+
+    /**
+     * Specify the URLs, including query string if needed, of the warm up requests
+     *
+     * @return the request URLs
+     */
+    String[] value() default {};
+
+    /**
+     * Specify the request body
+     *
+     * @return the request body
+     */
+    String body() default "";
+
+    /**
+     * Specify the content type of the request body
+     *
+     * @return the content type
+     */
+    String contentType() default "application/json";
+
+}
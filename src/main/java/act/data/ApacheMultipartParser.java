@@ -32,9 +32,13 @@ import org.apache.commons.io.output.DeferredFileOutputStream;
 import org.osgl.exception.UnexpectedException;
 import org.osgl.http.H;
 import org.osgl.storage.ISObject;
+import org.osgl.util.E;
 import org.osgl.util.IO;
 
 import java.io.*;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -85,6 +89,8 @@ public class ApacheMultipartParser extends RequestBodyParser {
 
         private static FileCleaningTracker fileTracker;
 
+        private static final char[] HEX = "0123456789abcdef".toCharArray();
+
         static {
             fileTracker = new FileCleaningTracker();
         }
@@ -148,6 +154,21 @@ public class ApacheMultipartParser extends RequestBodyParser {
          */
         private FileItemHeaders headers;
 
+        /**
+         * SHA-256 digest updated when the content is written to the output stream.
+         */
+        private MessageDigest digest;
+
+        /**
+         * The output stream that updates the {@link #digest} on the fly.
+         */
+        private OutputStream digestOutputStream;
+
+        /**
+         * Hex encoded SHA-256 hash of the content.
+         */
+        private String sha256;
+
         public AutoFileItem(FileItemStream stream, ActionContext context) {
             this.fieldName = stream.getFieldName();
             this.contentType = stream.getContentType();
@@ -467,8 +488,33 @@ public class ApacheMultipartParser extends RequestBodyParser {
                     outputFile = getTempFile(context);
                 }
                 dfos = new DeferredFileOutputStream(sizeThreshold, outputFile);
+                try {
+                    digest = MessageDigest.getInstance("SHA-256");
+                } catch (NoSuchAlgorithmException e) {
+                    throw E.unexpected(e);
+                }
+                digestOutputStream = new DigestOutputStream(dfos, digest);
+            }
+            return digestOutputStream;
+        }
+
+        /**
+         * Returns the hex encoded SHA-256 hash of the content. The hash is
+         * calculated while the content is written into this item so it
+         * does not require reading the content again.
+         *
+         * @return the SHA-256 hash or `null` if no content has been written yet
+         */
+        public String getSha256() {
+            if (null == sha256 && null != digest) {
+                byte[] ba = digest.digest();
+                StringBuilder sb = new StringBuilder(ba.length * 2);
+                for (byte b : ba) {
+                    sb.append(HEX[(b >> 4) & 0x0F]).append(HEX[b & 0x0F]);
+                }
+                sha256 = sb.toString();
             }
-            return dfos;
+            return sha256;
         }
         // --------------------------------------------------------- Public methods
 
@@ -570,6 +616,25 @@ public class ApacheMultipartParser extends RequestBodyParser {
         }
     }
 
+    /**
+     * Returns an iterator that reads the parts of the multipart request body
+     * directly from the request input stream, without buffering them into
+     * temporary files.
+     *
+     * @param context the action context
+     * @return the part iterator
+     */
+    public FileItemIterator iterate(ActionContext context) {
+        H.Request request = context.req();
+        try {
+            return new FileItemIteratorImpl(request.inputStream(), request.header("content-type"), request.characterEncoding());
+        } catch (FileUploadException e) {
+            throw new IllegalStateException("Error when handling upload", e);
+        } catch (IOException e) {
+            throw new IllegalStateException("Error when handling upload", e);
+        }
+    }
+
     @Override
     public Map<String, String[]> parse(ActionContext context) {
         H.Request request = context.req();
@@ -34,6 +34,8 @@ import java.lang.reflect.Type;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Keep the property information of Data class
@@ -53,13 +55,14 @@ public class DataPropertyRepository extends AppServiceBase<DataPropertyRepositor
     /**
      * Map a list of property path to class name
      */
-    private Map<String, List<String>> repo = C.newMap();
+    private ConcurrentMap<String, List<String>> repo = new ConcurrentHashMap<>();
 
-    private OutputFieldsCache outputFieldsCache = new OutputFieldsCache();
+    private OutputFieldsCache outputFieldsCache;
 
     public DataPropertyRepository(App app) {
         super(app, true);
         _init();
+        outputFieldsCache = new OutputFieldsCache(this, app.config().propertyAccessorBytecodeEnabled());
     }
 
     @Override
@@ -67,6 +70,7 @@ public class DataPropertyRepository extends AppServiceBase<DataPropertyRepositor
         extendedTerminators.clear();
         terminators.clear();
         repo.clear();
+        outputFieldsCache.clear();
     }
 
     /**
@@ -74,21 +78,34 @@ public class DataPropertyRepository extends AppServiceBase<DataPropertyRepositor
      * @param c the class
      * @return the property list of the class
      */
-    public synchronized List<String> propertyListOf(Class<?> c) {
+    public List<String> propertyListOf(Class<?> c) {
         String cn = c.getName();
         List<String> ls = repo.get(cn);
         if (ls != null) {
             return ls;
         }
-        ls = buildPropertyList(c);
-        repo.put(cn, ls);
-        return ls;
+        List<String> newList = buildPropertyList(c);
+        ls = repo.putIfAbsent(cn, newList);
+        return null == ls ? newList : ls;
     }
 
     public List<String> outputFields(PropertySpec.MetaInfo spec, Class<?> componentClass, ActContext context) {
         return outputFieldsCache.getOutputFields(spec, componentClass, context);
     }
 
+    /**
+     * Returns the {@link PropertyProjection} to extract output properties from entities
+     * of the component class as specified by the property spec
+     *
+     * @param spec the property spec
+     * @param componentClass the component class
+     * @param context the current context
+     * @return the projection
+     */
+    public PropertyProjection projection(PropertySpec.MetaInfo spec, Class<?> componentClass, ActContext context) {
+        return outputFieldsCache.getProjection(spec, componentClass, context);
+    }
+
     private List<String> buildPropertyList(Class c) {
         Method[] ma = c.getMethods();
         String context = "";
@@ -0,0 +1,171 @@
+package act.data;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.app.ActionContext;
+import org.apache.commons.fileupload.FileItemIterator;
+import org.apache.commons.fileupload.FileItemStream;
+import org.apache.commons.fileupload.FileUploadException;
+import org.osgl.http.H;
+import org.osgl.util.E;
+import org.osgl.util.IO;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Streams the parts of a `multipart/form-data` request body as they
+ * arrive. No part is buffered into memory or temporary file, thus
+ * the content of a part must be consumed before moving to the next
+ * part.
+ *
+ * Declare a parameter of this type in the action handler method to
+ * get the parts:
+ *
+ * ```java
+ * @PostAction("/upload")
+ * public void upload(MultipartParts parts) {
+ *     for (MultipartParts.Part part : parts) {
+ *         if (!part.isFormField()) {
+ *             storage.save(part.fileName(), part.stream());
+ *         }
+ *     }
+ * }
+ * ```
+ *
+ * **Note** the request body of such an action is not parsed into request
+ * params, form fields shall be read from the parts, e.g. with {@link Part#string()}.
+ */
+public class MultipartParts implements Iterable<MultipartParts.Part>, Iterator<MultipartParts.Part> {
+
+    /**
+     * A part of the multipart request body
+     */
+    public static class Part {
+        private final FileItemStream item;
+        private final String encoding;
+
+        private Part(FileItemStream item, String encoding) {
+            this.item = item;
+            this.encoding = encoding;
+        }
+
+        public String fieldName() {
+            return item.getFieldName();
+        }
+
+        /**
+         * Returns the file name of the part or `null` if this part is a form field
+         */
+        public String fileName() {
+            return item.getName();
+        }
+
+        public String contentType() {
+            return item.getContentType();
+        }
+
+        public boolean isFormField() {
+            return item.isFormField();
+        }
+
+        /**
+         * Returns the content stream of the part. The stream is valid only until
+         * {@link MultipartParts#next()} is called again
+         */
+        public InputStream stream() {
+            try {
+                return item.openStream();
+            } catch (IOException e) {
+                throw E.ioException(e);
+            }
+        }
+
+        /**
+         * Read the content of the part as string. This is meant to be used on
+         * form fields
+         */
+        public String string() {
+            String charset = encoding;
+            String contentType = contentType();
+            if (null != contentType) {
+                ContentTypeWithEncoding contentTypeWithEncoding = ContentTypeWithEncoding.parse(contentType);
+                if (null != contentTypeWithEncoding.encoding) {
+                    charset = contentTypeWithEncoding.encoding;
+                }
+            }
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            IO.copy(stream(), baos);
+            return new String(baos.toByteArray(), null == charset ? StandardCharsets.UTF_8 : Charset.forName(charset));
+        }
+    }
+
+    private final FileItemIterator iterator;
+    private final String encoding;
+
+    public MultipartParts(ActionContext context) {
+        H.Request req = context.req();
+        RequestBodyParser parser = RequestBodyParser.get(req);
+        E.illegalStateIf(!(parser instanceof ApacheMultipartParser), "request body is not multipart form data");
+        this.iterator = ((ApacheMultipartParser) parser).iterate(context);
+        this.encoding = req.characterEncoding();
+    }
+
+    @Override
+    public Iterator<Part> iterator() {
+        return this;
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            return iterator.hasNext();
+        } catch (FileUploadException e) {
+            throw new IllegalStateException("Error when handling upload", e);
+        } catch (IOException e) {
+            throw E.ioException(e);
+        }
+    }
+
+    @Override
+    public Part next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        try {
+            return new Part(iterator.next(), encoding);
+        } catch (FileUploadException e) {
+            throw new IllegalStateException("Error when handling upload", e);
+        } catch (IOException e) {
+            throw E.ioException(e);
+        }
+    }
+
+    @Override
+    public void remove() {
+        throw E.unsupport();
+    }
+}
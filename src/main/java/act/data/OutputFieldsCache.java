@@ -20,7 +20,6 @@ package act.data;
  * #L%
  */
 
-import act.app.App;
 import act.data.util.StringOrPattern;
 import act.util.ActContext;
 import act.util.PropertySpec;
@@ -28,70 +27,104 @@ import org.osgl.$;
 import org.osgl.util.C;
 
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
 
 class OutputFieldsCache {
 
-    // Key to index final output fields. Key includes:
-    // 1. excluded - developer declared excluded field list
-    // 2. outputs - developer declared output field list
-    // 3. component type - the type of the entity where field data get extracted
-    private class K {
-        Set<String> excluded;
-        List<String> outputs;
-        Class<?> componentType;
-        K(Set<String> ss, List<String> ls, Class<?> componentType) {
-            excluded = ss;
-            outputs = ls;
-            this.componentType = componentType;
-        }
+    // max number of projections kept for ad hoc specs, see PropertySpec.MetaInfo#adHoc
+    static final int MAX_AD_HOC_PROJECTIONS = 256;
+
+    // projections indexed by spec (see PropertySpec.MetaInfo#specKey) and component type
+    private final ConcurrentMap<Object, ConcurrentMap<Class<?>, PropertyProjection>> cache = new ConcurrentHashMap<>();
 
+    // ad hoc specs come from request parameters, thus they are kept in a LRU cache and
+    // their projections read properties by reflection instead of generated accessor
+    private final Map<$.T2<Object, Class<?>>, PropertyProjection> adHocCache = new LinkedHashMap<$.T2<Object, Class<?>>, PropertyProjection>(16, 0.75f, true) {
         @Override
-        public int hashCode() {
-            return $.hc(excluded, outputs, componentType);
+        protected boolean removeEldestEntry(Map.Entry<$.T2<Object, Class<?>>, PropertyProjection> eldest) {
+            return size() > MAX_AD_HOC_PROJECTIONS;
         }
+    };
+    private final DataPropertyRepository repo;
+    private final boolean generateAccessor;
 
-        @Override
-        public boolean equals(Object obj) {
-            if (obj == this) {
-                return true;
+    OutputFieldsCache(DataPropertyRepository repo, boolean generateAccessor) {
+        this.repo = repo;
+        this.generateAccessor = generateAccessor;
+    }
+
+    public List<String> getOutputFields(PropertySpec.MetaInfo spec, Class<?> componentClass, ActContext context) {
+        return getProjection(spec, componentClass, context).properties();
+    }
+
+    public PropertyProjection getProjection(PropertySpec.MetaInfo spec, Class<?> componentClass, ActContext context) {
+        Object specKey = spec.specKey(context);
+        if (spec.adHoc()) {
+            return getAdHocProjection(specKey, spec, componentClass, context);
+        }
+        ConcurrentMap<Class<?>, PropertyProjection> projections = cache.get(specKey);
+        if (null == projections) {
+            ConcurrentMap<Class<?>, PropertyProjection> newProjections = new ConcurrentHashMap<>();
+            projections = cache.putIfAbsent(specKey, newProjections);
+            if (null == projections) {
+                projections = newProjections;
             }
-            if (obj instanceof K) {
-                K that = (K) obj;
-                return $.eq(that.excluded, this.excluded)
-                        && $.eq(that.outputs, this.outputs)
-                        && $.eq(that.componentType, this.componentType);
+        }
+        PropertyProjection projection = projections.get(componentClass);
+        if (null == projection) {
+            List<String> outputs = calculateOutputs(spec.excludedFields(context), spec.outputFields(context), componentClass);
+            PropertyProjection newProjection = new PropertyProjection(componentClass, outputs, generateAccessor);
+            projection = projections.putIfAbsent(componentClass, newProjection);
+            if (null == projection) {
+                projection = newProjection;
             }
-            return false;
         }
+        return projection;
     }
 
-    private Map<K, List<String>> cache = C.newMap();
+    void clear() {
+        cache.clear();
+        synchronized (adHocCache) {
+            adHocCache.clear();
+        }
+    }
 
-    public List<String> getOutputFields(PropertySpec.MetaInfo spec, Class<?> componentClass, ActContext context) {
-        K k = new K(spec.excludedFields(context), spec.outputFields(context), componentClass);
-        List<String> outputs = cache.get(k);
-        if (null == outputs) {
-            outputs = calculateOutputs(k);
-            cache.put(k, outputs);
+    int adHocSize() {
+        synchronized (adHocCache) {
+            return adHocCache.size();
+        }
+    }
+
+    private PropertyProjection getAdHocProjection(Object specKey, PropertySpec.MetaInfo spec, Class<?> componentClass, ActContext context) {
+        $.T2<Object, Class<?>> key = $.<Object, Class<?>>T2(specKey, componentClass);
+        synchronized (adHocCache) {
+            PropertyProjection projection = adHocCache.get(key);
+            if (null != projection) {
+                return projection;
+            }
+        }
+        List<String> outputs = calculateOutputs(spec.excludedFields(context), spec.outputFields(context), componentClass);
+        PropertyProjection projection = new PropertyProjection(componentClass, outputs, false);
+        synchronized (adHocCache) {
+            adHocCache.put(key, projection);
         }
-        return outputs;
+        return projection;
     }
 
-    List<String> calculateOutputs(K k) {
-        Class<?> type = k.componentType;
-        if ($.isSimpleType(type) && k.excluded.isEmpty() && k.outputs.isEmpty()) {
+    List<String> calculateOutputs(Set<String> excluded, List<String> declaredOutputs, Class<?> type) {
+        if ($.isSimpleType(type) && excluded.isEmpty() && declaredOutputs.isEmpty()) {
             return C.list();
         }
         C.List<StringOrPattern> outputs = C.newList();
-        boolean hasPattern = hasPattern(k.outputs, outputs);
-        Set<String> excluded = k.excluded;
+        boolean hasPattern = hasPattern(declaredOutputs, outputs);
         if (hasPattern || outputs.isEmpty()) {
-            DataPropertyRepository repo = App.instance().service(DataPropertyRepository.class);
-            List<String> allFields = repo.propertyListOf(k.componentType);
+            List<String> allFields = repo.propertyListOf(type);
             if (!excluded.isEmpty()) {
                 List<String> finalOutputs;
                 List<StringOrPattern> lsp = C.newList();
@@ -132,7 +165,7 @@ class OutputFieldsCache {
                 return finalOutputs;
             }
         } else {
-            return k.outputs;
+            return declaredOutputs;
         }
     }
 
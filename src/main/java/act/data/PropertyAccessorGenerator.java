@@ -0,0 +1,233 @@
+package act.data;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.asm.ClassWriter;
+import act.asm.Label;
+import act.asm.MethodVisitor;
+import act.asm.Opcodes;
+import act.asm.Type;
+import act.util.GeneratedClassDefiner;
+import org.osgl.$;
+import org.osgl.util.C;
+import org.osgl.util.E;
+import org.osgl.util.S;
+import org.osgl.util.ValueObject;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates {@link PropertyProjection.Accessor} that reads property paths
+ * through getter calls and field access instead of reflection
+ */
+class PropertyAccessorGenerator implements Opcodes {
+
+    private static final String BASE_CLASS = Type.getInternalName(PropertyProjection.Accessor.class);
+
+    private final Class<?> componentType;
+    private final String[] properties;
+    // resolved getter/field chain for each property, `null` if not supported
+    private final List<Member>[] chains;
+
+    @SuppressWarnings("unchecked")
+    private PropertyAccessorGenerator(Class<?> componentType, String[] properties) {
+        this.componentType = componentType;
+        this.properties = properties;
+        this.chains = new List[properties.length];
+    }
+
+    /**
+     * Generate accessor for properties of component type
+     *
+     * @param componentType the component type
+     * @param properties the property paths
+     * @param compiled receives the flags tell if property at an index is read by the accessor
+     * @return the accessor or `null` if none of the properties is supported
+     */
+    static PropertyProjection.Accessor generate(Class<?> componentType, String[] properties, boolean[] compiled) {
+        PropertyAccessorGenerator generator = new PropertyAccessorGenerator(componentType, properties);
+        if (!generator.resolve(compiled)) {
+            return null;
+        }
+        String className = GeneratedClassDefiner.className(componentType, "PropertyAccessor");
+        Class<?> accessorClass = GeneratedClassDefiner.define(componentType, className, generator.generateByteCode(className.replace('.', '/')));
+        return (PropertyProjection.Accessor) $.newInstance(accessorClass);
+    }
+
+    private boolean resolve(boolean[] compiled) {
+        if (!GeneratedClassDefiner.canAccess(componentType, componentType)) {
+            return false;
+        }
+        boolean found = false;
+        for (int i = 0; i < properties.length; ++i) {
+            List<Member> chain = resolve(properties[i]);
+            chains[i] = chain;
+            compiled[i] = null != chain;
+            found = found || null != chain;
+        }
+        return found;
+    }
+
+    private List<Member> resolve(String path) {
+        if (S.blank(path) || S.eq("this", path)) {
+            return null;
+        }
+        List<Member> chain = C.newList();
+        Class<?> type = componentType;
+        for (String name : path.split("[./]")) {
+            if (!resolvable(type)) {
+                return null;
+            }
+            Member member = member(type, name.trim());
+            if (null == member) {
+                return null;
+            }
+            chain.add(member);
+            type = member instanceof Method ? ((Method) member).getReturnType() : ((Field) member).getType();
+        }
+        return chain;
+    }
+
+    // types for which $.getProperty has special handling are not resolved
+    private boolean resolvable(Class<?> type) {
+        return !type.isPrimitive()
+                && !type.isArray()
+                && Object.class != type
+                && !Map.class.isAssignableFrom(type)
+                && !Collection.class.isAssignableFrom(type)
+                && !ValueObject.class.isAssignableFrom(type)
+                && GeneratedClassDefiner.canAccess(componentType, type);
+    }
+
+    private Member member(Class<?> type, String name) {
+        if (S.blank(name)) {
+            return null;
+        }
+        String capName = S.capFirst(name);
+        Method method = getter(type, "get" + capName);
+        if (null == method) {
+            method = getter(type, "is" + capName);
+        }
+        if (null != method) {
+            return method;
+        }
+        try {
+            Field field = type.getField(name);
+            return Modifier.isStatic(field.getModifiers()) ? null : field;
+        } catch (NoSuchFieldException e) {
+            return null;
+        }
+    }
+
+    private static Method getter(Class<?> type, String name) {
+        try {
+            Method method = type.getMethod(name);
+            return Modifier.isStatic(method.getModifiers()) || void.class == method.getReturnType() ? null : method;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private byte[] generateByteCode(String className) {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(V1_6, ACC_PUBLIC + ACC_SUPER + ACC_FINAL + ACC_SYNTHETIC, className, null, BASE_CLASS, null);
+
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitMethodInsn(INVOKESPECIAL, BASE_CLASS, "<init>", "()V", false);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        mv = cw.visitMethod(ACC_PUBLIC, "get", "(Ljava/lang/Object;I)Ljava/lang/Object;", null, null);
+        mv.visitCode();
+        int sz = properties.length;
+        Label dflt = new Label();
+        Label[] labels = new Label[sz];
+        for (int i = 0; i < sz; ++i) {
+            labels[i] = null == chains[i] ? dflt : new Label();
+        }
+        mv.visitVarInsn(ILOAD, 2);
+        mv.visitTableSwitchInsn(0, sz - 1, dflt, labels);
+        for (int i = 0; i < sz; ++i) {
+            List<Member> chain = chains[i];
+            if (null == chain) {
+                continue;
+            }
+            mv.visitLabel(labels[i]);
+            mv.visitVarInsn(ALOAD, 1);
+            Class<?> type = componentType;
+            mv.visitTypeInsn(CHECKCAST, Type.getInternalName(type));
+            for (int j = 0, n = chain.size(); j < n; ++j) {
+                Member member = chain.get(j);
+                type = read(mv, type, member);
+                if (j < n - 1) {
+                    // return null when intermediate value is null
+                    Label notNull = new Label();
+                    mv.visitInsn(DUP);
+                    mv.visitJumpInsn(IFNONNULL, notNull);
+                    mv.visitInsn(POP);
+                    mv.visitInsn(ACONST_NULL);
+                    mv.visitInsn(ARETURN);
+                    mv.visitLabel(notNull);
+                }
+            }
+            if (type.isPrimitive()) {
+                Type boxed = Type.getType($.wrapperClassOf(type));
+                mv.visitMethodInsn(INVOKESTATIC, boxed.getInternalName(), "valueOf", "(" + Type.getDescriptor(type) + ")" + boxed.getDescriptor(), false);
+            }
+            mv.visitInsn(ARETURN);
+        }
+        mv.visitLabel(dflt);
+        mv.visitTypeInsn(NEW, "java/lang/IndexOutOfBoundsException");
+        mv.visitInsn(DUP);
+        mv.visitMethodInsn(INVOKESPECIAL, "java/lang/IndexOutOfBoundsException", "<init>", "()V", false);
+        mv.visitInsn(ATHROW);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    // read the member on the value of `owner` type at stack top, returns the type of the value read
+    private static Class<?> read(MethodVisitor mv, Class<?> owner, Member member) {
+        String ownerName = Type.getInternalName(owner);
+        if (member instanceof Method) {
+            Method method = (Method) member;
+            int opcode = owner.isInterface() ? INVOKEINTERFACE : INVOKEVIRTUAL;
+            mv.visitMethodInsn(opcode, ownerName, method.getName(), Type.getMethodDescriptor(method), owner.isInterface());
+            return method.getReturnType();
+        } else if (member instanceof Field) {
+            Field field = (Field) member;
+            mv.visitFieldInsn(GETFIELD, ownerName, field.getName(), Type.getDescriptor(field.getType()));
+            return field.getType();
+        }
+        throw E.unexpected("unknown member: %s", member);
+    }
+}
@@ -0,0 +1,119 @@
+package act.data;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.osgl.$;
+import org.osgl.util.C;
+import org.osgl.util.S;
+
+import java.util.List;
+
+/**
+ * The plan to extract the output properties from entities of a
+ * component type, as specified by a {@link act.util.PropertySpec}.
+ *
+ * Properties that can be resolved into a chain of public getters
+ * or fields on the component type are read by a generated accessor
+ * class, other properties, e.g. those go through a `Map` or `List`,
+ * are read with {@link $#getProperty(Object, String)}
+ *
+ * Instances are cached by {@link DataPropertyRepository} and are
+ * safe to be shared across threads.
+ */
+public class PropertyProjection {
+
+    /**
+     * Base class of the accessor generated for a projection
+     */
+    public abstract static class Accessor {
+        /**
+         * Returns the value of property at `index`
+         * @param entity the entity, must be an instance of the component type
+         * @param index the index of the property
+         * @return the property value
+         */
+        public abstract Object get(Object entity, int index);
+    }
+
+    private final Class<?> componentType;
+    private final List<String> properties;
+    private final String[] propertyArray;
+    private final boolean[] isThis;
+    private final boolean[] compiled;
+    private final Accessor accessor;
+
+    PropertyProjection(Class<?> componentType, List<String> properties, boolean generateAccessor) {
+        this.componentType = $.notNull(componentType);
+        this.properties = C.list(properties);
+        int sz = properties.size();
+        this.propertyArray = properties.toArray(new String[sz]);
+        this.isThis = new boolean[sz];
+        for (int i = 0; i < sz; ++i) {
+            isThis[i] = S.eq("this", propertyArray[i]);
+        }
+        this.compiled = new boolean[sz];
+        this.accessor = generateAccessor ? PropertyAccessorGenerator.generate(componentType, propertyArray, compiled) : null;
+    }
+
+    /**
+     * Returns the component type
+     */
+    public Class<?> componentType() {
+        return componentType;
+    }
+
+    /**
+     * Returns the output property list
+     */
+    public List<String> properties() {
+        return properties;
+    }
+
+    public int size() {
+        return propertyArray.length;
+    }
+
+    /**
+     * Returns the value of property at `index` of an entity
+     * @param entity the entity
+     * @param index the index of the property in {@link #properties()}
+     * @return the property value
+     */
+    public Object get(Object entity, int index) {
+        if (isThis[index]) {
+            return entity;
+        }
+        if (null == entity) {
+            return null;
+        }
+        if (compiled[index] && componentType.isInstance(entity)) {
+            return accessor.get(entity, index);
+        }
+        return $.getProperty(entity, propertyArray[index]);
+    }
+
+    /**
+     * Check if property at `index` is read by the generated accessor
+     */
+    boolean compiled(int index) {
+        return compiled[index];
+    }
+}
@@ -23,6 +23,7 @@ package act.event;
 import act.Destroyable;
 import act.app.App;
 import act.app.AppServiceBase;
+import act.app.StartupProfiler;
 import act.app.event.AppEvent;
 import act.app.event.AppEventId;
 import act.app.event.AppEventListener;
@@ -33,6 +34,7 @@ import act.job.AppJobManager;
 import org.osgl.mvc.result.Result;
 import org.osgl.util.C;
 import org.osgl.util.E;
+import org.osgl.util.S;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
@@ -226,6 +228,7 @@ public class EventBus extends AppServiceBase<EventBus> {
 
     @SuppressWarnings("unchecked")
     private boolean callOn(ActEvent e, ActEventListener l) {
+        StartupProfiler.Span span = StartupProfiler.start(app(), "listener", listenerName(l));
         try {
             if (l instanceof OnceEventListener) {
                 return ((OnceEventListener) l).tryHandle(e);
@@ -240,9 +243,16 @@ public class EventBus extends AppServiceBase<EventBus> {
             throw x;
         } catch (Exception x) {
             throw E.unexpected(x, x.getMessage());
+        } finally {
+            span.stop();
         }
     }
 
+    private static String listenerName(ActEventListener l) {
+        String id = l.id();
+        return S.blank(id) ? l.getClass().getName() : id;
+    }
+
     private <T extends ActEvent> void callOn(final T event, List<? extends ActEventListener> listeners, boolean async) {
         if (null == listeners) {
             return;
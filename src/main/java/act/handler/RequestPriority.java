@@ -0,0 +1,64 @@
+package act.handler;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Specify the priority of requests handled by an action method
+ * when admission control is enabled.
+ *
+ * When the concurrency limit is reached requests of lower priority
+ * are rejected first. Action methods without this annotation are
+ * of {@link Level#NORMAL} priority.
+ *
+ * @see act.xio.AdmissionControl
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface RequestPriority {
+
+    Level value();
+
+    enum Level {
+        /**
+         * Requests are admitted only when less than half of the
+         * concurrency limit (at least one permit) is in use, e.g.
+         * reports and exports. Waiting requests still get a share
+         * of the permits released under load
+         */
+        LOW,
+
+        /**
+         * Requests are admitted as long as the concurrency limit allows
+         */
+        NORMAL,
+
+        /**
+         * Requests are always admitted, e.g. health checks. They are still
+         * counted as in-flight requests and are part of the latency samples
+         */
+        CRITICAL
+    }
+}
@@ -24,6 +24,7 @@ import act.app.ActionContext;
 import act.app.App;
 import act.controller.ParamNames;
 import act.handler.builtin.controller.FastRequestHandler;
+import act.xio.Compression;
 import org.osgl.http.H;
 import org.osgl.util.E;
 import org.osgl.util.FastStr;
@@ -33,9 +34,39 @@ import org.osgl.util.S;
 import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class StaticFileGetter extends FastRequestHandler {
+
+    private static final Set<Compression.Encoding> GZIP = EnumSet.of(Compression.Encoding.GZIP);
+
+    /**
+     * gzip compressed content of a small file
+     */
+    private static class Compressed {
+        private final long lastModified;
+        private final long length;
+        private final ByteBuffer content;
+
+        Compressed(File file, ByteBuffer content) {
+            this.lastModified = file.lastModified();
+            this.length = file.length();
+            this.content = content;
+        }
+
+        boolean isValid(File file) {
+            return lastModified == file.lastModified() && length == file.length();
+        }
+    }
+
     private File base;
+    private ConcurrentMap<String, Compressed> compressedCache = new ConcurrentHashMap<>();
 
     public StaticFileGetter(String base, App app) {
         E.NPE(base);
@@ -50,6 +81,7 @@ public class StaticFileGetter extends FastRequestHandler {
     @Override
     protected void releaseResources() {
         base = null;
+        compressedCache.clear();
     }
 
     @Override
@@ -82,10 +114,68 @@ public class StaticFileGetter extends FastRequestHandler {
         fmt = contentType(file.getPath());
         resp.contentType(fmt.contentType());
         context.applyCorsSpec().applyContentType();
+        if (writeCompressed(file, fmt, context)) {
+            return;
+        }
         InputStream is = new BufferedInputStream(IO.is(file));
         IO.copy(is, context.resp().outputStream());
     }
 
+    /**
+     * Write compressed content of the file if the client accepts it. It could be
+     *
+     * * a pre-compressed variant, i.e. `foo.js.br` or `foo.js.gz` for `foo.js`
+     *   that is not older than the file
+     * * gzip compressed content of a small file, which is compressed once and
+     *   served from cache afterwards
+     *
+     * Large files are left to the response compression on the fly
+     *
+     * @return `true` if compressed content has been written
+     */
+    private boolean writeCompressed(File file, H.Format fmt, ActionContext context) {
+        Compression compression = context.app().compression();
+        if (null == compression || !compression.enabled()) {
+            return false;
+        }
+        Map<Compression.Encoding, File> variants = new EnumMap<>(Compression.Encoding.class);
+        for (Compression.Encoding encoding : Compression.PRE_COMPRESSED) {
+            File variant = new File(file.getPath() + encoding.suffix());
+            if (variant.isFile() && variant.canRead() && variant.lastModified() >= file.lastModified()) {
+                variants.put(encoding, variant);
+            }
+        }
+        boolean compressible = compression.compressible(fmt.contentType());
+        if (variants.isEmpty() && !compressible) {
+            return false;
+        }
+        H.Response resp = context.resp();
+        resp.addHeader(H.Header.Names.VARY, H.Header.Names.ACCEPT_ENCODING);
+        String acceptEncoding = context.req().header(H.Header.Names.ACCEPT_ENCODING);
+        Compression.Encoding encoding = Compression.negotiate(acceptEncoding, variants.keySet());
+        if (null != encoding) {
+            resp.header(H.Header.Names.CONTENT_ENCODING, encoding.header());
+            InputStream is = new BufferedInputStream(IO.is(variants.get(encoding)));
+            IO.copy(is, resp.outputStream());
+            return true;
+        }
+        long len = file.length();
+        if (!compressible || len < compression.minSize() || len >= context.config().resourcePreloadSizeLimit()
+                || null == Compression.negotiate(acceptEncoding, GZIP)) {
+            return false;
+        }
+        String key = file.getPath();
+        Compressed compressed = compressedCache.get(key);
+        if (null == compressed || !compressed.isValid(file)) {
+            ByteBuffer content = ByteBuffer.wrap(IO.readContent(file));
+            compressed = new Compressed(file, compression.compress(content, Compression.Encoding.GZIP));
+            compressedCache.put(key, compressed);
+        }
+        resp.header(H.Header.Names.CONTENT_ENCODING, Compression.Encoding.GZIP.header());
+        resp.writeContent(compressed.content.duplicate());
+        return true;
+    }
+
     // for unit test
     public File base() {
         return base;
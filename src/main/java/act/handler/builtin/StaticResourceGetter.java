@@ -25,6 +25,7 @@ import act.app.ActionContext;
 import act.app.App;
 import act.controller.ParamNames;
 import act.handler.builtin.controller.FastRequestHandler;
+import act.xio.Compression;
 import org.osgl.$;
 import org.osgl.http.H;
 import org.osgl.mvc.result.NotFound;
@@ -58,12 +59,14 @@ public class StaticResourceGetter extends FastRequestHandler {
     private boolean preloadFailure;
     private boolean preloaded;
     private String etag;
+    private Map<Compression.Encoding, ByteBuffer> variants;
 
     private Set<URL> folders = new HashSet<>();
     private Map<String, String> etags = new HashMap<>();
     private Map<String, ByteBuffer> cachedBuffers = new HashMap<>();
     private Map<String, String> cachedContentType = new HashMap<>();
     private Map<String, Boolean> cachedFailures = new HashMap<>();
+    private Map<String, Map<Compression.Encoding, ByteBuffer>> cachedVariants = new HashMap<>();
 
     public StaticResourceGetter(String base) {
         String path = S.ensureStartsWith(base, SEP);
@@ -95,7 +98,7 @@ public class StaticResourceGetter extends FastRequestHandler {
         return Act.isProd() &&
                 (cachedBuffers.containsKey(path)
                         || cachedFailures.containsKey(path)
-                        || (null != context.req().etag() && context.req().etagMatches(etags.get(path))));
+                        || (null != context.req().etag() && etagMatches(context, etags.get(path), cachedVariants.get(path))));
     }
 
     @Override
@@ -113,13 +116,10 @@ public class StaticResourceGetter extends FastRequestHandler {
                 if (preloadFailure) {
                     AlwaysNotFound.INSTANCE.handle(context);
                 } else {
-                    if (req.etagMatches(etag)) {
+                    if (etagMatches(context, etag, variants)) {
                         AlwaysNotModified.INSTANCE.handle(context);
                     } else {
-                        H.Response resp = context.resp();
-                        resp.contentType(contentType.contentType())
-                                .etag(this.etag)
-                                .writeContent(buffer.duplicate());
+                        write(context, contentType.contentType(), this.etag, buffer, variants);
                     }
                 }
                 return;
@@ -129,16 +129,14 @@ public class StaticResourceGetter extends FastRequestHandler {
                 return;
             }
 
-            if (null != req.etag() && req.etagMatches(etags.get(path))) {
+            if (null != req.etag() && etagMatches(context, etags.get(path), cachedVariants.get(path))) {
                 AlwaysNotModified.INSTANCE.handle(context);
                 return;
             }
         }
         ByteBuffer buffer = cachedBuffers.get(path);
         if (null != buffer) {
-            context.resp().contentType(cachedContentType.get(path))
-                    .etag(etags.get(path))
-                    .writeContent(buffer.duplicate());
+            write(context, cachedContentType.get(path), etags.get(path), buffer, cachedVariants.get(path));
             return;
         }
         try {
@@ -174,6 +172,7 @@ public class StaticResourceGetter extends FastRequestHandler {
                         } else {
                             cachedBuffers.put(path, buffer);
                             cachedContentType.put(path, fmt.contentType());
+                            cachedVariants.put(path, loadVariants(loadPath, fmt.contentType(), buffer));
                         }
                     }
                 }
@@ -231,6 +230,7 @@ public class StaticResourceGetter extends FastRequestHandler {
                 preloadFailure = true;
             } else {
                 this.etag = etagBag.get();
+                this.variants = loadVariants(base, contentType.contentType(), buffer);
             }
             preloaded = true;
         }
@@ -250,6 +250,71 @@ public class StaticResourceGetter extends FastRequestHandler {
         return null;
     }
 
+    /**
+     * Load pre-compressed variants of a resource, i.e. `foo.js.br` and `foo.js.gz`
+     * for `foo.js`. If there is no gzip variant, the content is compressed once
+     * here when it is compressible
+     */
+    private Map<Compression.Encoding, ByteBuffer> loadVariants(String loadPath, String contentType, ByteBuffer buffer) {
+        Map<Compression.Encoding, ByteBuffer> variants = new EnumMap<>(Compression.Encoding.class);
+        Compression compression = Act.app().compression();
+        if (null == compression || !compression.enabled()) {
+            return variants;
+        }
+        for (Compression.Encoding encoding : Compression.PRE_COMPRESSED) {
+            URL url = StaticFileGetter.class.getResource(loadPath + encoding.suffix());
+            if (null != url) {
+                try {
+                    variants.put(encoding, ByteBuffer.wrap(IO.readContent(url.openStream())));
+                } catch (IOException e) {
+                    Act.LOGGER.warn(e, "Error loading resource: %s", url);
+                }
+            }
+        }
+        if (!variants.containsKey(Compression.Encoding.GZIP)
+                && buffer.remaining() >= compression.minSize()
+                && compression.compressible(contentType)) {
+            ByteBuffer compressed = compression.compress(buffer, Compression.Encoding.GZIP);
+            if (compressed.remaining() < buffer.remaining()) {
+                variants.put(Compression.Encoding.GZIP, compressed);
+            }
+        }
+        return variants;
+    }
+
+    private static void write(ActionContext context, String contentType, String etag,
+                              ByteBuffer buffer, Map<Compression.Encoding, ByteBuffer> variants) {
+        H.Response resp = context.resp();
+        resp.contentType(contentType);
+        if (null != variants && !variants.isEmpty()) {
+            resp.addHeader(H.Header.Names.VARY, H.Header.Names.ACCEPT_ENCODING);
+            Compression.Encoding encoding = negotiate(context, variants);
+            if (null != encoding) {
+                resp.header(H.Header.Names.CONTENT_ENCODING, encoding.header());
+                buffer = variants.get(encoding);
+                etag = Compression.etag(etag, encoding);
+            }
+        }
+        resp.etag(etag);
+        resp.writeContent(buffer.duplicate());
+    }
+
+    // each encoded variant has its own entity tag
+    private static boolean etagMatches(ActionContext context, String etag, Map<Compression.Encoding, ByteBuffer> variants) {
+        if (null == etag) {
+            return false;
+        }
+        return context.req().etagMatches(Compression.etag(etag, negotiate(context, variants)));
+    }
+
+    private static Compression.Encoding negotiate(ActionContext context, Map<Compression.Encoding, ByteBuffer> variants) {
+        if (null == variants || variants.isEmpty()) {
+            return null;
+        }
+        String acceptEncoding = context.req().header(H.Header.Names.ACCEPT_ENCODING);
+        return Compression.negotiate(acceptEncoding, variants.keySet());
+    }
+
     private boolean resourceSizeIsOkay() {
         if (preloadSizeLimit <= 0) {
             return false;
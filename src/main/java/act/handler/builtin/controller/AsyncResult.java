@@ -0,0 +1,174 @@
+package act.handler.builtin.controller;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.Act;
+import act.view.ActErrorResult;
+import org.osgl.$;
+import org.osgl.http.H;
+import org.osgl.mvc.result.Result;
+import org.osgl.util.E;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps the `CompletionStage` returned by an action handler method.
+ *
+ * {@link RequestHandlerProxy} suspends the request when it gets an
+ * `AsyncResult`: the worker thread is released and the after and finally
+ * interceptors are called when the stage completes, on the thread that
+ * completes the stage.
+ *
+ * This class does not reference any Java 8 type directly, so that it
+ * can be loaded on Java 7 where `CompletionStage` is not available.
+ */
+public class AsyncResult extends Result {
+
+    /**
+     * Get notified when the stage completes
+     */
+    public interface Listener {
+        /**
+         * Called when the stage completes
+         *
+         * @param value the value the stage completed with, `null` if completed exceptionally
+         * @param error the cause if the stage completed exceptionally
+         */
+        void onComplete(Object value, Throwable error);
+    }
+
+    private static final Class<?> COMPLETION_STAGE = completionStageClass();
+
+    private final Object stage;
+    private final $.Function<Object, Result> resultConverter;
+
+    /**
+     * Construct an `AsyncResult`
+     *
+     * @param stage the `CompletionStage` returned by the handler method
+     * @param resultConverter converts the value of the stage into a {@link Result}
+     */
+    public AsyncResult(Object stage, $.Function<Object, Result> resultConverter) {
+        super(H.Status.OK);
+        E.illegalArgumentIf(!isAsync(stage), "CompletionStage expected: %s", stage);
+        this.stage = stage;
+        this.resultConverter = $.notNull(resultConverter);
+    }
+
+    /**
+     * Register a listener that is called when the stage completes. If the
+     * stage has already completed the listener is called immediately on the
+     * current thread
+     */
+    public void subscribe(Listener listener) {
+        CompletionStageAdapter.subscribe(stage, listener);
+    }
+
+    /**
+     * Convert the value of the stage into a result. This shall be called with
+     * the action context of the request restored on the current thread
+     */
+    public Result toResult(Object value) {
+        return resultConverter.apply(value);
+    }
+
+    /**
+     * Try to cancel the stage, e.g. when the request is timed out
+     */
+    public void cancel() {
+        if (stage instanceof Future) {
+            ((Future) stage).cancel(true);
+        }
+    }
+
+    /**
+     * Apply the result in blocking mode. This is used only when an `AsyncResult`
+     * is applied by a handler that does not support request suspension
+     */
+    @Override
+    public void apply(H.Request req, H.Response resp) {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final Object[] outcome = new Object[2];
+        subscribe(new Listener() {
+            @Override
+            public void onComplete(Object value, Throwable error) {
+                outcome[0] = value;
+                outcome[1] = error;
+                latch.countDown();
+            }
+        });
+        Result result;
+        try {
+            int timeout = Act.appConfig().asyncTimeout();
+            if (timeout > 0) {
+                if (!latch.await(timeout, TimeUnit.MILLISECONDS)) {
+                    cancel();
+                    throw timeout();
+                }
+            } else {
+                latch.await();
+            }
+            Throwable error = (Throwable) outcome[1];
+            if (null != error) {
+                throw error instanceof Result ? (Result) error : E.unexpected(error);
+            }
+            result = toResult(outcome[0]);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw E.unexpected(e);
+        }
+        if (null != result) {
+            result.apply(req, resp);
+        }
+    }
+
+    /**
+     * Check if a type returned by a handler method is a `CompletionStage`
+     */
+    public static boolean isAsyncType(Class<?> type) {
+        return null != COMPLETION_STAGE && COMPLETION_STAGE.isAssignableFrom(type);
+    }
+
+    /**
+     * Check if an object returned by a handler method is a `CompletionStage`
+     */
+    public static boolean isAsync(Object v) {
+        return null != COMPLETION_STAGE && COMPLETION_STAGE.isInstance(v);
+    }
+
+    /**
+     * Returns the result responded when the stage does not complete in time
+     */
+    public static Result timeout() {
+        return ActErrorResult.of(H.Status.SERVICE_UNAVAILABLE);
+    }
+
+    private static Class<?> completionStageClass() {
+        try {
+            return Class.forName("java.util.concurrent.CompletionStage");
+        } catch (ClassNotFoundException e) {
+            // Java 7
+            return null;
+        }
+    }
+}
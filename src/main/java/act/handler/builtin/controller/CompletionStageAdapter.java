@@ -0,0 +1,57 @@
+package act.handler.builtin.controller;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiConsumer;
+
+/**
+ * Bridges `CompletionStage` to {@link AsyncResult.Listener}.
+ *
+ * All Java 8 types used by async result support are referenced
+ * from this class only.
+ */
+final class CompletionStageAdapter implements BiConsumer<Object, Throwable> {
+
+    private final AsyncResult.Listener listener;
+
+    private CompletionStageAdapter(AsyncResult.Listener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void accept(Object value, Throwable error) {
+        listener.onComplete(value, null == error ? null : unwrap(error));
+    }
+
+    static void subscribe(Object stage, AsyncResult.Listener listener) {
+        ((CompletionStage<?>) stage).whenComplete(new CompletionStageAdapter(listener));
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && null != error.getCause()) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
@@ -22,6 +22,7 @@ package act.handler.builtin.controller;
 
 import act.app.ActionContext;
 import act.controller.CacheSupportMetaInfo;
+import act.handler.RequestPriority;
 import act.handler.builtin.controller.impl.ReflectedHandlerInvoker;
 import act.security.CORS;
 import act.security.CSRF;
@@ -58,6 +59,21 @@ public class ControllerAction extends ActionHandler<ControllerAction> {
         return ActNotFound.create();
     }
 
+    public RequestPriority.Level requestPriority() {
+        if (handlerInvoker instanceof ReflectedHandlerInvoker) {
+            return ((ReflectedHandlerInvoker) handlerInvoker).requestPriority();
+        }
+        return RequestPriority.Level.NORMAL;
+    }
+
+    public boolean async() {
+        return handlerInvoker instanceof ReflectedHandlerInvoker && ((ReflectedHandlerInvoker) handlerInvoker).async();
+    }
+
+    public boolean multipartStreaming() {
+        return handlerInvoker instanceof ReflectedHandlerInvoker && ((ReflectedHandlerInvoker) handlerInvoker).multipartStreaming();
+    }
+
     @Override
     public CORS.Spec corsSpec() {
         return handlerInvoker.corsSpec();
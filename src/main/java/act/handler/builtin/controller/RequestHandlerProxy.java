@@ -31,6 +31,7 @@ import act.controller.CacheSupportMetaInfo;
 import act.controller.ResponseCache;
 import act.controller.meta.*;
 import act.handler.RequestHandlerBase;
+import act.handler.RequestPriority;
 import act.security.CORS;
 import act.security.CSRF;
 import act.util.AnnotatedClassFinder;
@@ -38,6 +39,9 @@ import act.util.Global;
 import act.util.MissingAuthenticationHandler;
 import act.view.ActErrorResult;
 import act.view.RenderAny;
+import act.view.StreamRender;
+import act.view.ZXingResult;
+import act.xio.NetworkJob;
 import act.xio.WebSocketConnectionHandler;
 import org.osgl.$;
 import org.osgl.cache.CacheService;
@@ -46,6 +50,7 @@ import org.osgl.http.H;
 import org.osgl.logging.L;
 import org.osgl.logging.Logger;
 import org.osgl.mvc.result.NotFound;
+import org.osgl.mvc.result.RenderBinary;
 import org.osgl.mvc.result.Result;
 import org.osgl.util.C;
 import org.osgl.util.E;
@@ -57,6 +62,10 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.ListIterator;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Pattern;
 
 import static org.osgl.http.H.Method.GET;
@@ -192,43 +201,155 @@ public final class RequestHandlerProxy extends RequestHandlerBase {
                 context.startHandling();
                 result = _handle(context);
             }
-            context.startIntercepting();
-            Result afterResult = handleAfter(result, context);
-            if (null != afterResult) {
-                result = afterResult;
+            if (result instanceof AsyncResult) {
+                suspend((AsyncResult) result, context, cacheKey);
+                return;
             }
-            if (null == result) {
-                result = context.nullValueResult();
+            onHandled(result, context, cacheKey);
+        } catch (Exception e) {
+            onException(e, context);
+        } finally {
+            if (!context.suspended()) {
+                onFinish(context);
             }
-            onResult(result, context);
-            if (supportCache) {
-                this.cache.put(cacheKey, context.resp(), cacheSupport.ttl);
+        }
+    }
+
+    private void onHandled(Result result, ActionContext context, String cacheKey) throws Exception {
+        context.startIntercepting();
+        Result afterResult = handleAfter(result, context);
+        if (null != afterResult) {
+            result = afterResult;
+        }
+        if (null == result) {
+            result = context.nullValueResult();
+        }
+        if (context.express() && blockingOutput(result)) {
+            // blocking output cannot be written on the IO thread
+            dispatchResult(result, context, cacheKey);
+            return;
+        }
+        onResult(result, context);
+        if (null != cacheKey) {
+            this.cache.put(cacheKey, context.resp(), cacheSupport.ttl);
+        }
+    }
+
+    /*
+     * Apply the result on a worker thread. The request is handled on the
+     * IO thread when the action is non-block or promoted by adaptive dispatch
+     */
+    private void dispatchResult(final Result result, final ActionContext context, final String cacheKey) {
+        context.express(false);
+        context.dispatch(new NetworkJob() {
+            @Override
+            public void run() {
+                context.saveLocal();
+                try {
+                    onResult(result, context);
+                    if (null != cacheKey) {
+                        cache.put(cacheKey, context.resp(), cacheSupport.ttl);
+                    }
+                } catch (Exception e) {
+                    onException(e, context);
+                } finally {
+                    onFinish(context);
+                    ActionContext.clearCurrent();
+                }
             }
+        });
+    }
+
+    private static boolean blockingOutput(Result result) {
+        return result instanceof StreamRender || result instanceof RenderBinary || result instanceof ZXingResult;
+    }
+
+    private void onException(Exception e, ActionContext context) {
+        H.Request req = context.req();
+        logger.error(e, S.concat("Error handling request: [", req.method().name(), "] ", req.url()));
+        Result result = null;
+        try {
+            result = handleException(e, context);
+        } catch (Exception e0) {
+            logger.error(e0, "Error invoking exception handler");
+        }
+        if (null == result) {
+            result = ActErrorResult.of(e);
+        }
+        try {
+            onResult(result, context);
+        } catch (Exception e2) {
+            logger.error(e2, "error rendering exception handle  result");
+            onResult(ActErrorResult.of(e2), context);
+        }
+    }
+
+    private void onFinish(ActionContext context) {
+        try {
+            handleFinally(context);
         } catch (Exception e) {
-            H.Request req = context.req();
-            logger.error(e, S.concat("Error handling request: [", req.method().name(), "] ", req.url()));
-            try {
-                result = handleException(e, context);
-            } catch (Exception e0) {
-                logger.error(e0, "Error invoking exception handler");
+            logger.error(e, "Error invoking final handler");
+        } finally {
+            context.destroy();
+        }
+    }
+
+    /*
+     * Release the current thread and resume handling the request when the
+     * stage completes or timed out, whichever comes first. The action context
+     * is restored on the thread that resumes the request.
+     */
+    private void suspend(final AsyncResult async, final ActionContext context, final String cacheKey) {
+        context.suspend();
+        final AtomicBoolean done = new AtomicBoolean();
+        int timeout = app.config().asyncTimeout();
+        final Future<?> timer = timeout <= 0 ? null : app.jobManager().delay(new Callable<Void>() {
+            @Override
+            public Void call() {
+                if (done.compareAndSet(false, true)) {
+                    async.cancel();
+                    resume(async, null, AsyncResult.timeout(), context, cacheKey);
+                }
+                return null;
             }
-            if (null == result) {
-                result = ActErrorResult.of(e);
+        }, timeout, TimeUnit.MILLISECONDS);
+        async.subscribe(new AsyncResult.Listener() {
+            @Override
+            public void onComplete(Object value, Throwable error) {
+                if (!done.compareAndSet(false, true)) {
+                    return;
+                }
+                if (null != timer) {
+                    timer.cancel(false);
+                }
+                resume(async, value, error, context, cacheKey);
             }
-            try {
-                onResult(result, context);
-            } catch (Exception e2) {
-                logger.error(e2, "error rendering exception handle  result");
-                onResult(ActErrorResult.of(e2), context);
+        });
+    }
+
+    private void resume(AsyncResult async, Object value, Throwable error, ActionContext context, String cacheKey) {
+        context.saveLocal();
+        try {
+            Result result;
+            if (error instanceof Result) {
+                result = (Result) error;
+            } else if (error instanceof Exception) {
+                throw (Exception) error;
+            } else if (null != error) {
+                throw E.unexpected(error);
+            } else {
+                try {
+                    result = async.toResult(value);
+                } catch (Result r) {
+                    result = r;
+                }
             }
+            onHandled(result, context, cacheKey);
+        } catch (Exception e) {
+            onException(e, context);
         } finally {
-            try {
-                handleFinally(context);
-            } catch (Exception e) {
-                logger.error(e, "Error invoking final handler");
-            } finally {
-                context.destroy();
-            }
+            onFinish(context);
+            ActionContext.clearCurrent();
         }
     }
 
@@ -253,6 +374,39 @@ public final class RequestHandlerProxy extends RequestHandlerBase {
         return express;
     }
 
+    /**
+     * Returns the priority of the request in admission control
+     */
+    public RequestPriority.Level requestPriority() {
+        ensureAgentsReady();
+        return actionHandler.requestPriority();
+    }
+
+    /**
+     * Returns whether the action returns an async result
+     */
+    public boolean async() {
+        ensureAgentsReady();
+        return actionHandler.async();
+    }
+
+    /**
+     * Returns whether the action streams the multipart request body
+     */
+    public boolean multipartStreaming() {
+        ensureAgentsReady();
+        return actionHandler.multipartStreaming();
+    }
+
+    /**
+     * Returns whether the action and all interceptors are marked as
+     * {@link act.handler.NonBlock non-block}
+     */
+    public boolean nonBlock() {
+        ensureAgentsReady();
+        return express;
+    }
+
     protected final void registerBeforeInterceptor(BeforeInterceptor interceptor) {
         insertInterceptor(beforeInterceptors, interceptor);
     }
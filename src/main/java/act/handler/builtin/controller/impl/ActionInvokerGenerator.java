@@ -0,0 +1,207 @@
+package act.handler.builtin.controller.impl;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.asm.ClassWriter;
+import act.asm.MethodVisitor;
+import act.asm.Opcodes;
+import act.asm.Type;
+import act.inject.param.ParamValueLoader;
+import act.util.GeneratedClassDefiner;
+import org.osgl.$;
+import org.osgl.util.E;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Generates {@link GeneratedActionInvoker} for an action handler method.
+ *
+ * The generated `invoke` method loads each parameter with the
+ * corresponding {@link ParamValueLoader} into a local variable of
+ * the parameter type, primitive values are unboxed right after loading,
+ * then calls the handler method with `INVOKEVIRTUAL` (or `INVOKESTATIC`)
+ * so there is neither `Object[]` created nor reflection involved.
+ */
+class ActionInvokerGenerator implements Opcodes {
+
+    private static final String BASE_CLASS = Type.getInternalName(GeneratedActionInvoker.class);
+    private static final String LISTENER_CLASS = Type.getInternalName(GeneratedActionInvoker.Listener.class);
+    private static final String LOADER_CLASS = Type.getInternalName(ParamValueLoader.class);
+    private static final String LOADERS_DESC = Type.getDescriptor(ParamValueLoader[].class);
+    private static final String LISTENER_DESC = Type.getDescriptor(GeneratedActionInvoker.Listener.class);
+    private static final String CONSTRUCTOR_DESC = "(" + LOADERS_DESC + LISTENER_DESC + ")V";
+    private static final String INVOKE_DESC = "(Ljava/lang/Object;Lact/app/ActionContext;)Ljava/lang/Object;";
+    private static final String LOAD_DESC = "(Ljava/lang/Object;Lact/util/ActContext;Z)Ljava/lang/Object;";
+    private static final String PARAMS_LOADED_DESC = "(Ljava/lang/Object;Lact/app/ActionContext;)V";
+
+    // local variable slots of the generated `invoke` method
+    private static final int SLOT_CONTROLLER = 1;
+    private static final int SLOT_CONTEXT = 2;
+    private static final int SLOT_FIRST_PARAM = 3;
+
+    private final Class<?> controllerClass;
+    private final Method method;
+    private final boolean isStatic;
+    private final Class<?>[] paramTypes;
+    private final String className;
+
+    ActionInvokerGenerator(Class<?> controllerClass, Method method) {
+        this.controllerClass = $.notNull(controllerClass);
+        this.method = $.notNull(method);
+        this.isStatic = Modifier.isStatic(method.getModifiers());
+        this.paramTypes = method.getParameterTypes();
+        this.className = GeneratedClassDefiner.className(controllerClass, "ActionInvoker");
+    }
+
+    /**
+     * Check if the generated class is able to call the handler method.
+     *
+     * The handler method, the controller class and all parameter types must
+     * be accessible from the generated class
+     */
+    boolean supported() {
+        if (!GeneratedClassDefiner.canAccess(controllerClass, controllerClass)
+                || !GeneratedClassDefiner.canAccess(controllerClass, method.getDeclaringClass(), method.getModifiers())
+                || !GeneratedClassDefiner.canAccess(controllerClass, method.getReturnType())) {
+            return false;
+        }
+        for (Class<?> type : paramTypes) {
+            if (!GeneratedClassDefiner.canAccess(controllerClass, type)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Generate the invoker class and returns an instance of it
+     *
+     * @param loaders the loaders of handler method parameters
+     * @param listener the listener to be notified once parameters are loaded
+     * @return the generated invoker
+     */
+    GeneratedActionInvoker generate(ParamValueLoader[] loaders, GeneratedActionInvoker.Listener listener) {
+        E.illegalArgumentIf(loaders.length != paramTypes.length, "loaders does not match method parameters: %s", method);
+        Class<?> invokerClass = GeneratedClassDefiner.define(controllerClass, className, generateByteCode());
+        try {
+            return (GeneratedActionInvoker) invokerClass
+                    .getConstructor(ParamValueLoader[].class, GeneratedActionInvoker.Listener.class)
+                    .newInstance(loaders, $.notNull(listener));
+        } catch (Exception e) {
+            throw E.unexpected(e, "Error creating invoker for %s", method);
+        }
+    }
+
+    byte[] generateByteCode() {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        String internalName = className.replace('.', '/');
+        cw.visit(V1_6, ACC_PUBLIC + ACC_SUPER + ACC_FINAL + ACC_SYNTHETIC, internalName, null, BASE_CLASS, null);
+        generateConstructor(cw);
+        generateInvoke(cw);
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private void generateConstructor(ClassWriter cw) {
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", CONSTRUCTOR_DESC, null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitVarInsn(ALOAD, 2);
+        mv.visitMethodInsn(INVOKESPECIAL, BASE_CLASS, "<init>", CONSTRUCTOR_DESC, false);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private void generateInvoke(ClassWriter cw) {
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "invoke", INVOKE_DESC, null, new String[]{"java/lang/Exception"});
+        mv.visitCode();
+
+        // load parameters into typed local variables
+        int[] slots = new int[paramTypes.length];
+        int slot = SLOT_FIRST_PARAM;
+        for (int i = 0; i < paramTypes.length; ++i) {
+            Class<?> paramType = paramTypes[i];
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitFieldInsn(GETFIELD, BASE_CLASS, "loaders", LOADERS_DESC);
+            pushInt(mv, i);
+            mv.visitInsn(AALOAD);
+            mv.visitInsn(ACONST_NULL);
+            mv.visitVarInsn(ALOAD, SLOT_CONTEXT);
+            mv.visitInsn(ICONST_0);
+            mv.visitMethodInsn(INVOKEINTERFACE, LOADER_CLASS, "load", LOAD_DESC, true);
+            Type type = Type.getType(paramType);
+            if (paramType.isPrimitive()) {
+                String unbox = paramType.getName() + "Value";
+                mv.visitMethodInsn(INVOKESTATIC, BASE_CLASS, unbox, "(Ljava/lang/Object;)" + type.getDescriptor(), false);
+            } else if (Object.class != paramType) {
+                mv.visitTypeInsn(CHECKCAST, type.getInternalName());
+            }
+            mv.visitVarInsn(type.getOpcode(ISTORE), slot);
+            slots[i] = slot;
+            slot += type.getSize();
+        }
+
+        // notify listener
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitFieldInsn(GETFIELD, BASE_CLASS, "listener", LISTENER_DESC);
+        mv.visitVarInsn(ALOAD, SLOT_CONTROLLER);
+        mv.visitVarInsn(ALOAD, SLOT_CONTEXT);
+        mv.visitMethodInsn(INVOKEINTERFACE, LISTENER_CLASS, "paramsLoaded", PARAMS_LOADED_DESC, true);
+
+        // call handler method
+        String owner = Type.getInternalName(controllerClass);
+        if (!isStatic) {
+            mv.visitVarInsn(ALOAD, SLOT_CONTROLLER);
+            mv.visitTypeInsn(CHECKCAST, owner);
+        }
+        for (int i = 0; i < paramTypes.length; ++i) {
+            mv.visitVarInsn(Type.getType(paramTypes[i]).getOpcode(ILOAD), slots[i]);
+        }
+        String desc = Type.getMethodDescriptor(method);
+        mv.visitMethodInsn(isStatic ? INVOKESTATIC : INVOKEVIRTUAL, owner, method.getName(), desc, false);
+
+        // return value
+        Class<?> returnType = method.getReturnType();
+        if (void.class == returnType) {
+            mv.visitInsn(ACONST_NULL);
+        } else if (returnType.isPrimitive()) {
+            Type boxed = Type.getType($.wrapperClassOf(returnType));
+            String boxDesc = "(" + Type.getDescriptor(returnType) + ")" + boxed.getDescriptor();
+            mv.visitMethodInsn(INVOKESTATIC, boxed.getInternalName(), "valueOf", boxDesc, false);
+        }
+        mv.visitInsn(ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static void pushInt(MethodVisitor mv, int n) {
+        if (n <= 5) {
+            mv.visitInsn(ICONST_0 + n);
+        } else if (n <= Byte.MAX_VALUE) {
+            mv.visitIntInsn(BIPUSH, n);
+        } else {
+            mv.visitIntInsn(SIPUSH, n);
+        }
+    }
+}
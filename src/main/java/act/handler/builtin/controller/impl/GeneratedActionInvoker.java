@@ -0,0 +1,103 @@
+package act.handler.builtin.controller.impl;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.app.ActionContext;
+import act.inject.param.ParamValueLoader;
+
+/**
+ * Base class of the invokers generated by {@link ActionInvokerGenerator}.
+ *
+ * A generated invoker loads the parameters of an action handler method
+ * into typed local variables, notifies the {@link Listener} and then
+ * calls the handler method directly.
+ */
+public abstract class GeneratedActionInvoker {
+
+    /**
+     * Get notified once all parameters are loaded and before the
+     * handler method is called
+     */
+    public interface Listener {
+        /**
+         * Called once parameters are loaded. The implementation
+         * might throw out a {@link org.osgl.mvc.result.Result} to
+         * stop calling the handler method
+         *
+         * @param controller the controller instance or `null` if the handler method is static
+         * @param context the action context
+         */
+        void paramsLoaded(Object controller, ActionContext context);
+    }
+
+    protected final ParamValueLoader[] loaders;
+    protected final Listener listener;
+
+    protected GeneratedActionInvoker(ParamValueLoader[] loaders, Listener listener) {
+        this.loaders = loaders;
+        this.listener = listener;
+    }
+
+    /**
+     * Call the handler method
+     *
+     * @param controller the controller instance or `null` if the handler method is static
+     * @param context the action context
+     * @return the value returned by the handler method, primitive values are boxed and
+     *         `void` method returns `null`
+     * @throws Exception any exception raised by the handler method
+     */
+    public abstract Object invoke(Object controller, ActionContext context) throws Exception;
+
+    // --- unbox helpers called by generated code, `null` is treated as the default value
+
+    protected static boolean booleanValue(Object o) {
+        return null != o && (Boolean) o;
+    }
+
+    protected static char charValue(Object o) {
+        return null == o ? '\0' : (Character) o;
+    }
+
+    protected static byte byteValue(Object o) {
+        return null == o ? 0 : ((Number) o).byteValue();
+    }
+
+    protected static short shortValue(Object o) {
+        return null == o ? 0 : ((Number) o).shortValue();
+    }
+
+    protected static int intValue(Object o) {
+        return null == o ? 0 : ((Number) o).intValue();
+    }
+
+    protected static long longValue(Object o) {
+        return null == o ? 0L : ((Number) o).longValue();
+    }
+
+    protected static float floatValue(Object o) {
+        return null == o ? 0F : ((Number) o).floatValue();
+    }
+
+    protected static double doubleValue(Object o) {
+        return null == o ? 0D : ((Number) o).doubleValue();
+    }
+}
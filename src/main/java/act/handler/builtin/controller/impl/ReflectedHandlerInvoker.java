@@ -30,11 +30,15 @@ import act.controller.annotation.HandleCsrfFailure;
 import act.controller.annotation.HandleMissingAuthentication;
 import act.controller.annotation.TemplateContext;
 import act.controller.meta.*;
+import act.data.MultipartParts;
 import act.handler.NonBlock;
 import act.handler.PreventDoubleSubmission;
+import act.handler.RequestPriority;
 import act.handler.builtin.controller.*;
 import act.inject.param.JsonDTO;
 import act.inject.param.JsonDTOClassManager;
+import act.inject.param.JsonParamBinder;
+import act.inject.param.ParamValueLoader;
 import act.inject.param.ParamValueLoaderManager;
 import act.inject.param.ParamValueLoaderService;
 import act.security.CORS;
@@ -89,11 +93,15 @@ public class ReflectedHandlerInvoker<M extends HandlerMethodMetaInfo> extends De
     protected Method method; //
     private ParamValueLoaderService paramLoaderService;
     private JsonDTOClassManager jsonDTOClassManager;
+    private JsonParamBinder jsonParamBinder;
     private final int paramCount;
     private final int fieldsAndParamsCount;
     private String singleJsonFieldName;
     private final boolean sessionFree;
     private final boolean express;
+    private final boolean async;
+    private final boolean multipartStreaming;
+    private final RequestPriority.Level requestPriority;
     private List<BeanSpec> paramSpecs;
     private Set<String> pathVariables;
     private CORS.Spec corsSpec;
@@ -114,6 +122,10 @@ public class ReflectedHandlerInvoker<M extends HandlerMethodMetaInfo> extends De
     private String templateContext;
     private MissingAuthenticationHandler missingAuthenticationHandler;
     private MissingAuthenticationHandler csrfFailureHandler;
+    private final boolean bytecodeEnabled;
+    // the invoker generated for the handler method, probed at the first call
+    private volatile GeneratedActionInvoker generatedInvoker;
+    private volatile boolean generatedInvokerProbed;
 
     private ReflectedHandlerInvoker(M handlerMetaInfo, App app) {
         this.cl = app.classLoader();
@@ -123,6 +135,7 @@ public class ReflectedHandlerInvoker<M extends HandlerMethodMetaInfo> extends De
         this.disabled = !Env.matches(controllerClass);
         this.paramLoaderService = app.service(ParamValueLoaderManager.class).get(ActionContext.class);
         this.jsonDTOClassManager = app.service(JsonDTOClassManager.class);
+        this.bytecodeEnabled = app.config().invokerBytecodeEnabled();
 
         Class[] paramTypes = paramTypes(cl);
         try {
@@ -142,11 +155,20 @@ public class ReflectedHandlerInvoker<M extends HandlerMethodMetaInfo> extends De
         }
 
         sessionFree = method.isAnnotationPresent(SessionFree.class);
-        express = method.isAnnotationPresent(NonBlock.class);
+        // the request must be dispatched to worker thread to get suspended
+        async = AsyncResult.isAsyncType(method.getReturnType());
+        express = method.isAnnotationPresent(NonBlock.class) && !async;
+        multipartStreaming = Arrays.asList(paramTypes).contains(MultipartParts.class);
+        RequestPriority priority = method.getAnnotation(RequestPriority.class);
+        requestPriority = null == priority ? RequestPriority.Level.NORMAL : priority.value();
 
         paramCount = handler.paramCount();
         paramSpecs = jsonDTOClassManager.beanSpecs(controllerClass, method);
         fieldsAndParamsCount = paramSpecs.size();
+        if (0 < fieldsAndParamsCount) {
+            // exotic types fall back to the generated JSON DTO
+            jsonParamBinder = JsonParamBinder.of(paramSpecs);
+        }
         if (fieldsAndParamsCount == 1) {
             singleJsonFieldName = paramSpecs.get(0).name();
         }
@@ -191,6 +213,7 @@ public class ReflectedHandlerInvoker<M extends HandlerMethodMetaInfo> extends De
         controllerClass = null;
         method = null;
         methodAccess = null;
+        generatedInvoker = null;
         handler.destroy();
         handler = null;
         cacheSupport = null;
@@ -255,6 +278,18 @@ public class ReflectedHandlerInvoker<M extends HandlerMethodMetaInfo> extends De
          */
         boolean failOnViolation = context.acceptJson() || checkTemplate(context);
 
+        GeneratedActionInvoker generatedInvoker = generatedInvoker(controller);
+        if (null != generatedInvoker) {
+            try {
+                return invoke(handler, context, generatedInvoker, controller, null);
+            } finally {
+                if (null == context.hasTemplate()) {
+                    templateCache.remove(context.accept());
+                }
+                checkTemplate(context);
+            }
+        }
+
         Object[] params = params(controller, context);
 
         if (failOnViolation && context.hasViolation()) {
@@ -267,7 +302,7 @@ public class ReflectedHandlerInvoker<M extends HandlerMethodMetaInfo> extends De
         }
 
         try {
-            return invoke(handler, context, controller, params);
+            return invoke(handler, context, null, controller, params);
         } finally {
             if (null == context.hasTemplate()) {
                 // template path has been reset by app logic
@@ -302,6 +337,27 @@ public class ReflectedHandlerInvoker<M extends HandlerMethodMetaInfo> extends De
         return express;
     }
 
+    /**
+     * Returns whether the handler method returns an async result, in which
+     * case the request must be dispatched to worker thread
+     */
+    public boolean async() {
+        return async;
+    }
+
+    /**
+     * Returns whether the handler method streams the multipart request body
+     * through a {@link MultipartParts} parameter, in which case the request
+     * body must not be parsed into params
+     */
+    public boolean multipartStreaming() {
+        return multipartStreaming;
+    }
+
+    public RequestPriority.Level requestPriority() {
+        return requestPriority;
+    }
+
     public CORS.Spec corsSpec() {
         return corsSpec;
     }
@@ -315,13 +371,22 @@ public class ReflectedHandlerInvoker<M extends HandlerMethodMetaInfo> extends De
         if ((0 == fieldsAndParamsCount) || !context.jsonEncoded() || (null != context.attribute(CTX_ATTR_KEY))) {
             return;
         }
-        Class<? extends JsonDTO> dtoClass = jsonDTOClassManager.get(controllerClass, method);
-        if (null == dtoClass) {
-            // there are neither fields nor params
-            return;
-        }
         try {
-            JsonDTO dto = JSON.parseObject(patchedJsonBody(context), dtoClass);
+            JsonDTO dto;
+            if (null != jsonParamBinder) {
+                String body = context.body();
+                if (S.blank(body)) {
+                    return;
+                }
+                dto = jsonParamBinder.bind(body, wholeJsonBodyName(context, body));
+            } else {
+                Class<? extends JsonDTO> dtoClass = jsonDTOClassManager.get(controllerClass, method);
+                if (null == dtoClass) {
+                    // there are neither fields nor params
+                    return;
+                }
+                dto = JSON.parseObject(patchedJsonBody(context), dtoClass);
+            }
             context.attribute(CTX_ATTR_KEY, dto);
         } catch (JSONException e) {
             if (e.getCause() != null) {
@@ -367,14 +432,23 @@ public class ReflectedHandlerInvoker<M extends HandlerMethodMetaInfo> extends De
      */
     private String patchedJsonBody(ActionContext context) {
         String body = context.body();
+        String theName = wholeJsonBodyName(context, body);
+        return null == theName ? body : S.fmt("{\"%s\": %s}", theName, body.trim());
+    }
+
+    /**
+     * Returns the name of the single field or param if the whole JSON body
+     * shall be bound to it, i.e. the body is not `{"name": ...}`
+     */
+    private String wholeJsonBodyName(ActionContext context, String body) {
         if (S.blank(body) || 1 < fieldsAndParamsCount(context)) {
-            return body;
+            return null;
         }
         String theName = singleJsonFieldName(context);
-        int theNameLen = theName.length();
         if (null == theName) {
-            return body;
+            return null;
         }
+        int theNameLen = theName.length();
         body = body.trim();
         boolean needPatch = body.charAt(0) == '[';
         if (!needPatch) {
@@ -403,7 +477,7 @@ public class ReflectedHandlerInvoker<M extends HandlerMethodMetaInfo> extends De
                 }
             }
         }
-        return needPatch ? S.fmt("{\"%s\": %s}", theName, body) : body;
+        return needPatch ? theName : null;
     }
 
     private Class[] paramTypes(ClassLoader cl) {
@@ -577,24 +651,34 @@ public class ReflectedHandlerInvoker<M extends HandlerMethodMetaInfo> extends De
         }
     }
 
-    private Result invoke(M handlerMetaInfo, ActionContext context, Object controller, Object[] params) throws Exception {
+    private Result invoke(M handlerMetaInfo, ActionContext context, GeneratedActionInvoker generatedInvoker, Object controller, Object[] params) throws Exception {
         Object result;
-        if (null != methodAccess) {
-            try {
+        try {
+            if (null != generatedInvoker) {
+                try {
+                    result = generatedInvoker.invoke(controller, context);
+                } finally {
+                    // the generated callback is not reached if a param loader fails
+                    ParamValueLoaderService.paramsLoaded();
+                }
+            } else if (null != methodAccess) {
                 result = methodAccess.invoke(controller, handlerIndex, params);
-            } catch (Result r) {
-                return r;
-            }
-        } else {
-            try {
-                result = method.invoke(null, params);
-            } catch (InvocationTargetException e) {
-                Throwable cause = e.getCause();
-                if (cause instanceof Result) {
-                    return (Result) cause;
+            } else {
+                try {
+                    result = method.invoke(null, params);
+                } catch (InvocationTargetException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof Result) {
+                        return (Result) cause;
+                    }
+                    throw (Exception) cause;
                 }
-                throw (Exception) cause;
             }
+        } catch (Result r) {
+            return r;
+        }
+        if (AsyncResult.isAsync(result)) {
+            return asyncResult(handlerMetaInfo, result, context);
         }
         if (null == result && handler.hasReturn() && !handler.returnTypeInfo().isResult()) {
             // ActFramework respond 404 Not Found when
@@ -603,6 +687,10 @@ public class ReflectedHandlerInvoker<M extends HandlerMethodMetaInfo> extends De
             // and the return type is **NOT** Result
             return notFoundOnMethod(null);
         }
+        return inferResult(handlerMetaInfo, result, context);
+    }
+
+    private Result inferResult(M handlerMetaInfo, Object result, ActionContext context) {
         boolean hasTemplate = checkTemplate(context);
         if (hasTemplate && result instanceof RenderAny) {
             result = RenderTemplate.INSTANCE;
@@ -610,6 +698,17 @@ public class ReflectedHandlerInvoker<M extends HandlerMethodMetaInfo> extends De
         return Controller.Util.inferResult(handlerMetaInfo, result, context, hasTemplate);
     }
 
+    private Result asyncResult(final M handlerMetaInfo, Object stage, final ActionContext context) {
+        return new AsyncResult(stage, new $.Transformer<Object, Result>() {
+            @Override
+            public Result transform(Object value) {
+                // unlike synchronous handler, a `null` value is not
+                // treated as not found, e.g. `CompletionStage<Void>`
+                return inferResult(handlerMetaInfo, value, context);
+            }
+        });
+    }
+
     public NotFound notFoundOnMethod(String message) {
         return ActNotFound.create(method, message);
     }
@@ -642,6 +741,63 @@ public class ReflectedHandlerInvoker<M extends HandlerMethodMetaInfo> extends De
         }
     }
 
+    /**
+     * Returns the generated invoker of the handler method, or `null` if the
+     * handler method must be called through reflection, which is the case when
+     *
+     * * bytecode invoker is disabled by configuration
+     * * parameters have validation constraints, which need the parameter array
+     * * parameters are exposed as output variables
+     * * the handler method, controller class or parameter types are not accessible
+     *   from the generated class
+     */
+    private GeneratedActionInvoker generatedInvoker(Object controller) {
+        if (generatedInvokerProbed) {
+            return generatedInvoker;
+        }
+        synchronized (this) {
+            if (!generatedInvokerProbed) {
+                generatedInvoker = tryGenerateInvoker(controller);
+                generatedInvokerProbed = true;
+            }
+        }
+        return generatedInvoker;
+    }
+
+    private GeneratedActionInvoker tryGenerateInvoker(Object controller) {
+        if (!bytecodeEnabled || !outputParams.isEmpty()) {
+            return null;
+        }
+        ParamValueLoader[] loaders = paramLoaderService.methodParamLoaders(controller, method);
+        if (paramLoaderService.hasValidationConstraint(method)) {
+            return null;
+        }
+        ActionInvokerGenerator generator = new ActionInvokerGenerator(controllerClass, method);
+        if (!generator.supported()) {
+            return null;
+        }
+        try {
+            return generator.generate(loaders, new ParamsLoadedListener());
+        } catch (RuntimeException | LinkageError e) {
+            App.LOGGER.warn(e, "Error generating invoker for %s, fall back to reflection", method);
+            return null;
+        }
+    }
+
+    private class ParamsLoadedListener implements GeneratedActionInvoker.Listener {
+        @Override
+        public void paramsLoaded(Object controller, ActionContext context) {
+            ParamValueLoaderService.paramsLoaded();
+            boolean failOnViolation = context.acceptJson() || checkTemplate(context);
+            if (failOnViolation && context.hasViolation()) {
+                throw new BadRequest(context.violationMessage(";"));
+            }
+            if (hasOutputVar) {
+                fillOutputVariables(controller, DUMP_PARAMS, context);
+            }
+        }
+    }
+
     private Object[] params(Object controller, ActionContext context) {
         if (0 == paramCount) {
             return DUMP_PARAMS;
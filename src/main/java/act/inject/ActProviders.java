@@ -27,6 +27,7 @@ import act.app.util.AppCrypto;
 import act.cli.CliContext;
 import act.cli.CliSession;
 import act.conf.AppConfig;
+import act.data.MultipartParts;
 import act.db.Dao;
 import act.event.EventBus;
 import act.mail.MailerContext;
@@ -114,6 +115,13 @@ public final class ActProviders {
         }
     };
 
+    public static final Provider<MultipartParts> MULTIPART_PARTS = new Provider<MultipartParts>() {
+        @Override
+        public MultipartParts get() {
+            return ActionContext.current().multipartParts();
+        }
+    };
+
     public static final Provider<CliContext> CLI_CONTEXT = new Provider<CliContext>() {
         @Override
         public CliContext get() {
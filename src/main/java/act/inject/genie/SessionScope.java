@@ -39,6 +39,12 @@ public class SessionScope extends ScopeCacheSupport.Base implements ScopeCache.S
         TTL = (int) App.instance().config().sessionTtl();
     }
 
+    // the view is `null` if the session scope cache is not available, e.g. the app is not fully loaded
+    private static SessionScopeCache.View view(ActionContext context) {
+        SessionScopeCache cache = context.app().sessionScopeCache();
+        return null == cache ? null : cache.view(context);
+    }
+
     @Override
     public <T> T get(Class<T> aClass) {
         return get(aClass.getName());
@@ -48,6 +54,10 @@ public class SessionScope extends ScopeCacheSupport.Base implements ScopeCache.S
     public <T> T get(String key) {
         ActionContext actionContext = ActionContext.current();
         if (null != actionContext) {
+            SessionScopeCache.View view = view(actionContext);
+            if (null != view) {
+                return view.get(key);
+            }
             H.Session session = actionContext.session();
             T t = session.cached(key);
             if (null != t) {
@@ -72,7 +82,12 @@ public class SessionScope extends ScopeCacheSupport.Base implements ScopeCache.S
     public <T> void put(String key, T t) {
         ActionContext actionContext = ActionContext.current();
         if (null != actionContext) {
-            actionContext.session().cache(key, t, TTL);
+            SessionScopeCache.View view = view(actionContext);
+            if (null != view) {
+                view.put(key, t);
+            } else {
+                actionContext.session().cache(key, t, TTL);
+            }
         }
         CliContext cliContext = CliContext.current();
         if (null != cliContext) {
@@ -0,0 +1,278 @@
+package act.inject.genie;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.app.ActionContext;
+import act.app.App;
+import act.app.AppServiceBase;
+import act.conf.AppConfig;
+import org.osgl.$;
+import org.osgl.http.H;
+import org.osgl.util.S;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sits between {@link SessionScope} and the session cache.
+ *
+ * Beans read or written during a request are kept in a per request
+ * {@link View}, so the session cache is read at most once per key per
+ * request. Writes are deferred and flushed in one batch when the session
+ * is dissolved. Refreshing the TTL of beans read is coalesced so a bean is
+ * written back to the cache at most once per
+ * {@link act.conf.AppConfigKey#SESSION_SCOPE_TOUCH_INTERVAL touch interval}.
+ */
+public class SessionScopeCache extends AppServiceBase<SessionScopeCache> {
+
+    private static final String ATTR_VIEW = "__act_session_scope_view__";
+
+    // marks a key known to be absent in the session cache
+    private static final Object NULL = new Object();
+
+    /**
+     * The session scoped beans of a request
+     */
+    public final class View {
+
+        private final H.Session session;
+        private final Map<String, Object> values = new HashMap<>();
+        private final Map<String, Object> dirty = new LinkedHashMap<>();
+        // beans read from the session cache, of which TTL shall be refreshed
+        private final Map<String, Object> touched = new LinkedHashMap<>();
+        private boolean flushed;
+
+        View(H.Session session) {
+            this.session = $.notNull(session);
+        }
+
+        public <T> T get(String key) {
+            Object v = values.get(key);
+            if (null != v) {
+                localHits.incrementAndGet();
+                return NULL == v ? null : (T) v;
+            }
+            v = load(session, key);
+            reads.incrementAndGet();
+            if (null == v) {
+                values.put(key, NULL);
+                return null;
+            }
+            values.put(key, v);
+            if (flushed) {
+                touch(key, v);
+            } else {
+                touched.put(key, v);
+            }
+            return (T) v;
+        }
+
+        public void put(String key, Object v) {
+            values.put(key, null == v ? NULL : v);
+            touched.remove(key);
+            if (flushed) {
+                // written after the session is dissolved
+                write(key, v);
+            } else {
+                dirty.put(key, v);
+            }
+        }
+
+        /**
+         * Write dirty beans and refresh TTL of beans read to the session cache
+         */
+        public void flush() {
+            flushed = true;
+            for (Map.Entry<String, Object> entry : dirty.entrySet()) {
+                write(entry.getKey(), entry.getValue());
+            }
+            dirty.clear();
+            for (Map.Entry<String, Object> entry : touched.entrySet()) {
+                touch(entry.getKey(), entry.getValue());
+            }
+            touched.clear();
+        }
+
+        private void write(String key, Object v) {
+            if (null == v) {
+                evict(session, key);
+            } else {
+                store(session, key, v, ttl);
+                if (touchInterval > 0) {
+                    touchTimestamps.put(cacheKey(key), $.ms());
+                }
+            }
+            writes.incrementAndGet();
+        }
+
+        private void touch(String key, Object v) {
+            if (shouldTouch(cacheKey(key))) {
+                store(session, key, v, ttl);
+                writes.incrementAndGet();
+            } else {
+                skippedTouches.incrementAndGet();
+            }
+        }
+
+        private String cacheKey(String key) {
+            return S.concat(session.id(), key);
+        }
+    }
+
+    private final int ttl;
+    private final long touchInterval;
+    private final ConcurrentMap<String, Long> touchTimestamps = new ConcurrentHashMap<>();
+    private volatile long lastSweep = $.ms();
+
+    private final AtomicLong reads = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong skippedTouches = new AtomicLong();
+    private final AtomicLong localHits = new AtomicLong();
+
+    public SessionScopeCache(App app) {
+        this(app, app.config());
+    }
+
+    private SessionScopeCache(App app, AppConfig config) {
+        this(app, config.sessionTtl(), config.sessionScopeTouchInterval());
+    }
+
+    // for unit test
+    SessionScopeCache(App app, int ttl, int touchInterval) {
+        super(app);
+        this.ttl = ttl;
+        // make sure the bean does not expire between two touches
+        this.touchInterval = Math.min(touchInterval, ttl / 2) * 1000L;
+    }
+
+    /**
+     * Returns the session scoped bean view of the request, or `null` if
+     * the request does not have a session
+     */
+    public View view(ActionContext context) {
+        View view = context.attribute(ATTR_VIEW);
+        if (null == view) {
+            H.Session session = context.session();
+            if (null == session) {
+                return null;
+            }
+            view = new View(session);
+            context.attribute(ATTR_VIEW, view);
+        }
+        return view;
+    }
+
+    /**
+     * Flush the session scoped beans of the request if they have been accessed
+     */
+    public void flush(ActionContext context) {
+        View view = context.attribute(ATTR_VIEW);
+        if (null != view) {
+            view.flush();
+        }
+    }
+
+    /**
+     * Returns the number of reads from the session cache
+     */
+    public long readCount() {
+        return reads.get();
+    }
+
+    /**
+     * Returns the number of writes to the session cache, including TTL refreshes
+     */
+    public long writeCount() {
+        return writes.get();
+    }
+
+    /**
+     * Returns the number of TTL refreshes skipped as the bean was refreshed
+     * within the touch interval
+     */
+    public long skippedTouchCount() {
+        return skippedTouches.get();
+    }
+
+    /**
+     * Returns the number of reads served by the per request view
+     */
+    public long localHitCount() {
+        return localHits.get();
+    }
+
+    @Override
+    protected void releaseResources() {
+        touchTimestamps.clear();
+    }
+
+    View view(H.Session session) {
+        return new View(session);
+    }
+
+    // the session cache operations, overridden in unit test
+
+    <T> T load(H.Session session, String key) {
+        return session.cached(key);
+    }
+
+    void store(H.Session session, String key, Object v, int ttl) {
+        session.cache(key, v, ttl);
+    }
+
+    void evict(H.Session session, String key) {
+        session.evict(key);
+    }
+
+    private boolean shouldTouch(String key) {
+        if (touchInterval <= 0) {
+            return true;
+        }
+        long now = $.ms();
+        sweep(now);
+        Long last = touchTimestamps.get(key);
+        if (null != last && now - last < touchInterval) {
+            return false;
+        }
+        touchTimestamps.put(key, now);
+        return true;
+    }
+
+    // timestamps older than the interval no longer prevent touching thus can be dropped
+    private void sweep(long now) {
+        if (now - lastSweep < touchInterval) {
+            return;
+        }
+        lastSweep = now;
+        Iterator<Long> itr = touchTimestamps.values().iterator();
+        while (itr.hasNext()) {
+            if (now - itr.next() >= touchInterval) {
+                itr.remove();
+            }
+        }
+    }
+
+}
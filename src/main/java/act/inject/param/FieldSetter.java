@@ -0,0 +1,150 @@
+package act.inject.param;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.asm.ClassWriter;
+import act.asm.Label;
+import act.asm.MethodVisitor;
+import act.asm.Opcodes;
+import act.asm.Type;
+import act.util.GeneratedClassDefiner;
+import org.osgl.$;
+import org.osgl.util.E;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+
+/**
+ * Set values to fields of a bean class.
+ *
+ * Implementations are generated with {@link #generate(Class, List)}, which
+ * set the field value with `PUTFIELD` instead of {@link Field#set(Object, Object)}
+ */
+public abstract class FieldSetter {
+
+    /**
+     * Set value to the field at `index` of the field list the setter is generated for
+     *
+     * @param bean the bean instance
+     * @param index the field index
+     * @param value the value, must not be `null` if the field is primitive typed
+     */
+    public abstract void set(Object bean, int index, Object value);
+
+    /**
+     * Check if the generated setter for `beanClass` is able to set the field
+     */
+    public static boolean supports(Class<?> beanClass, Field field) {
+        int modifiers = field.getModifiers();
+        return !Modifier.isStatic(modifiers)
+                && !Modifier.isFinal(modifiers)
+                && GeneratedClassDefiner.canAccess(beanClass, beanClass)
+                && GeneratedClassDefiner.canAccess(beanClass, field.getDeclaringClass(), modifiers)
+                && GeneratedClassDefiner.canAccess(beanClass, field.getType());
+    }
+
+    /**
+     * Generate a setter for fields of `beanClass`
+     *
+     * @param beanClass the bean class
+     * @param fields the fields, each one must be {@link #supports(Class, Field) supported}
+     * @return the setter
+     */
+    public static FieldSetter generate(Class<?> beanClass, List<Field> fields) {
+        E.illegalArgumentIf(fields.isEmpty(), "no field to set");
+        for (Field field : fields) {
+            E.illegalArgumentIf(!supports(beanClass, field), "field not supported: %s", field);
+        }
+        String className = GeneratedClassDefiner.className(beanClass, "FieldSetter");
+        byte[] bytes = Generator.generateByteCode(className.replace('.', '/'), beanClass, fields);
+        Class<?> setterClass = GeneratedClassDefiner.define(beanClass, className, bytes);
+        return (FieldSetter) $.newInstance(setterClass);
+    }
+
+    private static class Generator implements Opcodes {
+
+        private static final String BASE_CLASS = Type.getInternalName(FieldSetter.class);
+
+        private static byte[] generateByteCode(String className, Class<?> beanClass, List<Field> fields) {
+            ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+            cw.visit(V1_6, ACC_PUBLIC + ACC_SUPER + ACC_FINAL + ACC_SYNTHETIC, className, null, BASE_CLASS, null);
+
+            MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+            mv.visitCode();
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitMethodInsn(INVOKESPECIAL, BASE_CLASS, "<init>", "()V", false);
+            mv.visitInsn(RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+
+            mv = cw.visitMethod(ACC_PUBLIC, "set", "(Ljava/lang/Object;ILjava/lang/Object;)V", null, null);
+            mv.visitCode();
+            int sz = fields.size();
+            Label dflt = new Label();
+            Label[] labels = new Label[sz];
+            for (int i = 0; i < sz; ++i) {
+                labels[i] = new Label();
+            }
+            mv.visitVarInsn(ILOAD, 2);
+            mv.visitTableSwitchInsn(0, sz - 1, dflt, labels);
+            String owner = Type.getInternalName(beanClass);
+            for (int i = 0; i < sz; ++i) {
+                Field field = fields.get(i);
+                Class<?> fieldType = field.getType();
+                mv.visitLabel(labels[i]);
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitTypeInsn(CHECKCAST, owner);
+                mv.visitVarInsn(ALOAD, 3);
+                if (fieldType.isPrimitive()) {
+                    unbox(mv, fieldType);
+                } else if (Object.class != fieldType) {
+                    mv.visitTypeInsn(CHECKCAST, Type.getInternalName(fieldType));
+                }
+                mv.visitFieldInsn(PUTFIELD, owner, field.getName(), Type.getDescriptor(fieldType));
+                mv.visitInsn(RETURN);
+            }
+            mv.visitLabel(dflt);
+            mv.visitTypeInsn(NEW, "java/lang/IndexOutOfBoundsException");
+            mv.visitInsn(DUP);
+            mv.visitMethodInsn(INVOKESPECIAL, "java/lang/IndexOutOfBoundsException", "<init>", "()V", false);
+            mv.visitInsn(ATHROW);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+
+            cw.visitEnd();
+            return cw.toByteArray();
+        }
+
+        private static void unbox(MethodVisitor mv, Class<?> primitiveType) {
+            String desc = Type.getDescriptor(primitiveType);
+            String unboxMethod = primitiveType.getName() + "Value";
+            if (boolean.class == primitiveType || char.class == primitiveType) {
+                String wrapper = Type.getInternalName($.wrapperClassOf(primitiveType));
+                mv.visitTypeInsn(CHECKCAST, wrapper);
+                mv.visitMethodInsn(INVOKEVIRTUAL, wrapper, unboxMethod, "()" + desc, false);
+            } else {
+                mv.visitTypeInsn(CHECKCAST, "java/lang/Number");
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Number", unboxMethod, "()" + desc, false);
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package act.inject.param;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONException;
+import com.alibaba.fastjson.parser.DefaultJSONParser;
+import com.alibaba.fastjson.parser.JSONLexer;
+import com.alibaba.fastjson.parser.JSONToken;
+import com.alibaba.fastjson.parser.ParserConfig;
+import org.osgl.inject.BeanSpec;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binds JSON request body into handler method parameters and controller
+ * fields in a single streaming pass.
+ *
+ * Unlike the {@link JsonDTO} path, which generates a DTO class per handler
+ * method and deserializes the whole body into it, the binder walks the top
+ * level members of the body and deserializes the value of each member
+ * straight into the type of the matching parameter or field. Members
+ * that match nothing are skipped.
+ *
+ * Names are matched the same way fastjson matches DTO properties: exact
+ * match first, then ignoring case, `_` and `-`.
+ *
+ * The result is exposed as a {@link JsonDTO} so {@link JsonParamValueLoader}
+ * works the same with both paths.
+ */
+public class JsonParamBinder {
+
+    /**
+     * The bound values
+     */
+    private static class Values extends JsonDTO {
+        private final JsonParamBinder binder;
+        private final Object[] values;
+
+        Values(JsonParamBinder binder) {
+            this.binder = binder;
+            this.values = new Object[binder.types.length];
+        }
+
+        @Override
+        public Object get(String name) {
+            Integer i = binder.index.get(name);
+            return null == i ? null : values[i];
+        }
+    }
+
+    private final Type[] types;
+    private final Map<String, Integer> index = new HashMap<>();
+    private final Map<String, Integer> looseIndex = new HashMap<>();
+
+    private JsonParamBinder(List<BeanSpec> specs) {
+        int sz = specs.size();
+        types = new Type[sz];
+        for (int i = 0; i < sz; ++i) {
+            BeanSpec spec = specs.get(i);
+            types[i] = spec.type();
+            index.put(spec.name(), i);
+            looseIndex.put(looseName(spec.name()), i);
+        }
+    }
+
+    /**
+     * Bind the JSON body.
+     *
+     * @param body the JSON body
+     * @param wholeBodyName if not `null` then the whole body is bound to the
+     *                      parameter or field of the name, otherwise
+     *                      the body must be a JSON object
+     * @return the bound values
+     * @throws com.alibaba.fastjson.JSONException if the body cannot be parsed
+     */
+    public JsonDTO bind(String body, String wholeBodyName) {
+        Values values = new Values(this);
+        if (null != wholeBodyName) {
+            Integer i = index.get(wholeBodyName);
+            if (null != i) {
+                values.values[i] = JSON.parseObject(body, types[i]);
+            }
+            return values;
+        }
+        DefaultJSONParser parser = new DefaultJSONParser(body, ParserConfig.getGlobalInstance(), JSON.DEFAULT_PARSER_FEATURE);
+        JSONLexer lexer = parser.lexer;
+        if (lexer.token() != JSONToken.LBRACE) {
+            throw new JSONException("syntax error, expect {, actual " + JSONToken.name(lexer.token()));
+        }
+        lexer.nextToken();
+        while (lexer.token() != JSONToken.RBRACE) {
+            int token = lexer.token();
+            if (token != JSONToken.LITERAL_STRING && token != JSONToken.IDENTIFIER) {
+                throw new JSONException("syntax error, expect member name, actual " + JSONToken.name(token));
+            }
+            String name = lexer.stringVal();
+            lexer.nextTokenWithColon();
+            Integer i = indexOf(name);
+            if (null == i) {
+                // skip the value
+                parser.parse();
+            } else {
+                values.values[i] = parser.parseObject(types[i], name);
+            }
+            if (lexer.token() == JSONToken.COMMA) {
+                lexer.nextToken();
+            } else if (lexer.token() != JSONToken.RBRACE) {
+                throw new JSONException("syntax error, expect , or }, actual " + JSONToken.name(lexer.token()));
+            }
+        }
+        lexer.nextToken();
+        parser.close();
+        return values;
+    }
+
+    private Integer indexOf(String name) {
+        Integer i = index.get(name);
+        return null != i ? i : looseIndex.get(looseName(name));
+    }
+
+    /**
+     * Create a binder for the parameters and fields specified.
+     *
+     * @param specs the bean specs of the parameters and fields
+     * @return the binder or `null` if any of the types is not supported,
+     *         in which case the {@link JsonDTO} path shall be used
+     */
+    public static JsonParamBinder of(List<BeanSpec> specs) {
+        for (BeanSpec spec : specs) {
+            if (!supported(spec.type())) {
+                return null;
+            }
+        }
+        return new JsonParamBinder(specs);
+    }
+
+    // wildcards and type variables are left to the DTO path
+    private static boolean supported(Type type) {
+        if (type instanceof Class) {
+            return true;
+        }
+        if (type instanceof ParameterizedType) {
+            for (Type arg : ((ParameterizedType) type).getActualTypeArguments()) {
+                if (!supported(arg)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (type instanceof GenericArrayType) {
+            return supported(((GenericArrayType) type).getGenericComponentType());
+        }
+        return false;
+    }
+
+    private static String looseName(String name) {
+        StringBuilder sb = new StringBuilder(name.length());
+        for (int i = 0, len = name.length(); i < len; ++i) {
+            char c = name.charAt(i);
+            if (c != '_' && c != '-') {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+}
@@ -110,11 +110,13 @@ public abstract class ParamValueLoaderService extends DestroyableBase {
     private Map<Class<? extends Annotation>, ActionMethodParamAnnotationHandler> allAnnotationHandlers;
     private Validator validator;
     private volatile ExecutableValidator executableValidator;
+    private boolean bytecodeEnabled;
 
     public ParamValueLoaderService(App app) {
         resolverManager = app.resolverManager();
         binderManager = app.binderManager();
         injector = app.injector();
+        bytecodeEnabled = app.config().invokerBytecodeEnabled();
         allAnnotationHandlers = new HashMap<>();
         List<ActionMethodParamAnnotationHandler> list = Act.pluginManager().pluginList(ActionMethodParamAnnotationHandler.class);
         for (ActionMethodParamAnnotationHandler h : list) {
@@ -163,6 +165,24 @@ public abstract class ParamValueLoaderService extends DestroyableBase {
         return loaders;
     }
 
+    /**
+     * Check if parameters of the method has validation constraints. This method
+     * shall be called after {@link #methodParamLoaders(Object, Method)}
+     */
+    public boolean hasValidationConstraint(Method method) {
+        Boolean b = methodValidationConstraintLookup.get(method);
+        return null != b && b;
+    }
+
+    /**
+     * Release the states accumulated when loading method parameters. This method shall
+     * be called after all loaders returned by {@link #methodParamLoaders(Object, Method)}
+     * have been called
+     */
+    public static void paramsLoaded() {
+        PARAM_TREE.remove();
+    }
+
     public Object[] loadMethodParams(Object host, Method method, ActContext ctx) {
         try {
             ParamValueLoader[] loaders = methodParamLoaders(host, method);
@@ -204,29 +224,43 @@ public abstract class ParamValueLoaderService extends DestroyableBase {
     protected <T> ParamValueLoader findBeanLoader(Class<T> beanClass) {
         final Provider<T> provider = injector.getProvider(beanClass);
         final Map<Field, ParamValueLoader> loaders = fieldLoaders(beanClass);
-        final boolean hasField = !loaders.isEmpty();
-        final $.Var<Boolean> hasValidateConstraint = $.var();
+        final int fieldCount = loaders.size();
+        final Field[] fields = new Field[fieldCount];
+        final ParamValueLoader[] fieldValueLoaders = new ParamValueLoader[fieldCount];
+        // index into the generated setter, or -1 if the field must be set reflectively
+        final int[] setterIndexes = new int[fieldCount];
+        List<Field> setterFields = new ArrayList<>();
+        int i = 0;
+        for (Map.Entry<Field, ParamValueLoader> entry : loaders.entrySet()) {
+            Field field = entry.getKey();
+            fields[i] = field;
+            fieldValueLoaders[i] = entry.getValue();
+            if (bytecodeEnabled && FieldSetter.supports(beanClass, field)) {
+                setterIndexes[i] = setterFields.size();
+                setterFields.add(field);
+            } else {
+                setterIndexes[i] = -1;
+            }
+            i++;
+        }
+        final FieldSetter setter = setterFields.isEmpty() ? null : FieldSetter.generate(beanClass, setterFields);
         ParamValueLoader loader = new ParamValueLoader() {
             @Override
             public Object load(Object bean, ActContext<?> context, boolean noDefaultValue) {
                 if (null == bean) {
                     bean = provider.get();
                 }
-                if (!hasField) {
-                    return bean;
-                }
                 try {
-                    for (Map.Entry<Field, ParamValueLoader> entry : loaders.entrySet()) {
-                        Field field = entry.getKey();
-                        ParamValueLoader loader = entry.getValue();
-                        Object fieldValue = loader.load(null, context, noDefaultValue);
-                        if (null != fieldValue) {
-                            field.set(bean, fieldValue);
-                        } else {
-                            fieldValue = field.get(bean);
+                    for (int i = 0; i < fieldCount; ++i) {
+                        Object fieldValue = fieldValueLoaders[i].load(null, context, noDefaultValue);
+                        if (null == fieldValue) {
+                            continue;
                         }
-                        if (hasValidationConstraint(BeanSpec.of(field, injector))) {
-                            hasValidateConstraint.set(true);
+                        int setterIndex = setterIndexes[i];
+                        if (setterIndex < 0) {
+                            fields[i].set(bean, fieldValue);
+                        } else {
+                            setter.set(bean, setterIndex, fieldValue);
                         }
                     }
                 } catch (IllegalAccessException e) {
@@ -26,6 +26,7 @@ import act.app.App;
 import act.app.AppServiceBase;
 import act.app.AppThreadFactory;
 import act.app.event.AppEventId;
+import act.conf.AppConfig;
 import act.event.AppEventListenerBase;
 import act.event.OnceEventListenerBase;
 import act.mail.MailerContext;
@@ -34,19 +35,34 @@ import org.joda.time.Seconds;
 import org.osgl.$;
 import org.osgl.exception.NotAppliedException;
 import org.osgl.util.C;
+import org.osgl.util.Codec;
 import org.osgl.util.E;
+import org.osgl.util.IO;
 import org.osgl.util.S;
 import org.rythmengine.utils.Time;
 
-import java.util.EventObject;
-import java.util.Map;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.util.*;
 import java.util.concurrent.*;
 
 public class AppJobManager extends AppServiceBase<AppJobManager> {
 
-    private ScheduledThreadPoolExecutor executor;
+    private ScheduledExecutorService executor;
     private ConcurrentMap<String, _Job> jobs = new ConcurrentHashMap<String, _Job>();
     private ConcurrentMap<String, ScheduledFuture> scheduled = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor graphExecutor;
+    private ConcurrentMap<AppEventId, List<JobTiming>> timings = new ConcurrentHashMap<>();
+    private JobStore store;
+    // the records loaded from job store and not claimed yet
+    private ConcurrentMap<String, JobRecord> restored = new ConcurrentHashMap<>();
+
+    private static final String DURABLE_JOB_PREFIX = "__act_durable_";
 
     static String appEventJobId(AppEventId eventId) {
         return S.concat("__act_app__", eventId.toString().toLowerCase());
@@ -58,6 +74,7 @@ public class AppJobManager extends AppServiceBase<AppJobManager> {
         for (AppEventId appEventId : AppEventId.values()) {
             createAppEventListener(appEventId);
         }
+        initStore(app);
     }
 
     @Override
@@ -67,7 +84,20 @@ public class AppJobManager extends AppServiceBase<AppJobManager> {
         }
         jobs.clear();
         executor.shutdown();
-        executor.getQueue().clear();
+        if (executor instanceof ScheduledThreadPoolExecutor) {
+            ((ScheduledThreadPoolExecutor) executor).getQueue().clear();
+        }
+        synchronized (this) {
+            if (null != graphExecutor) {
+                graphExecutor.shutdownNow();
+            }
+        }
+        timings.clear();
+        if (null != store) {
+            store.close();
+            store = null;
+        }
+        restored.clear();
     }
 
     public <T> Future<T> now(Callable<T> callable) {
@@ -82,8 +112,17 @@ public class AppJobManager extends AppServiceBase<AppJobManager> {
         return executor().schedule(callable, delay, timeUnit);
     }
 
+    /**
+     * Run the runnable after the delay. If job store is enabled and the
+     * runnable is {@link Serializable} then the job will be restored
+     * after app restarted if it has not been run.
+     */
     public void delay(Runnable runnable, long delay, TimeUnit timeUnit) {
-        executor().schedule(wrap(runnable), delay, timeUnit);
+        if (isDurable(runnable)) {
+            scheduleDurable(runnable, $.ms() + timeUnit.toMillis(delay));
+        } else {
+            executor().schedule(wrap(runnable), delay, timeUnit);
+        }
     }
 
     public <T> Future<T> delay(Callable<T> callable, String delay) {
@@ -93,7 +132,7 @@ public class AppJobManager extends AppServiceBase<AppJobManager> {
 
     public void delay(Runnable runnable, String delay) {
         int seconds = parseTime(delay);
-        executor().schedule(wrap(runnable), seconds, TimeUnit.SECONDS);
+        delay(runnable, seconds, TimeUnit.SECONDS);
     }
 
     public void every(String id, Runnable runnable, String interval) {
@@ -138,6 +177,10 @@ public class AppJobManager extends AppServiceBase<AppJobManager> {
     public void on(DateTime instant, Runnable runnable) {
         DateTime now = DateTime.now();
         E.illegalArgumentIf(instant.isBefore(now));
+        if (isDurable(runnable)) {
+            scheduleDurable(runnable, instant.getMillis());
+            return;
+        }
         Seconds seconds = Seconds.secondsBetween(now, instant);
         executor().schedule(wrap(runnable), seconds.getSeconds(), TimeUnit.SECONDS);
     }
@@ -227,6 +270,9 @@ public class AppJobManager extends AppServiceBase<AppJobManager> {
                 future.cancel(true);
             }
         }
+        if (null != store) {
+            store.remove(jobId);
+        }
     }
 
     public void beforeAppStart(final Runnable runnable) {
@@ -284,21 +330,239 @@ public class AppJobManager extends AppServiceBase<AppJobManager> {
         }
     }
 
-    ScheduledThreadPoolExecutor executor() {
+    ScheduledExecutorService executor() {
         return executor;
     }
 
+    /**
+     * Returns the bounded pool running independent app event jobs in parallel.
+     * Threads of the pool time out once the jobs are done.
+     */
+    synchronized ThreadPoolExecutor graphExecutor() {
+        if (null == graphExecutor) {
+            int poolSize = app().config().jobDagPoolSize();
+            graphExecutor = new ThreadPoolExecutor(poolSize, poolSize, 10, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new AppThreadFactory("job-dag"));
+            graphExecutor.allowCoreThreadTimeOut(true);
+        }
+        return graphExecutor;
+    }
+
+    void recordTimings(AppEventId event, Collection<JobTiming> jobTimings) {
+        if (!jobTimings.isEmpty()) {
+            timings.put(event, new ArrayList<>(jobTimings));
+        }
+    }
+
+    /**
+     * Returns the time spent on jobs chained to app events, ordered by
+     * event and then by the start time of the job
+     */
+    List<JobTiming> timings() {
+        List<JobTiming> list = new ArrayList<>();
+        for (AppEventId event : AppEventId.values()) {
+            List<JobTiming> eventTimings = timings.get(event);
+            if (null != eventTimings) {
+                list.addAll(eventTimings);
+            }
+        }
+        Collections.sort(list, new Comparator<JobTiming>() {
+            @Override
+            public int compare(JobTiming o1, JobTiming o2) {
+                int n = o1.getEvent().compareTo(o2.getEvent());
+                return 0 != n ? n : Long.compare(o1.getStart(), o2.getStart());
+            }
+        });
+        return list;
+    }
+
     private void initExecutor(App app) {
-        int poolSize = app.config().jobPoolSize();
-        executor = new ScheduledThreadPoolExecutor(poolSize, new AppThreadFactory("jobs"), new ThreadPoolExecutor.AbortPolicy());
-        //JDK1.7 API: executor.setRemoveOnCancelPolicy(true);
+        AppConfig config = app.config();
+        int poolSize = config.jobPoolSize();
+        if (config.jobWheelEnabled()) {
+            executor = new TimingWheelScheduler(poolSize, config.jobWheelTick(), TimeUnit.MILLISECONDS, "jobs");
+        } else {
+            executor = new ScheduledThreadPoolExecutor(poolSize, new AppThreadFactory("jobs"), new ThreadPoolExecutor.AbortPolicy());
+            //JDK1.7 API: executor.setRemoveOnCancelPolicy(true);
+        }
+    }
+
+    /**
+     * Run the calls of a periodic job missed while the app was down
+     * according to the misfire policy of the job. It only takes effect the
+     * first time the job is scheduled after the app started.
+     */
+    void catchUp(final _Job job) {
+        if (null == store) {
+            return;
+        }
+        JobRecord record = restored.remove(job.id());
+        if (null == record || record.isOneShot()) {
+            return;
+        }
+        job.lastCompletion(record.getLastCompletion());
+        long now = $.ms();
+        long next = record.getNextFireTime();
+        if (0 == next || next > now) {
+            return;
+        }
+        final int runs;
+        switch (job.misfirePolicy()) {
+            case SKIP:
+                Act.LOGGER.debug("skip job %s calls missed since %s", job.id(), new DateTime(next));
+                return;
+            case FIRE_NOW:
+                runs = job.trigger().missedRuns(next, now);
+                break;
+            default:
+                runs = 1;
+        }
+        Act.LOGGER.info("run job %s %s time(s) for the calls missed since %s", job.id(), runs, new DateTime(next));
+        now(new Runnable() {
+            @Override
+            public void run() {
+                job.catchUp(runs);
+            }
+        });
+    }
+
+    /**
+     * Record the next fire time of a periodic job into the job store
+     *
+     * @param job the job
+     * @param nextFireTime the next time the job will be run
+     * @param finished `true` if this is called when the job has finished
+     */
+    void jobScheduled(_Job job, long nextFireTime, boolean finished) {
+        if (null == store) {
+            return;
+        }
+        if (finished) {
+            job.lastCompletion($.ms());
+        }
+        store.save(new JobRecord(job.id(), nextFireTime, job.lastCompletion(), job.misfirePolicy(), null));
+    }
+
+    private void initStore(App app) {
+        AppConfig config = app.config();
+        if (!config.jobStoreEnabled()) {
+            return;
+        }
+        store = config.jobStore();
+        store.open(app);
+        for (JobRecord record : store.records()) {
+            restored.put(record.getId(), record);
+        }
+        on(AppEventId.POST_START, new Runnable() {
+            @Override
+            public void run() {
+                restore();
+            }
+        }, true);
+    }
+
+    /**
+     * Reschedule the one shot jobs loaded from job store and discard the
+     * records of periodic jobs that are not registered by the time app started
+     */
+    private void restore() {
+        long now = $.ms();
+        for (JobRecord record : restored.values()) {
+            String id = record.getId();
+            if (!record.isOneShot()) {
+                if (!jobs.containsKey(id) && null != restored.remove(id)) {
+                    store.remove(id);
+                }
+                continue;
+            }
+            restored.remove(id);
+            if (record.getNextFireTime() < now && MisfirePolicy.SKIP == record.getMisfirePolicy()) {
+                store.remove(id);
+                continue;
+            }
+            Runnable runnable = deserialize(record.getPayload());
+            if (null == runnable) {
+                store.remove(id);
+                continue;
+            }
+            scheduleDurable(id, runnable, record.getNextFireTime());
+        }
+    }
+
+    private boolean isDurable(Runnable runnable) {
+        return null != store && runnable instanceof Serializable;
+    }
+
+    private void scheduleDurable(Runnable runnable, long fireTime) {
+        String id = S.concat(DURABLE_JOB_PREFIX, app().cuid());
+        String payload = serialize(runnable);
+        if (null != payload) {
+            store.save(new JobRecord(id, fireTime, 0, MisfirePolicy.FIRE_NOW, payload));
+        }
+        scheduleDurable(id, runnable, fireTime);
+    }
+
+    private void scheduleDurable(final String id, Runnable runnable, long fireTime) {
+        final Runnable job = wrap(runnable);
+        ScheduledFuture future = executor().schedule(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    job.run();
+                } finally {
+                    scheduled.remove(id);
+                    JobStore store = AppJobManager.this.store;
+                    if (null != store) {
+                        store.remove(id);
+                    }
+                }
+            }
+        }, Math.max(0, fireTime - $.ms()), TimeUnit.MILLISECONDS);
+        futureScheduled(id, future);
+    }
+
+    private static String serialize(Runnable runnable) {
+        try {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            ObjectOutputStream oos = new ObjectOutputStream(baos);
+            oos.writeObject(runnable);
+            oos.close();
+            return Codec.encodeBase64(baos.toByteArray());
+        } catch (IOException e) {
+            Act.LOGGER.warn(e, "cannot persist job: %s", runnable);
+            return null;
+        }
+    }
+
+    private Runnable deserialize(String payload) {
+        final ClassLoader classLoader = app().classLoader();
+        try {
+            ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(Codec.decodeBase64(payload))) {
+                @Override
+                protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+                    try {
+                        return Class.forName(desc.getName(), false, classLoader);
+                    } catch (ClassNotFoundException e) {
+                        return super.resolveClass(desc);
+                    }
+                }
+            };
+            try {
+                return (Runnable) ois.readObject();
+            } finally {
+                IO.close(ois);
+            }
+        } catch (Exception e) {
+            Act.LOGGER.warn(e, "cannot restore job from job store");
+            return null;
+        }
     }
 
     private void createAppEventListener(AppEventId appEventId) {
         String jobId = appEventJobId(appEventId);
         _Job job = new _Job(jobId, this);
         addJob(job);
-        app().eventBus().bind(appEventId, new _AppEventListener(jobId, job));
+        app().eventBus().bind(appEventId, new _AppEventListener(jobId, new JobGraph(job, appEventId, this)));
     }
 
     private static class _AppEventListener extends AppEventListenerBase {
@@ -43,4 +43,20 @@ public @interface Cron {
      * @return the job id
      */
     String id() default "";
+
+    /**
+     * Specify how to deal with the runs missed while the app is down. This
+     * only takes effect when {@code job.store.enabled} is turned on.
+     * Default value: {@link MisfirePolicy#COALESCE}
+     * @return the misfire policy
+     */
+    MisfirePolicy misfire() default MisfirePolicy.COALESCE;
+
+    /**
+     * Specify the ID of the time zone in which the cron expression is
+     * evaluated, e.g. {@code "Europe/Paris"}. Default value: empty string,
+     * meaning the default time zone
+     * @return the time zone ID
+     */
+    String zone() default "";
 }
@@ -0,0 +1,299 @@
+package act.job;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.app.App;
+import act.app.AppThreadFactory;
+import act.conf.AppConfig;
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import org.osgl.logging.LogManager;
+import org.osgl.logging.Logger;
+import org.osgl.util.E;
+import org.osgl.util.IO;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The default {@link JobStore} implementation keeps job records in an
+ * append only local file, one JSON object per line.
+ *
+ * Changes are queued and written by a background thread in batches, i.e. all
+ * changes queued while the previous batch is being written go to the next
+ * batch, and each batch is forced to the disk unless `job.store.fsync` is
+ * turned off. The file is compacted on open and when the obsolete lines
+ * outnumber the live records.
+ *
+ * A line partially written when the app crashed is ignored on load.
+ */
+public class FileJobStore implements JobStore {
+
+    private static final Logger LOGGER = LogManager.get(FileJobStore.class);
+
+    private static final String OP_PUT = "put";
+    private static final String OP_DEL = "del";
+    private static final int MAX_BATCH = 1024;
+    private static final int COMPACT_THRESHOLD = 10000;
+
+    private File file;
+    private boolean fsync;
+    private FileOutputStream fos;
+    private OutputStream os;
+    private Thread writer;
+    private volatile boolean closed;
+    private final BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+    private final Map<String, JobRecord> live = new HashMap<>();
+    private List<JobRecord> loaded = Collections.emptyList();
+    // lines in the file, accessed by writer thread only
+    private int lines;
+
+    @Override
+    public void open(App app) {
+        AppConfig config = app.config();
+        File file = new File(config.jobStoreFile());
+        if (!file.isAbsolute()) {
+            file = app.file(config.jobStoreFile());
+        }
+        open(file, config.jobStoreFsyncEnabled());
+    }
+
+    // for unit test
+    void open(File file, boolean fsync) {
+        this.file = file;
+        this.fsync = fsync;
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (null != dir && !dir.exists() && !dir.mkdirs()) {
+            throw E.ioException("cannot create dir for job store: %s", dir);
+        }
+        if (file.exists()) {
+            load();
+        }
+        loaded = new ArrayList<>(live.values());
+        try {
+            compact();
+        } catch (IOException e) {
+            throw E.ioException(e);
+        }
+        writer = new AppThreadFactory("job-store", true).newThread(new Runnable() {
+            @Override
+            public void run() {
+                write();
+            }
+        });
+        writer.start();
+        LOGGER.debug("job store opened with %s records: %s", loaded.size(), file);
+    }
+
+    @Override
+    public Collection<JobRecord> records() {
+        return Collections.unmodifiableList(loaded);
+    }
+
+    @Override
+    public void save(JobRecord record) {
+        String line = toJson(record);
+        synchronized (live) {
+            live.put(record.getId(), record);
+            enqueue(line);
+        }
+    }
+
+    @Override
+    public void remove(String id) {
+        JSONObject json = new JSONObject();
+        json.put("op", OP_DEL);
+        json.put("id", id);
+        String line = json.toJSONString();
+        synchronized (live) {
+            if (null != live.remove(id)) {
+                enqueue(line);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (null != writer) {
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        IO.close(os);
+    }
+
+    private void enqueue(String line) {
+        if (closed) {
+            LOGGER.warn("job store closed, change discarded: %s", line);
+            return;
+        }
+        queue.add(line);
+    }
+
+    private void load() {
+        List<String> list;
+        try {
+            list = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw E.ioException(e);
+        }
+        for (String line : list) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            JSONObject json;
+            try {
+                json = JSON.parseObject(line);
+            } catch (RuntimeException e) {
+                LOGGER.warn("ignore corrupted line in job store: %s", line);
+                continue;
+            }
+            String id = json.getString("id");
+            if (null == id) {
+                continue;
+            }
+            if (OP_DEL.equals(json.getString("op"))) {
+                live.remove(id);
+            } else {
+                Long next = json.getLong("next");
+                Long last = json.getLong("last");
+                live.put(id, new JobRecord(id, null == next ? 0 : next, null == last ? 0 : last,
+                        misfirePolicy(json.getString("misfire"), line), json.getString("payload")));
+            }
+        }
+    }
+
+    // records written by older versions or edited by hand might have no or unknown policy
+    private static MisfirePolicy misfirePolicy(String name, String line) {
+        if (null == name) {
+            return MisfirePolicy.COALESCE;
+        }
+        try {
+            return MisfirePolicy.valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("unknown misfire policy in job store, use COALESCE instead: %s", line);
+            return MisfirePolicy.COALESCE;
+        }
+    }
+
+    private void write() {
+        List<String> batch = new ArrayList<>();
+        while (!closed || !queue.isEmpty()) {
+            try {
+                String line = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (null == line) {
+                    continue;
+                }
+                batch.add(line);
+            } catch (InterruptedException e) {
+                continue;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            try {
+                for (String line : batch) {
+                    os.write(line.getBytes(StandardCharsets.UTF_8));
+                    os.write('\n');
+                }
+                os.flush();
+                if (fsync) {
+                    fos.getChannel().force(false);
+                }
+                lines += batch.size();
+                if (lines > COMPACT_THRESHOLD && lines > live() * 2) {
+                    compact();
+                }
+            } catch (IOException e) {
+                LOGGER.error(e, "error writing job store: %s", file);
+            }
+            batch.clear();
+        }
+    }
+
+    private int live() {
+        synchronized (live) {
+            return live.size();
+        }
+    }
+
+    /**
+     * Rewrite the file with live records and reopen it for append. The
+     * changes queued but not written yet are written after the compacted
+     * file and applied again on load, which is harmless.
+     */
+    private void compact() throws IOException {
+        List<JobRecord> records;
+        synchronized (live) {
+            records = new ArrayList<>(live.values());
+        }
+        IO.close(os);
+        File tmp = new File(file.getAbsolutePath() + ".tmp");
+        FileOutputStream tmpOs = new FileOutputStream(tmp);
+        try {
+            Writer w = new BufferedWriter(new OutputStreamWriter(tmpOs, StandardCharsets.UTF_8));
+            for (JobRecord record : records) {
+                w.write(toJson(record));
+                w.write('\n');
+            }
+            w.flush();
+            tmpOs.getChannel().force(false);
+        } finally {
+            IO.close(tmpOs);
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        lines = records.size();
+        fos = new FileOutputStream(file, true);
+        os = new BufferedOutputStream(fos, 64 * 1024);
+    }
+
+    private static String toJson(JobRecord record) {
+        JSONObject json = new JSONObject();
+        json.put("op", OP_PUT);
+        json.put("id", record.getId());
+        json.put("next", record.getNextFireTime());
+        json.put("last", record.getLastCompletion());
+        MisfirePolicy misfire = record.getMisfirePolicy();
+        json.put("misfire", (null == misfire ? MisfirePolicy.COALESCE : misfire).name());
+        if (null != record.getPayload()) {
+            json.put("payload", record.getPayload());
+        }
+        return json.toJSONString();
+    }
+
+}
@@ -55,4 +55,12 @@ public @interface FixedDelay {
      * @return the job id
      */
     String id() default "";
+
+    /**
+     * Specify how to deal with the runs missed while the app is down. This
+     * only takes effect when {@code job.store.enabled} is turned on.
+     * Default value: {@link MisfirePolicy#COALESCE}
+     * @return the misfire policy
+     */
+    MisfirePolicy misfire() default MisfirePolicy.COALESCE;
 }
@@ -28,7 +28,8 @@ import org.osgl.util.C;
 import org.osgl.util.S;
 
 import java.util.List;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Provide admin service to act {@link AppJobManager}
@@ -68,13 +69,39 @@ public class JobAdmin {
         jobManager.cancel(id);
     }
 
+    @Command(value = "act.job.timing", help = "Show the time spent on jobs chained to app events, in milliseconds")
+    @PropertySpec("event,id,thread,start,duration")
+    @TableView
+    public List<JobTiming> timing(@Optional(lead = "-e", help = "filter by app event, e.g. START") final String event, AppJobManager jobManager) {
+        C.List<JobTiming> timings = C.list(jobManager.timings());
+        if (S.notBlank(event)) {
+            timings = timings.filter(new $.Predicate<JobTiming>() {
+                @Override
+                public boolean test(JobTiming timing) {
+                    return timing.getEvent().name().equalsIgnoreCase(event);
+                }
+            });
+        }
+        return timings;
+    }
+
     @Command(value = "act.job.scheduler", help = "Show Job manager scheduler status")
     public String getSchedulerStatus(AppJobManager jobManager) {
-        ScheduledThreadPoolExecutor executor = jobManager.executor();
+        ScheduledExecutorService scheduler = jobManager.executor();
         JSONObject json = new JSONObject();
+        ThreadPoolExecutor executor;
+        if (scheduler instanceof TimingWheelScheduler) {
+            TimingWheelScheduler wheel = (TimingWheelScheduler) scheduler;
+            executor = wheel.workers();
+            json.put("tick (ms)", wheel.tickMillis());
+            json.put("# of pending timers", wheel.pendingTimers());
+            json.put("# of fired timers", wheel.firedTimers());
+        } else {
+            executor = (ThreadPoolExecutor) scheduler;
+        }
         json.put("is terminating", executor.isTerminating());
-        json.put("is terminated", executor.isTerminated());
-        json.put("is shutdown", executor.isShutdown());
+        json.put("is terminated", scheduler.isTerminated());
+        json.put("is shutdown", scheduler.isShutdown());
         json.put("# of runnable in the queue", executor.getQueue().size());
         json.put("active count", executor.getActiveCount());
         json.put("# of completed tasks", executor.getActiveCount());
@@ -57,7 +57,7 @@ public class JobAnnotationProcessor extends AppHolderBase<JobAnnotationProcessor
         }
         _Job job = createMethodJob(method);
         if (Cron.class.isAssignableFrom(anno)) {
-            registerCron(job, evaluateExpression(v.toString(), anno));
+            registerCron(job, evaluateExpression(v.toString(), anno), method.zone());
         } else if (AlongWith.class.isAssignableFrom(anno)) {
             registerAlongWith(job, v.toString());
         } else if (Every.class.isAssignableFrom(anno)) {
@@ -107,8 +107,8 @@ public class JobAnnotationProcessor extends AppHolderBase<JobAnnotationProcessor
         return ret;
     }
 
-    private void registerCron(_Job job, String expression) {
-        JobTrigger.cron(expression).register(job, manager);
+    private void registerCron(_Job job, String expression, String zone) {
+        JobTrigger.cron(expression, zone).register(job, manager);
     }
 
     private void registerAlongWith(_Job job, String targetJobId) {
@@ -150,6 +150,7 @@ public class JobAnnotationProcessor extends AppHolderBase<JobAnnotationProcessor
     
     private _Job createMethodJob(JobMethodMetaInfo method) {
         String id = method.id();
-        return new _Job(id, app().jobManager(), new ReflectedJobInvoker<>(method, app()), false);
+        return new _Job(id, app().jobManager(), new ReflectedJobInvoker<>(method, app()), false)
+                .setIndependent().misfirePolicy(method.misfirePolicy());
     }
 }
@@ -0,0 +1,262 @@
+package act.job;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.Act;
+import act.app.App;
+import act.app.StartupProfiler;
+import act.app.event.AppEventId;
+import act.util.DestroyableBase;
+import org.osgl.$;
+import org.osgl.util.E;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Run the jobs chained to an app event as a dependency graph.
+ *
+ * The graph is built from the job associations at the time the event
+ * is triggered:
+ *
+ * * a job starts after all its precedence jobs, e.g. {@link InvokeBefore}, are finished
+ * * the following jobs, e.g. {@link InvokeAfter}, start after the job is finished
+ * * a job is done when all its following jobs are done
+ * * parallel jobs, e.g. {@link AlongWith}, are started without waiting, the same as {@link _Job#run()}
+ *
+ * Among the jobs associated to the same target, the {@link _Job#isIndependent() independent}
+ * ones, i.e. the annotated job methods, are dispatched to a bounded pool as soon as
+ * their dependencies are done. The other jobs, mostly registered by the framework,
+ * are run one after another in registration order on the thread emitting the event.
+ *
+ * When `job.dag.enabled` is turned off all jobs are run on the emitting thread
+ * in the same order as {@link _Job#run()} does.
+ *
+ * The time spent on each job is recorded and reported by the `act.job.timing` command.
+ */
+class JobGraph extends DestroyableBase implements Runnable {
+
+    private static final Runnable DONE = new Runnable() {
+        @Override
+        public void run() {
+        }
+    };
+
+    private _Job root;
+    private AppEventId event;
+    private AppJobManager manager;
+
+    JobGraph(_Job root, AppEventId event, AppJobManager manager) {
+        this.root = $.NPE(root);
+        this.event = $.NPE(event);
+        this.manager = $.NPE(manager);
+    }
+
+    @Override
+    protected void releaseResources() {
+        root.destroy();
+    }
+
+    @Override
+    public void run() {
+        boolean parallel = manager.app().config().jobDagEnabled();
+        Execution execution = new Execution(parallel ? manager.graphExecutor() : null);
+        try {
+            execution.run();
+        } finally {
+            manager.recordTimings(event, execution.timings);
+        }
+    }
+
+    private class Execution {
+        // null when running in deterministic mode
+        private final Executor pool;
+        // tasks to be run on the emitting thread
+        private final BlockingQueue<Runnable> local = new LinkedBlockingQueue<>();
+        private final Queue<JobTiming> timings = new ConcurrentLinkedQueue<>();
+        private final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        private final long start = System.nanoTime();
+        private volatile boolean aborted;
+        private volatile Throwable failure;
+
+        Execution(Executor pool) {
+            this.pool = pool;
+        }
+
+        void run() {
+            enter(root, new Runnable() {
+                @Override
+                public void run() {
+                    local.add(DONE);
+                }
+            });
+            try {
+                for (Runnable task = local.take(); DONE != task; task = local.take()) {
+                    task.run();
+                }
+            } catch (InterruptedException e) {
+                aborted = true;
+                Thread.currentThread().interrupt();
+                return;
+            }
+            Throwable t = failure;
+            if (null != t) {
+                if (t instanceof RuntimeException) {
+                    throw (RuntimeException) t;
+                } else if (t instanceof Error) {
+                    throw (Error) t;
+                }
+                throw E.unexpected(t);
+            }
+        }
+
+        private void enter(final _Job job, final Runnable whenDone) {
+            job.invokeParallelJobs();
+            runAll(job.takePrecedenceJobs(), new Runnable() {
+                @Override
+                public void run() {
+                    job.releasePrecedenceJobs();
+                    dispatch(job, new Runnable() {
+                        @Override
+                        public void run() {
+                            runJob(job, whenDone);
+                        }
+                    });
+                }
+            });
+        }
+
+        private void runJob(final _Job job, final Runnable whenDone) {
+            if (skip()) {
+                whenDone.run();
+                return;
+            }
+            boolean proceed = false;
+            StartupProfiler.Span span = StartupProfiler.start(manager.app(), "job", job.id());
+            long t0 = System.nanoTime();
+            try {
+                proceed = job.runSelf();
+            } catch (Throwable e) {
+                fail(e);
+            } finally {
+                span.stop();
+                long t1 = System.nanoTime();
+                timings.add(new JobTiming(event, job, Thread.currentThread().getName(), t0 - start, t1 - t0));
+            }
+            if (!proceed) {
+                aborted = true;
+                whenDone.run();
+                return;
+            }
+            runAll(job.takeFollowingJobs(), new Runnable() {
+                @Override
+                public void run() {
+                    job.releaseFollowingJobs();
+                    whenDone.run();
+                }
+            });
+        }
+
+        private void runAll(List<_Job> jobs, final Runnable whenDone) {
+            if (jobs.isEmpty()) {
+                whenDone.run();
+                return;
+            }
+            final AtomicInteger pending = new AtomicInteger(jobs.size());
+            Runnable jobDone = new Runnable() {
+                @Override
+                public void run() {
+                    if (0 == pending.decrementAndGet()) {
+                        whenDone.run();
+                    }
+                }
+            };
+            List<_Job> ordered = new ArrayList<>(jobs.size());
+            for (_Job job : jobs) {
+                if (null != pool && job.isIndependent()) {
+                    enter(job, jobDone);
+                } else {
+                    ordered.add(job);
+                }
+            }
+            runOrdered(ordered, 0, jobDone);
+        }
+
+        private void runOrdered(final List<_Job> jobs, final int index, final Runnable jobDone) {
+            if (index >= jobs.size()) {
+                return;
+            }
+            enter(jobs.get(index), new Runnable() {
+                @Override
+                public void run() {
+                    jobDone.run();
+                    runOrdered(jobs, index + 1, jobDone);
+                }
+            });
+        }
+
+        private void dispatch(_Job job, final Runnable task) {
+            if (null != pool && job.isIndependent()) {
+                try {
+                    pool.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            Thread thread = Thread.currentThread();
+                            ClassLoader origin = thread.getContextClassLoader();
+                            thread.setContextClassLoader(classLoader);
+                            try {
+                                task.run();
+                            } catch (Throwable e) {
+                                // the chain cannot be completed, release the emitting thread
+                                fail(e);
+                                local.add(DONE);
+                            } finally {
+                                thread.setContextClassLoader(origin);
+                            }
+                        }
+                    });
+                    return;
+                } catch (RejectedExecutionException e) {
+                    // the pool has been shutdown, fall back to the emitting thread
+                }
+            }
+            local.add(task);
+        }
+
+        private synchronized void fail(Throwable e) {
+            aborted = true;
+            if (null == failure) {
+                failure = e;
+            }
+        }
+
+        private boolean skip() {
+            if (aborted) {
+                return true;
+            }
+            App app = manager.app();
+            return Act.isDev() && null != app && app.hasBlockIssue();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package act.job;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.osgl.$;
+
+/**
+ * The persistent state of a scheduled job kept by {@link JobStore}.
+ *
+ * Time values are milliseconds since epoch, `0` if not available.
+ */
+public class JobRecord {
+
+    private final String id;
+    private final long nextFireTime;
+    private final long lastCompletion;
+    private final MisfirePolicy misfirePolicy;
+    private final String payload;
+
+    /**
+     * Construct a job record
+     *
+     * @param id the job id
+     * @param nextFireTime the time the job is scheduled to run
+     * @param lastCompletion the time the job finished last time
+     * @param misfirePolicy how to deal with the run missed when app is down
+     * @param payload the serialized one shot job, or `null` for the jobs scheduled by trigger
+     */
+    public JobRecord(String id, long nextFireTime, long lastCompletion, MisfirePolicy misfirePolicy, String payload) {
+        this.id = $.notNull(id);
+        this.nextFireTime = nextFireTime;
+        this.lastCompletion = lastCompletion;
+        this.misfirePolicy = null == misfirePolicy ? MisfirePolicy.COALESCE : misfirePolicy;
+        this.payload = payload;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getNextFireTime() {
+        return nextFireTime;
+    }
+
+    public long getLastCompletion() {
+        return lastCompletion;
+    }
+
+    public MisfirePolicy getMisfirePolicy() {
+        return misfirePolicy;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    /**
+     * @return `true` if this is a one shot job restored from {@link #getPayload() payload}
+     */
+    public boolean isOneShot() {
+        return null != payload;
+    }
+
+    @Override
+    public String toString() {
+        return $.fmt("job record[%s] next: %s, last: %s, misfire: %s", id, nextFireTime, lastCompletion, misfirePolicy);
+    }
+}
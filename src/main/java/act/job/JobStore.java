@@ -0,0 +1,73 @@
+package act.job;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.app.App;
+
+import java.util.Collection;
+
+/**
+ * Persists scheduled jobs so that pending jobs and the runs missed while the
+ * app is down can be restored after restart.
+ *
+ * The job manager saves a record when a job is scheduled or finished and
+ * removes the record of a one shot job once it is done. Implementations are
+ * expected to make {@link #save(JobRecord)} and {@link #remove(String)} cheap,
+ * e.g. by writing in batches from a background thread.
+ *
+ * The implementation is specified by `job.store.impl` and is used only when
+ * `job.store.enabled` is turned on.
+ *
+ * @see FileJobStore
+ */
+public interface JobStore {
+
+    /**
+     * Open the store and load the records persisted
+     *
+     * @param app the app
+     */
+    void open(App app);
+
+    /**
+     * @return the records loaded when the store is opened
+     */
+    Collection<JobRecord> records();
+
+    /**
+     * Add or replace the record of a job
+     *
+     * @param record the job record
+     */
+    void save(JobRecord record);
+
+    /**
+     * Remove the record of a job
+     *
+     * @param id the job id
+     */
+    void remove(String id);
+
+    /**
+     * Write pending changes and close the store
+     */
+    void close();
+}
@@ -0,0 +1,70 @@
+package act.job;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.app.event.AppEventId;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The time spent on a job chained to an app event
+ */
+public class JobTiming {
+    private AppEventId event;
+    private String id;
+    private String thread;
+    private long start;
+    private long duration;
+
+    JobTiming(AppEventId event, _Job job, String thread, long startNanos, long durationNanos) {
+        this.event = event;
+        this.id = job.id();
+        this.thread = thread;
+        this.start = TimeUnit.NANOSECONDS.toMillis(startNanos);
+        this.duration = TimeUnit.NANOSECONDS.toMillis(durationNanos);
+    }
+
+    public AppEventId getEvent() {
+        return event;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getThread() {
+        return thread;
+    }
+
+    /**
+     * @return milliseconds since the event has been triggered when the job started
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * @return milliseconds spent on the job excluding its associated jobs
+     */
+    public long getDuration() {
+        return duration;
+    }
+}
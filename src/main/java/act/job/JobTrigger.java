@@ -26,7 +26,7 @@ import act.conf.AppConfig;
 import act.event.AppEventListenerBase;
 import fc.cron.CronExpression;
 import org.joda.time.DateTime;
-import org.joda.time.Seconds;
+import org.joda.time.DateTimeZone;
 import org.osgl.$;
 import org.osgl.exception.NotAppliedException;
 import org.osgl.logging.L;
@@ -36,8 +36,8 @@ import org.osgl.util.S;
 import org.rythmengine.utils.Time;
 
 import java.util.EventObject;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import static act.app.event.AppEventId.START;
@@ -59,8 +59,21 @@ abstract class JobTrigger {
         schedule(manager, job);
     }
 
+    /**
+     * The maximum number of missed calls to be run with {@link MisfirePolicy#FIRE_NOW}
+     */
+    static final int MAX_CATCH_UP = 1000;
+
     void scheduleFollowingCalls(AppJobManager manager, _Job job) {}
 
+    /**
+     * Returns the number of calls scheduled between `from` and `to`, both
+     * inclusive, at most {@link #MAX_CATCH_UP}
+     */
+    int missedRuns(long from, long to) {
+        return 1;
+    }
+
     void schedule(AppJobManager manager, _Job job) {}
 
     static JobTrigger of(AppConfig config, Cron anno) {
@@ -74,7 +87,7 @@ abstract class JobTrigger {
         if (S.blank(v)) {
             throw E.invalidConfiguration("Cannot find configuration for cron: %s", anno.value());
         }
-        return cron(v);
+        return cron(v, anno.zone());
     }
 
     static JobTrigger of(AppConfig config, OnAppStart anno) {
@@ -140,7 +153,11 @@ abstract class JobTrigger {
     }
 
     static JobTrigger cron(String expression) {
-        return new _Cron(expression);
+        return new _Cron(expression, null);
+    }
+
+    static JobTrigger cron(String expression, String zone) {
+        return new _Cron(expression, S.blank(zone) ? null : DateTimeZone.forID(zone));
     }
 
     static JobTrigger fixedDelay(String duration) {
@@ -209,8 +226,10 @@ abstract class JobTrigger {
 
     static class _Cron extends JobTrigger {
         private CronExpression cronExpr;
-        _Cron(String expression) {
-            cronExpr = new CronExpression(expression);
+        // the time the job was last scheduled at
+        private volatile DateTime scheduled;
+        _Cron(String expression, DateTimeZone zone) {
+            cronExpr = new CronExpression(expression, zone);
         }
 
         @Override
@@ -225,26 +244,43 @@ abstract class JobTrigger {
                 app.eventBus().bindAsync(AppEventId.POST_START, new AppEventListenerBase() {
                     @Override
                     public void on(EventObject event) throws Exception {
-                        delayedSchedule(manager, job);
+                        delayedSchedule(manager, job, false);
                     }
                 });
             } else {
-                delayedSchedule(manager, job);
+                delayedSchedule(manager, job, false);
             }
         }
 
-        private void delayedSchedule(AppJobManager manager, _Job job) {
+        private void delayedSchedule(AppJobManager manager, _Job job, boolean finished) {
+            if (!finished) {
+                manager.catchUp(job);
+            }
             DateTime now = DateTime.now();
-            // add one seconds to prevent the next time be the current time (now)
-            DateTime next = cronExpr.nextTimeAfter(now.plusSeconds(1));
-            Seconds seconds = Seconds.secondsBetween(now, next);
-            ScheduledFuture future = manager.executor().schedule(job, seconds.getSeconds(), TimeUnit.SECONDS);
+            // never schedule the same time twice even if the clock is behind
+            DateTime last = scheduled;
+            DateTime next = cronExpr.nextTimeAfter(null == last || now.isAfter(last) ? now : last);
+            scheduled = next;
+            long delay = Math.max(0L, next.getMillis() - now.getMillis());
+            ScheduledFuture future = manager.executor().schedule(job, delay, TimeUnit.MILLISECONDS);
             manager.futureScheduled(job.id(), future);
+            manager.jobScheduled(job, next.getMillis(), finished);
         }
 
         @Override
         void scheduleFollowingCalls(AppJobManager manager, _Job job) {
-            schedule(manager, job);
+            delayedSchedule(manager, job, true);
+        }
+
+        @Override
+        int missedRuns(long from, long to) {
+            int runs = 0;
+            DateTime time = new DateTime(from);
+            while (runs < MAX_CATCH_UP && !time.isAfter(to)) {
+                runs++;
+                time = cronExpr.nextTimeAfter(time);
+            }
+            return runs;
         }
     }
 
@@ -259,6 +295,11 @@ abstract class JobTrigger {
             E.illegalArgumentIf(seconds < 1, "delay duration cannot be zero or negative");
             this.seconds = seconds;
         }
+
+        @Override
+        int missedRuns(long from, long to) {
+            return (int) Math.min(MAX_CATCH_UP, 1 + (to - from) / (seconds * 1000));
+        }
     }
 
     private static class _FixedDelay extends _Periodical {
@@ -290,13 +331,22 @@ abstract class JobTrigger {
         }
 
         private void delayedSchedule(AppJobManager manager, _Job job) {
-            ScheduledThreadPoolExecutor executor = manager.executor();
+            manager.catchUp(job);
+            ScheduledExecutorService executor = manager.executor();
             ScheduledFuture future = executor.scheduleWithFixedDelay(job, seconds, seconds, TimeUnit.SECONDS);
             manager.futureScheduled(job.id(), future);
+            manager.jobScheduled(job, $.ms() + seconds * 1000, false);
+        }
+
+        @Override
+        void scheduleFollowingCalls(AppJobManager manager, _Job job) {
+            manager.jobScheduled(job, $.ms() + seconds * 1000, true);
         }
     }
 
     private static class _Every extends _Periodical {
+        private long firstFireTime;
+
         _Every(String duration) {
             super(duration);
         }
@@ -326,9 +376,19 @@ abstract class JobTrigger {
         }
 
         private void delayedSchedule(AppJobManager manager, _Job job) {
-            ScheduledThreadPoolExecutor executor = manager.executor();
+            manager.catchUp(job);
+            ScheduledExecutorService executor = manager.executor();
+            firstFireTime = $.ms() + seconds * 1000;
             ScheduledFuture future = executor.scheduleAtFixedRate(job, seconds, seconds, TimeUnit.SECONDS);
             manager.futureScheduled(job.id(), future);
+            manager.jobScheduled(job, firstFireTime, false);
+        }
+
+        @Override
+        void scheduleFollowingCalls(AppJobManager manager, _Job job) {
+            long period = seconds * 1000;
+            long next = firstFireTime + ((Math.max(0, $.ms() - firstFireTime) / period) + 1) * period;
+            manager.jobScheduled(job, next, true);
         }
     }
 
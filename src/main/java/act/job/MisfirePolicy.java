@@ -0,0 +1,45 @@
+package act.job;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Specifies how to deal with the runs of a scheduled job that are missed
+ * because the app was down at the time they were due.
+ *
+ * @see JobStore
+ */
+public enum MisfirePolicy {
+    /**
+     * Run the job once for each missed run as soon as the app started
+     */
+    FIRE_NOW,
+
+    /**
+     * Ignore the missed runs and wait for the next scheduled time
+     */
+    SKIP,
+
+    /**
+     * Run the job once as soon as the app started, no matter how
+     * many runs were missed
+     */
+    COALESCE
+}
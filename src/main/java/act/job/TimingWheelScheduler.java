@@ -0,0 +1,498 @@
+package act.job;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.app.AppThreadFactory;
+import org.osgl.$;
+import org.osgl.logging.LogManager;
+import org.osgl.logging.Logger;
+import org.osgl.util.E;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link ScheduledExecutorService} backed by a hashed hierarchical timing wheel.
+ *
+ * {@link ScheduledThreadPoolExecutor} keeps delayed tasks in a binary heap
+ * guarded by a single lock, which makes scheduling and cancelling `O(log n)`
+ * and contended when there are lots of pending timers. This scheduler hands
+ * new and cancelled timers to a ticker thread through lock free queues, thus
+ * both operations are `O(1)` for the caller. The ticker thread keeps timers in
+ * {@link #LEVELS} wheels of {@link #WHEEL_SIZE} slots. A timer is put into the
+ * lowest level wheel that covers its deadline and moves down to finer wheels
+ * when the coarse slot it sits in comes round. Timers expired in a tick are
+ * dispatched to the worker pool in batches.
+ *
+ * Timers fire at the first tick after they expire, i.e. the precision is the
+ * tick duration. With the default 10ms tick the wheels cover about 16 months,
+ * timers beyond that are parked in the top level wheel and re-hashed each time
+ * their slot comes round.
+ *
+ * Pending timers are cancelled on shutdown.
+ */
+public class TimingWheelScheduler extends AbstractExecutorService implements ScheduledExecutorService {
+
+    private static final Logger LOGGER = LogManager.get(TimingWheelScheduler.class);
+
+    static final int WHEEL_BITS = 8;
+    static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    static final int LEVELS = 4;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final long MAX_SPAN = 1L << (WHEEL_BITS * LEVELS);
+
+    // the maximum number of expired timers run by one worker task
+    private static final int MAX_BATCH = 64;
+
+    private final long tickNanos;
+    private final long startNanos;
+    private final ThreadPoolExecutor workers;
+    private final Bucket[][] wheels;
+    private final Queue<Timer<?>> scheduled = new ConcurrentLinkedQueue<>();
+    private final Queue<Timer<?>> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong fired = new AtomicLong();
+    private final Thread ticker;
+    private final CountDownLatch tickerStopped = new CountDownLatch(1);
+    private volatile boolean shutdown;
+    // timers left in the wheels when the ticker stopped
+    private volatile List<Runnable> unfired = Collections.emptyList();
+
+    // the last tick processed, accessed by ticker thread only
+    private long tick;
+
+    /**
+     * Construct a timing wheel scheduler
+     *
+     * @param poolSize the number of worker threads
+     * @param tick the tick duration
+     * @param unit the time unit of tick duration
+     * @param poolName the name used to create worker threads
+     */
+    public TimingWheelScheduler(int poolSize, long tick, TimeUnit unit, String poolName) {
+        E.illegalArgumentIf(poolSize < 1, "pool size shall be positive: %s", poolSize);
+        E.illegalArgumentIf(tick < 1, "tick shall be positive: %s", tick);
+        this.tickNanos = unit.toNanos(tick);
+        this.workers = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new AppThreadFactory(poolName));
+        this.wheels = new Bucket[LEVELS][WHEEL_SIZE];
+        for (int level = 0; level < LEVELS; ++level) {
+            for (int i = 0; i < WHEEL_SIZE; ++i) {
+                wheels[level][i] = new Bucket();
+            }
+        }
+        this.ticker = new AppThreadFactory(poolName + "-wheel", true).newThread(new Runnable() {
+            @Override
+            public void run() {
+                runTicker();
+            }
+        });
+        this.startNanos = System.nanoTime();
+        this.ticker.start();
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        workers.execute(command);
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        E.NPE(command);
+        return schedule(new Timer<Void>(command, null, triggerTime(delay, unit), 0));
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        E.NPE(callable);
+        return schedule(new Timer<V>(callable, triggerTime(delay, unit)));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        E.NPE(command);
+        E.illegalArgumentIf(period <= 0, "period shall be positive: %s", period);
+        return schedule(new Timer<Void>(command, null, triggerTime(initialDelay, unit), unit.toNanos(period)));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        E.NPE(command);
+        E.illegalArgumentIf(delay <= 0, "delay shall be positive: %s", delay);
+        return schedule(new Timer<Void>(command, null, triggerTime(initialDelay, unit), -unit.toNanos(delay)));
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        ticker.interrupt();
+        workers.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown();
+        try {
+            tickerStopped.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Runnable> list = new ArrayList<>(unfired);
+        list.addAll(workers.shutdownNow());
+        return list;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && 0 == tickerStopped.getCount() && workers.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        if (!tickerStopped.await(timeout, unit)) {
+            return false;
+        }
+        return workers.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the tick duration in milliseconds
+     */
+    public long tickMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(tickNanos);
+    }
+
+    /**
+     * @return the number of timers waiting to be fired
+     */
+    public long pendingTimers() {
+        return pending.get();
+    }
+
+    /**
+     * @return the number of timers fired so far
+     */
+    public long firedTimers() {
+        return fired.get();
+    }
+
+    /**
+     * @return the worker pool running expired timers and immediate tasks
+     */
+    public ThreadPoolExecutor workers() {
+        return workers;
+    }
+
+    private long triggerTime(long delay, TimeUnit unit) {
+        return System.nanoTime() + unit.toNanos(Math.max(0, delay));
+    }
+
+    private <V> Timer<V> schedule(Timer<V> timer) {
+        if (shutdown) {
+            throw new RejectedExecutionException("scheduler has been shutdown");
+        }
+        pending.incrementAndGet();
+        scheduled.add(timer);
+        return timer;
+    }
+
+    private void runTicker() {
+        List<Timer<?>> expired = new ArrayList<>();
+        try {
+            while (!shutdown) {
+                long nextTick = startNanos + (tick + 1) * tickNanos;
+                long wait = nextTick - System.nanoTime();
+                if (wait > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    } catch (InterruptedException e) {
+                        continue;
+                    }
+                }
+                removeCancelled();
+                addScheduled(expired);
+                advance((System.nanoTime() - startNanos) / tickNanos, expired);
+                dispatch(expired);
+                expired.clear();
+            }
+        } catch (Throwable e) {
+            LOGGER.error(e, "timing wheel ticker stopped unexpectedly");
+            shutdown();
+        } finally {
+            cancelAll();
+            tickerStopped.countDown();
+        }
+    }
+
+    private void removeCancelled() {
+        for (Timer<?> timer = cancelled.poll(); null != timer; timer = cancelled.poll()) {
+            Bucket bucket = timer.bucket;
+            if (null != bucket) {
+                bucket.remove(timer);
+                pending.decrementAndGet();
+            }
+        }
+    }
+
+    private void addScheduled(List<Timer<?>> expired) {
+        for (Timer<?> timer = scheduled.poll(); null != timer; timer = scheduled.poll()) {
+            if (timer.isCancelled()) {
+                pending.decrementAndGet();
+            } else {
+                add(timer, expired);
+            }
+        }
+    }
+
+    /**
+     * Put the timer into the wheel covers its deadline, or into the expired
+     * list if the deadline has passed
+     */
+    private void add(Timer<?> timer, List<Timer<?>> expired) {
+        long deadlineTick = (timer.deadline - startNanos + tickNanos - 1) / tickNanos;
+        long delta = deadlineTick - tick;
+        if (delta <= 0) {
+            expire(timer, expired);
+            return;
+        }
+        if (delta >= MAX_SPAN) {
+            deadlineTick = tick + MAX_SPAN - 1;
+            delta = MAX_SPAN - 1;
+        }
+        int level = 0;
+        while ((delta >>> (WHEEL_BITS * (level + 1))) > 0) {
+            level++;
+        }
+        int slot = (int) ((deadlineTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+        wheels[level][slot].add(timer);
+    }
+
+    /**
+     * Process ticks up to the specified one. At each tick the timers in the
+     * coarse slots starting from this tick are moved down to finer wheels and
+     * then the timers in the current slot of the finest wheel expire.
+     */
+    private void advance(long to, List<Timer<?>> expired) {
+        while (tick < to) {
+            tick++;
+            for (int level = 1; level < LEVELS; ++level) {
+                if (0 != (tick & ((1L << (WHEEL_BITS * level)) - 1))) {
+                    break;
+                }
+                int slot = (int) ((tick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+                Bucket bucket = wheels[level][slot];
+                for (Timer<?> timer = bucket.poll(); null != timer; timer = bucket.poll()) {
+                    add(timer, expired);
+                }
+            }
+            Bucket bucket = wheels[0][(int) (tick & WHEEL_MASK)];
+            for (Timer<?> timer = bucket.poll(); null != timer; timer = bucket.poll()) {
+                expire(timer, expired);
+            }
+        }
+    }
+
+    private void expire(Timer<?> timer, List<Timer<?>> expired) {
+        pending.decrementAndGet();
+        expired.add(timer);
+    }
+
+    /**
+     * Hand expired timers to workers. Timers are grouped so that all workers
+     * get a share while a burst of expiry does not flood the worker queue.
+     */
+    private void dispatch(List<Timer<?>> expired) {
+        int size = expired.size();
+        if (0 == size) {
+            return;
+        }
+        fired.addAndGet(size);
+        int batchSize = Math.max(1, Math.min(MAX_BATCH, size / workers.getCorePoolSize()));
+        for (int i = 0; i < size; i += batchSize) {
+            final Timer<?>[] batch = expired.subList(i, Math.min(size, i + batchSize)).toArray(new Timer<?>[0]);
+            try {
+                workers.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (Timer<?> timer : batch) {
+                            timer.run();
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // shutting down
+                return;
+            }
+        }
+    }
+
+    private void cancelAll() {
+        List<Runnable> list = new ArrayList<>();
+        for (Timer<?> timer = scheduled.poll(); null != timer; timer = scheduled.poll()) {
+            list.add(timer);
+        }
+        for (Bucket[] wheel : wheels) {
+            for (Bucket bucket : wheel) {
+                for (Timer<?> timer = bucket.poll(); null != timer; timer = bucket.poll()) {
+                    list.add(timer);
+                }
+            }
+        }
+        for (Runnable timer : list) {
+            ((Timer<?>) timer).cancel(false);
+        }
+        cancelled.clear();
+        pending.set(0);
+        unfired = list;
+    }
+
+    /**
+     * A slot of the wheel, i.e. a doubly linked list of timers, so that a
+     * cancelled timer can be removed in constant time. Accessed by ticker
+     * thread only.
+     */
+    private static class Bucket {
+        private Timer<?> head;
+        private Timer<?> tail;
+
+        void add(Timer<?> timer) {
+            timer.bucket = this;
+            timer.prev = tail;
+            timer.next = null;
+            if (null == tail) {
+                head = timer;
+            } else {
+                tail.next = timer;
+            }
+            tail = timer;
+        }
+
+        void remove(Timer<?> timer) {
+            Timer<?> prev = timer.prev;
+            Timer<?> next = timer.next;
+            if (null == prev) {
+                head = next;
+            } else {
+                prev.next = next;
+            }
+            if (null == next) {
+                tail = prev;
+            } else {
+                next.prev = prev;
+            }
+            timer.bucket = null;
+            timer.prev = null;
+            timer.next = null;
+        }
+
+        Timer<?> poll() {
+            Timer<?> timer = head;
+            if (null != timer) {
+                remove(timer);
+            }
+            return timer;
+        }
+    }
+
+    private class Timer<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+
+        // nanoTime based, updated by worker thread before a periodic timer is scheduled again
+        private volatile long deadline;
+
+        // positive: fixed rate; negative: fixed delay; zero: one shot
+        private final long period;
+
+        // the wheel slot and siblings, accessed by ticker thread only
+        private Bucket bucket;
+        private Timer<?> prev;
+        private Timer<?> next;
+
+        Timer(Runnable runnable, V result, long deadline, long period) {
+            super(runnable, result);
+            this.deadline = deadline;
+            this.period = period;
+        }
+
+        Timer(Callable<V> callable, long deadline) {
+            super(callable);
+            this.deadline = deadline;
+            this.period = 0;
+        }
+
+        @Override
+        public boolean isPeriodic() {
+            return 0 != period;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed o) {
+            if (o == this) {
+                return 0;
+            }
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), o.getDelay(TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled && !shutdown) {
+                TimingWheelScheduler.this.cancelled.add(this);
+            }
+            return cancelled;
+        }
+
+        @Override
+        public void run() {
+            if (!isPeriodic()) {
+                super.run();
+            } else if (runAndReset() && !shutdown) {
+                deadline = period > 0 ? deadline + period : System.nanoTime() - period;
+                try {
+                    schedule(this);
+                } catch (RejectedExecutionException e) {
+                    // shutting down
+                    cancel(false);
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return $.fmt("timer[delay=%sms]", getDelay(TimeUnit.MILLISECONDS));
+        }
+    }
+
+}
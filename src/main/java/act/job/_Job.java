@@ -72,6 +72,20 @@ class _Job extends DestroyableBase implements Runnable {
             runSubJobs(false);
         }
 
+        /**
+         * Take a snapshot of the job list for {@link JobGraph}. Jobs added
+         * before {@link #release()} is called are run immediately, the same
+         * as when the list is being iterated
+         */
+        synchronized List<_Job> take() {
+            iterating = true;
+            return new ArrayList<_Job>(jobList);
+        }
+
+        synchronized void release() {
+            iterating = false;
+        }
+
         synchronized void runSubJobs(boolean async) {
             if (jobList.isEmpty()) {
                 return;
@@ -112,6 +126,9 @@ class _Job extends DestroyableBase implements Runnable {
     private App app;
     private boolean oneTime;
     private boolean executed;
+    private boolean independent;
+    private MisfirePolicy misfirePolicy = MisfirePolicy.COALESCE;
+    private long lastCompletion;
     private AppJobManager manager;
     private JobTrigger trigger;
     private $.Func0<?> worker;
@@ -176,6 +193,36 @@ class _Job extends DestroyableBase implements Runnable {
         return oneTime;
     }
 
+    /**
+     * Mark the job as independent of the other jobs associated to the same
+     * target job, thus it can be run in parallel with them
+     */
+    _Job setIndependent() {
+        independent = true;
+        return this;
+    }
+
+    boolean isIndependent() {
+        return independent;
+    }
+
+    _Job misfirePolicy(MisfirePolicy policy) {
+        misfirePolicy = $.notNull(policy);
+        return this;
+    }
+
+    MisfirePolicy misfirePolicy() {
+        return misfirePolicy;
+    }
+
+    void lastCompletion(long ms) {
+        lastCompletion = ms;
+    }
+
+    long lastCompletion() {
+        return lastCompletion;
+    }
+
     boolean done() {
         return executed && oneTime;
     }
@@ -189,6 +236,10 @@ class _Job extends DestroyableBase implements Runnable {
         this.trigger = trigger;
     }
 
+    final JobTrigger trigger() {
+        return trigger;
+    }
+
     final _Job addParallelJob(_Job thatJob) {
         return parallelJobs.add(thatJob);
     }
@@ -205,6 +256,17 @@ class _Job extends DestroyableBase implements Runnable {
     public void run() {
         invokeParallelJobs();
         runPrecedenceJobs();
+        if (runSelf()) {
+            runFollowingJobs();
+        }
+    }
+
+    /**
+     * Run this job without the associated jobs.
+     *
+     * @return `false` if a fatal error happened and the following jobs shall not be run
+     */
+    final boolean runSelf() {
         try {
             if (Act.isDev() && app.isStarted()) {
                 app.checkUpdates(false);
@@ -238,7 +300,7 @@ class _Job extends DestroyableBase implements Runnable {
                         logger.fatal(cause, "Fatal error executing job %s", id());
                     }
                 }
-                return;
+                return false;
             }
             // TODO inject Job Exception Handling mechanism here
             logger.warn(e, "error executing job %s", id());
@@ -260,7 +322,22 @@ class _Job extends DestroyableBase implements Runnable {
                 }
             }
         }
-        runFollowingJobs();
+        return true;
+    }
+
+    /**
+     * Run the worker of this job the specified times without scheduling the
+     * following calls. This is used to run the scheduled calls missed while
+     * the app was down.
+     */
+    final void catchUp(int times) {
+        for (int i = 0; i < times && null != worker; ++i) {
+            try {
+                worker.apply();
+            } catch (RuntimeException e) {
+                logger.warn(e, "error executing job %s", id());
+            }
+        }
     }
 
     protected void _before() {}
@@ -291,10 +368,26 @@ class _Job extends DestroyableBase implements Runnable {
         followingJobs.runSubJobs();
     }
 
-    private void invokeParallelJobs() {
+    final void invokeParallelJobs() {
         parallelJobs.runSubJobs(true);
     }
 
+    final List<_Job> takePrecedenceJobs() {
+        return precedenceJobs.take();
+    }
+
+    final void releasePrecedenceJobs() {
+        precedenceJobs.release();
+    }
+
+    final List<_Job> takeFollowingJobs() {
+        return followingJobs.take();
+    }
+
+    final void releaseFollowingJobs() {
+        followingJobs.release();
+    }
+
     protected final AppJobManager manager() {
         return manager;
     }
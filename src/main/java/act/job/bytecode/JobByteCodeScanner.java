@@ -27,6 +27,7 @@ import act.asm.MethodVisitor;
 import act.asm.Opcodes;
 import act.asm.Type;
 import act.job.JobAnnotationProcessor;
+import act.job.MisfirePolicy;
 import act.job.meta.JobClassMetaInfo;
 import act.job.meta.JobClassMetaInfoManager;
 import act.job.meta.JobMethodMetaInfo;
@@ -215,6 +216,8 @@ public class JobByteCodeScanner extends AppByteCodeScannerBase {
                 public void visitEnum(String name, String desc, String value) {
                     if (desc.contains("AppEventId")) {
                         this.currentInfo.value = AppEventId.valueOf(value);
+                    } else if (desc.contains("MisfirePolicy")) {
+                        this.method.misfirePolicy(MisfirePolicy.valueOf(value));
                     }
                     super.visitEnum(name, desc, value);
                 }
@@ -227,6 +230,8 @@ public class JobByteCodeScanner extends AppByteCodeScannerBase {
                         this.currentInfo.async = value;
                     } else if ("id".equals(name)) {
                         this.method.id(S.string(value));
+                    } else if ("zone".equals(name)) {
+                        this.method.zone(S.string(value));
                     }
                     super.visit(name, value);
                 }
@@ -25,6 +25,7 @@ import act.app.App;
 import act.app.event.AppEventId;
 import act.asm.Type;
 import act.event.meta.SimpleEventListenerMetaInfo;
+import act.job.MisfirePolicy;
 import act.sys.meta.InvokeType;
 import act.sys.meta.ReturnTypeInfo;
 import act.util.ClassNode;
@@ -47,6 +48,8 @@ public class JobMethodMetaInfo extends DestroyableBase {
     private ReturnTypeInfo returnType = new ReturnTypeInfo();
     private List<BeanSpec> paramTypes;
     private Method method;
+    private MisfirePolicy misfirePolicy = MisfirePolicy.COALESCE;
+    private String zone;
 
     public JobMethodMetaInfo(final JobClassMetaInfo clsInfo, final List<String> paramTypes) {
         this.clsInfo = clsInfo;
@@ -65,6 +68,8 @@ public class JobMethodMetaInfo extends DestroyableBase {
     private JobMethodMetaInfo(final JobClassMetaInfo clsInfo, JobMethodMetaInfo parent) {
         this.clsInfo = clsInfo;
         this.paramTypes = parent.paramTypes;
+        this.misfirePolicy = parent.misfirePolicy;
+        this.zone = parent.zone;
     }
 
     @Override
@@ -99,6 +104,24 @@ public class JobMethodMetaInfo extends DestroyableBase {
         return S.blank(id) ? fullName() : id;
     }
 
+    public JobMethodMetaInfo misfirePolicy(MisfirePolicy policy) {
+        this.misfirePolicy = $.notNull(policy);
+        return this;
+    }
+
+    public MisfirePolicy misfirePolicy() {
+        return misfirePolicy;
+    }
+
+    public JobMethodMetaInfo zone(String zone) {
+        this.zone = zone;
+        return this;
+    }
+
+    public String zone() {
+        return zone;
+    }
+
     public Method method() {
         if (null == method) {
             Class<?> c = $.classForName(classInfo().className(), Act.app().classLoader());
@@ -25,12 +25,19 @@ import org.osgl.$;
 public class MetricInfo {
 
     public static final String HTTP_HANDLER = "act:http";
+    public static final String HTTP_CLIENT = "act:http_client";
+    public static final String HTTP_CLIENT_RETRY = "act:http_client_retry";
+    public static final String HTTP_CLIENT_ERROR = "act:http_client_error";
     public static final String CLASS_LOADING = "act:classload";
     public static final String JOB_HANDLER = "act:job";
     public static final String CLI_HANDLER = "act:cli";
     public static final String MAILER = "act:mail";
     public static final String EVENT_HANDLER = "act:event";
     public static final String ROUTING = "act:routing";
+    public static final String WS_BROADCAST = "act:ws:broadcast";
+    public static final String ADMISSION = "act:admission";
+    public static final String ADMISSION_WAIT = "act:admission:wait";
+    public static final String ADMISSION_REJECT = "act:admission:reject";
     public static final String PATH_SEPARATOR = Metric.PATH_SEPARATOR;
 
     private String name;
@@ -22,6 +22,7 @@ package act.plugin;
 
 import act.Destroyable;
 import act.app.App;
+import act.app.StartupProfiler;
 import act.util.DestroyableBase;
 
 import javax.enterprise.context.ApplicationScoped;
@@ -40,7 +41,12 @@ public class AppServicePluginManager extends DestroyableBase {
 
     public synchronized void applyTo(App app) {
         for (AppServicePlugin plugin : registry.values()) {
-            plugin.applyTo(app);
+            StartupProfiler.Span span = StartupProfiler.start(app, "plugin", plugin.getClass().getName());
+            try {
+                plugin.applyTo(app);
+            } finally {
+                span.stop();
+            }
         }
     }
 
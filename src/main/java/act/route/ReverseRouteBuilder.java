@@ -0,0 +1,280 @@
+package act.route;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.osgl.util.S;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the URL path of an action from the arguments.
+ *
+ * The builder is compiled from the route nodes of the action into a flat
+ * list of literal text and variable slots, thus building a URL does not
+ * need to walk the route tree. The query string is encoded in the same pass
+ * the same way {@link java.net.URLEncoder} does.
+ */
+final class ReverseRouteBuilder {
+
+    /**
+     * Part of a dynamic path element
+     */
+    private static final class Piece {
+        private final String literal;
+        private final String var;
+
+        private Piece(String literal, String var) {
+            this.literal = literal;
+            this.var = var;
+        }
+    }
+
+    /**
+     * A path element or literal text
+     */
+    private static final class Part {
+        // set for literal text
+        private final String literal;
+        // set for dynamic path element
+        private final Piece[] pieces;
+        // used when the pieces build up a blank element
+        private final String fallbackVar;
+
+        private Part(String literal) {
+            this.literal = literal;
+            this.pieces = null;
+            this.fallbackVar = null;
+        }
+
+        private Part(Piece[] pieces, String fallbackVar) {
+            this.literal = null;
+            this.pieces = pieces;
+            this.fallbackVar = fallbackVar;
+        }
+
+        void append(S.Buffer buf, Map<String, Object> args) {
+            if (null != literal) {
+                buf.append(literal);
+                return;
+            }
+            buf.append('/');
+            int mark = buf.length();
+            for (Piece piece : pieces) {
+                if (null != piece.literal) {
+                    buf.append(piece.literal);
+                } else {
+                    buf.append(S.string(args.get(piece.var)));
+                }
+            }
+            if (blank(buf, mark)) {
+                buf.setLength(mark);
+                buf.append(S.string(args.get(fallbackVar)));
+                if (blank(buf, mark)) {
+                    buf.setLength(mark);
+                    buf.append('-');
+                }
+            }
+        }
+    }
+
+    /**
+     * Compiles path elements from root to the action node into a builder
+     */
+    static final class Compiler {
+        private final List<Part> parts = new ArrayList<>();
+        private final List<String> vars = new ArrayList<>();
+        private final StringBuilder literal = new StringBuilder();
+        private List<Piece> pieces;
+
+        /**
+         * Add a static path element
+         */
+        Compiler element(String name) {
+            literal.append('/').append(name);
+            return this;
+        }
+
+        /**
+         * Start a dynamic path element
+         */
+        Compiler startDynamic() {
+            flushLiteral();
+            pieces = new ArrayList<>();
+            return this;
+        }
+
+        Compiler literalPiece(String s) {
+            pieces.add(new Piece(s, null));
+            return this;
+        }
+
+        Compiler varPiece(String var) {
+            pieces.add(new Piece(null, var));
+            addVar(var);
+            return this;
+        }
+
+        /**
+         * End the dynamic path element
+         *
+         * @param fallbackVar the variable used when the pieces build up a blank element
+         */
+        Compiler endDynamic(String fallbackVar) {
+            addVar(fallbackVar);
+            parts.add(new Part(pieces.toArray(new Piece[pieces.size()]), fallbackVar));
+            pieces = null;
+            return this;
+        }
+
+        ReverseRouteBuilder compile(boolean withQuery) {
+            flushLiteral();
+            return new ReverseRouteBuilder(parts.toArray(new Part[parts.size()]), vars.toArray(new String[vars.size()]), withQuery);
+        }
+
+        private void addVar(String var) {
+            if (!vars.contains(var)) {
+                vars.add(var);
+            }
+        }
+
+        private void flushLiteral() {
+            if (literal.length() > 0) {
+                parts.add(new Part(literal.toString()));
+                literal.setLength(0);
+            }
+        }
+    }
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private final Part[] parts;
+    private final String[] vars;
+    private final boolean withQuery;
+    // the path if there is no dynamic part
+    private final String staticPath;
+
+    private ReverseRouteBuilder(Part[] parts, String[] vars, boolean withQuery) {
+        this.parts = parts;
+        this.vars = vars;
+        this.withQuery = withQuery;
+        if (0 == parts.length) {
+            staticPath = "";
+        } else if (1 == parts.length && null != parts[0].literal) {
+            staticPath = parts[0].literal;
+        } else {
+            staticPath = null;
+        }
+    }
+
+    /**
+     * Build the URL.
+     *
+     * Arguments that are not consumed by path variables are appended as
+     * query parameters if the builder is compiled with query.
+     *
+     * @param args the arguments
+     * @return the URL path
+     */
+    String build(Map<String, Object> args) {
+        if (null != staticPath && (!withQuery || args.isEmpty())) {
+            return staticPath;
+        }
+        S.Buffer buf = S.buffer();
+        for (Part part : parts) {
+            part.append(buf, args);
+        }
+        if (withQuery && !args.isEmpty()) {
+            appendQuery(buf, args);
+        }
+        return buf.toString();
+    }
+
+    private void appendQuery(S.Buffer buf, Map<String, Object> args) {
+        boolean first = true;
+        for (Map.Entry<String, Object> entry : args.entrySet()) {
+            Object v = entry.getValue();
+            if (null == v) {
+                continue;
+            }
+            String k = entry.getKey();
+            if (isVar(k)) {
+                continue;
+            }
+            buf.append(first ? '?' : '&').append(k).append('=');
+            first = false;
+            encode(buf, v.toString());
+        }
+    }
+
+    private boolean isVar(String name) {
+        for (String var : vars) {
+            if (var.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * URL encode the string into the buffer in the same way as
+     * {@link java.net.URLEncoder#encode(String, String)} with `UTF-8`
+     */
+    static void encode(S.Buffer buf, String s) {
+        int len = s.length();
+        int i = 0;
+        while (i < len) {
+            char c = s.charAt(i);
+            if (safe(c)) {
+                buf.append(c);
+                i++;
+            } else if (c == ' ') {
+                buf.append('+');
+                i++;
+            } else {
+                int start = i;
+                do {
+                    i++;
+                } while (i < len && !safe(s.charAt(i)) && s.charAt(i) != ' ');
+                for (byte b : s.substring(start, i).getBytes(StandardCharsets.UTF_8)) {
+                    buf.append('%').append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+                }
+            }
+        }
+    }
+
+    private static boolean safe(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '.' || c == '-' || c == '*' || c == '_';
+    }
+
+    private static boolean blank(S.Buffer buf, int from) {
+        for (int i = from, len = buf.length(); i < len; ++i) {
+            if (buf.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -32,8 +32,12 @@ import org.osgl.util.S;
  * Used to expose Router table for debugging purpose
  */
 public class RouteInfo extends $.T3<String, String, String> implements Comparable<RouteInfo> {
+    private transient RequestHandler requestHandler;
+    private String dispatch;
+
     public RouteInfo(H.Method method, String path, RequestHandler handler) {
         super(method.name(), path, handler.toString());
+        this.requestHandler = handler;
     }
     public String method() {
         return _1;
@@ -48,6 +52,22 @@ public class RouteInfo extends $.T3<String, String, String> implements Comparabl
         return compactHandler(_3);
     }
 
+    public RequestHandler requestHandler() {
+        return requestHandler;
+    }
+
+    /**
+     * Returns how requests to the route are dispatched, e.g. `express`, `worker`
+     */
+    public String dispatch() {
+        return dispatch;
+    }
+
+    public RouteInfo dispatch(String dispatch) {
+        this.dispatch = dispatch;
+        return this;
+    }
+
     public static String compactHandler(String handler) {
         String[] sa = handler.split("\\.");
         int len = sa.length;
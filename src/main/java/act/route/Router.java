@@ -50,6 +50,8 @@ import java.io.Serializable;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -78,6 +80,8 @@ public class Router extends AppServiceBase<Router> {
     private String portId;
     private int port;
     private OptionsInfoBase optionHandlerFactory;
+    // changed when routes are changed to prevent caching stale reverse route builders
+    private volatile int reverseRouteVersion;
 
     private void initControllerLookup(RequestHandlerResolver lookup) {
         if (null == lookup) {
@@ -243,6 +247,15 @@ public class Router extends AppServiceBase<Router> {
     }
 
     public void addMapping(H.Method method, CharSequence path, RequestHandler handler, RouteSource source) {
+        try {
+            _addMapping(method, path, handler, source);
+        } finally {
+            // invalidate after the tree is changed, see reverseRoute(String, H.Method, Map)
+            invalidateReverseRoutes();
+        }
+    }
+
+    private void _addMapping(H.Method method, CharSequence path, RequestHandler handler, RouteSource source) {
         Node node = _locate(method, path, handler.toString());
         if (null == node.handler) {
             handler = prepareReverseRoutes(handler, node);
@@ -356,63 +369,75 @@ public class Router extends AppServiceBase<Router> {
 
     public String reverseRoute(String action, H.Method method, Map<String, Object> args) {
         Node root = root(method);
-        Node node = root.reverseRoutes.get(action);
-        if (null == node) {
-            return null;
+        ReverseRouteBuilder builder = root.reverseRouteBuilders.get(action);
+        if (null == builder) {
+            int version = reverseRouteVersion;
+            Node node = root.reverseRoutes.get(action);
+            if (null == node) {
+                return null;
+            }
+            builder = compileReverseRoute(action, method, node);
+            root.reverseRouteBuilders.put(action, builder);
+            if (version != reverseRouteVersion) {
+                // routes changed while compiling. Check after put so that a builder
+                // put after the builders are cleared by invalidation is removed
+                root.reverseRouteBuilders.remove(action, builder);
+            }
         }
-        C.List<String> elements = C.newList();
-        args = new HashMap<>(args);
-        while (root != node) {
-            if (node.isDynamic()) {
-                Node targetNode = node;
-                for (Map.Entry<String, Node> entry : node.dynamicReverseAliases.entrySet()) {
-                    if (entry.getKey().equals(action)) {
-                        targetNode = entry.getValue();
-                        break;
-                    }
-                }
-                S.Buffer buffer = S.buffer();
-                for ($.Transformer<Map<String, Object>, String> builder : targetNode.nodeValueBuilders) {
-                    String s = builder.transform(args);
-                    buffer.append(s);
-                }
-                String s = buffer.toString();
-                if (S.blank(s)) {
-                    s = S.string(args.remove(S.string(targetNode.varNames.get(0))));
-                }
-                if (S.blank(s)) {
-                    s = S.string("-");
-                }
-                elements.add(s);
-            } else {
-                elements.add(node.name.toString());
+        return builder.build(args);
+    }
+
+    /**
+     * Compile reverse route builders of all actions.
+     *
+     * This is called once all routes are loaded. The builders are
+     * invalidated when routes are changed afterwards, e.g. through
+     * admin commands, and compiled again on demand.
+     */
+    public void freeze() {
+        for (H.Method method : supportedHttpMethods()) {
+            Node root = root(method);
+            for (Map.Entry<String, Node> entry : root.reverseRoutes.entrySet()) {
+                String action = entry.getKey();
+                root.reverseRouteBuilders.put(action, compileReverseRoute(action, method, entry.getValue()));
             }
-            node = node.parent;
-        }
-        S.Buffer sb = S.newBuffer();
-        Iterator<String> itr = elements.reverseIterator();
-        while (itr.hasNext()) {
-            sb.append("/").append(itr.next());
-        }
-        if (method == H.Method.GET && !args.isEmpty()) {
-            boolean first = true;
-            for (Map.Entry<String, Object> entry : args.entrySet()) {
-                Object v = entry.getValue();
-                if (null == v) {
-                    continue;
-                }
-                String k = entry.getKey();
+        }
+    }
 
-                if (first) {
-                    sb.append("?");
-                    first = false;
+    private void invalidateReverseRoutes() {
+        reverseRouteVersion++;
+        for (H.Method method : supportedHttpMethods()) {
+            root(method).reverseRouteBuilders.clear();
+        }
+    }
+
+    private ReverseRouteBuilder compileReverseRoute(String action, H.Method method, Node node) {
+        List<Node> nodes = C.newList();
+        for (Node root = node.root; node != root; node = node.parent) {
+            nodes.add(node);
+        }
+        ReverseRouteBuilder.Compiler compiler = new ReverseRouteBuilder.Compiler();
+        for (int i = nodes.size() - 1; i >= 0; --i) {
+            node = nodes.get(i);
+            if (!node.isDynamic()) {
+                compiler.element(node.name.toString());
+                continue;
+            }
+            Node targetNode = node.dynamicReverseAliases.get(action);
+            if (null == targetNode) {
+                targetNode = node;
+            }
+            compiler.startDynamic();
+            for ($.Transformer<Map<String, Object>, String> builder : targetNode.nodeValueBuilders) {
+                if (builder instanceof VarValueBuilder) {
+                    compiler.varPiece(((VarValueBuilder) builder).varName);
                 } else {
-                    sb.append("&");
+                    compiler.literalPiece(builder.transform(null));
                 }
-                sb.append(k).append("=").append(Codec.encodeUrl(v.toString()));
             }
+            compiler.endDynamic(S.string(targetNode.varNames.get(0)));
         }
-        return sb.toString();
+        return compiler.compile(H.Method.GET == method);
     }
 
     public String urlBase() {
@@ -728,6 +753,35 @@ public class Router extends AppServiceBase<Router> {
 
     public final f f = new f();
 
+    // builds the literal part of a dynamic node value
+    private static class LiteralValueBuilder extends $.Transformer<Map<String, Object>, String> {
+        private final String literal;
+
+        LiteralValueBuilder(String literal) {
+            this.literal = literal;
+        }
+
+        @Override
+        public String transform(Map<String, Object> args) {
+            return literal;
+        }
+    }
+
+    // builds the variable part of a dynamic node value
+    private static class VarValueBuilder extends $.Transformer<Map<String, Object>, String> {
+        private final String varName;
+
+        VarValueBuilder(CharSequence varName) {
+            String s = S.string(varName);
+            this.varName = S.notBlank(s) ? s : "-";
+        }
+
+        @Override
+        public String transform(Map<String, Object> args) {
+            return S.string(args.remove(varName));
+        }
+    }
+
     /**
      * The data structure support decision tree for
      * fast URL routing
@@ -749,6 +803,7 @@ public class Router extends AppServiceBase<Router> {
         static Node newRoot(String name) {
             Node node = new Node(-1);
             node.name = S.str(name);
+            node.reverseRouteBuilders = new ConcurrentHashMap<>();
             return node;
         }
 
@@ -779,6 +834,8 @@ public class Router extends AppServiceBase<Router> {
         private RequestHandler handler;
         private RouteSource routeSource;
         private Map<String, Node> reverseRoutes = new HashMap<>();
+        // compiled reverse routes, available on root node only
+        private transient ConcurrentMap<String, ReverseRouteBuilder> reverseRouteBuilders;
 
         private Node(int id) {
             this.id = id;
@@ -1059,12 +1116,7 @@ public class Router extends AppServiceBase<Router> {
                         patternStrBuilder.append(literal);
                     }
                     if (null != nodeValueBuilders) {
-                        nodeValueBuilders.add(new $.Transformer<Map<String, Object>, String>() {
-                            @Override
-                            public String transform(Map<String, Object> stringObjectMap) {
-                                return S.string(literal);
-                            }
-                        });
+                        nodeValueBuilders.add(new LiteralValueBuilder(S.string(literal)));
                     }
                 }
 
@@ -1095,14 +1147,7 @@ public class Router extends AppServiceBase<Router> {
                 }
                 patternTraitBuilder.append("(").append(patternStr).append(")");
                 if (null != nodeValueBuilders) {
-                    nodeValueBuilders.add(new $.Transformer<Map<String, Object>, String>() {
-                        @Override
-                        public String transform(Map<String, Object> stringObjectMap) {
-                            String s = S.string(varName);
-                            s = S.notBlank(s) ? s : "-";
-                            return S.string(stringObjectMap.remove(s));
-                        }
-                    });
+                    nodeValueBuilders.add(new VarValueBuilder(varName));
                 }
                 lastPos = pos + 1;
                 leftPos = name.indexOf('{', lastPos);
@@ -1119,12 +1164,7 @@ public class Router extends AppServiceBase<Router> {
                         patternStrBuilder.append(literal);
                     }
                     if (null != nodeValueBuilders) {
-                        nodeValueBuilders.add(new $.Transformer<Map<String, Object>, String>() {
-                            @Override
-                            public String transform(Map<String, Object> stringObjectMap) {
-                                return S.string(finalLiteral);
-                            }
-                        });
+                        nodeValueBuilders.add(new LiteralValueBuilder(S.string(finalLiteral)));
                     }
                 }
             }
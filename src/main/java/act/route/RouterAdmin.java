@@ -29,6 +29,7 @@ import act.cli.tree.FilteredTreeNode;
 import act.cli.tree.TreeNode;
 import act.cli.tree.TreeNodeFilter;
 import act.util.PropertySpec;
+import act.xio.AdaptiveDispatch;
 import org.osgl.http.H;
 import org.osgl.util.C;
 import org.osgl.util.S;
@@ -50,7 +51,7 @@ public class RouterAdmin {
     }
 
     @Command(name = "act.route.list, act.route.print", help = "list routes")
-    @PropertySpec("method,path,compactHandler")
+    @PropertySpec("method,path,compactHandler,dispatch")
     public Object listRoutes(
             @Optional("list routes in tree view") boolean tree,
             @Optional("specify the port name") String name,
@@ -107,9 +108,32 @@ public class RouterAdmin {
             }
             list = C.list(list).without(toBeRemoved);
         }
+        AdaptiveDispatch adaptiveDispatch = app.adaptiveDispatch();
+        if (null != adaptiveDispatch) {
+            for (RouteInfo info : list) {
+                info.dispatch(adaptiveDispatch.mode(info.requestHandler()));
+            }
+        }
         return list;
     }
 
+    @Command(name = "act.route.dispatch", help = "list adaptive dispatch decisions. Latency is in microseconds")
+    @PropertySpec("handler,mode,requests,blocked,latency,promotions,demotions")
+    public List<AdaptiveDispatch.Status> listDispatch() {
+        return app.adaptiveDispatch().status();
+    }
+
+    @Command(name = "act.route.dispatch.reset", help = "move a handler back to measuring on worker thread")
+    public void resetDispatch(
+            @Required("specify the handler (action path)") String handler
+    ) {
+        if (app.adaptiveDispatch().reset(handler)) {
+            context.println("%s is measured on worker thread again", handler);
+        } else {
+            context.println("%s has not been measured", handler);
+        }
+    }
+
     @Command(name = "act.route.overwrite", help = "overwrite a route entry")
     public void overwrite(
             @Required("specify http method") String method,
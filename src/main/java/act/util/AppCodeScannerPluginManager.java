@@ -25,6 +25,7 @@ import act.app.App;
 import act.app.AppByteCodeScanner;
 import act.app.AppCodeScannerManager;
 import act.app.AppSourceCodeScanner;
+import act.app.StartupProfiler;
 import org.osgl.logging.L;
 import org.osgl.logging.Logger;
 import org.osgl.util.C;
@@ -50,13 +51,18 @@ public class AppCodeScannerPluginManager extends DestroyableBase {
     public void initApp(App app) {
         AppCodeScannerManager manager = app.scannerManager();
         for (AppCodeScannerPluginBase plugin : registry.values()) {
-            AppSourceCodeScanner sourceCodeScanner = plugin.createAppSourceCodeScanner(app);
-            if (null != sourceCodeScanner) {
-                manager.register(sourceCodeScanner);
-            }
-            AppByteCodeScanner byteCodeScanner = plugin.createAppByteCodeScanner(app);
-            if (null != byteCodeScanner) {
-                manager.register(byteCodeScanner);
+            StartupProfiler.Span span = StartupProfiler.start(app, "plugin", plugin.getClass().getName());
+            try {
+                AppSourceCodeScanner sourceCodeScanner = plugin.createAppSourceCodeScanner(app);
+                if (null != sourceCodeScanner) {
+                    manager.register(sourceCodeScanner);
+                }
+                AppByteCodeScanner byteCodeScanner = plugin.createAppByteCodeScanner(app);
+                if (null != byteCodeScanner) {
+                    manager.register(byteCodeScanner);
+                }
+            } finally {
+                span.stop();
             }
         }
     }
@@ -40,11 +40,11 @@ public class FsChangeDetector {
     protected static Logger logger = L.get(FsChangeDetector.class);
 
     private C.List<FsEventListener> listeners = C.newList();
-    private final File dir;
-    private final $.Predicate<String> fileNameFilter;
-    private final Map<String, Long> timestamps = C.newMap();
-    private final int contextLen;
-    private final String context;
+    protected final File dir;
+    protected final $.Predicate<String> fileNameFilter;
+    protected final Map<String, Long> timestamps = C.newMap();
+    protected final int contextLen;
+    protected final String context;
     private final $.Var<Long> lastChecksum = $.var(0L);
 
     public FsChangeDetector(File file, $.Predicate<String> fileNameFilter) {
@@ -165,7 +165,7 @@ public class FsChangeDetector {
         };
     }
 
-    private void trigger(final FsEvent... events) {
+    protected void trigger(final FsEvent... events) {
         int n = listeners.size();
         for (int i = 0; i < n; ++i) {
             FsEventListener l = listeners.get(i);
@@ -0,0 +1,130 @@
+package act.util;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.app.AppClassLoader;
+import org.osgl.util.S;
+
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Defines classes generated at runtime for a host class, e.g. the
+ * invoker generated for an action handler method.
+ *
+ * When the host class is loaded by {@link AppClassLoader} the generated
+ * class is defined in the same loader and package, thus it can access
+ * package private members of the host. Otherwise the generated class is
+ * defined in a child loader and can access public members only.
+ */
+public class GeneratedClassDefiner {
+
+    private static final AtomicInteger SEQ = new AtomicInteger();
+
+    private static final Map<ClassLoader, ChildLoader> CHILD_LOADERS = new WeakHashMap<>();
+
+    private static class ChildLoader extends ClassLoader {
+        ChildLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+    private GeneratedClassDefiner() {}
+
+    /**
+     * Returns a unique binary name for a class generated for the host class
+     * @param host the host class
+     * @param tag the tag identifies the purpose of the generated class
+     * @return the class name
+     */
+    public static String className(Class<?> host, String tag) {
+        return S.concat(host.getName(), "$$", tag, "$", String.valueOf(SEQ.incrementAndGet()));
+    }
+
+    /**
+     * Check if a class generated for the host class can access a member
+     * of `declaringClass` with `modifiers`
+     */
+    public static boolean canAccess(Class<?> host, Class<?> declaringClass, int modifiers) {
+        if (Modifier.isPrivate(modifiers) || !canAccess(host, declaringClass)) {
+            return false;
+        }
+        return Modifier.isPublic(modifiers) && Modifier.isPublic(declaringClass.getModifiers())
+                || !Modifier.isProtected(modifiers) && samePackage(host, declaringClass);
+    }
+
+    /**
+     * Check if a class generated for the host class can access the type specified
+     */
+    public static boolean canAccess(Class<?> host, Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        if (type.isPrimitive()) {
+            return true;
+        }
+        int modifiers = type.getModifiers();
+        // a protected nested class is public in the class file
+        return Modifier.isPublic(modifiers) || Modifier.isProtected(modifiers) || samePackage(host, type);
+    }
+
+    /**
+     * Define a class generated for the host class
+     * @param host the host class
+     * @param name the name of the generated class, see {@link #className(Class, String)}
+     * @param bytes the bytecode
+     * @return the class defined
+     */
+    public static Class<?> define(Class<?> host, String name, byte[] bytes) {
+        ClassLoader loader = host.getClassLoader();
+        if (loader instanceof AppClassLoader) {
+            return ((AppClassLoader) loader).defineClass(name, bytes, 0, bytes.length, true);
+        }
+        ChildLoader childLoader;
+        synchronized (CHILD_LOADERS) {
+            childLoader = CHILD_LOADERS.get(loader);
+            if (null == childLoader) {
+                childLoader = new ChildLoader(null == loader ? GeneratedClassDefiner.class.getClassLoader() : loader);
+                CHILD_LOADERS.put(loader, childLoader);
+            }
+        }
+        return childLoader.define(name, bytes);
+    }
+
+    private static boolean samePackage(Class<?> host, Class<?> type) {
+        ClassLoader loader = host.getClassLoader();
+        return loader instanceof AppClassLoader
+                && type.getClassLoader() == loader
+                && S.eq(packageOf(host), packageOf(type));
+    }
+
+    private static String packageOf(Class<?> c) {
+        String name = c.getName();
+        int pos = name.lastIndexOf('.');
+        return pos < 0 ? "" : name.substring(0, pos);
+    }
+}
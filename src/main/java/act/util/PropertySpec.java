@@ -172,6 +172,7 @@ public @interface PropertySpec {
         private Spec common = newSpec();
         private Spec cli = newSpec();
         private Spec http = newSpec();
+        private boolean adHoc;
 
         public void onValue(String value) {
             _on(value, common);
@@ -248,6 +249,25 @@ public @interface PropertySpec {
             return null == lbl ? field : lbl;
         }
 
+        /**
+         * Returns an object identifies the spec applied to the context. The object
+         * implements value based `equals` and `hashCode` thus can be used as cache key
+         *
+         * @param context the current context
+         * @return the spec key
+         */
+        public Object specKey(ActContext context) {
+            return spec(context);
+        }
+
+        /**
+         * Returns whether this spec is built from {@link PropertySpec#current} at
+         * runtime instead of being declared with annotation
+         */
+        public boolean adHoc() {
+            return adHoc;
+        }
+
         private Spec spec(ActContext context) {
             if (context instanceof ActionContext) {
                 return null == http || http.isEmpty() ? common : http;
@@ -263,6 +283,7 @@ public @interface PropertySpec {
             String s = PropertySpec.current.get();
             if (S.notBlank(s)) {
                 PropertySpec.MetaInfo spec = new PropertySpec.MetaInfo();
+                spec.adHoc = true;
                 if (context instanceof CliContext) {
                     spec.onCli(s);
                 } else {
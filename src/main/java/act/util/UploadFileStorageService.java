@@ -23,6 +23,7 @@ package act.util;
 import act.Act;
 import act.app.ActionContext;
 import act.app.App;
+import act.data.ApacheMultipartParser;
 import act.handler.builtin.AlwaysNotFound;
 import act.handler.builtin.controller.FastRequestHandler;
 import org.apache.commons.fileupload.FileItem;
@@ -38,11 +39,11 @@ import org.osgl.util.E;
 import org.osgl.util.IO;
 import org.osgl.util.S;
 
-import java.io.BufferedInputStream;
-import java.io.File;
-import java.io.IOException;
-import java.io.InputStream;
+import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.StandardCopyOption;
 import java.util.Map;
+import java.util.Properties;
 import java.util.UUID;
 
 public class UploadFileStorageService extends FileSystemService {
@@ -54,11 +55,91 @@ public class UploadFileStorageService extends FileSystemService {
         }
     };
 
+    /**
+     * The attribute name of the hex encoded SHA-256 hash of the uploaded file
+     */
+    public static final String ATTR_SHA256 = "sha256";
+
+    private static final String ATTR_FILE_SUFFIX = ".attr";
+
     public UploadFileStorageService(Map<String, String> conf) {
         super(conf);
         this.setKeyNameProvider(ACT_STORAGE_KEY_NAME_PROVIDER);
     }
 
+    /**
+     * Store the file item by moving its temp file into the upload store.
+     *
+     * The content of {@link ApacheMultipartParser.AutoFileItem} has been
+     * written to a temp file (or kept in memory if it is small) when the
+     * request body is parsed, and its SHA-256 hash has been calculated
+     * on the fly. Thus there is no need to copy the content again here.
+     *
+     * @param item the uploaded file item
+     * @return the stored sobject
+     */
+    public ISObject store(ApacheMultipartParser.AutoFileItem item) {
+        String key = newKey();
+        File target = storeFile(key);
+        File dir = target.getParentFile();
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw E.unexpected("Cannot create upload dir: %s", dir);
+        }
+        try {
+            if (item.isInMemory()) {
+                java.nio.file.Files.write(target.toPath(), item.get());
+            } else {
+                move(item.getStoreLocation(), target);
+            }
+        } catch (IOException e) {
+            throw E.ioException(e);
+        }
+        Properties attrs = new Properties();
+        attr(attrs, SObject.ATTR_FILE_NAME, item.getName());
+        attr(attrs, SObject.ATTR_CONTENT_TYPE, item.getContentType());
+        attr(attrs, SObject.ATTR_URL, "/~upload/" + key);
+        attr(attrs, ATTR_SHA256, item.getSha256());
+        OutputStream os = null;
+        try {
+            os = new FileOutputStream(attrFile(target));
+            attrs.store(os, null);
+        } catch (IOException e) {
+            throw E.ioException(e);
+        } finally {
+            IO.close(os);
+        }
+        ISObject sobj = SObject.of(key, target);
+        for (String name : attrs.stringPropertyNames()) {
+            sobj.setAttribute(name, attrs.getProperty(name));
+        }
+        return sobj;
+    }
+
+    private File storeFile(String key) {
+        // follow the layout of FileSystemService so that the stored
+        // file and attributes can be read back through `get(key)`
+        return new File(root(), key);
+    }
+
+    private static File attrFile(File file) {
+        return new File(file.getParentFile(), file.getName() + ATTR_FILE_SUFFIX);
+    }
+
+    private static void attr(Properties attrs, String name, String value) {
+        if (null != value) {
+            attrs.setProperty(name, value);
+        }
+    }
+
+    private static void move(File source, File target) throws IOException {
+        try {
+            java.nio.file.Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // tmp dir and upload dir are on different file stores
+            java.nio.file.Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
     public static IStorageService create(App app) {
         File tmp = app.tmpDir();
         if (!tmp.exists() && !tmp.mkdirs()) {
@@ -73,6 +154,9 @@ public class UploadFileStorageService extends FileSystemService {
 
     public static ISObject store(FileItem file, App app) {
         IStorageService ss = app.uploadFileStorageService();
+        if (file instanceof ApacheMultipartParser.AutoFileItem && ss instanceof UploadFileStorageService) {
+            return ((UploadFileStorageService) ss).store((ApacheMultipartParser.AutoFileItem) file);
+        }
         try {
             String key = newKey();
             ISObject sobj = SObject.of(file.getInputStream());
@@ -0,0 +1,285 @@
+package act.util;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.app.AppThreadFactory;
+import org.osgl.$;
+import org.osgl.util.C;
+import org.osgl.util.IO;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * A {@link FsChangeDetector} that relies on {@link WatchService} to collect
+ * changed paths into a dirty set instead of walking through the whole
+ * directory tree on every {@link #detectChanges()} call.
+ *
+ * Events are drained by a background thread. They are debounced: changes
+ * are fired only once no new event arrived for the debounce period, so that
+ * a burst of writes (e.g. IDE save) results in one single trigger. A
+ * {@link #detectChanges()} call during an unsettled burst returns without
+ * firing and never waits for the burst to settle down.
+ *
+ * If the watch service cannot be set up or it reports an
+ * {@link StandardWatchEventKinds#OVERFLOW overflow} the detector falls
+ * back to the polling walk implemented in {@link FsChangeDetector}
+ */
+public class WatchServiceChangeDetector extends FsChangeDetector implements Closeable {
+
+    /**
+     * The maximum time a burst of events is held before firing
+     */
+    private static final long MAX_SETTLE_TIME = 2000L;
+
+    private static final AppThreadFactory THREAD_FACTORY = new AppThreadFactory("act-fs-watch", true);
+
+    private final long debounce;
+    private WatchService watchService;
+    private final Map<WatchKey, Path> keys = new HashMap<>();
+    private final Set<String> dirtySet = new LinkedHashSet<>();
+    // when the first and the last event of the current burst arrived
+    private long burstStart;
+    private long lastEvent;
+    private boolean fallback;
+
+    public WatchServiceChangeDetector(File dir, $.Predicate<String> fileNameFilter, long debounce, FsEventListener... listeners) {
+        super(dir, fileNameFilter, listeners);
+        this.debounce = debounce;
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            registerAll(dir.toPath());
+        } catch (IOException e) {
+            logger.warn(e, "Error setting up watch service on %s, fall back to polling", dir);
+            switchToFallback();
+            return;
+        }
+        final WatchService service = watchService;
+        THREAD_FACTORY.newThread(new Runnable() {
+            @Override
+            public void run() {
+                watch(service);
+            }
+        }).start();
+    }
+
+    @Override
+    public synchronized void detectChanges() {
+        if (fallback) {
+            super.detectChanges();
+            return;
+        }
+        if (dirtySet.isEmpty() || !settled($.ms())) {
+            return;
+        }
+        Set<String> dirty = C.newSet(dirtySet);
+        dirtySet.clear();
+        flush(dirty);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (null != watchService) {
+            IO.close(watchService);
+            watchService = null;
+        }
+        keys.clear();
+        dirtySet.clear();
+    }
+
+    /**
+     * Returns whether no event arrived in the debounce period or the
+     * current burst has lasted for too long
+     */
+    private boolean settled(long now) {
+        return now - lastEvent >= debounce || now - burstStart >= MAX_SETTLE_TIME;
+    }
+
+    /**
+     * Take watch keys until the watch service is closed and put changed
+     * paths into the dirty set
+     */
+    private void watch(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                synchronized (this) {
+                    if (fallback || null == watchService) {
+                        return;
+                    }
+                    if (!process(key)) {
+                        switchToFallback();
+                        return;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // detector closed
+        }
+    }
+
+    /**
+     * Put changed paths reported by the watch key into the dirty set
+     *
+     * @return `false` if the watch service is no longer reliable and caller shall fall back to polling
+     */
+    private boolean process(WatchKey key) {
+        Path parent = keys.get(key);
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            WatchEvent.Kind<?> kind = event.kind();
+            if (OVERFLOW == kind) {
+                return false;
+            }
+            if (null == parent) {
+                continue;
+            }
+            Path child = parent.resolve((Path) event.context());
+            if (ENTRY_CREATE == kind && java.nio.file.Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                try {
+                    registerAll(child);
+                } catch (IOException e) {
+                    return false;
+                }
+            }
+            if (dirtySet.isEmpty()) {
+                burstStart = $.ms();
+            }
+            dirtySet.add(child.toFile().getAbsolutePath());
+            changed = true;
+        }
+        if (changed) {
+            lastEvent = $.ms();
+        }
+        if (!key.reset()) {
+            keys.remove(key);
+        }
+        return true;
+    }
+
+    private void flush(Set<String> dirty) {
+        Set<String> created = C.newSet();
+        Set<String> modified = C.newSet();
+        Set<String> deleted = C.newSet();
+        for (String absPath : dirty) {
+            if (!absPath.startsWith(context)) {
+                continue;
+            }
+            File file = new File(absPath);
+            if (file.isDirectory()) {
+                collectDir(file, created, modified);
+                continue;
+            }
+            String path = absPath.substring(contextLen);
+            Long ts0 = timestamps.get(path);
+            if (file.exists()) {
+                if (!accept(file)) {
+                    continue;
+                }
+                long ts1 = file.lastModified();
+                if (null == ts0) {
+                    created.add(absPath);
+                } else if (ts0 != ts1) {
+                    modified.add(absPath);
+                }
+                timestamps.put(path, ts1);
+            } else if (null != ts0) {
+                deleted.add(absPath);
+                timestamps.remove(path);
+            } else {
+                // could be a deleted directory
+                String prefix = path + File.separator;
+                Iterator<String> itr = timestamps.keySet().iterator();
+                while (itr.hasNext()) {
+                    String s = itr.next();
+                    if (s.startsWith(prefix)) {
+                        deleted.add(context + s);
+                        itr.remove();
+                    }
+                }
+            }
+        }
+        List<FsEvent> events = C.newSizedList(3);
+        if (!created.isEmpty()) {
+            events.add(new FsEvent(FsEvent.Kind.CREATE, created));
+        }
+        if (!deleted.isEmpty()) {
+            events.add(new FsEvent(FsEvent.Kind.DELETE, deleted));
+        }
+        if (!modified.isEmpty()) {
+            events.add(new FsEvent(FsEvent.Kind.MODIFY, modified));
+        }
+        if (!events.isEmpty()) {
+            trigger(events.toArray(new FsEvent[events.size()]));
+        }
+    }
+
+    private void collectDir(File dir, final Set<String> created, final Set<String> modified) {
+        act.util.Files.filter(dir, fileNameFilter, new $.Visitor<File>() {
+            @Override
+            public void visit(File file) throws $.Break {
+                String absPath = file.getAbsolutePath();
+                String path = absPath.substring(contextLen);
+                long ts1 = file.lastModified();
+                Long ts0 = timestamps.put(path, ts1);
+                if (null == ts0) {
+                    created.add(absPath);
+                } else if (ts0 != ts1) {
+                    modified.add(absPath);
+                }
+            }
+        });
+    }
+
+    private boolean accept(File file) {
+        return null == fileNameFilter || fileNameFilter.apply(file.getName());
+    }
+
+    private void registerAll(Path start) throws IOException {
+        java.nio.file.Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, java.nio.file.attribute.BasicFileAttributes attrs) throws IOException {
+                if (dir.getFileName().toString().startsWith(".") && !dir.equals(start())) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                WatchKey key = dir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+                keys.put(key, dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private Path start() {
+        return dir.toPath();
+    }
+
+    private void switchToFallback() {
+        fallback = true;
+        close();
+    }
+}
@@ -0,0 +1,138 @@
+package act.view;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.Act;
+import org.osgl.http.H;
+import org.osgl.mvc.result.Result;
+import org.osgl.util.C;
+import org.osgl.util.E;
+import org.osgl.util.IO;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.Iterator;
+
+/**
+ * Base class of results that write the elements of a collection or
+ * a lazy source, e.g. an `Iterator` or a DAO cursor, to the response
+ * as they are iterated.
+ *
+ * No `Content-Length` header is set, thus the content is sent through
+ * chunked transfer encoding. The writer is flushed every
+ * {@link #FLUSH_INTERVAL} rows so the client starts receiving data
+ * before the whole source is consumed.
+ *
+ * **Note** once the first chunk is sent the status code can not be
+ * changed any more. An error raised by the source after that point
+ * aborts the response instead of rendering an error page.
+ */
+public abstract class StreamRender extends Result {
+
+    /**
+     * Number of rows written between two flushes
+     */
+    public static final int FLUSH_INTERVAL = 100;
+
+    private final H.Format format;
+    private final Object source;
+
+    protected StreamRender(H.Status status, H.Format format, Object source) {
+        super(status);
+        this.format = format;
+        this.source = source;
+    }
+
+    @Override
+    protected void applyMessage(H.Request request, H.Response response) {
+        String encoding = Act.appConfig().encoding();
+        response.contentType(format.contentType());
+        response.characterEncoding(encoding);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(response.outputStream(), Charset.forName(encoding)));
+        try {
+            write(iterator(source), writer);
+            writer.flush();
+        } catch (IOException e) {
+            throw E.ioException(e);
+        } finally {
+            IO.close(writer);
+            if (source instanceof Closeable) {
+                IO.close((Closeable) source);
+            }
+        }
+    }
+
+    /**
+     * Write elements provided by the iterator to the writer. Implementation
+     * shall call {@link Writer#flush()} every {@link #FLUSH_INTERVAL} rows
+     *
+     * @param itr the elements iterator
+     * @param writer the response writer
+     * @throws IOException if there are IO error when writing the response
+     */
+    protected abstract void write(Iterator<?> itr, Writer writer) throws IOException;
+
+    /**
+     * Check if an object returned from an action handler shall be streamed.
+     *
+     * @param v the object returned from the handler
+     * @param threshold the minimum size of a collection to be streamed
+     * @return `true` if `v` is a lazy source or a collection contains
+     *         at least `threshold` elements
+     */
+    public static boolean shouldStream(Object v, int threshold) {
+        if (v instanceof Collection) {
+            return ((Collection) v).size() >= threshold;
+        }
+        return v instanceof Iterable || v instanceof Iterator || v instanceof Enumeration;
+    }
+
+    private static Iterator<?> iterator(Object source) {
+        if (null == source) {
+            return C.list().iterator();
+        } else if (source instanceof Iterable) {
+            return ((Iterable<?>) source).iterator();
+        } else if (source instanceof Iterator) {
+            return (Iterator<?>) source;
+        } else if (source instanceof Enumeration) {
+            final Enumeration<?> enumeration = (Enumeration<?>) source;
+            return new Iterator<Object>() {
+                @Override
+                public boolean hasNext() {
+                    return enumeration.hasMoreElements();
+                }
+
+                @Override
+                public Object next() {
+                    return enumeration.nextElement();
+                }
+
+                @Override
+                public void remove() {
+                    throw E.unsupport();
+                }
+            };
+        }
+        return C.list(source).iterator();
+    }
+}
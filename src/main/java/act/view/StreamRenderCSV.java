@@ -0,0 +1,118 @@
+package act.view;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.data.DataPropertyRepository;
+import act.data.PropertyProjection;
+import act.util.ActContext;
+import act.util.PropertySpec;
+import org.osgl.$;
+import org.osgl.http.H;
+import org.osgl.util.C;
+import org.rythmengine.utils.Escape;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stream a collection or a lazy source as CSV.
+ *
+ * The header line is derived from the type of the first element, thus
+ * it is expected that all elements are of the same type.
+ *
+ * @see act.cli.view.CliView#CSV
+ */
+public class StreamRenderCSV extends StreamRender {
+
+    private final PropertySpec.MetaInfo spec;
+    private final ActContext context;
+
+    public StreamRenderCSV(Object source, PropertySpec.MetaInfo spec, ActContext context) {
+        this(H.Status.OK, source, spec, context);
+    }
+
+    public StreamRenderCSV(H.Status status, Object source, PropertySpec.MetaInfo spec, ActContext context) {
+        super(status, H.Format.CSV, source);
+        spec = PropertySpec.MetaInfo.withCurrent(spec, context);
+        if (null == spec) {
+            spec = new PropertySpec.MetaInfo();
+            spec.onValue("-not_exists");
+        }
+        this.spec = spec;
+        this.context = context;
+    }
+
+    @Override
+    protected void write(Iterator<?> itr, Writer writer) throws IOException {
+        if (!itr.hasNext()) {
+            writer.write("no data");
+            return;
+        }
+        Object first = itr.next();
+        Class<?> componentType = null == first ? Object.class : first.getClass();
+        DataPropertyRepository repo = context.app().service(DataPropertyRepository.class);
+        PropertyProjection projection = repo.projection(spec, componentType, context);
+        String lineSeparator = $.OS.lineSeparator();
+        writeHeaderLine(writer, projection.properties(), spec.labelMapping());
+        writer.write(lineSeparator);
+        writeDataLine(writer, first, projection);
+        int rows = 1;
+        while (itr.hasNext()) {
+            writer.write(lineSeparator);
+            writeDataLine(writer, itr.next(), projection);
+            if (++rows % FLUSH_INTERVAL == 0) {
+                writer.flush();
+            }
+        }
+    }
+
+    private void writeDataLine(Writer writer, Object data, PropertyProjection projection) throws IOException {
+        writer.write(escape(projection.get(data, 0)));
+        for (int i = 1, sz = projection.size(); i < sz; ++i) {
+            writer.write(',');
+            writer.write(escape(projection.get(data, i)));
+        }
+    }
+
+    private void writeHeaderLine(Writer writer, List<String> outputFields, Map<String, String> labels) throws IOException {
+        if (null == labels) {
+            labels = C.newMap();
+        }
+        Iterator<String> itr = outputFields.iterator();
+        writer.write(label(itr.next(), labels));
+        while (itr.hasNext()) {
+            writer.write(',');
+            writer.write(escape(label(itr.next(), labels)));
+        }
+    }
+
+    private static String label(String key, Map<String, String> labels) {
+        String s = labels.get(key);
+        return null == s ? key : s;
+    }
+
+    private static String escape(Object o) {
+        return Escape.CSV.apply(o).toString();
+    }
+}
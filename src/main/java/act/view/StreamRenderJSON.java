@@ -0,0 +1,104 @@
+package act.view;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.cli.view.CliView;
+import act.util.ActContext;
+import act.util.PropertySpec;
+import com.alibaba.fastjson.serializer.JSONSerializer;
+import com.alibaba.fastjson.serializer.SerializeFilter;
+import com.alibaba.fastjson.serializer.SerializeWriter;
+import org.osgl.http.H;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+
+/**
+ * Stream a collection or a lazy source as JSON array.
+ *
+ * Each element is serialized separately so the memory used does not
+ * grow with the number of elements. As a consequence circular references
+ * are detected within an element only.
+ *
+ * @see FilteredRenderJSON
+ */
+public class StreamRenderJSON extends StreamRender {
+
+    private final PropertySpec.MetaInfo spec;
+    private final ActContext context;
+    private boolean disableCircularReferenceDetect;
+
+    public StreamRenderJSON(Object source) {
+        this(H.Status.OK, source, null, null);
+    }
+
+    public StreamRenderJSON(Object source, PropertySpec.MetaInfo spec, ActContext context) {
+        this(H.Status.OK, source, spec, context);
+    }
+
+    public StreamRenderJSON(H.Status status, Object source, PropertySpec.MetaInfo spec, ActContext context) {
+        super(status, H.Format.JSON, source);
+        this.spec = PropertySpec.MetaInfo.withCurrent(spec, context);
+        this.context = context;
+    }
+
+    public StreamRenderJSON disableCircularReferenceDetect(boolean disable) {
+        this.disableCircularReferenceDetect = disable;
+        return this;
+    }
+
+    @Override
+    protected void write(Iterator<?> itr, Writer writer) throws IOException {
+        SerializeWriter out = new SerializeWriter(writer);
+        try {
+            SerializeFilter[] filters = null;
+            boolean filtersResolved = null == spec;
+            out.write('[');
+            int rows = 0;
+            while (itr.hasNext()) {
+                Object element = itr.next();
+                if (!filtersResolved && null != element) {
+                    filters = CliView.jsonFilters(spec, element.getClass(), context);
+                    filtersResolved = true;
+                }
+                if (rows > 0) {
+                    out.write(',');
+                }
+                serializer(out, filters).write(element);
+                if (++rows % FLUSH_INTERVAL == 0) {
+                    out.flush();
+                    writer.flush();
+                }
+            }
+            out.write(']');
+            out.flush();
+        } finally {
+            out.close();
+        }
+    }
+
+    private JSONSerializer serializer(SerializeWriter out, SerializeFilter[] filters) {
+        // a new serializer for each element so that reference
+        // paths are not carried over between elements
+        return CliView.jsonSerializer(out, filters, disableCircularReferenceDetect);
+    }
+}
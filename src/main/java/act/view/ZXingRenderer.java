@@ -0,0 +1,390 @@
+package act.view;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.app.App;
+import act.app.AppServiceBase;
+import act.conf.AppConfig;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.MultiFormatWriter;
+import com.google.zxing.WriterException;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import org.osgl.$;
+import org.osgl.http.H;
+import org.osgl.util.E;
+import org.osgl.util.S;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Renders barcode/QR code images for {@link ZXingResult}.
+ *
+ * Rendered images are kept in a cache bounded by the total number of bytes
+ * and evicted in least recently used order. Requests of the same image
+ * arrived while it is being rendered share the rendering, and the number of
+ * images rendered at the same time is bounded, thus a burst of unique codes
+ * can't take all worker threads.
+ *
+ * @see act.conf.AppConfigKey#ZXING_CACHE_SIZE
+ * @see act.conf.AppConfigKey#ZXING_RENDER_MAX
+ */
+public class ZXingRenderer extends AppServiceBase<ZXingRenderer> {
+
+    /**
+     * Identifies a rendered image
+     */
+    public static final class Key {
+        private final String content;
+        private final BarcodeFormat format;
+        private final ErrorCorrectionLevel level;
+        private final int width;
+        private final int height;
+        private final String encoding;
+        private final int hash;
+        private String etag;
+
+        public Key(String content, BarcodeFormat format, ErrorCorrectionLevel level, int width, int height, String encoding) {
+            this.content = $.notNull(content);
+            this.format = $.notNull(format);
+            this.level = level;
+            this.width = width;
+            this.height = height;
+            this.encoding = $.notNull(encoding);
+            this.hash = $.hc(content, format, level, width, height, encoding);
+        }
+
+        /**
+         * Returns a strong entity tag of the image.
+         *
+         * Rendering is deterministic, thus the tag is derived from the key
+         * instead of the image bytes, and conditional requests can be
+         * answered without rendering the image.
+         */
+        public String etag() {
+            if (null == etag) {
+                // content comes the last so the fields can't run into each other
+                String s = S.concat(S.string(format), "|", S.string(level), "|", S.string(width), "x",
+                        S.string(height), "|", encoding, "|", content);
+                etag = S.concat("\"", sha1(s), "\"");
+            }
+            return etag;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (obj instanceof Key) {
+                Key that = (Key) obj;
+                return hash == that.hash && width == that.width && height == that.height
+                        && format == that.format && level == that.level
+                        && S.eq(encoding, that.encoding) && S.eq(content, that.content);
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return S.fmt("%s[%sx%s]: %s", format, width, height, content);
+        }
+    }
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final String cacheControl;
+    private final long cacheSize;
+    private final long timeout;
+    private final Semaphore permits;
+
+    // access ordered, guarded by itself
+    private final LinkedHashMap<Key, byte[]> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+
+    private final ConcurrentMap<Key, FutureTask<byte[]>> rendering = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong renders = new AtomicLong();
+    private final AtomicLong rejections = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ZXingRenderer(App app) {
+        this(app, app.config());
+    }
+
+    private ZXingRenderer(App app, AppConfig config) {
+        this(app, config.zxingCacheSize(), config.zxingCacheControl(), config.zxingRenderMax(), config.zxingRenderTimeout());
+    }
+
+    // for unit test
+    ZXingRenderer(App app, int cacheSize, String cacheControl, int renderMax, int timeout) {
+        super(app);
+        this.cacheSize = cacheSize;
+        this.cacheControl = cacheControl;
+        this.permits = new Semaphore(renderMax);
+        this.timeout = timeout;
+    }
+
+    /**
+     * Returns the `Cache-Control` header value of rendered images
+     */
+    public String cacheControl() {
+        return cacheControl;
+    }
+
+    /**
+     * Returns the PNG image of the key specified.
+     *
+     * The image is fetched from the render cache if found, otherwise it is
+     * rendered once a render slot is available.
+     *
+     * @param key the image key
+     * @return the PNG bytes or `null` if no render slot is available within the
+     *         {@link act.conf.AppConfigKey#ZXING_RENDER_TIMEOUT timeout}
+     */
+    public byte[] render(final Key key) {
+        byte[] png = cached(key);
+        if (null != png) {
+            hits.incrementAndGet();
+            return png;
+        }
+        FutureTask<byte[]> task = new FutureTask<>(new Callable<byte[]>() {
+            @Override
+            public byte[] call() throws Exception {
+                // the image might have been cached right before this task was registered
+                byte[] png = cached(key);
+                if (null == png) {
+                    png = encode(key);
+                    renders.incrementAndGet();
+                    cache(key, png);
+                }
+                return png;
+            }
+        });
+        FutureTask<byte[]> current = rendering.putIfAbsent(key, task);
+        if (null != current) {
+            return await(current);
+        }
+        try {
+            if (!permits.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+                task.cancel(false);
+                rejections.incrementAndGet();
+                return null;
+            }
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+            return await(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            task.cancel(false);
+            return null;
+        } finally {
+            rendering.remove(key, task);
+        }
+    }
+
+    /**
+     * Returns the number of requests served from the render cache
+     */
+    public long hitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of images rendered
+     */
+    public long renderCount() {
+        return renders.get();
+    }
+
+    /**
+     * Returns the number of requests rejected because no render slot is available
+     */
+    public long rejectCount() {
+        return rejections.get();
+    }
+
+    /**
+     * Returns the number of images evicted from the render cache
+     */
+    public long evictCount() {
+        return evictions.get();
+    }
+
+    /**
+     * Returns the number of bytes taken by the images cached
+     */
+    public long cachedBytes() {
+        synchronized (cache) {
+            return cachedBytes;
+        }
+    }
+
+    @Override
+    protected void releaseResources() {
+        synchronized (cache) {
+            cache.clear();
+            cachedBytes = 0;
+        }
+    }
+
+    /**
+     * Render the image of the key specified into PNG bytes
+     */
+    protected byte[] encode(Key key) {
+        ByteArrayOutputStream os = new ByteArrayOutputStream(1024);
+        write(key, os);
+        return os.toByteArray();
+    }
+
+    /**
+     * Check if the `If-None-Match` header of the request matches the entity tag specified.
+     *
+     * As required for `If-None-Match`, weak comparison applies, i.e. tags
+     * weakened by a proxy, e.g. on compression, still match.
+     *
+     * @param request the request
+     * @param etag the strong entity tag of the resource
+     * @return `true` if the request matches the tag
+     */
+    public static boolean etagMatches(H.Request request, String etag) {
+        String header = request.header(H.Header.Names.IF_NONE_MATCH);
+        if (S.blank(header)) {
+            return false;
+        }
+        for (String tag : header.split(",")) {
+            tag = tag.trim();
+            if ("*".equals(tag)) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Render the image of the key specified into the output stream in PNG format
+     */
+    static void write(Key key, OutputStream os) {
+        Map<EncodeHintType, Object> hints = new HashMap<>();
+        hints.put(EncodeHintType.CHARACTER_SET, key.encoding);
+        hints.put(EncodeHintType.MARGIN, 0);
+        if (null != key.level) {
+            hints.put(EncodeHintType.ERROR_CORRECTION, key.level);
+        }
+        MultiFormatWriter writer = new MultiFormatWriter();
+        try {
+            BitMatrix bitMatrix = writer.encode(key.content, key.format, key.width, key.height, hints);
+            MatrixToImageWriter.writeToStream(bitMatrix, "png", os);
+        } catch (WriterException | IOException e) {
+            throw E.unexpected(e);
+        }
+    }
+
+    private static String sha1(String s) {
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1").digest(s.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw E.unexpected(e);
+        }
+        StringBuilder sb = S.builder();
+        for (byte b : digest) {
+            sb.append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+        }
+        return sb.toString();
+    }
+
+    private byte[] cached(Key key) {
+        synchronized (cache) {
+            return cache.get(key);
+        }
+    }
+
+    private void cache(Key key, byte[] png) {
+        if (png.length > cacheSize) {
+            return;
+        }
+        synchronized (cache) {
+            byte[] old = cache.put(key, png);
+            cachedBytes += png.length - (null == old ? 0 : old.length);
+            Iterator<byte[]> itr = cache.values().iterator();
+            while (cachedBytes > cacheSize && itr.hasNext()) {
+                cachedBytes -= itr.next().length;
+                itr.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private static byte[] await(FutureTask<byte[]> task) {
+        try {
+            return task.get();
+        } catch (CancellationException e) {
+            // the request rendering it is rejected
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw E.unexpected(cause);
+        }
+    }
+
+}
@@ -21,21 +21,16 @@ package act.view;
  */
 
 import act.Act;
+import act.app.App;
 import com.google.zxing.BarcodeFormat;
-import com.google.zxing.EncodeHintType;
-import com.google.zxing.MultiFormatWriter;
-import com.google.zxing.client.j2se.MatrixToImageWriter;
-import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
 import org.osgl.$;
 import org.osgl.http.H;
 import org.osgl.mvc.result.Result;
-import org.osgl.util.E;
 import org.osgl.util.IO;
 import org.osgl.util.S;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.ByteBuffer;
 
 public class ZXingResult extends Result {
 
@@ -84,7 +79,13 @@ public class ZXingResult extends Result {
         String msg = this.getMessage();
         this.applyBeforeCommitHandler(request, response);
         if(S.notBlank(msg)) {
-            renderCode(response);
+            App app = Act.app();
+            ZXingRenderer renderer = null == app ? null : app.zxingRenderer();
+            if (null == renderer) {
+                renderCode(response);
+            } else {
+                renderCode(renderer, request, response);
+            }
         } else {
             IO.close(response.outputStream());
         }
@@ -110,22 +111,33 @@ public class ZXingResult extends Result {
         }
     }
 
+    private ZXingRenderer.Key key() {
+        return new ZXingRenderer.Key(getMessage(), barcodeFormat(), errorCorrectionLevel(), width, height, Act.appConfig().encoding());
+    }
+
     private void renderCode(H.Response response) {
         response.contentType("image/png");
-        Map<EncodeHintType, Object> hints = new HashMap<>();
-        hints.put(EncodeHintType.CHARACTER_SET, Act.appConfig().encoding());
-        hints.put(EncodeHintType.MARGIN, 0);
-        ErrorCorrectionLevel level = errorCorrectionLevel();
-        if (null != level) {
-            hints.put(EncodeHintType.ERROR_CORRECTION, level);
+        ZXingRenderer.write(key(), response.outputStream());
+    }
+
+    private void renderCode(ZXingRenderer renderer, H.Request request, H.Response response) {
+        ZXingRenderer.Key key = key();
+        String etag = key.etag();
+        if (ZXingRenderer.etagMatches(request, etag)) {
+            response.status(H.Status.NOT_MODIFIED);
+            response.etag(etag).header(H.Header.Names.CACHE_CONTROL, renderer.cacheControl());
+            return;
         }
-        MultiFormatWriter writer = new MultiFormatWriter();
-        try {
-            BitMatrix bitMatrix = writer.encode(getMessage(), barcodeFormat(), width, height, hints);
-            MatrixToImageWriter.writeToStream(bitMatrix, "png", response.outputStream());
-        } catch (Exception e) {
-            throw E.unexpected(e);
+        byte[] png = renderer.render(key);
+        if (null == png) {
+            // too many codes are being rendered
+            response.status(H.Status.SERVICE_UNAVAILABLE);
+            response.header(H.Header.Names.RETRY_AFTER, "1");
+            return;
         }
+        response.contentType("image/png");
+        response.etag(etag).header(H.Header.Names.CACHE_CONTROL, renderer.cacheControl());
+        response.writeContent(ByteBuffer.wrap(png));
     }
 
     public static ZXingResult barcode(String content) {
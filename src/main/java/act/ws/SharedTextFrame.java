@@ -0,0 +1,89 @@
+package act.ws;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.osgl.util.E;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A UTF-8 encoded websocket text frame shared by all recipients of a
+ * broadcast.
+ *
+ * The frame is reference counted. Each recipient connection shall
+ * {@link #retain()} the frame before sending it and {@link #release()}
+ * it once the send completes. When the reference count drops to zero
+ * the underline buffer is returned to the pool it was taken from.
+ */
+public class SharedTextFrame {
+
+    private final ByteBuffer buffer;
+    private final ByteBuffer content;
+    private final WebSocketBroadcaster.FramePool pool;
+    private final AtomicInteger refCnt = new AtomicInteger(1);
+
+    SharedTextFrame(ByteBuffer buffer, WebSocketBroadcaster.FramePool pool) {
+        this.buffer = buffer;
+        this.content = buffer.asReadOnlyBuffer();
+        this.pool = pool;
+    }
+
+    /**
+     * Returns a view of the encoded content. The view has its own position
+     * and limit thus can be consumed independently from other recipients
+     */
+    public ByteBuffer content() {
+        return content.duplicate();
+    }
+
+    /**
+     * Returns the number of bytes of the encoded content
+     */
+    public int size() {
+        return content.remaining();
+    }
+
+    public SharedTextFrame retain() {
+        for (;;) {
+            int n = refCnt.get();
+            E.illegalStateIf(n <= 0, "frame already released");
+            if (refCnt.compareAndSet(n, n + 1)) {
+                return this;
+            }
+        }
+    }
+
+    public void release() {
+        int n = refCnt.decrementAndGet();
+        if (0 == n) {
+            if (null != pool) {
+                pool.recycle(buffer);
+            }
+        } else {
+            E.illegalStateIf(n < 0, "frame already released");
+        }
+    }
+
+    int refCnt() {
+        return refCnt.get();
+    }
+}
@@ -22,9 +22,15 @@ package act.ws;
 
 import act.cli.Command;
 import act.cli.Optional;
+import act.xio.WebSocketConnection;
+import org.osgl.$;
+import org.osgl.Osgl;
+import org.osgl.util.C;
 import org.osgl.util.S;
 
 import javax.inject.Inject;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class WebSocketAdminConsole {
 
@@ -49,4 +55,39 @@ public class WebSocketAdminConsole {
         return S.blank(sessionId) ? registry.count() : registry.count(sessionId);
     }
 
+    @Command(name = "act.ws.broadcast.stat", help = "report websocket broadcast sent, dropped and disconnected numbers")
+    public String broadcastStat() {
+        WebSocketBroadcaster broadcaster = manager.broadcaster();
+        return S.fmt("sent: %s, dropped: %s, disconnected: %s",
+                broadcaster.sentCount(), broadcaster.droppedCount(), broadcaster.disconnectedCount());
+    }
+
+    @Command(name = "act.ws.queue", help = "report number of frames pending on websocket connections")
+    public int pendingFrames(@Optional("specify the session id") String sessionId) {
+        final AtomicInteger n = new AtomicInteger();
+        $.Visitor<WebSocketConnection> visitor = new $.Visitor<WebSocketConnection>() {
+            @Override
+            public void visit(WebSocketConnection connection) throws Osgl.Break {
+                n.addAndGet(connection.pendingFrames());
+            }
+        };
+        WebSocketConnectionRegistry registry = manager.sessionRegistry();
+        if (S.blank(sessionId)) {
+            registry.accept(visitor);
+        } else {
+            registry.accept(sessionId, visitor);
+        }
+        return n.get();
+    }
+
+    @Command(name = "act.ws.registry.stat", help = "report websocket connection registry size and churn")
+    public List<String> registryStat() {
+        List<String> list = C.newList();
+        for (WebSocketConnectionRegistry registry : C.list(manager.sessionRegistry(), manager.usernameRegistry(), manager.urlRegistry(), manager.tagRegistry())) {
+            list.add(S.fmt("%s - keys: %s, connections: %s, sign in: %s, sign off: %s", registry.name(),
+                    registry.keyCount(), registry.count(), registry.signInCount(), registry.signOffCount()));
+        }
+        return list;
+    }
+
 }
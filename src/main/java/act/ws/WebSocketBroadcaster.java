@@ -0,0 +1,353 @@
+package act.ws;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.Act;
+import act.app.AppThreadFactory;
+import act.conf.AppConfig;
+import act.metric.Metric;
+import act.metric.MetricInfo;
+import act.metric.Timer;
+import act.util.DestroyableBase;
+import act.xio.WebSocketConnection;
+import org.osgl.$;
+import org.osgl.Osgl;
+import org.osgl.logging.LogManager;
+import org.osgl.logging.Logger;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Broadcast text messages to websocket connections.
+ *
+ * * A message is encoded once into a {@link SharedTextFrame} and the
+ *   encoded bytes are shared by all recipients
+ * * The number of frames pending on a connection is bounded by
+ *   {@link AppConfig#wsBroadcastQueueLimit()}. When the limit is reached
+ *   the frame is dropped or the connection is closed depending on
+ *   {@link AppConfig#wsBroadcastOverflowPolicy()}
+ * * When the number of recipients exceeds
+ *   {@link AppConfig#wsBroadcastParallelThreshold()} the recipients are
+ *   split into slices which are sent in parallel. A connection always goes
+ *   to the same single threaded lane, and broadcasts are sent through the
+ *   lanes as long as slices are pending, thus frames are sent to a
+ *   connection in the order they are broadcast
+ */
+public class WebSocketBroadcaster extends DestroyableBase {
+
+    private static final Logger LOGGER = LogManager.get(WebSocketBroadcaster.class);
+
+    /**
+     * Defines what to do when a connection is not able to keep up
+     * with the frames sent to it
+     */
+    public enum OverflowPolicy {
+        /**
+         * Drop the frame for the slow connection
+         */
+        DROP,
+
+        /**
+         * Close the slow connection
+         */
+        DISCONNECT
+    }
+
+    private final int queueLimit;
+    private final OverflowPolicy overflowPolicy;
+    private final int parallelThreshold;
+    private final FramePool pool = new FramePool();
+    private final Metric metric;
+    private volatile ExecutorService[] lanes;
+    // number of slices submitted to lanes but not yet sent
+    private final AtomicInteger pendingSlices = new AtomicInteger();
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong disconnected = new AtomicLong();
+
+    public WebSocketBroadcaster(AppConfig config) {
+        this.queueLimit = config.wsBroadcastQueueLimit();
+        this.overflowPolicy = config.wsBroadcastOverflowPolicy();
+        this.parallelThreshold = config.wsBroadcastParallelThreshold();
+        this.metric = Act.metricPlugin().metric(MetricInfo.WS_BROADCAST);
+    }
+
+    /**
+     * Encode a text message into a frame that can be sent to multiple connections.
+     *
+     * The caller owns one reference to the frame returned and must
+     * {@link SharedTextFrame#release() release} it after use
+     *
+     * @param message the text message
+     * @return the encoded frame
+     */
+    public SharedTextFrame encode(String message) {
+        return pool.encode(message);
+    }
+
+    /**
+     * Send a message to all connections attached to the key in the registry
+     *
+     * @param message the message
+     * @param registry the registry
+     * @param key the key
+     * @param exclude a connection that should not receive the message, can be `null`
+     */
+    public void broadcast(String message, WebSocketConnectionRegistry registry, String key, WebSocketConnection exclude) {
+        SharedTextFrame frame = encode(message);
+        try {
+            broadcast(frame, registry, key, exclude);
+        } finally {
+            frame.release();
+        }
+    }
+
+    /**
+     * Send a frame to all connections attached to the key in the registry
+     *
+     * @param frame the frame
+     * @param registry the registry
+     * @param key the key
+     * @param exclude a connection that should not receive the frame, can be `null`
+     */
+    public void broadcast(final SharedTextFrame frame, WebSocketConnectionRegistry registry, String key, final WebSocketConnection exclude) {
+        Timer timer = metric.startTimer(MetricInfo.WS_BROADCAST);
+        try {
+            if (registry.count(key) < parallelThreshold && 0 == pendingSlices.get()) {
+                registry.accept(key, new $.Visitor<WebSocketConnection>() {
+                    @Override
+                    public void visit(WebSocketConnection conn) throws Osgl.Break {
+                        if (exclude != conn) {
+                            send(frame, conn);
+                        }
+                    }
+                });
+            } else {
+                fanOut(frame, registry.get(key), exclude);
+            }
+        } finally {
+            timer.stop();
+        }
+    }
+
+    /**
+     * Send a frame to a connection with the overflow policy applied
+     *
+     * @param frame the frame
+     * @param connection the connection
+     * @return `true` if the frame is sent or `false` if the frame is dropped
+     */
+    public boolean send(SharedTextFrame frame, WebSocketConnection connection) {
+        if (connection.pendingFrames() >= queueLimit) {
+            if (OverflowPolicy.DISCONNECT == overflowPolicy) {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("close slow websocket connection: %s", connection.sessionId());
+                }
+                disconnected.incrementAndGet();
+                connection.close();
+            } else {
+                dropped.incrementAndGet();
+            }
+            return false;
+        }
+        connection.send(frame);
+        sent.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Returns the number of frames sent
+     */
+    public long sentCount() {
+        return sent.get();
+    }
+
+    /**
+     * Returns the number of frames dropped due to slow connections
+     */
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Returns the number of slow connections closed
+     */
+    public long disconnectedCount() {
+        return disconnected.get();
+    }
+
+    @Override
+    protected void releaseResources() {
+        if (null != lanes) {
+            for (ExecutorService lane : lanes) {
+                lane.shutdownNow();
+            }
+            lanes = null;
+        }
+        pool.clear();
+    }
+
+    private void fanOut(final SharedTextFrame frame, final List<WebSocketConnection> connections, final WebSocketConnection exclude) {
+        ExecutorService[] lanes = lanes();
+        int n = lanes.length;
+        List<List<WebSocketConnection>> slices = new ArrayList<>(n);
+        for (int i = 0; i < n; ++i) {
+            slices.add(new ArrayList<WebSocketConnection>());
+        }
+        for (WebSocketConnection conn : connections) {
+            if (exclude != conn) {
+                slices.get(lane(conn, n)).add(conn);
+            }
+        }
+        for (int i = 0; i < n; ++i) {
+            final List<WebSocketConnection> slice = slices.get(i);
+            if (slice.isEmpty()) {
+                continue;
+            }
+            frame.retain();
+            pendingSlices.incrementAndGet();
+            try {
+                lanes[i].execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            for (WebSocketConnection conn : slice) {
+                                if (!conn.closed()) {
+                                    send(frame, conn);
+                                }
+                            }
+                        } finally {
+                            frame.release();
+                            pendingSlices.decrementAndGet();
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                frame.release();
+                pendingSlices.decrementAndGet();
+                LOGGER.warn("websocket broadcast rejected, broadcaster is shutting down");
+                return;
+            }
+        }
+    }
+
+    // the lane of a connection never changes during the life of the connection
+    static int lane(WebSocketConnection conn, int lanes) {
+        return (System.identityHashCode(conn) & Integer.MAX_VALUE) % lanes;
+    }
+
+    private ExecutorService[] lanes() {
+        if (null == lanes) {
+            synchronized (this) {
+                if (null == lanes) {
+                    int n = Runtime.getRuntime().availableProcessors();
+                    AppThreadFactory threadFactory = new AppThreadFactory("ws-broadcast", true);
+                    ExecutorService[] array = new ExecutorService[n];
+                    for (int i = 0; i < n; ++i) {
+                        // single thread per lane keeps the order of frames sent to a connection
+                        ThreadPoolExecutor tpe = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                                new LinkedBlockingQueue<Runnable>(), threadFactory);
+                        tpe.allowCoreThreadTimeOut(true);
+                        array[i] = tpe;
+                    }
+                    lanes = array;
+                }
+            }
+        }
+        return lanes;
+    }
+
+    /**
+     * Pool of direct buffers to hold encoded frames
+     */
+    static class FramePool {
+
+        static final int BUFFER_SIZE = 8 * 1024;
+        static final int MAX_POOLED = 256;
+
+        // UTF-8 takes at most 3 bytes for a UTF-16 char
+        private static final int MAX_BYTES_PER_CHAR = 3;
+
+        private static final ThreadLocal<CharsetEncoder> ENCODER = new ThreadLocal<CharsetEncoder>() {
+            @Override
+            protected CharsetEncoder initialValue() {
+                return StandardCharsets.UTF_8.newEncoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            }
+        };
+
+        private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pooled = new AtomicInteger();
+
+        SharedTextFrame encode(String message) {
+            if (message.length() * MAX_BYTES_PER_CHAR > BUFFER_SIZE) {
+                return new SharedTextFrame(ByteBuffer.wrap(message.getBytes(StandardCharsets.UTF_8)), null);
+            }
+            ByteBuffer buffer = buffers.poll();
+            if (null == buffer) {
+                buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            } else {
+                pooled.decrementAndGet();
+            }
+            CharsetEncoder encoder = ENCODER.get();
+            encoder.reset();
+            CoderResult result = encoder.encode(CharBuffer.wrap(message), buffer, true);
+            if (!result.isUnderflow()) {
+                // should not happen as the buffer is large enough
+                recycle(buffer);
+                return new SharedTextFrame(ByteBuffer.wrap(message.getBytes(StandardCharsets.UTF_8)), null);
+            }
+            encoder.flush(buffer);
+            buffer.flip();
+            return new SharedTextFrame(buffer, this);
+        }
+
+        void recycle(ByteBuffer buffer) {
+            if (!buffer.isDirect() || buffer.capacity() != BUFFER_SIZE) {
+                return;
+            }
+            if (pooled.incrementAndGet() > MAX_POOLED) {
+                pooled.decrementAndGet();
+                return;
+            }
+            buffer.clear();
+            buffers.offer(buffer);
+        }
+
+        void clear() {
+            buffers.clear();
+            pooled.set(0);
+        }
+    }
+}
@@ -23,6 +23,7 @@ package act.ws;
 import act.app.ActionContext;
 import act.app.App;
 import act.app.AppServiceBase;
+import act.event.ActEventListenerBase;
 import act.util.Stateless;
 import act.xio.WebSocketConnection;
 import com.alibaba.fastjson.JSON;
@@ -32,6 +33,7 @@ import org.osgl.http.H;
 import org.osgl.logging.LogManager;
 import org.osgl.logging.Logger;
 
+import java.util.Arrays;
 import java.util.Collection;
 
 /**
@@ -42,16 +44,29 @@ public class WebSocketConnectionManager extends AppServiceBase<WebSocketConnecti
 
     private static final Logger logger = LogManager.get(WebSocketConnectionManager.class);
 
-    private final WebSocketConnectionRegistry bySessionId = new WebSocketConnectionRegistry();
-    private final WebSocketConnectionRegistry byUsername = new WebSocketConnectionRegistry();
-    private final WebSocketConnectionRegistry byUrl = new WebSocketConnectionRegistry();
-    private final WebSocketConnectionRegistry byTag = new WebSocketConnectionRegistry();
+    private final WebSocketConnectionRegistry bySessionId = new WebSocketConnectionRegistry("session");
+    private final WebSocketConnectionRegistry byUsername = new WebSocketConnectionRegistry("username");
+    private final WebSocketConnectionRegistry byUrl = new WebSocketConnectionRegistry("url");
+    private final WebSocketConnectionRegistry byTag = new WebSocketConnectionRegistry("tag");
+
+    private final WebSocketBroadcaster broadcaster;
 
     private String wsTicketKey;
 
     public WebSocketConnectionManager(App app) {
         super(app);
         wsTicketKey = app.config().wsTicketKey();
+        broadcaster = new WebSocketBroadcaster(app.config());
+        app.eventBus().bind(WebSocketCloseEvent.class, new ActEventListenerBase<WebSocketCloseEvent>() {
+            @Override
+            public void on(WebSocketCloseEvent event) {
+                removeConnection(event.source().connection());
+            }
+        });
+    }
+
+    public WebSocketBroadcaster broadcaster() {
+        return broadcaster;
     }
 
     public WebSocketConnectionRegistry sessionRegistry() {
@@ -119,9 +134,7 @@ public class WebSocketConnectionManager extends AppServiceBase<WebSocketConnecti
      * @param labels the tag labels
      */
     public void sendToTagged(String message, String ... labels) {
-        for (String label : labels) {
-            sendToTagged(message, label);
-        }
+        sendToTagged(message, Arrays.asList(labels));
     }
 
     /**
@@ -130,8 +143,13 @@ public class WebSocketConnectionManager extends AppServiceBase<WebSocketConnecti
      * @param labels the tag labels
      */
     public void sendToTagged(String message, Collection<String> labels) {
-        for (String label : labels) {
-            sendToTagged(message, label);
+        SharedTextFrame frame = broadcaster.encode(message);
+        try {
+            for (String label : labels) {
+                broadcaster.broadcast(frame, tagRegistry(), label, null);
+            }
+        } finally {
+            frame.release();
         }
     }
 
@@ -151,9 +169,7 @@ public class WebSocketConnectionManager extends AppServiceBase<WebSocketConnecti
      * @param labels the tag labels
      */
     public void sendJsonToTagged(Object data, String ... labels) {
-        for (String label : labels) {
-            sendJsonToTagged(data, label);
-        }
+        sendToTagged(JSON.toJSONString(data), labels);
     }
 
     /**
@@ -162,9 +178,7 @@ public class WebSocketConnectionManager extends AppServiceBase<WebSocketConnecti
      * @param labels the tag labels
      */
     public void sendJsonToTagged(Object data, Collection<String> labels) {
-        for (String label : labels) {
-            sendJsonToTagged(data, label);
-        }
+        sendToTagged(JSON.toJSONString(data), labels);
     }
 
     /**
@@ -185,6 +199,17 @@ public class WebSocketConnectionManager extends AppServiceBase<WebSocketConnecti
         sendToUser(JSON.toJSONString(data), username);
     }
 
+    /**
+     * Remove a connection from all registries
+     * @param connection the websocket connection
+     */
+    public void removeConnection(WebSocketConnection connection) {
+        bySessionId.remove(connection);
+        byUsername.remove(connection);
+        byUrl.remove(connection);
+        byTag.remove(connection);
+    }
+
     public void registerNewConnection(WebSocketConnection connection, ActionContext context) {
         bySessionId.register(context.session().id(), connection);
         String username = context.username();
@@ -204,14 +229,13 @@ public class WebSocketConnectionManager extends AppServiceBase<WebSocketConnecti
         byUsername.destroy();
         byUrl.destroy();
         byTag.destroy();
+        broadcaster.destroy();
     }
 
     private void sendToConnections(String message, WebSocketConnectionRegistry registry, String key) {
-        for (WebSocketConnection conn : registry.get(key)) {
-            if (logger.isTraceEnabled()) {
-                logger.trace("send to websocket connection by key: %s", key);
-            }
-            conn.send(message);
+        if (logger.isTraceEnabled()) {
+            logger.trace("send to websocket connections by key: %s", key);
         }
+        broadcaster.broadcast(message, registry, key, null);
     }
 }
@@ -28,51 +28,133 @@ import org.osgl.util.C;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Organize websocket connection by string typed keys. Multiple connections
- * can be attached to the same key
+ * can be attached to the same key.
+ *
+ * The registry keeps a reverse index from connection to the keys it is
+ * attached to, so that a closed connection can be removed from all keys
+ * through {@link #remove(WebSocketConnection)} without scanning the registry
  */
 public class WebSocketConnectionRegistry extends DestroyableBase {
-    private ConcurrentMap<String, ConcurrentMap<WebSocketConnection, WebSocketConnection>> registry = new ConcurrentHashMap<>();
+
+    /**
+     * Connections attached to one key. Writes are synchronized on the bag so
+     * that an empty bag can be safely removed from the registry; reads are
+     * lock free
+     */
+    private static class Bag {
+        private final Set<WebSocketConnection> connections = Collections.newSetFromMap(new ConcurrentHashMap<WebSocketConnection, Boolean>());
+        // once set the bag has been removed from registry and must not be used anymore
+        private boolean dead;
+    }
+
+    /**
+     * Keys a connection is attached to. Sign in, sign off and removal of a
+     * connection are synchronized on its keys so that the registry and the
+     * reverse index are updated atomically per connection. Lock order is
+     * keys then bag
+     */
+    private static class Keys {
+        private final Set<String> keys = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        // once set the keys has been removed from the reverse index and must not be used anymore
+        private boolean dead;
+    }
+
+    private final String name;
+    private final ConcurrentMap<String, Bag> registry = new ConcurrentHashMap<>();
+    private final ConcurrentMap<WebSocketConnection, Keys> keysByConnection = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong signIns = new AtomicLong();
+    private final AtomicLong signOffs = new AtomicLong();
+
+    public WebSocketConnectionRegistry() {
+        this("default");
+    }
+
+    public WebSocketConnectionRegistry(String name) {
+        this.name = $.notNull(name);
+    }
+
+    /**
+     * Returns the name of the registry
+     */
+    public String name() {
+        return name;
+    }
 
     /**
      * Return a list of websocket connection by key
+     *
+     * Note this method copies the connections into a new list. Use
+     * {@link #accept(String, $.Function)} or {@link #connections(String)}
+     * to iterate through the connections without copying
+     *
      * @param key the key to find the websocket connection list
      * @return a list of websocket connection or an empty list if no websocket connection found by key
      */
     public List<WebSocketConnection> get(String key) {
-        final List<WebSocketConnection> retList = new ArrayList<>();
-        accept(key, C.F.addTo(retList));
+        Bag bag = registry.get(key);
+        if (null == bag) {
+            return C.list();
+        }
+        List<WebSocketConnection> retList = new ArrayList<>(bag.connections.size());
+        for (WebSocketConnection conn : bag.connections) {
+            if (!conn.closed()) {
+                retList.add(conn);
+            }
+        }
         return retList;
     }
 
     /**
-     * Accept a visitor to iterate through the connections attached to the key specified
+     * Returns a live view of the connections attached to the key. The
+     * view is weakly consistent: it reflects sign in and sign off
+     * happened during the iteration or not, and never throws
+     * {@link ConcurrentModificationException}.
+     *
+     * @param key the key
+     * @return connections attached to the key
+     */
+    public Iterable<WebSocketConnection> connections(String key) {
+        Bag bag = registry.get(key);
+        return null == bag ? C.<WebSocketConnection>list() : Collections.unmodifiableSet(bag.connections);
+    }
+
+    /**
+     * Accept a visitor to iterate through the connections attached to the key specified.
+     *
+     * Connections that have been closed are skipped
      *
      * @param key the key
      * @param visitor the visitor
      */
     public void accept(String key, $.Function<WebSocketConnection, ?> visitor) {
-        ConcurrentMap<WebSocketConnection, WebSocketConnection> connections = registry.get(key);
-        if (null == connections) {
+        Bag bag = registry.get(key);
+        if (null == bag) {
             return;
         }
-        if (!connections.isEmpty()) {
-            List<WebSocketConnection> toBeCleared = null;
-            for (WebSocketConnection conn : connections.keySet()) {
-                if (conn.closed()) {
-                    if (null == toBeCleared) {
-                        toBeCleared = new ArrayList<>();
-                    }
-                    toBeCleared.add(conn);
-                    continue;
-                }
+        for (WebSocketConnection conn : bag.connections) {
+            if (!conn.closed()) {
                 visitor.apply(conn);
             }
-            if (null != toBeCleared) {
-                ConcurrentMap<WebSocketConnection, WebSocketConnection> originalCopy = registry.get(key);
-                originalCopy.keySet().removeAll(toBeCleared);
+        }
+    }
+
+    /**
+     * Accept a visitor to iterate through all connections in this registry.
+     *
+     * Each connection is visited once even if it is attached to multiple keys
+     *
+     * @param visitor the visitor
+     */
+    public void accept($.Function<WebSocketConnection, ?> visitor) {
+        for (WebSocketConnection conn : keysByConnection.keySet()) {
+            if (!conn.closed()) {
+                visitor.apply(conn);
             }
         }
     }
@@ -102,8 +184,21 @@ public class WebSocketConnectionRegistry extends DestroyableBase {
      * @see #register(String, WebSocketConnection)
      */
     public void signIn(String key, WebSocketConnection connection) {
-        ConcurrentMap<WebSocketConnection, WebSocketConnection> bag = ensureConnectionList(key);
-        bag.put(connection, connection);
+        for (;;) {
+            Keys keys = ensureKeys(connection);
+            synchronized (keys) {
+                if (keys.dead) {
+                    continue;
+                }
+                keys.keys.add(key);
+                addToBag(key, connection);
+                break;
+            }
+        }
+        if (connection.closed()) {
+            // the connection was closed while signing in
+            remove(connection);
+        }
     }
 
     /**
@@ -121,15 +216,9 @@ public class WebSocketConnectionRegistry extends DestroyableBase {
      * @param connections a collection of websocket connections
      */
     public void signIn(String key, Collection<WebSocketConnection> connections) {
-        if (connections.isEmpty()) {
-            return;
-        }
-        Map<WebSocketConnection, WebSocketConnection> newMap = new HashMap<>();
         for (WebSocketConnection conn : connections) {
-            newMap.put(conn, conn);
+            signIn(key, conn);
         }
-        ConcurrentMap<WebSocketConnection, WebSocketConnection> bag = ensureConnectionList(key);
-        bag.putAll(newMap);
     }
 
     /**
@@ -155,12 +244,27 @@ public class WebSocketConnectionRegistry extends DestroyableBase {
         signOff(key, connections);
     }
 
+    /**
+     * Sign off a connection from the registry by key
+     *
+     * @param key the key
+     * @param connection the websocket connection
+     */
     public void signOff(String key, WebSocketConnection connection) {
-        ConcurrentMap<WebSocketConnection, WebSocketConnection> connections = ensureConnectionList(key);
-        if (null == connections) {
+        Keys keys = keysByConnection.get(connection);
+        if (null == keys) {
             return;
         }
-        connections.remove(connection);
+        synchronized (keys) {
+            if (keys.dead || !keys.keys.remove(key)) {
+                return;
+            }
+            removeFromBag(key, connection);
+            if (keys.keys.isEmpty()) {
+                keys.dead = true;
+                keysByConnection.remove(connection, keys);
+            }
+        }
     }
 
     /**
@@ -170,67 +274,141 @@ public class WebSocketConnectionRegistry extends DestroyableBase {
      * @param connections a collection of websocket connections
      */
     public void signOff(String key, Collection<WebSocketConnection> connections) {
-        if (connections.isEmpty()) {
-            return;
+        for (WebSocketConnection conn : connections) {
+            signOff(key, conn);
         }
-        ConcurrentMap<WebSocketConnection, WebSocketConnection> bag = ensureConnectionList(key);
-        bag.keySet().removeAll(connections);
     }
 
+    /**
+     * Remove a connection from all keys it is attached to
+     *
+     * @param connection the websocket connection
+     */
+    public void remove(WebSocketConnection connection) {
+        Keys keys = keysByConnection.get(connection);
+        if (null == keys) {
+            return;
+        }
+        synchronized (keys) {
+            if (keys.dead) {
+                return;
+            }
+            keys.dead = true;
+            keysByConnection.remove(connection, keys);
+            for (String key : keys.keys) {
+                removeFromBag(key, connection);
+            }
+        }
+    }
 
     /**
      * Returns the connection count in this registry.
      *
-     * Note it might count connections that are closed but not removed from registry yet
+     * Note a connection attached to multiple keys is counted multiple times
      *
      * @return the connection count
      */
     public int count() {
-        int n = 0;
-        for (ConcurrentMap<?, ?> bag : registry.values()) {
-            n += bag.size();
-        }
-        return n;
+        return size.get();
     }
 
     /**
      * Returns the connection count by key specified in this registry
      *
-     * Note it might count connections that are closed but not removed from registry yet
-     *
      * @param key the key
      * @return connection count by key
      */
     public int count(String key) {
-        ConcurrentMap<WebSocketConnection, WebSocketConnection> bag = registry.get(key);
-        return null == bag ? 0 : bag.size();
+        Bag bag = registry.get(key);
+        return null == bag ? 0 : bag.connections.size();
+    }
+
+    /**
+     * Returns the number of keys in this registry
+     */
+    public int keyCount() {
+        return registry.size();
+    }
+
+    /**
+     * Returns the number of times connections signed in
+     */
+    public long signInCount() {
+        return signIns.get();
+    }
+
+    /**
+     * Returns the number of times connections signed off, including
+     * the removal of closed connections
+     */
+    public long signOffCount() {
+        return signOffs.get();
     }
 
     @Override
     protected void releaseResources() {
-        for (ConcurrentMap<WebSocketConnection, WebSocketConnection> connections : registry.values()) {
-            for (WebSocketConnection conn : connections.keySet()) {
-                conn.destroy();
-            }
+        for (WebSocketConnection conn : keysByConnection.keySet()) {
+            conn.destroy();
         }
         registry.clear();
+        keysByConnection.clear();
+        size.set(0);
+    }
+
+    private void addToBag(String key, WebSocketConnection connection) {
+        for (;;) {
+            Bag bag = ensureBag(key);
+            synchronized (bag) {
+                if (bag.dead) {
+                    continue;
+                }
+                if (bag.connections.add(connection)) {
+                    size.incrementAndGet();
+                    signIns.incrementAndGet();
+                }
+                return;
+            }
+        }
+    }
+
+    private void removeFromBag(String key, WebSocketConnection connection) {
+        Bag bag = registry.get(key);
+        if (null == bag) {
+            return;
+        }
+        synchronized (bag) {
+            if (bag.connections.remove(connection)) {
+                size.decrementAndGet();
+                signOffs.incrementAndGet();
+            }
+            if (bag.connections.isEmpty() && !bag.dead) {
+                bag.dead = true;
+                registry.remove(key, bag);
+            }
+        }
     }
 
-    private ConcurrentMap<WebSocketConnection, WebSocketConnection> ensureConnectionList(String key) {
-        ConcurrentMap<WebSocketConnection, WebSocketConnection> connections = registry.get(key);
-        if (null == connections) {
-            ConcurrentMap<WebSocketConnection, WebSocketConnection> newConnections = newConnectionBag();
-            connections = registry.putIfAbsent(key, newConnections);
-            if (null == connections) {
-                connections = newConnections;
+    private Keys ensureKeys(WebSocketConnection connection) {
+        Keys keys = keysByConnection.get(connection);
+        if (null == keys) {
+            Keys newKeys = new Keys();
+            keys = keysByConnection.putIfAbsent(connection, newKeys);
+            if (null == keys) {
+                keys = newKeys;
             }
         }
-        return connections;
+        return keys;
     }
 
-    private ConcurrentMap<WebSocketConnection, WebSocketConnection> newConnectionBag() {
-        // TODO find a better strategy to keep track of the connections
-        // see http://stackoverflow.com/questions/44040637/best-practice-to-track-websocket-connections-in-java/
-        return new ConcurrentHashMap<>();
+    private Bag ensureBag(String key) {
+        Bag bag = registry.get(key);
+        if (null == bag) {
+            Bag newBag = new Bag();
+            bag = registry.putIfAbsent(key, newBag);
+            if (null == bag) {
+                bag = newBag;
+            }
+        }
+        return bag;
     }
 }
@@ -254,11 +254,7 @@ public class WebSocketContext extends ActContext.Base<WebSocketContext> implemen
     }
 
     private WebSocketContext sendToConnections(String message, String key, WebSocketConnectionRegistry registry, boolean excludeSelf) {
-        for (WebSocketConnection conn : registry.get(key)) {
-            if (!excludeSelf || connection != conn) {
-                conn.send(message);
-            }
-        }
+        manager.broadcaster().broadcast(message, registry, key, excludeSelf ? connection : null);
         return this;
     }
 
@@ -267,6 +263,16 @@ public class WebSocketContext extends ActContext.Base<WebSocketContext> implemen
         connection.send(message);
     }
 
+    @Override
+    public void send(SharedTextFrame frame) {
+        connection.send(frame);
+    }
+
+    @Override
+    public int pendingFrames() {
+        return connection.pendingFrames();
+    }
+
     @Override
     public void close() {
         connection.close();
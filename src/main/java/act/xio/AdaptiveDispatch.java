@@ -0,0 +1,399 @@
+package act.xio;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.app.App;
+import act.app.AppServiceBase;
+import act.conf.AppConfig;
+import act.handler.RequestHandler;
+import act.handler.builtin.controller.RequestHandlerProxy;
+import org.osgl.logging.LogManager;
+import org.osgl.logging.Logger;
+import org.osgl.util.C;
+
+import javax.inject.Singleton;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides whether a request shall be handled on the IO thread (express)
+ * or dispatched to a worker thread based on measurements of the handler.
+ *
+ * Only safe requests to controller actions that are not marked as
+ * {@link act.handler.NonBlock non-block} and do not return async results
+ * are subject to adaptive dispatch. Such a handler runs on worker thread
+ * while measured. It is promoted to express once it handled the configured
+ * number of consecutive requests within the latency threshold without
+ * blocking. A promoted handler is demoted back to worker thread when
+ * blocking is detected or its average latency exceeds the threshold,
+ * and it is pinned to worker thread after too many demotions.
+ *
+ * Blocking is detected by {@link BlockingDetector} hooks, and by the
+ * difference between wall time and CPU time of the handling thread
+ * when thread CPU time measurement is supported. CPU time is sampled on
+ * every request while measuring and on one in {@link #CPU_SAMPLE_RATE}
+ * requests once promoted.
+ *
+ * Decisions can be checked through `act.route.list` and `act.route.dispatch`
+ * commands.
+ */
+@Singleton
+public class AdaptiveDispatch extends AppServiceBase<AdaptiveDispatch> {
+
+    private static final Logger LOGGER = LogManager.get(AdaptiveDispatch.class);
+
+    static final int CPU_SAMPLE_RATE = 16;
+
+    public enum Mode {
+        /**
+         * Handled on worker thread and being measured
+         */
+        WORKER("worker"),
+
+        /**
+         * Promoted to express execution
+         */
+        EXPRESS("express (auto)"),
+
+        /**
+         * Pinned to worker thread after too many demotions
+         */
+        PINNED("worker (pinned)");
+
+        private String label;
+
+        Mode(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+    }
+
+    /**
+     * Measures one request handling
+     */
+    public static class Probe {
+        private final Route route;
+        private final Thread thread;
+        private final long start;
+        private final long cpuStart;
+
+        private Probe(Route route, long cpuStart) {
+            this.route = route;
+            this.cpuStart = cpuStart;
+            this.thread = Thread.currentThread();
+            this.start = System.nanoTime();
+        }
+
+        /**
+         * Record the measurement. A request finished on another thread
+         * than the one the probe started, e.g. the result is applied on
+         * worker thread, is recorded as blocking
+         */
+        public void done() {
+            long wall = System.nanoTime() - start;
+            boolean handedOff = Thread.currentThread() != thread;
+            long cpu = cpuStart < 0 || handedOff ? -1 : route.dispatch.cpuTime() - cpuStart;
+            route.record(wall, cpu, BlockingDetector.checkAndReset() || handedOff);
+        }
+    }
+
+    /**
+     * Measurements and decision of a handler
+     */
+    public static class Route {
+        private final AdaptiveDispatch dispatch;
+        private final String handler;
+        private volatile Mode mode = Mode.WORKER;
+        private final AtomicInteger streak = new AtomicInteger();
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong blocked = new AtomicLong();
+        // exponentially weighted moving average of latency in nanoseconds
+        private volatile long latency;
+        private int promotions;
+        private int demotions;
+
+        Route(AdaptiveDispatch dispatch, String handler) {
+            this.dispatch = dispatch;
+            this.handler = handler;
+        }
+
+        public Mode mode() {
+            return mode;
+        }
+
+        public boolean express() {
+            return Mode.EXPRESS == mode;
+        }
+
+        /**
+         * Start measuring a request handling on the current thread
+         */
+        public Probe probe() {
+            BlockingDetector.reset();
+            boolean sampleCpu = Mode.WORKER == mode || requests.get() % CPU_SAMPLE_RATE == 0;
+            return new Probe(this, sampleCpu ? dispatch.cpuTime() : -1);
+        }
+
+        /**
+         * Record a request handling
+         *
+         * @param wall the wall time in nanoseconds
+         * @param cpu the CPU time in nanoseconds or `-1` if not sampled
+         * @param blockingReported whether blocking is reported by {@link BlockingDetector}
+         */
+        void record(long wall, long cpu, boolean blockingReported) {
+            requests.incrementAndGet();
+            long avg = latency;
+            latency = 0 == avg ? wall : avg + ((wall - avg) >> 3);
+            boolean blocking = blockingReported || (cpu >= 0 && wall - cpu > dispatch.waitThreshold);
+            if (blocking) {
+                blocked.incrementAndGet();
+            }
+            switch (mode) {
+                case WORKER:
+                    if (blocking || wall > dispatch.threshold) {
+                        streak.set(0);
+                    } else if (streak.incrementAndGet() >= dispatch.samples) {
+                        promote();
+                    }
+                    break;
+                case EXPRESS:
+                    if (blocking) {
+                        demote(blockingReported ? "blocking reported" : "waiting detected");
+                    } else if (latency > dispatch.threshold) {
+                        demote("latency exceeds threshold");
+                    }
+                    break;
+                default:
+                    // pinned
+            }
+        }
+
+        synchronized void reset() {
+            mode = Mode.WORKER;
+            streak.set(0);
+            demotions = 0;
+        }
+
+        Status status() {
+            return new Status(handler, mode.label(), requests.get(), blocked.get(),
+                    TimeUnit.NANOSECONDS.toMicros(latency), promotions, demotions);
+        }
+
+        private synchronized void promote() {
+            if (Mode.WORKER != mode) {
+                return;
+            }
+            promotions++;
+            mode = Mode.EXPRESS;
+            LOGGER.info("%s promoted to express execution", handler);
+        }
+
+        private synchronized void demote(String reason) {
+            if (Mode.EXPRESS != mode) {
+                return;
+            }
+            streak.set(0);
+            demotions++;
+            if (demotions >= dispatch.maxDemotions) {
+                mode = Mode.PINNED;
+                LOGGER.warn("%s pinned to worker thread: %s", handler, reason);
+            } else {
+                mode = Mode.WORKER;
+                LOGGER.info("%s demoted to worker thread: %s", handler, reason);
+            }
+        }
+    }
+
+    public static class Status {
+        private String handler;
+        private String mode;
+        private long requests;
+        private long blocked;
+        private long latency;
+        private int promotions;
+        private int demotions;
+
+        Status(String handler, String mode, long requests, long blocked, long latency, int promotions, int demotions) {
+            this.handler = handler;
+            this.mode = mode;
+            this.requests = requests;
+            this.blocked = blocked;
+            this.latency = latency;
+            this.promotions = promotions;
+            this.demotions = demotions;
+        }
+
+        public String getHandler() {
+            return handler;
+        }
+
+        public String getMode() {
+            return mode;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        public long getBlocked() {
+            return blocked;
+        }
+
+        public long getLatency() {
+            return latency;
+        }
+
+        public int getPromotions() {
+            return promotions;
+        }
+
+        public int getDemotions() {
+            return demotions;
+        }
+    }
+
+    private final ConcurrentMap<String, Route> routes = new ConcurrentHashMap<>();
+    private final ThreadMXBean threadMXBean;
+    private final boolean cpuTimeSupported;
+    private volatile boolean enabled;
+    private long threshold;
+    private long waitThreshold;
+    private int samples;
+    private int maxDemotions;
+
+    public AdaptiveDispatch(App app) {
+        this(app, app.config());
+    }
+
+    AdaptiveDispatch(App app, AppConfig config) {
+        super(app);
+        this.enabled = config.adaptiveDispatchEnabled();
+        this.threshold = TimeUnit.MICROSECONDS.toNanos(config.adaptiveDispatchThreshold());
+        this.waitThreshold = threshold / 2;
+        this.samples = config.adaptiveDispatchSamples();
+        this.maxDemotions = config.adaptiveDispatchMaxDemotions();
+        this.threadMXBean = ManagementFactory.getThreadMXBean();
+        this.cpuTimeSupported = threadMXBean.isCurrentThreadCpuTimeSupported() && threadMXBean.isThreadCpuTimeEnabled();
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    public void enabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the measurements of the handler if it is subject to adaptive
+     * dispatch
+     *
+     * @param handler the request handler
+     * @return the route measurements or `null` if the handler is not eligible
+     */
+    public Route route(RequestHandler handler) {
+        if (!(handler instanceof RequestHandlerProxy)) {
+            return null;
+        }
+        RequestHandlerProxy proxy = (RequestHandlerProxy) handler;
+        if (proxy.async() || proxy.nonBlock()) {
+            return null;
+        }
+        return route(handler.toString());
+    }
+
+    /**
+     * Returns how requests to the handler are dispatched
+     *
+     * @param handler the request handler
+     * @return the dispatch mode label or an empty string if the handler is not a controller action
+     */
+    public String mode(RequestHandler handler) {
+        if (!(handler instanceof RequestHandlerProxy)) {
+            return "";
+        }
+        RequestHandlerProxy proxy = (RequestHandlerProxy) handler;
+        if (proxy.nonBlock()) {
+            return "express";
+        }
+        Route route = enabled ? routes.get(handler.toString()) : null;
+        return null == route ? Mode.WORKER.label() : route.mode().label();
+    }
+
+    /**
+     * Returns the status of all measured handlers
+     */
+    public List<Status> status() {
+        List<Status> list = C.newList();
+        for (Route route : routes.values()) {
+            list.add(route.status());
+        }
+        return list;
+    }
+
+    /**
+     * Reset the decision of the handler, i.e. move it back to measuring
+     * on worker thread
+     *
+     * @param handler the handler, i.e. the action path
+     * @return `true` if the handler has been measured
+     */
+    public boolean reset(String handler) {
+        Route route = routes.get(handler);
+        if (null == route) {
+            return false;
+        }
+        route.reset();
+        return true;
+    }
+
+    @Override
+    protected void releaseResources() {
+        routes.clear();
+    }
+
+    Route route(String key) {
+        Route route = routes.get(key);
+        if (null == route) {
+            Route newRoute = new Route(this, key);
+            route = routes.putIfAbsent(key, newRoute);
+            if (null == route) {
+                route = newRoute;
+            }
+        }
+        return route;
+    }
+
+    private long cpuTime() {
+        return cpuTimeSupported ? threadMXBean.getCurrentThreadCpuTime() : -1;
+    }
+
+}
@@ -0,0 +1,72 @@
+package act.xio;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.cli.CliContext;
+import act.cli.Command;
+import act.cli.Optional;
+import act.cli.Required;
+import act.util.PropertySpec;
+
+import javax.inject.Inject;
+import java.util.List;
+
+/**
+ * Console commands to check and adjust {@link AdmissionControl}
+ */
+public class AdmissionAdmin {
+
+    @Inject
+    private AdmissionControl admissionControl;
+
+    @Command(name = "act.admission.list", help = "list concurrency limits. Latency is in microseconds")
+    @PropertySpec("name,limit,min,max,inflight,queued,rejected,latency,baseLatency")
+    public List<ConcurrencyLimiter.Status> list() {
+        return admissionControl.status();
+    }
+
+    @Command(name = "act.admission.enable", help = "enable/disable admission control")
+    public void enable(@Optional("disable admission control") boolean disable, CliContext context) {
+        admissionControl.enabled(!disable);
+        context.println(disable ? "admission control disabled" : "admission control enabled");
+    }
+
+    @Command(name = "act.admission.limit", help = "adjust concurrency limit of a route")
+    public void limit(
+            @Required("specify the route (action path), or \"*\" for the global limit") String route,
+            @Optional(lead = "-l,--limit", help = "set the current limit") Integer limit,
+            @Optional(lead = "--min", help = "set the minimum limit") Integer min,
+            @Optional(lead = "--max", help = "set the maximum limit") Integer max,
+            CliContext context
+    ) {
+        ConcurrencyLimiter limiter = admissionControl.limiter(route, true);
+        ConcurrencyLimiter.Status status = limiter.status();
+        if (null != min || null != max) {
+            limiter.range(null == min ? status.getMin() : min, null == max ? status.getMax() : max);
+        }
+        if (null != limit) {
+            limiter.limit(limit);
+        }
+        status = limiter.status();
+        context.println("%s limit: %s [%s, %s]", route, status.getLimit(), status.getMin(), status.getMax());
+    }
+
+}
@@ -0,0 +1,270 @@
+package act.xio;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.Act;
+import act.app.ActionContext;
+import act.app.App;
+import act.app.AppServiceBase;
+import act.conf.AppConfig;
+import act.handler.RequestHandler;
+import act.handler.RequestPriority;
+import act.handler.builtin.controller.RequestHandlerProxy;
+import act.metric.Metric;
+import act.metric.MetricInfo;
+import act.metric.Timer;
+import act.view.ActErrorResult;
+import org.osgl.http.H;
+import org.osgl.mvc.result.Result;
+import org.osgl.util.C;
+import org.osgl.util.S;
+
+import javax.inject.Singleton;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the number of in-flight requests globally and per route
+ * with {@link ConcurrencyLimiter adaptive limits}.
+ *
+ * Admission is checked on the IO thread before the request is dispatched
+ * to the worker queue: the request either gets the permits right away or
+ * reserves a slot in the bounded queue of the limiters, otherwise it is
+ * rejected without being dispatched. Thus the worker queue is bounded
+ * by the limits. A request holding a queue slot waits for the permits
+ * when its handling job starts on the worker thread. The time it spent
+ * in the worker queue counts into the queue timeout, thus requests piled
+ * up when a downstream slows are rejected quickly instead of adding up
+ * latency for all routes.
+ *
+ * Rejected requests are counted by `act:admission:reject:<route>` and the
+ * time spent waiting for admission is measured by `act:admission:wait`.
+ * The limits can be checked and adjusted through {@link AdmissionAdmin}.
+ */
+@Singleton
+public class AdmissionControl extends AppServiceBase<AdmissionControl> {
+
+    /**
+     * A permit to handle a request. It is granted by {@link #tryAcquire(ActionContext, RequestHandler)}
+     * either with the permits of the limiters or with slots reserved in their queues, in which
+     * case {@link #await(ActionContext, Permit)} must be called before handling the request.
+     * It must be released when the request is handled
+     */
+    public static class Permit {
+        private final String key;
+        private final RequestPriority.Level priority;
+        private final long dispatchTime;
+        private final ConcurrencyLimiter global;
+        // -1 if a queue slot is reserved
+        private long globalStart;
+        private final ConcurrencyLimiter route;
+        // -1 if a queue slot is reserved
+        private long routeStart;
+
+        private Permit(String key, RequestPriority.Level priority, ConcurrencyLimiter global, long globalStart, ConcurrencyLimiter route, long routeStart) {
+            this.key = key;
+            this.priority = priority;
+            this.dispatchTime = System.nanoTime();
+            this.global = global;
+            this.globalStart = globalStart;
+            this.route = route;
+            this.routeStart = routeStart;
+        }
+
+        /**
+         * Check if the permits of the limiters are granted
+         */
+        public boolean granted() {
+            return routeStart >= 0 && globalStart >= 0;
+        }
+
+        public void release() {
+            route.release(routeStart);
+            global.release(globalStart);
+        }
+    }
+
+    public static final String GLOBAL = "*";
+
+    private final ConcurrencyLimiter global;
+    private final ConcurrentMap<String, ConcurrencyLimiter> routes = new ConcurrentHashMap<>();
+    private final Metric metric;
+    private volatile boolean enabled;
+    private int initialLimit;
+    private int minLimit;
+    private int maxLimit;
+    private long queueTimeout;
+    private String retryAfter;
+
+    public AdmissionControl(App app) {
+        super(app);
+        AppConfig config = app.config();
+        this.enabled = config.admissionControlEnabled();
+        this.initialLimit = config.admissionLimitInitial();
+        this.minLimit = config.admissionLimitMin();
+        this.maxLimit = config.admissionLimitMax();
+        this.queueTimeout = TimeUnit.MILLISECONDS.toNanos(config.admissionQueueTimeout());
+        this.retryAfter = S.string(config.admissionRetryAfter());
+        this.global = new ConcurrencyLimiter(GLOBAL, config.admissionLimitGlobalInitial(), minLimit, maxLimit);
+        this.metric = Act.metricPlugin().metric(MetricInfo.ADMISSION);
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    public void enabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Get a permit to handle the request without blocking. It is called on the IO
+     * thread before the request is dispatched to the worker queue.
+     *
+     * @param context the action context
+     * @param handler the handler of the request
+     * @return the permit, which might hold queue slots instead of the permits of the limiters
+     * @throws Result `503 Service Unavailable` with `Retry-After` header if the request is rejected
+     */
+    public Permit tryAcquire(ActionContext context, RequestHandler handler) {
+        String key = handler.toString();
+        RequestPriority.Level priority = handler instanceof RequestHandlerProxy
+                ? ((RequestHandlerProxy) handler).requestPriority()
+                : RequestPriority.Level.NORMAL;
+        ConcurrencyLimiter route = limiter(key);
+        long routeStart = route.tryAcquire(priority);
+        if (routeStart < 0 && !route.reserve()) {
+            throw reject(context, key);
+        }
+        long globalStart = global.tryAcquire(priority);
+        if (globalStart < 0 && !global.reserve()) {
+            giveBack(route, routeStart);
+            throw reject(context, key);
+        }
+        return new Permit(key, priority, global, globalStart, route, routeStart);
+    }
+
+    /**
+     * Wait for the permits of the limiters with the queue slots held by the permit. It
+     * is called on the worker thread and waits no longer than the queue timeout counted
+     * from the time the request is dispatched.
+     *
+     * @param context the action context
+     * @param permit the permit returned by {@link #tryAcquire(ActionContext, RequestHandler)}
+     * @throws Result `503 Service Unavailable` with `Retry-After` header if the request is rejected
+     */
+    public void await(ActionContext context, Permit permit) {
+        if (permit.granted()) {
+            return;
+        }
+        long deadline = permit.dispatchTime + queueTimeout;
+        Timer timer = metric.startTimer(MetricInfo.ADMISSION_WAIT);
+        try {
+            if (permit.routeStart < 0) {
+                permit.routeStart = acquireReserved(permit.route, permit.priority, deadline);
+                if (permit.routeStart < 0) {
+                    giveBack(permit.global, permit.globalStart);
+                    throw reject(context, permit.key);
+                }
+            }
+            if (permit.globalStart < 0) {
+                permit.globalStart = acquireReserved(permit.global, permit.priority, deadline);
+                if (permit.globalStart < 0) {
+                    permit.route.cancel();
+                    throw reject(context, permit.key);
+                }
+            }
+        } finally {
+            timer.stop();
+        }
+    }
+
+    /**
+     * Returns the status of all limiters, with the global limiter the first
+     */
+    public List<ConcurrencyLimiter.Status> status() {
+        List<ConcurrencyLimiter.Status> list = C.newList();
+        list.add(global.status());
+        for (ConcurrencyLimiter limiter : routes.values()) {
+            list.add(limiter.status());
+        }
+        return list;
+    }
+
+    /**
+     * Returns the limiter of the route specified or the global limiter if
+     * {@link #GLOBAL} is specified.
+     *
+     * @param name the route name, i.e. the action path
+     * @param create create the limiter if no request has been sent to the route yet
+     * @return the limiter or `null` if not found and `create` is `false`
+     */
+    public ConcurrencyLimiter limiter(String name, boolean create) {
+        if (GLOBAL.equals(name)) {
+            return global;
+        }
+        return create ? limiter(name) : routes.get(name);
+    }
+
+    @Override
+    protected void releaseResources() {
+        routes.clear();
+    }
+
+    private ConcurrencyLimiter limiter(String key) {
+        ConcurrencyLimiter limiter = routes.get(key);
+        if (null == limiter) {
+            ConcurrencyLimiter newLimiter = new ConcurrencyLimiter(key, initialLimit, minLimit, maxLimit);
+            limiter = routes.putIfAbsent(key, newLimiter);
+            if (null == limiter) {
+                limiter = newLimiter;
+            }
+        }
+        return limiter;
+    }
+
+    // the queue slot is given back no matter if the permit is granted
+    private static long acquireReserved(ConcurrencyLimiter limiter, RequestPriority.Level priority, long deadline) {
+        try {
+            return limiter.acquireReserved(priority, deadline - System.nanoTime());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    // give back the permit or the queue slot of a rejected request
+    private static void giveBack(ConcurrencyLimiter limiter, long start) {
+        if (start < 0) {
+            limiter.unreserve();
+        } else {
+            limiter.cancel();
+        }
+    }
+
+    private Result reject(ActionContext context, String key) {
+        metric.countOnce(S.concat(MetricInfo.ADMISSION_REJECT, ":", key));
+        context.resp().header(H.Header.Names.RETRY_AFTER, retryAfter);
+        return ActErrorResult.of(H.Status.SERVICE_UNAVAILABLE);
+    }
+}
@@ -0,0 +1,66 @@
+package act.xio;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * A lightweight hook to report blocking calls made when handling a request.
+ *
+ * Blocking operations, e.g. remote calls, blocking request/response streams,
+ * shall call {@link #blocking()} before blocking. {@link AdaptiveDispatch}
+ * never promotes a handler reported blocking to express execution, and it
+ * demotes a promoted handler once blocking is reported.
+ */
+public enum BlockingDetector {
+    ;
+
+    private static final ThreadLocal<boolean[]> flag = new ThreadLocal<boolean[]>() {
+        @Override
+        protected boolean[] initialValue() {
+            return new boolean[1];
+        }
+    };
+
+    /**
+     * Report the current thread is about to block
+     */
+    public static void blocking() {
+        flag.get()[0] = true;
+    }
+
+    /**
+     * Clear the blocking flag of the current thread
+     */
+    static void reset() {
+        flag.get()[0] = false;
+    }
+
+    /**
+     * Returns whether blocking has been reported on the current thread
+     * since the last reset and clear the flag
+     */
+    static boolean checkAndReset() {
+        boolean[] b = flag.get();
+        boolean blocked = b[0];
+        b[0] = false;
+        return blocked;
+    }
+
+}
@@ -0,0 +1,225 @@
+package act.xio;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.osgl.$;
+import org.osgl.http.H;
+import org.osgl.util.C;
+import org.osgl.util.E;
+import org.osgl.util.S;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * A request to be sent out through {@link HttpClient}
+ */
+public class ClientRequest extends H.Request<ClientRequest> {
+
+    private static final byte[] EMPTY_BODY = new byte[0];
+
+    private H.Method method;
+    private final String url;
+    private final URI uri;
+    // header names are kept in their original case
+    private final Map<String, List<String>> headers = new LinkedHashMap<>();
+    private byte[] body = EMPTY_BODY;
+
+    public ClientRequest(String url) {
+        this(H.Method.GET, url);
+    }
+
+    public ClientRequest(H.Method method, String url) {
+        this.method = $.notNull(method);
+        this.url = $.notNull(url);
+        this.uri = URI.create(url);
+        E.illegalArgumentIf(null == uri.getScheme() || null == uri.getHost(), "absolute URL expected: %s", url);
+    }
+
+    @Override
+    protected Class<ClientRequest> _impl() {
+        return ClientRequest.class;
+    }
+
+    @Override
+    public H.Method method() {
+        return method;
+    }
+
+    @Override
+    public ClientRequest method(H.Method method) {
+        this.method = $.notNull(method);
+        return this;
+    }
+
+    /**
+     * Add a header to the request
+     *
+     * @param name the header name
+     * @param value the header value
+     * @return this request
+     */
+    public ClientRequest header(String name, String value) {
+        List<String> list = headers.get(headerKey(name));
+        if (null == list) {
+            list = C.newList();
+            headers.put(name, list);
+        }
+        list.add(value);
+        return this;
+    }
+
+    @Override
+    public String header(String name) {
+        List<String> list = headers.get(headerKey(name));
+        return null == list || list.isEmpty() ? null : list.get(0);
+    }
+
+    @Override
+    public Iterable<String> headers(String name) {
+        List<String> list = headers.get(headerKey(name));
+        return null == list ? C.<String>list() : list;
+    }
+
+    /**
+     * Returns names of all headers added to this request
+     */
+    public Set<String> headerNames() {
+        return headers.keySet();
+    }
+
+    /**
+     * Set the request body
+     *
+     * @param body the body content
+     * @param contentType the content type of the body
+     * @return this request
+     */
+    public ClientRequest body(byte[] body, String contentType) {
+        this.body = null == body ? EMPTY_BODY : body;
+        if (null != contentType) {
+            headers.remove(headerKey(H.Header.Names.CONTENT_TYPE));
+            header(H.Header.Names.CONTENT_TYPE, contentType);
+        }
+        return this;
+    }
+
+    public ClientRequest body(String body, String contentType) {
+        return body(null == body ? null : body.getBytes(StandardCharsets.UTF_8), contentType);
+    }
+
+    public byte[] body() {
+        return body;
+    }
+
+    @Override
+    public String url() {
+        return url;
+    }
+
+    @Override
+    public String fullUrl() {
+        return url;
+    }
+
+    @Override
+    public String path() {
+        String path = uri.getRawPath();
+        return S.blank(path) ? "/" : path;
+    }
+
+    @Override
+    public String contextPath() {
+        return "";
+    }
+
+    @Override
+    public String query() {
+        return uri.getRawQuery();
+    }
+
+    @Override
+    public boolean secure() {
+        return "https".equalsIgnoreCase(uri.getScheme());
+    }
+
+    @Override
+    public String scheme() {
+        return uri.getScheme();
+    }
+
+    @Override
+    public String domain() {
+        return uri.getHost();
+    }
+
+    @Override
+    public int port() {
+        int port = uri.getPort();
+        return -1 == port ? (secure() ? 443 : 80) : port;
+    }
+
+    @Override
+    protected String _ip() {
+        return null;
+    }
+
+    @Override
+    protected void _initCookieMap() {
+    }
+
+    @Override
+    protected InputStream createInputStream() {
+        return new ByteArrayInputStream(body);
+    }
+
+    @Override
+    public String paramVal(String name) {
+        return null;
+    }
+
+    @Override
+    public String[] paramVals(String name) {
+        return new String[0];
+    }
+
+    @Override
+    public Iterable<String> paramNames() {
+        return C.list();
+    }
+
+    @Override
+    public String toString() {
+        return S.concat(method.name(), " ", url);
+    }
+
+    private String headerKey(String name) {
+        for (String key : headers.keySet()) {
+            if (key.equalsIgnoreCase(name)) {
+                return key;
+            }
+        }
+        return name;
+    }
+}
@@ -0,0 +1,189 @@
+package act.xio;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.osgl.http.H;
+import org.osgl.util.C;
+import org.osgl.util.E;
+import org.osgl.util.S;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A response received by {@link HttpClient}.
+ *
+ * The response is read only, calling any method that
+ * modifies the response triggers {@link UnsupportedOperationException}
+ */
+public class ClientResponse extends H.Response<ClientResponse> {
+
+    private final int status;
+    // header names are in lower case
+    private final Map<String, List<String>> headers;
+    private final byte[] body;
+
+    public ClientResponse(int status, Map<String, List<String>> headers, byte[] body) {
+        this.status = status;
+        this.headers = headers;
+        this.body = body;
+    }
+
+    @Override
+    protected Class<ClientResponse> _impl() {
+        return ClientResponse.class;
+    }
+
+    public H.Status status() {
+        return H.Status.of(status);
+    }
+
+    public int statusCode() {
+        return status;
+    }
+
+    public String header(String name) {
+        List<String> list = headers.get(name.toLowerCase());
+        return null == list || list.isEmpty() ? null : list.get(0);
+    }
+
+    public List<String> headers(String name) {
+        List<String> list = headers.get(name.toLowerCase());
+        return null == list ? C.<String>list() : list;
+    }
+
+    @Override
+    public boolean containsHeader(String name) {
+        return headers.containsKey(name.toLowerCase());
+    }
+
+    public String contentType() {
+        return header(H.Header.Names.CONTENT_TYPE);
+    }
+
+    public byte[] body() {
+        return body;
+    }
+
+    public String bodyAsString() {
+        String encoding = characterEncoding();
+        return new String(body, null == encoding ? StandardCharsets.UTF_8 : Charset.forName(encoding));
+    }
+
+    @Override
+    public String characterEncoding() {
+        String contentType = contentType();
+        if (null == contentType) {
+            return null;
+        }
+        for (String part : contentType.split(";")) {
+            part = part.trim();
+            if (part.regionMatches(true, 0, "charset=", 0, 8)) {
+                return S.strip(part.substring(8), "\"", "\"");
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Locale locale() {
+        return null;
+    }
+
+    @Override
+    public void commit() {
+    }
+
+    @Override
+    protected OutputStream createOutputStream() {
+        throw E.unsupport();
+    }
+
+    @Override
+    public ClientResponse characterEncoding(String encoding) {
+        throw E.unsupport();
+    }
+
+    @Override
+    public ClientResponse contentLength(long len) {
+        throw E.unsupport();
+    }
+
+    @Override
+    protected void _setContentType(String type) {
+        throw E.unsupport();
+    }
+
+    @Override
+    protected void _setLocale(Locale loc) {
+        throw E.unsupport();
+    }
+
+    @Override
+    public void addCookie(H.Cookie cookie) {
+        throw E.unsupport();
+    }
+
+    @Override
+    public ClientResponse sendError(int sc, String msg) {
+        throw E.unsupport();
+    }
+
+    @Override
+    public ClientResponse sendError(int sc) {
+        throw E.unsupport();
+    }
+
+    @Override
+    public ClientResponse sendRedirect(String location) {
+        throw E.unsupport();
+    }
+
+    @Override
+    public ClientResponse header(String name, String value) {
+        throw E.unsupport();
+    }
+
+    @Override
+    public ClientResponse status(int sc) {
+        throw E.unsupport();
+    }
+
+    @Override
+    public ClientResponse addHeader(String name, String value) {
+        throw E.unsupport();
+    }
+
+    @Override
+    public ClientResponse writeContent(ByteBuffer byteBuffer) {
+        throw E.unsupport();
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(status);
+    }
+}
@@ -0,0 +1,516 @@
+package act.xio;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.app.App;
+import act.app.AppServiceBase;
+import act.conf.AppConfig;
+import org.osgl.util.C;
+import org.osgl.util.E;
+import org.osgl.util.S;
+
+import javax.inject.Singleton;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Response compression rules and encoders.
+ *
+ * A response is compressed when
+ *
+ * * compression is enabled by {@link act.conf.AppConfigKey#COMPRESSION_ENABLED}
+ * * the content type matches {@link act.conf.AppConfigKey#COMPRESSION_TYPES} and
+ *   is not an already compressed format
+ * * the content is not smaller than {@link act.conf.AppConfigKey#COMPRESSION_MIN_SIZE}
+ * * the client accepts `gzip` or `deflate` encoding
+ *
+ * Encoders reuse {@link Deflater} instances from a {@link DeflaterPool}.
+ * `br` is not encoded on the fly, however pre-compressed `.br` variants
+ * of static files are served to clients accepting them.
+ */
+@Singleton
+public class Compression extends AppServiceBase<Compression> {
+
+    public enum Encoding {
+        BROTLI("br", ".br"),
+        GZIP("gzip", ".gz"),
+        DEFLATE("deflate", null);
+
+        private final String header;
+        private final String suffix;
+
+        Encoding(String header, String suffix) {
+            this.header = header;
+            this.suffix = suffix;
+        }
+
+        /**
+         * Returns the value used in `Accept-Encoding` and `Content-Encoding` headers
+         */
+        public String header() {
+            return header;
+        }
+
+        /**
+         * Returns the file name suffix of pre-compressed variants, or `null`
+         * if this encoding has no pre-compressed variant
+         */
+        public String suffix() {
+            return suffix;
+        }
+
+        static Encoding of(String name) {
+            for (Encoding encoding : values()) {
+                if (encoding.header.equals(name)) {
+                    return encoding;
+                }
+            }
+            return "x-gzip".equals(name) ? GZIP : null;
+        }
+    }
+
+    /**
+     * Encodings that can be applied on the fly, in the order of preference
+     */
+    public static final Set<Encoding> DYNAMIC = Collections.unmodifiableSet(EnumSet.of(Encoding.GZIP, Encoding.DEFLATE));
+
+    /**
+     * Encodings that might have pre-compressed variants, in the order of preference
+     */
+    public static final Set<Encoding> PRE_COMPRESSED = Collections.unmodifiableSet(EnumSet.of(Encoding.BROTLI, Encoding.GZIP));
+
+    // formats that are already compressed
+    private static final String[] COMPRESSED_PREFIXES = {"image/", "audio/", "video/"};
+    private static final Set<String> COMPRESSED_TYPES = C.set(
+            "application/zip", "application/gzip", "application/x-gzip", "application/x-bzip2",
+            "application/x-7z-compressed", "application/x-rar-compressed", "application/pdf",
+            "application/octet-stream", "font/woff", "font/woff2", "application/font-woff"
+    );
+    // image types that are text based
+    private static final Set<String> TEXT_IMAGE_TYPES = C.set("image/svg+xml", "image/x-icon", "image/bmp");
+
+    private static final int GZIP_MAGIC = 0x8b1f;
+    private static final byte[] GZIP_HEADER = {
+            (byte) GZIP_MAGIC, (byte) (GZIP_MAGIC >> 8), Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0
+    };
+    private static final int BUF_SIZE = 8192;
+
+    private volatile boolean enabled;
+    private final int minSize;
+    private final Set<String> types = new HashSet<>();
+    private final List<String> typePrefixes = new ArrayList<>();
+    private final DeflaterPool gzipPool;
+    private final DeflaterPool deflatePool;
+
+    public Compression(App app) {
+        this(app, app.config());
+    }
+
+    Compression(App app, AppConfig config) {
+        super(app);
+        this.enabled = config.compressionEnabled();
+        this.minSize = config.compressionMinSize();
+        for (String type : config.compressionTypes().split(",")) {
+            type = type.trim().toLowerCase();
+            if (type.endsWith("/*")) {
+                typePrefixes.add(type.substring(0, type.length() - 1));
+            } else if (S.notBlank(type)) {
+                types.add(type);
+            }
+        }
+        int level = config.compressionLevel();
+        int capacity = Runtime.getRuntime().availableProcessors() * 4;
+        this.gzipPool = new DeflaterPool(level, true, capacity);
+        this.deflatePool = new DeflaterPool(level, false, capacity);
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    public void enabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int minSize() {
+        return minSize;
+    }
+
+    /**
+     * Check if content of the type specified shall be compressed
+     *
+     * @param contentType the content type, might come with parameters e.g. `charset`
+     * @return `true` if the content type is configured to be compressed
+     */
+    public boolean compressible(String contentType) {
+        if (S.blank(contentType)) {
+            return false;
+        }
+        String type = contentType;
+        int pos = type.indexOf(';');
+        if (pos > -1) {
+            type = type.substring(0, pos);
+        }
+        type = type.trim().toLowerCase();
+        if (alreadyCompressed(type)) {
+            return false;
+        }
+        if (types.contains(type)) {
+            return true;
+        }
+        for (String prefix : typePrefixes) {
+            if (type.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Pick up the dynamic encoding for a request
+     *
+     * @param acceptEncoding the `Accept-Encoding` header value
+     * @return the encoding or `null` if no encoding is acceptable
+     */
+    public Encoding negotiate(String acceptEncoding) {
+        return negotiate(acceptEncoding, DYNAMIC);
+    }
+
+    /**
+     * Compress the data in the buffer
+     *
+     * @param buffer the data to be compressed
+     * @param encoding the dynamic encoding
+     * @return a buffer of compressed data
+     */
+    public ByteBuffer compress(ByteBuffer buffer, Encoding encoding) {
+        ByteBuffer src = buffer.duplicate();
+        int len = src.remaining();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(Math.max(64, len / 4));
+        OutputStream os = encoder(baos, encoding);
+        try {
+            if (src.hasArray()) {
+                os.write(src.array(), src.arrayOffset() + src.position(), len);
+            } else {
+                byte[] ba = new byte[Math.min(len, BUF_SIZE)];
+                while (src.hasRemaining()) {
+                    int n = Math.min(ba.length, src.remaining());
+                    src.get(ba, 0, n);
+                    os.write(ba, 0, n);
+                }
+            }
+            os.close();
+        } catch (IOException e) {
+            // ByteArrayOutputStream does not throw IOException
+            throw E.ioException(e);
+        }
+        return ByteBuffer.wrap(baos.toByteArray());
+    }
+
+    /**
+     * Returns an output stream that compresses data written to it
+     * with the encoding specified. The deflater used is returned to
+     * the pool when the stream is closed
+     *
+     * @param os the output stream to which the compressed data is written
+     * @param encoding the dynamic encoding
+     * @return the compressing output stream
+     */
+    public OutputStream encoder(OutputStream os, Encoding encoding) {
+        switch (encoding) {
+            case GZIP:
+                return new Encoder(os, gzipPool, true);
+            case DEFLATE:
+                return new Encoder(os, deflatePool, false);
+            default:
+                throw E.unsupport("Encoding not supported: %s", encoding.header());
+        }
+    }
+
+    /**
+     * Returns an output stream that buffers data up to {@link #minSize()} bytes.
+     * When exceeded, `onCompress` is called and data is compressed afterwards,
+     * otherwise data is written as it is when the stream is closed.
+     *
+     * Note before the limit is exceeded, {@link OutputStream#flush()} has no effect.
+     *
+     * @param os the underline output stream
+     * @param encoding the dynamic encoding
+     * @param onCompress called before the first byte of compressed data is written,
+     *                   e.g. to set `Content-Encoding` header
+     * @return the output stream
+     */
+    public OutputStream lazyEncoder(OutputStream os, Encoding encoding, Runnable onCompress) {
+        return new LazyEncoder(os, encoding, onCompress);
+    }
+
+    @Override
+    protected void releaseResources() {
+        gzipPool.clear();
+        deflatePool.clear();
+    }
+
+    /**
+     * Returns the entity tag of a representation encoded with the encoding
+     * specified. The identity and encoded representations are different
+     * entities and must not share the same strong entity tag, thus the encoding
+     * is appended to the tag, inside the quotes if the tag is quoted.
+     *
+     * @param etag the entity tag of the identity representation
+     * @param encoding the content encoding or `null` for the identity representation
+     * @return the entity tag of the representation
+     */
+    public static String etag(String etag, Encoding encoding) {
+        if (null == etag || null == encoding) {
+            return etag;
+        }
+        String suffix = "-" + encoding.header();
+        int len = etag.length();
+        if (len > 1 && etag.charAt(len - 1) == '"') {
+            return S.concat(etag.substring(0, len - 1), suffix, "\"");
+        }
+        return S.concat(etag, suffix);
+    }
+
+    /**
+     * Pick up an encoding for a request from available encodings.
+     *
+     * The encoding with the highest quality factor in the `Accept-Encoding`
+     * header wins. If there is a tie, the one comes first in `available` wins.
+     *
+     * @param acceptEncoding the `Accept-Encoding` header value
+     * @param available the available encodings in the order of preference
+     * @return the encoding or `null` if none of the available encodings is acceptable
+     */
+    public static Encoding negotiate(String acceptEncoding, Collection<Encoding> available) {
+        if (S.blank(acceptEncoding) || available.isEmpty()) {
+            return null;
+        }
+        Map<Encoding, Float> accepted = new EnumMap<>(Encoding.class);
+        Float wildcard = null;
+        for (String item : acceptEncoding.split(",")) {
+            String name = item;
+            float q = 1.0f;
+            int pos = item.indexOf(';');
+            if (pos > -1) {
+                name = item.substring(0, pos);
+                q = quality(item.substring(pos + 1));
+            }
+            name = name.trim().toLowerCase();
+            if ("*".equals(name)) {
+                wildcard = q;
+            } else {
+                Encoding encoding = Encoding.of(name);
+                if (null != encoding) {
+                    accepted.put(encoding, q);
+                }
+            }
+        }
+        Encoding selected = null;
+        float max = 0;
+        for (Encoding encoding : available) {
+            Float q = accepted.get(encoding);
+            if (null == q) {
+                q = wildcard;
+            }
+            if (null != q && q > max) {
+                max = q;
+                selected = encoding;
+            }
+        }
+        return selected;
+    }
+
+    private static float quality(String params) {
+        for (String param : params.split(";")) {
+            param = param.trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Float.parseFloat(param.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1.0f;
+    }
+
+    private static boolean alreadyCompressed(String type) {
+        if (COMPRESSED_TYPES.contains(type)) {
+            return true;
+        }
+        for (String prefix : COMPRESSED_PREFIXES) {
+            if (type.startsWith(prefix)) {
+                return !TEXT_IMAGE_TYPES.contains(type);
+            }
+        }
+        return false;
+    }
+
+    private static class Encoder extends DeflaterOutputStream {
+        private final DeflaterPool pool;
+        private final boolean gzip;
+        private final CRC32 crc;
+        private boolean released;
+
+        Encoder(OutputStream os, DeflaterPool pool, boolean gzip) {
+            super(os, pool.obtain(), BUF_SIZE, true);
+            this.pool = pool;
+            this.gzip = gzip;
+            if (gzip) {
+                crc = new CRC32();
+                try {
+                    os.write(GZIP_HEADER);
+                } catch (IOException e) {
+                    release();
+                    throw E.ioException(e);
+                }
+            } else {
+                crc = null;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            super.write(b, off, len);
+            if (gzip) {
+                crc.update(b, off, len);
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (def.finished()) {
+                return;
+            }
+            super.finish();
+            if (gzip) {
+                byte[] trailer = new byte[8];
+                writeInt((int) crc.getValue(), trailer, 0);
+                writeInt(def.getTotalIn(), trailer, 4);
+                out.write(trailer);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (released) {
+                return;
+            }
+            try {
+                super.close();
+            } finally {
+                release();
+            }
+        }
+
+        private void release() {
+            released = true;
+            pool.release(def);
+        }
+
+        private static void writeInt(int i, byte[] buf, int offset) {
+            buf[offset] = (byte) i;
+            buf[offset + 1] = (byte) (i >> 8);
+            buf[offset + 2] = (byte) (i >> 16);
+            buf[offset + 3] = (byte) (i >> 24);
+        }
+    }
+
+    private class LazyEncoder extends OutputStream {
+        private final OutputStream raw;
+        private final Encoding encoding;
+        private final Runnable onCompress;
+        private byte[] buf;
+        private int count;
+        private OutputStream target;
+
+        LazyEncoder(OutputStream raw, Encoding encoding, Runnable onCompress) {
+            this.raw = raw;
+            this.encoding = encoding;
+            this.onCompress = onCompress;
+            this.buf = new byte[Math.max(minSize, 1)];
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (null != target) {
+                target.write(b);
+                return;
+            }
+            if (count == buf.length) {
+                startCompression();
+                target.write(b);
+                return;
+            }
+            buf[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (null != target) {
+                target.write(b, off, len);
+                return;
+            }
+            if (count + len > buf.length) {
+                startCompression();
+                target.write(b, off, len);
+                return;
+            }
+            System.arraycopy(b, off, buf, count, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (null != target) {
+                target.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (null == target) {
+                target = raw;
+                try {
+                    raw.write(buf, 0, count);
+                } finally {
+                    buf = null;
+                }
+            }
+            target.close();
+        }
+
+        private void startCompression() throws IOException {
+            onCompress.run();
+            target = encoder(raw, encoding);
+            target.write(buf, 0, count);
+            buf = null;
+        }
+    }
+
+}
@@ -0,0 +1,523 @@
+package act.xio;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.handler.RequestPriority;
+import org.osgl.util.E;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits the number of in-flight requests. The limit is adjusted with
+ * a gradient algorithm driven by the measured latency:
+ *
+ * * the average latency of a sample window is compared with the long
+ *   term latency, which approximates the latency without queueing
+ * * `gradient = min(1, tolerance * longRtt / shortRtt)` and it never
+ *   goes below `0.5` so that the limit can at most be halved per window
+ * * `newLimit = limit * gradient + sqrt(limit)`, where `sqrt(limit)`
+ *   is the headroom allowing the limit to grow when the latency is stable
+ * * the limit is smoothed and kept within `[min, max]`
+ *
+ * The limit does not grow when less than half of it is in use, as the
+ * samples say nothing about higher concurrency in that case.
+ *
+ * Requests that can not be admitted wait in a queue for a short time.
+ * The wait is capped and requests are rejected right away when the queue
+ * is full, so that worker threads are not parked for long. When a permit
+ * is released, waiters of higher priority are signalled first, except that
+ * a waiting low priority request is admitted after every
+ * {@link #LOW_PRIORITY_SHARE} requests of higher priority, thus low
+ * priority requests are not starved. The low priority request admitted
+ * in its turn can take any free permit.
+ *
+ * Callers that must not block, e.g. on an IO thread, use {@link #tryAcquire(RequestPriority.Level)}
+ * and {@link #reserve()} a queue slot, and later wait for the permit with
+ * {@link #acquireReserved(RequestPriority.Level, long)} on a worker thread.
+ */
+public class ConcurrencyLimiter {
+
+    // latency can grow up to this factor before the limit is reduced
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double MIN_GRADIENT = 0.5;
+    // number of windows the long term latency averages over
+    private static final int LONG_WINDOW = 100;
+    private static final int MIN_WINDOW_SAMPLES = 10;
+    private static final int MAX_WINDOW_SAMPLES = 500;
+    private static final long MIN_WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    // the maximum time a request can wait for a permit
+    static final long MAX_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    // the minimum number of requests can be queued regardless of the limit
+    private static final int MIN_QUEUE = 4;
+    // number of higher priority requests admitted before a waiting low priority request
+    static final int LOW_PRIORITY_SHARE = 4;
+
+    private static final RequestPriority.Level[] LEVELS = RequestPriority.Level.values();
+
+    private final String name;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition[] conditions = new Condition[LEVELS.length];
+    private final int[] waiting = new int[LEVELS.length];
+
+    // all the following fields are guarded by lock
+    private int inflight;
+    private double limit;
+    private int minLimit;
+    private int maxLimit;
+    private long rejected;
+    // number of slots reserved by requests dispatched to the worker queue
+    private int reserved;
+    // number of higher priority requests admitted while low priority requests are waiting
+    private int lowPrioritySkipped;
+    // a permit is reserved for the waiting low priority requests
+    private boolean lowPriorityTurn;
+
+    private long windowStart;
+    private long windowSum;
+    private int windowCount;
+    private int windowMaxInflight;
+    private double shortRtt;
+    private double longRtt;
+
+    public ConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit) {
+        E.illegalArgumentIf(minLimit < 1 || minLimit > maxLimit, "invalid limit range: [%s, %s]", minLimit, maxLimit);
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = clamp(initialLimit);
+        for (int i = 0; i < conditions.length; ++i) {
+            conditions[i] = lock.newCondition();
+        }
+        this.windowStart = System.nanoTime();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Try to get a permit to handle a request.
+     *
+     * @param priority the priority of the request
+     * @param timeoutNanos the maximum time to wait for a permit, capped by {@link #MAX_WAIT_NANOS}
+     * @return the start time of the request in nano time, which shall be passed to
+     *         {@link #release(long)}, or `-1` if the request is rejected
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public long acquire(RequestPriority.Level priority, long timeoutNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            if (immediatelyAdmittable(priority)) {
+                return admit(priority);
+            }
+            if (timeoutNanos <= 0 || queueFull()) {
+                rejected++;
+                return -1;
+            }
+            return await(priority, timeoutNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Try to get a permit without waiting. The request is not counted as
+     * rejected if no permit is available, the caller can then try to
+     * {@link #reserve() reserve} a slot in the queue.
+     *
+     * @param priority the priority of the request
+     * @return the start time of the request in nano time, which shall be passed to
+     *         {@link #release(long)}, or `-1` if no permit is available
+     */
+    public long tryAcquire(RequestPriority.Level priority) {
+        lock.lock();
+        try {
+            return immediatelyAdmittable(priority) ? admit(priority) : -1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reserve a slot in the queue for a request that will wait for a permit with
+     * {@link #acquireReserved(RequestPriority.Level, long)}. The reserved slot counts
+     * into the queue length thus requests dispatched to the worker queue are bounded.
+     *
+     * @return `true` if reserved or `false` if the queue is full and the request is rejected
+     */
+    public boolean reserve() {
+        lock.lock();
+        try {
+            if (queueFull()) {
+                rejected++;
+                return false;
+            }
+            reserved++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Give back a slot reserved with {@link #reserve()} without waiting
+     * for a permit, e.g. when the request is rejected by another limiter
+     */
+    public void unreserve() {
+        lock.lock();
+        try {
+            reserved--;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wait for a permit with a slot reserved with {@link #reserve()}. The slot is
+     * given back no matter if a permit is granted or not.
+     *
+     * @param priority the priority of the request
+     * @param timeoutNanos the maximum time to wait for a permit, capped by {@link #MAX_WAIT_NANOS}
+     * @return the start time of the request in nano time, which shall be passed to
+     *         {@link #release(long)}, or `-1` if the request is rejected
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public long acquireReserved(RequestPriority.Level priority, long timeoutNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            reserved--;
+            if (immediatelyAdmittable(priority)) {
+                return admit(priority);
+            }
+            if (timeoutNanos <= 0) {
+                rejected++;
+                return -1;
+            }
+            return await(priority, timeoutNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // must be called with lock held
+    private long await(RequestPriority.Level priority, long timeoutNanos) throws InterruptedException {
+        int level = priority.ordinal();
+        waiting[level]++;
+        try {
+            long nanos = Math.min(timeoutNanos, MAX_WAIT_NANOS);
+            while (nanos > 0) {
+                nanos = conditions[level].awaitNanos(nanos);
+                if (admittable(priority) && turnOf(level)) {
+                    return admit(priority);
+                }
+            }
+            rejected++;
+            return -1;
+        } finally {
+            waiting[level]--;
+            if (lowPriorityTurn && 0 == waiting[RequestPriority.Level.LOW.ordinal()]) {
+                // the low priority waiter timed out
+                lowPriorityTurn = false;
+                signalWaiter();
+            }
+        }
+    }
+
+    /**
+     * Release a permit and record the latency of the request
+     *
+     * @param start the value returned by {@link #acquire(RequestPriority.Level, long)}
+     */
+    public void release(long start) {
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            inflight--;
+            sample(now - start, now);
+            signalWaiter();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Release a permit without recording latency, e.g. when the request
+     * is rejected by another limiter
+     */
+    public void cancel() {
+        lock.lock();
+        try {
+            inflight--;
+            signalWaiter();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int limit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Set the current limit. The adaptive algorithm continues
+     * from the new limit
+     */
+    public void limit(int limit) {
+        lock.lock();
+        try {
+            this.limit = clamp(limit);
+            signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Set the range within which the limit is adjusted
+     */
+    public void range(int min, int max) {
+        E.illegalArgumentIf(min < 1 || min > max, "invalid limit range: [%s, %s]", min, max);
+        lock.lock();
+        try {
+            this.minLimit = min;
+            this.maxLimit = max;
+            this.limit = clamp(limit);
+            signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Status status() {
+        lock.lock();
+        try {
+            return new Status(name, (int) limit, minLimit, maxLimit, inflight, queued(), rejected,
+                    (long) shortRtt / 1000L, (long) longRtt / 1000L);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long admit(RequestPriority.Level priority) {
+        inflight++;
+        if (inflight > windowMaxInflight) {
+            windowMaxInflight = inflight;
+        }
+        if (RequestPriority.Level.LOW == priority) {
+            lowPrioritySkipped = 0;
+            if (lowPriorityTurn) {
+                lowPriorityTurn = false;
+                if (inflight < (int) limit) {
+                    signalWaiter();
+                }
+            }
+        } else if (waiting[RequestPriority.Level.LOW.ordinal()] > 0) {
+            lowPrioritySkipped++;
+        }
+        return System.nanoTime();
+    }
+
+    private boolean admittable(RequestPriority.Level priority) {
+        // low priority requests can use half of the limit but at least one permit,
+        // and any free permit when it is their turn, otherwise the permits
+        // reserved for them could not be used by anyone
+        double capacity = RequestPriority.Level.LOW == priority && !lowPriorityTurn ? Math.max(1, limit / 2) : limit;
+        return inflight < (int) capacity;
+    }
+
+    private boolean immediatelyAdmittable(RequestPriority.Level priority) {
+        return RequestPriority.Level.CRITICAL == priority
+                || (admittable(priority) && !hasWaiterFrom(priority.ordinal()) && !lowPriorityTurn);
+    }
+
+    private boolean queueFull() {
+        return queued() >= Math.max(MIN_QUEUE, (int) limit);
+    }
+
+    // check if a waiter of the level can take the permit
+    private boolean turnOf(int level) {
+        if (RequestPriority.Level.LOW.ordinal() == level && lowPriorityTurn) {
+            return true;
+        }
+        return !lowPriorityTurn && !hasWaiterFrom(level + 1);
+    }
+
+    private int queued() {
+        int queued = reserved;
+        for (int n : waiting) {
+            queued += n;
+        }
+        return queued;
+    }
+
+    private boolean hasWaiterFrom(int level) {
+        for (int i = LEVELS.length - 1; i >= level; --i) {
+            if (waiting[i] > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void signalWaiter() {
+        int low = RequestPriority.Level.LOW.ordinal();
+        if (waiting[low] > 0 && (lowPriorityTurn || lowPrioritySkipped >= LOW_PRIORITY_SHARE)) {
+            lowPriorityTurn = true;
+            conditions[low].signal();
+            return;
+        }
+        for (int i = LEVELS.length - 1; i >= 0; --i) {
+            if (waiting[i] > 0) {
+                conditions[i].signal();
+                return;
+            }
+        }
+    }
+
+    private void signalAll() {
+        for (Condition condition : conditions) {
+            condition.signalAll();
+        }
+    }
+
+    private void sample(long rtt, long now) {
+        windowSum += rtt;
+        windowCount++;
+        if (windowCount < MIN_WINDOW_SAMPLES) {
+            return;
+        }
+        if (windowCount < MAX_WINDOW_SAMPLES && now - windowStart < MIN_WINDOW_NANOS) {
+            return;
+        }
+        shortRtt = (double) windowSum / windowCount;
+        int maxInflight = windowMaxInflight;
+        windowSum = 0;
+        windowCount = 0;
+        windowMaxInflight = inflight;
+        windowStart = now;
+        update(maxInflight);
+    }
+
+    private void update(int maxInflight) {
+        if (0 == longRtt) {
+            longRtt = shortRtt;
+        } else {
+            longRtt += (shortRtt - longRtt) / LONG_WINDOW;
+            if (longRtt / shortRtt > 2) {
+                // latency dropped significantly, e.g. a slow downstream recovered
+                longRtt *= 0.95;
+            }
+        }
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        if (newLimit > limit && maxInflight < limit / 2) {
+            // application limited
+            return;
+        }
+        newLimit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        double oldLimit = limit;
+        limit = clamp(newLimit);
+        if (limit > oldLimit) {
+            signalAll();
+        }
+    }
+
+    private double clamp(double limit) {
+        return Math.max(minLimit, Math.min(maxLimit, limit));
+    }
+
+    /**
+     * Snapshot of limiter state
+     */
+    public static class Status {
+        private String name;
+        private int limit;
+        private int min;
+        private int max;
+        private int inflight;
+        private int queued;
+        private long rejected;
+        private long latency;
+        private long baseLatency;
+
+        Status(String name, int limit, int min, int max, int inflight, int queued, long rejected, long latency, long baseLatency) {
+            this.name = name;
+            this.limit = limit;
+            this.min = min;
+            this.max = max;
+            this.inflight = inflight;
+            this.queued = queued;
+            this.rejected = rejected;
+            this.latency = latency;
+            this.baseLatency = baseLatency;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+
+        public int getMin() {
+            return min;
+        }
+
+        public int getMax() {
+            return max;
+        }
+
+        public int getInflight() {
+            return inflight;
+        }
+
+        public int getQueued() {
+            return queued;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        /**
+         * Returns the average latency of the last sample window in microseconds
+         */
+        public long getLatency() {
+            return latency;
+        }
+
+        /**
+         * Returns the long term latency in microseconds
+         */
+        public long getBaseLatency() {
+            return baseLatency;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package act.xio;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+
+/**
+ * A bounded pool of {@link Deflater} instances.
+ *
+ * Creating a `Deflater` allocates native memory which is only freed
+ * when {@link Deflater#end()} is called or the instance is finalized,
+ * thus reusing them is much cheaper than creating one per response.
+ */
+public class DeflaterPool {
+
+    private final int level;
+    private final boolean nowrap;
+    private final int capacity;
+    private final Queue<Deflater> pool = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Construct a deflater pool
+     *
+     * @param level the compression level
+     * @param nowrap `true` to produce raw deflate data as required by gzip,
+     *               `false` to produce zlib wrapped data
+     * @param capacity the maximum number of idle deflaters kept in the pool
+     */
+    public DeflaterPool(int level, boolean nowrap, int capacity) {
+        this.level = level;
+        this.nowrap = nowrap;
+        this.capacity = capacity;
+    }
+
+    public Deflater obtain() {
+        Deflater deflater = pool.poll();
+        if (null == deflater) {
+            return new Deflater(level, nowrap);
+        }
+        size.decrementAndGet();
+        return deflater;
+    }
+
+    public void release(Deflater deflater) {
+        deflater.reset();
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            deflater.end();
+            return;
+        }
+        pool.offer(deflater);
+    }
+
+    /**
+     * Returns number of idle deflaters in the pool
+     */
+    public int size() {
+        return size.get();
+    }
+
+    public void clear() {
+        Deflater deflater = pool.poll();
+        while (null != deflater) {
+            size.decrementAndGet();
+            deflater.end();
+            deflater = pool.poll();
+        }
+    }
+}
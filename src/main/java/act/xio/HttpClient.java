@@ -24,7 +24,30 @@ import org.osgl.http.H;
 
 /**
  * Send a request out to remote HTTP service and get the response
+ *
+ * The framework provides {@link PooledHttpClient} as the default
+ * implementation, which can be injected into app components:
+ *
+ * ```java
+ * {@literal @}Inject
+ * private HttpClient http;
+ *
+ * public String hello() {
+ *     ClientResponse resp = (ClientResponse) http.send(new ClientRequest("http://localhost:5460/hello"));
+ *     return resp.bodyAsString();
+ * }
+ * ```
+ *
+ * Inject {@link PooledHttpClient} instead to send requests asynchronously
+ * with {@link PooledHttpClient#sendAsync(H.Request)}.
  */
 public interface HttpClient {
+
+    /**
+     * Send the request and wait for the response
+     *
+     * @param request the request to be sent
+     * @return the response
+     */
     H.Response send(H.Request request);
 }
@@ -0,0 +1,43 @@
+package act.xio;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.cli.Command;
+import act.cli.Optional;
+
+import javax.inject.Inject;
+
+public class HttpClientAdminConsole {
+
+    @Inject
+    private PooledHttpClient client;
+
+    @Command(name = "act.http_client.conn", help = "report http client pooled connection number")
+    public int connections(@Optional("report idle connections only") boolean idle) {
+        return idle ? client.idleConnectionCount() : client.connectionCount();
+    }
+
+    @Command(name = "act.http_client.req", help = "report http client running request number")
+    public int requests(@Optional("report queued requests instead of running requests") boolean queued) {
+        return queued ? client.queuedRequestCount() : client.runningRequestCount();
+    }
+
+}
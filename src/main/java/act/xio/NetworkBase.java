@@ -57,6 +57,7 @@ public abstract class NetworkBase extends DestroyableBase implements Network {
             securePorts.add(port);
         }
         if (started) {
+            client.warmUp();
             if (!trySetUpClient(client, port, secure)) {
                 failed.put(port, client);
             } else {
@@ -70,6 +71,7 @@ public abstract class NetworkBase extends DestroyableBase implements Network {
         bootUp();
         for (int port : registry.keySet()) {
             NetworkHandler client = registry.get(port);
+            client.warmUp();
             if (!trySetUpClient(client, port, securePorts.contains(port))) {
                 failed.put(port, client);
             } else {
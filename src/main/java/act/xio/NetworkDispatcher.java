@@ -41,4 +41,13 @@ public interface NetworkDispatcher {
      */
     void keep();
 
+    /**
+     * Keep the network exchange open after the current handling job
+     * returns. The response will be committed later on by another thread.
+     *
+     * This method is used when an action returns a `CompletionStage`
+     * that is not completed yet
+     */
+    void suspend();
+
 }
@@ -35,6 +35,7 @@ import act.metric.Metric;
 import act.metric.MetricInfo;
 import act.metric.Timer;
 import act.route.Router;
+import act.util.ActContext;
 import act.util.DestroyableBase;
 import act.view.ActErrorResult;
 import org.osgl.$;
@@ -49,6 +50,8 @@ import org.osgl.mvc.result.Result;
 import org.osgl.util.E;
 import org.osgl.util.S;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * A `NetworkHandler` can be registered to an {@link Network} and get invoked when
  * there are network event (e.g. an HTTP request) incoming
@@ -62,6 +65,7 @@ public class NetworkHandler extends DestroyableBase {
     private Metric metric;
     private $.Func2<H.Request, String, String> contentSuffixProcessor;
     private $.Func2<H.Request, String, String> urlContextProcessor;
+    private boolean warmedUp;
 
     public NetworkHandler(App app) {
         E.NPE(app);
@@ -89,6 +93,24 @@ public class NetworkHandler extends DestroyableBase {
         return app;
     }
 
+    /**
+     * Replay warm up requests through this handler. It is called before
+     * the network starts accepting requests on the ports this handler is
+     * registered to.
+     *
+     * @see Warmer
+     */
+    public synchronized void warmUp() {
+        if (warmedUp || isDestroyed()) {
+            return;
+        }
+        warmedUp = true;
+        Warmer warmer = app.warmer();
+        if (null != warmer) {
+            warmer.warmUp(this);
+        }
+    }
+
     public void handle(final ActionContext ctx, final NetworkDispatcher dispatcher) {
         if (isDestroyed()) {
             return;
@@ -127,6 +149,7 @@ public class NetworkHandler extends DestroyableBase {
         Timer timer = metric.startTimer(MetricInfo.ROUTING);
         final RequestHandler requestHandler = router().getInvoker(method, url, ctx);
         ctx.handler(requestHandler);
+        ctx.dispatcher(dispatcher);
         timer.stop();
         boolean resourceGetter = requestHandler instanceof StaticResourceGetter || requestHandler instanceof StaticFileGetter;
         if (null != refreshError && !resourceGetter) {
@@ -135,38 +158,62 @@ public class NetworkHandler extends DestroyableBase {
             ActionContext.clearCurrent();
             return;
         }
+        boolean express = !method.unsafe() && requestHandler.express(ctx);
+        AdaptiveDispatch.Route route = null;
+        if (!express && !method.unsafe()) {
+            AdaptiveDispatch adaptiveDispatch = app.adaptiveDispatch();
+            if (null != adaptiveDispatch && adaptiveDispatch.enabled()) {
+                route = adaptiveDispatch.route(requestHandler);
+                express = null != route && route.express();
+            }
+        }
+        final boolean dispatch = !express;
+        ctx.express(express);
+        final AdaptiveDispatch.Route adaptiveRoute = route;
+        final AdmissionControl admissionControl = dispatch ? app.admissionControl() : null;
+        AdmissionControl.Permit admissionPermit = null;
+        if (null != admissionControl && admissionControl.enabled()) {
+            // reject before dispatching so that the worker queue is bounded
+            try {
+                admissionPermit = admissionControl.tryAcquire(ctx, requestHandler);
+            } catch (Result r) {
+                ctx.saveLocal();
+                try {
+                    applyResult(r, ctx);
+                } finally {
+                    ActionContext.clearCurrent();
+                }
+                return;
+            }
+        }
+        final AdmissionControl.Permit permit = admissionPermit;
         NetworkJob job = new NetworkJob() {
             @Override
             public void run() {
                 String key = S.concat(MetricInfo.HTTP_HANDLER, ":", requestHandler.toString());
                 Timer timer = metric.startTimer(key);
                 ctx.saveLocal();
+                Release release = null;
                 try {
-                    requestHandler.handle(ctx);
-                } catch (Result r) {
-                    if (isError(r)) {
-                        ctx.handler(FastRequestHandler.DUMB);
-                    }
-                    try {
-                        r = RequestHandlerProxy.GLOBAL_AFTER_INTERCEPTOR.apply(r, ctx);
-                    } catch (Exception e) {
-                        logger.error(e, "Error calling global after interceptor");
-                        r = ActErrorResult.of(e);
+                    if (null != permit) {
+                        admissionControl.await(ctx, permit);
                     }
-                    if (null == ctx.handler() || isError(r)) {
-                        ctx.handler(FastRequestHandler.DUMB);
+                    AdaptiveDispatch.Probe probe = null == adaptiveRoute ? null : adaptiveRoute.probe();
+                    if (null != permit || null != probe) {
+                        // a suspended request holds the permit until the response
+                        // completes, i.e. the context get destroyed
+                        release = new Release(permit, probe);
+                        ctx.addListener(release);
                     }
-
-                    H.Format fmt = req.accept();
-                    if (H.Format.UNKNOWN == fmt) {
-                        fmt = req.contentType();
-                    }
-
-                    ctx.resp().addHeaderIfNotAdded(H.Header.Names.CONTENT_TYPE, fmt.contentType());
-                    r.apply(req, ctx.resp());
+                    requestHandler.handle(ctx);
+                } catch (Result r) {
+                    applyResult(r, ctx);
                 } catch (Exception e) {
                     handleException(e, ctx, "Error handling network request");
                 } finally {
+                    if (null != release && !ctx.suspended()) {
+                        release.run();
+                    }
                     // we don't destroy ctx here in case it's been passed to
                     // another thread
                     ActionContext.clearCurrent();
@@ -176,13 +223,71 @@ public class NetworkHandler extends DestroyableBase {
                 }
             }
         };
-        if (method.unsafe() || !requestHandler.express(ctx)) {
+        if (dispatch) {
             dispatcher.dispatch(job);
         } else {
             job.run();
         }
     }
 
+    /*
+     * Releases the admission permit and finishes the adaptive dispatch
+     * probe once, either when the handling job returns or, for a suspended
+     * request, when the action context is destroyed
+     */
+    private static class Release implements Runnable, ActContext.Listener {
+        private final AtomicBoolean released = new AtomicBoolean();
+        private final AdmissionControl.Permit permit;
+        private final AdaptiveDispatch.Probe probe;
+
+        Release(AdmissionControl.Permit permit, AdaptiveDispatch.Probe probe) {
+            this.permit = permit;
+            this.probe = probe;
+        }
+
+        @Override
+        public void run() {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            if (null != probe) {
+                probe.done();
+            }
+            if (null != permit) {
+                permit.release();
+            }
+        }
+
+        @Override
+        public void onDestroy(ActContext context) {
+            run();
+        }
+    }
+
+    private void applyResult(Result r, ActionContext ctx) {
+        if (isError(r)) {
+            ctx.handler(FastRequestHandler.DUMB);
+        }
+        try {
+            r = RequestHandlerProxy.GLOBAL_AFTER_INTERCEPTOR.apply(r, ctx);
+        } catch (Exception e) {
+            logger.error(e, "Error calling global after interceptor");
+            r = ActErrorResult.of(e);
+        }
+        if (null == ctx.handler() || isError(r)) {
+            ctx.handler(FastRequestHandler.DUMB);
+        }
+
+        H.Request req = ctx.req();
+        H.Format fmt = req.accept();
+        if (H.Format.UNKNOWN == fmt) {
+            fmt = req.contentType();
+        }
+
+        ctx.resp().addHeaderIfNotAdded(H.Header.Names.CONTENT_TYPE, fmt.contentType());
+        r.apply(req, ctx.resp());
+    }
+
     private boolean isError(Result r) {
         return r instanceof ErrorResult;
     }
@@ -212,7 +317,7 @@ public class NetworkHandler extends DestroyableBase {
         return app().name();
     }
 
-    private Router router() {
+    Router router() {
         return app.router(port);
     }
 
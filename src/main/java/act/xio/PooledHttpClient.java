@@ -0,0 +1,385 @@
+package act.xio;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.Act;
+import act.app.App;
+import act.app.AppServiceBase;
+import act.conf.AppConfig;
+import act.metric.Metric;
+import act.metric.MetricInfo;
+import act.metric.Timer;
+import okhttp3.*;
+import okhttp3.internal.http.HttpMethod;
+import org.osgl.http.H;
+import org.osgl.logging.LogManager;
+import org.osgl.logging.Logger;
+import org.osgl.util.C;
+import org.osgl.util.E;
+import org.osgl.util.IO;
+import org.osgl.util.S;
+
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The framework managed {@link HttpClient} implementation built on top of okhttp.
+ *
+ * * connections are pooled and reused per host, HTTP/2 is negotiated
+ *   through ALPN on TLS connections so that requests to the same host
+ *   are multiplexed on one connection
+ * * the number of concurrent requests is bounded globally and per host,
+ *   requests exceed the limit are queued
+ * * idempotent requests failed with IO error are retried as long as the
+ *   retry budget allows
+ *
+ * Latency is measured by timers named `act:http_client:<host>`. Connection
+ * pool status can be checked through {@link HttpClientAdminConsole}
+ */
+@Singleton
+public class PooledHttpClient extends AppServiceBase<PooledHttpClient> implements HttpClient {
+
+    private static final Logger LOGGER = LogManager.get(PooledHttpClient.class);
+
+    // headers copied when the request is not a ClientRequest
+    private static final List<String> FORWARD_HEADERS = C.list(
+            H.Header.Names.ACCEPT,
+            H.Header.Names.ACCEPT_LANGUAGE,
+            H.Header.Names.AUTHORIZATION,
+            H.Header.Names.CONTENT_TYPE,
+            H.Header.Names.COOKIE,
+            H.Header.Names.USER_AGENT
+    );
+
+    private final OkHttpClient http;
+    private final RetryBudget retryBudget;
+    private final int maxRetries;
+    private final Metric metric;
+
+    public PooledHttpClient(App app) {
+        super(app);
+        AppConfig config = app.config();
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(config.httpClientMaxRequests());
+        dispatcher.setMaxRequestsPerHost(config.httpClientMaxRequestsPerHost());
+        ConnectionPool connectionPool = new ConnectionPool(config.httpClientPoolMaxIdle(), config.httpClientPoolKeepAlive(), TimeUnit.SECONDS);
+        int readTimeout = config.httpClientReadTimeout();
+        this.http = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(connectionPool)
+                .protocols(C.list(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .connectTimeout(config.httpClientConnectTimeout(), TimeUnit.MILLISECONDS)
+                .readTimeout(readTimeout, TimeUnit.MILLISECONDS)
+                .writeTimeout(readTimeout, TimeUnit.MILLISECONDS)
+                .build();
+        this.retryBudget = new RetryBudget(config.httpClientRetryBudget());
+        this.maxRetries = config.httpClientRetryMax();
+        this.metric = Act.metricPlugin().metric(MetricInfo.HTTP_CLIENT);
+    }
+
+    @Override
+    public H.Response send(H.Request request) {
+        BlockingDetector.blocking();
+        try {
+            return sendAsync(request).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw E.unexpected(e, "interrupted when waiting for response of %s", request);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw E.ioException((IOException) cause);
+            }
+            throw E.unexpected(cause, "error sending request %s", request);
+        }
+    }
+
+    /**
+     * Send the request asynchronously
+     *
+     * @param request the request to be sent
+     * @return a future of the response
+     */
+    public Future<H.Response> sendAsync(H.Request request) {
+        Exchange exchange = new Exchange(convert(request), request.method());
+        exchange.start();
+        return exchange;
+    }
+
+    /**
+     * Returns the number of open connections in the pool
+     */
+    public int connectionCount() {
+        return http.connectionPool().connectionCount();
+    }
+
+    /**
+     * Returns the number of idle connections in the pool
+     */
+    public int idleConnectionCount() {
+        return http.connectionPool().idleConnectionCount();
+    }
+
+    /**
+     * Returns the number of requests being executed
+     */
+    public int runningRequestCount() {
+        return http.dispatcher().runningCallsCount();
+    }
+
+    /**
+     * Returns the number of requests waiting for execution
+     */
+    public int queuedRequestCount() {
+        return http.dispatcher().queuedCallsCount();
+    }
+
+    @Override
+    protected void releaseResources() {
+        http.dispatcher().cancelAll();
+        http.dispatcher().executorService().shutdown();
+        http.connectionPool().evictAll();
+    }
+
+    private Request convert(H.Request req) {
+        Request.Builder builder = new Request.Builder();
+        String contentType = req.header(H.Header.Names.CONTENT_TYPE);
+        byte[] body = null;
+        if (req instanceof ClientRequest) {
+            ClientRequest clientRequest = (ClientRequest) req;
+            builder.url(clientRequest.url());
+            for (String name : clientRequest.headerNames()) {
+                for (String value : clientRequest.headers(name)) {
+                    builder.addHeader(name, value);
+                }
+            }
+            body = clientRequest.body();
+        } else {
+            String url = req.fullUrl();
+            String query = req.query();
+            if (S.notBlank(query) && !url.contains("?")) {
+                url = S.concat(url, "?", query);
+            }
+            builder.url(url);
+            for (String name : FORWARD_HEADERS) {
+                Iterable<String> values = req.headers(name);
+                for (String value : values) {
+                    builder.addHeader(name, value);
+                }
+            }
+        }
+        String method = req.method().name();
+        RequestBody requestBody = null;
+        if (HttpMethod.permitsRequestBody(method)) {
+            if (null == body) {
+                body = IO.readContent(req.inputStream());
+            }
+            if (body.length > 0 || HttpMethod.requiresRequestBody(method)) {
+                requestBody = RequestBody.create(null == contentType ? null : MediaType.parse(contentType), body);
+            }
+        }
+        return builder.method(method, requestBody).build();
+    }
+
+    private static ClientResponse convert(Response resp) throws IOException {
+        ResponseBody body = resp.body();
+        try {
+            return new ClientResponse(resp.code(), resp.headers().toMultimap(), null == body ? new byte[0] : body.bytes());
+        } finally {
+            resp.close();
+        }
+    }
+
+    private static boolean idempotent(H.Method method) {
+        return method.safe() || H.Method.PUT == method || H.Method.DELETE == method;
+    }
+
+    /**
+     * Tracks one request through its attempts and acts as the future of the response
+     */
+    private class Exchange implements Future<H.Response>, Callback {
+
+        private final Request request;
+        private final boolean idempotent;
+        private final String host;
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private final AtomicBoolean done = new AtomicBoolean();
+        private volatile Call call;
+        private volatile boolean cancelled;
+        private volatile int attempts;
+        private Timer timer;
+        private H.Response response;
+        private Throwable error;
+
+        Exchange(Request request, H.Method method) {
+            this.request = request;
+            this.idempotent = idempotent(method);
+            this.host = request.url().host();
+        }
+
+        void start() {
+            retryBudget.deposit();
+            timer = metric.startTimer(S.concat(MetricInfo.HTTP_CLIENT, ":", host));
+            call = http.newCall(request);
+            call.enqueue(this);
+        }
+
+        @Override
+        public void onFailure(Call call, IOException e) {
+            if (!cancelled && idempotent && attempts < maxRetries) {
+                if (retryBudget.withdraw()) {
+                    attempts++;
+                    metric.countOnce(S.concat(MetricInfo.HTTP_CLIENT_RETRY, ":", host));
+                    if (LOGGER.isDebugEnabled()) {
+                        LOGGER.debug(e, "retry #%s on %s", attempts, request.url());
+                    }
+                    this.call = call.clone();
+                    this.call.enqueue(this);
+                    return;
+                }
+                LOGGER.warn("retry budget exhausted, give up retrying %s", request.url());
+            }
+            complete(null, e);
+        }
+
+        @Override
+        public void onResponse(Call call, Response resp) {
+            ClientResponse clientResponse;
+            try {
+                clientResponse = convert(resp);
+            } catch (IOException e) {
+                onFailure(call, e);
+                return;
+            }
+            complete(clientResponse, null);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (done.get()) {
+                return false;
+            }
+            cancelled = true;
+            call.cancel();
+            complete(null, new CancellationException());
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public boolean isDone() {
+            return done.get();
+        }
+
+        @Override
+        public H.Response get() throws InterruptedException, ExecutionException {
+            latch.await();
+            return report();
+        }
+
+        @Override
+        public H.Response get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            if (!latch.await(timeout, unit)) {
+                throw new TimeoutException();
+            }
+            return report();
+        }
+
+        private void complete(H.Response response, Throwable error) {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            this.response = response;
+            this.error = error;
+            timer.stop();
+            if (null != error && !cancelled) {
+                metric.countOnce(S.concat(MetricInfo.HTTP_CLIENT_ERROR, ":", host));
+            }
+            latch.countDown();
+        }
+
+        private H.Response report() throws ExecutionException {
+            if (cancelled) {
+                throw new CancellationException();
+            }
+            if (null != error) {
+                throw new ExecutionException(error);
+            }
+            return response;
+        }
+    }
+
+    /**
+     * Limits retries to a percentage of the requests. Each request deposits
+     * `percent / 100` token into the budget and each retry withdraws one
+     * token. The balance is capped so that a long healthy period does not
+     * allow a retry storm when the remote service goes down
+     */
+    static class RetryBudget {
+
+        // one token is kept as 100 units so the budget can be tracked in integers
+        private static final long TOKEN = 100;
+        private static final long MAX_TOKENS = 10;
+
+        private final long deposit;
+        private final long cap;
+        private final AtomicLong balance;
+
+        RetryBudget(int percent) {
+            this.deposit = percent;
+            this.cap = MAX_TOKENS * TOKEN;
+            this.balance = new AtomicLong(percent > 0 ? cap : 0);
+        }
+
+        void deposit() {
+            if (0 == deposit) {
+                return;
+            }
+            for (;;) {
+                long cur = balance.get();
+                long next = Math.min(cap, cur + deposit);
+                if (next == cur || balance.compareAndSet(cur, next)) {
+                    return;
+                }
+            }
+        }
+
+        boolean withdraw() {
+            for (;;) {
+                long cur = balance.get();
+                if (cur < TOKEN) {
+                    return false;
+                }
+                if (balance.compareAndSet(cur, cur - TOKEN)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
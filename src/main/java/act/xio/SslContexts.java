@@ -0,0 +1,99 @@
+package act.xio;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.osgl.util.E;
+
+import javax.net.ssl.*;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.KeyStore;
+
+/**
+ * Creates the server side {@link SSLContext} shared by network implementations.
+ *
+ * The key store and trust store are loaded from the file specified by system
+ * properties `server.keystore` and `server.truststore`, or from the class path
+ * resource of the same name relative to the anchor class. The password of a
+ * store is read from system property `<name>.password`.
+ */
+public enum SslContexts {
+    ;
+
+    private static final char[] STORE_PASSWORD = "password".toCharArray();
+
+    public static SSLContext serverContext(Class<?> anchor) throws Exception {
+        return createSSLContext(loadKeyStore("server.keystore", anchor), loadKeyStore("server.truststore", anchor));
+    }
+
+    private static SSLContext createSSLContext(final KeyStore keyStore, final KeyStore trustStore) throws Exception {
+        KeyManager[] keyManagers;
+        KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagerFactory.init(keyStore, password("key"));
+        keyManagers = keyManagerFactory.getKeyManagers();
+
+        TrustManager[] trustManagers;
+        TrustManagerFactory trustManagerFactory = TrustManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        trustManagerFactory.init(trustStore);
+        trustManagers = trustManagerFactory.getTrustManagers();
+
+        SSLContext sslContext;
+        sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(keyManagers, trustManagers, null);
+
+        return sslContext;
+    }
+
+    private static KeyStore loadKeyStore(String name, Class<?> anchor) {
+        String storeLoc = System.getProperty(name);
+        final InputStream stream;
+        if (storeLoc == null) {
+            stream = anchor.getResourceAsStream(name);
+        } else {
+            try {
+                stream = Files.newInputStream(Paths.get(storeLoc));
+            } catch (IOException e) {
+                throw E.ioException(e);
+            }
+        }
+
+        if (stream == null) {
+            throw new RuntimeException("Could not load keystore");
+        }
+        try (InputStream is = stream) {
+            KeyStore loadedKeystore = KeyStore.getInstance("JKS");
+            loadedKeystore.load(is, password(name));
+            return loadedKeystore;
+        } catch (IOException e) {
+            throw E.ioException(e);
+        } catch (Exception e) {
+            throw E.unexpected(e);
+        }
+    }
+
+    static char[] password(String name) {
+        String pw = System.getProperty(name + ".password");
+        return pw != null ? pw.toCharArray() : STORE_PASSWORD;
+    }
+
+}
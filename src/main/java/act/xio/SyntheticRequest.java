@@ -0,0 +1,159 @@
+package act.xio;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.RequestImplBase;
+import act.conf.AppConfig;
+import org.osgl.http.H;
+import org.osgl.util.Codec;
+import org.osgl.util.S;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * An in memory request used to warm up the request handling pipeline
+ */
+class SyntheticRequest extends RequestImplBase<SyntheticRequest> {
+    @Override
+    protected Class<SyntheticRequest> _impl() {
+        return SyntheticRequest.class;
+    }
+
+    private H.Method method;
+    private String path;
+    private String query;
+    private byte[] body;
+    private Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private Map<String, List<String>> params;
+
+    SyntheticRequest(AppConfig config, H.Method method, String url, String body, String contentType) {
+        super(config);
+        this.method = method;
+        int pos = url.indexOf('?');
+        if (pos < 0) {
+            path = url;
+        } else {
+            path = url.substring(0, pos);
+            query = url.substring(pos + 1);
+        }
+        if (S.notBlank(body)) {
+            this.body = body.getBytes(StandardCharsets.UTF_8);
+            addHeader(H.Header.Names.CONTENT_TYPE, contentType);
+            addHeader(H.Header.Names.CONTENT_LENGTH, String.valueOf(this.body.length));
+        }
+        addHeader(H.Header.Names.HOST, "localhost");
+        addHeader(H.Header.Names.ACCEPT, "*/*");
+    }
+
+    private void addHeader(String name, String value) {
+        List<String> values = headers.get(name);
+        if (null == values) {
+            values = new ArrayList<>(1);
+            headers.put(name, values);
+        }
+        values.add(value);
+    }
+
+    @Override
+    protected H.Method _method() {
+        return method;
+    }
+
+    @Override
+    public String path() {
+        return path;
+    }
+
+    @Override
+    public String query() {
+        return query;
+    }
+
+    @Override
+    public String header(String name) {
+        List<String> values = headers.get(name);
+        return null == values ? null : values.get(0);
+    }
+
+    @Override
+    public Iterable<String> headers(String name) {
+        List<String> values = headers.get(name);
+        return null == values ? Collections.<String>emptyList() : values;
+    }
+
+    @Override
+    protected String _ip() {
+        return "127.0.0.1";
+    }
+
+    @Override
+    protected void _initCookieMap() {
+    }
+
+    @Override
+    protected InputStream createInputStream() {
+        return new ByteArrayInputStream(null == body ? new byte[0] : body);
+    }
+
+    @Override
+    public String paramVal(String name) {
+        List<String> values = params().get(name);
+        return null == values ? null : values.get(0);
+    }
+
+    @Override
+    public String[] paramVals(String name) {
+        List<String> values = params().get(name);
+        return null == values ? null : values.toArray(new String[values.size()]);
+    }
+
+    @Override
+    public Iterable<String> paramNames() {
+        return params().keySet();
+    }
+
+    private Map<String, List<String>> params() {
+        if (null == params) {
+            params = new LinkedHashMap<>();
+            if (null != query) {
+                for (String pair : query.split("&")) {
+                    if (pair.isEmpty()) {
+                        continue;
+                    }
+                    int pos = pair.indexOf('=');
+                    String name = Codec.decodeUrl(pos < 0 ? pair : pair.substring(0, pos));
+                    String value = pos < 0 ? "" : Codec.decodeUrl(pair.substring(pos + 1));
+                    List<String> values = params.get(name);
+                    if (null == values) {
+                        values = new ArrayList<>(1);
+                        params.put(name, values);
+                    }
+                    values.add(value);
+                }
+            }
+        }
+        return params;
+    }
+
+}
@@ -0,0 +1,162 @@
+package act.xio;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.ResponseImplBase;
+import act.conf.AppConfig;
+import org.osgl.http.H;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * An in memory response used to warm up the request handling pipeline.
+ *
+ * The content is discarded.
+ */
+class SyntheticResponse extends ResponseImplBase<SyntheticResponse> {
+    @Override
+    protected Class<SyntheticResponse> _impl() {
+        return SyntheticResponse.class;
+    }
+
+    private int status = 200;
+    private long contentLength;
+    private volatile boolean committed;
+    private Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    SyntheticResponse(AppConfig config) {
+        super(config);
+    }
+
+    int status() {
+        return status;
+    }
+
+    long contentLength() {
+        return contentLength;
+    }
+
+    boolean committed() {
+        return committed;
+    }
+
+    @Override
+    protected OutputStream createOutputStream() {
+        return new OutputStream() {
+            @Override
+            public void write(int b) {
+                contentLength++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                contentLength += len;
+            }
+
+            @Override
+            public void close() {
+                committed = true;
+            }
+        };
+    }
+
+    @Override
+    protected void _setLocale(Locale loc) {
+        locale = loc;
+    }
+
+    @Override
+    public Locale locale() {
+        return locale;
+    }
+
+    @Override
+    public void addCookie(H.Cookie cookie) {
+    }
+
+    @Override
+    public boolean containsHeader(String name) {
+        return headers.containsKey(name);
+    }
+
+    @Override
+    public SyntheticResponse contentLength(long len) {
+        return this;
+    }
+
+    @Override
+    public SyntheticResponse writeContent(ByteBuffer byteBuffer) {
+        contentLength += byteBuffer.remaining();
+        committed = true;
+        return this;
+    }
+
+    @Override
+    public SyntheticResponse sendError(int sc, String msg) {
+        status = sc;
+        committed = true;
+        return this;
+    }
+
+    @Override
+    public SyntheticResponse sendError(int sc) {
+        return sendError(sc, null);
+    }
+
+    @Override
+    public SyntheticResponse sendRedirect(String location) {
+        status = 302;
+        headers.put(H.Header.Names.LOCATION, location);
+        committed = true;
+        return this;
+    }
+
+    @Override
+    public SyntheticResponse header(String name, String value) {
+        if (null == value) {
+            headers.remove(name);
+        } else {
+            headers.put(name, value);
+        }
+        return this;
+    }
+
+    @Override
+    public SyntheticResponse status(int sc) {
+        status = sc;
+        return this;
+    }
+
+    @Override
+    public SyntheticResponse addHeader(String name, String value) {
+        if (!headers.containsKey(name)) {
+            headers.put(name, value);
+        }
+        return this;
+    }
+
+    @Override
+    public void commit() {
+        committed = true;
+    }
+}
@@ -0,0 +1,44 @@
+package act.xio;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.app.App;
+import act.cli.CliContext;
+import act.cli.Command;
+
+/**
+ * Report the result of {@link Warmer}
+ */
+@SuppressWarnings("unused")
+public class WarmUpAdmin {
+
+    @Command(name = "act.warmup", help = "report the coverage and duration of the warm up before accepting requests")
+    public void report(CliContext context) {
+        Warmer warmer = App.instance().warmer();
+        Warmer.Report report = null == warmer ? null : warmer.lastReport();
+        if (null == report) {
+            context.println("no warm up performed");
+        } else {
+            context.println(report.toString());
+        }
+    }
+
+}
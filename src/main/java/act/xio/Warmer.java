@@ -0,0 +1,436 @@
+package act.xio;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.Act;
+import act.app.ActionContext;
+import act.app.App;
+import act.app.AppServiceBase;
+import act.conf.AppConfig;
+import act.controller.annotation.WarmUp;
+import act.handler.RequestHandler;
+import act.handler.builtin.controller.RequestHandlerProxy;
+import act.route.RouteInfo;
+import act.route.Router;
+import org.osgl.$;
+import org.osgl.http.H;
+import org.osgl.logging.LogManager;
+import org.osgl.logging.Logger;
+import org.osgl.util.IO;
+import org.osgl.util.S;
+
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Warm up the request handling pipeline before the app accepts traffic.
+ *
+ * Synthetic requests, declared with {@link WarmUp} on actions or read from
+ * `warmup.requests.file`, are replayed through {@link NetworkHandler} with in
+ * memory request and response for the configured number of iterations. This
+ * gets the hot code compiled by JIT, the `JsonDTO` classes generated and the
+ * lazy initialized caches, e.g. templates, populated before the first real
+ * request comes in.
+ *
+ * Requests got a server error in the first iteration are not replayed again.
+ *
+ * The result of the last warm up can be checked through the `act.warmup` command.
+ */
+@Singleton
+public class Warmer extends AppServiceBase<Warmer> {
+
+    private static final Logger LOGGER = LogManager.get(Warmer.class);
+
+    // METHOD URL in a common log format line, e.g. "GET /foo?x=1 HTTP/1.1"
+    private static final Pattern ACCESS_LOG = Pattern.compile("\"([A-Z]+) (\\S+) HTTP/[0-9.]+\"");
+
+    private static final NetworkDispatcher SYNC_DISPATCHER = new NetworkDispatcher() {
+        @Override
+        public void dispatch(NetworkJob job) {
+            job.run();
+        }
+
+        @Override
+        public void keep() {
+        }
+
+        @Override
+        public void suspend() {
+        }
+    };
+
+    /**
+     * A synthetic request to be replayed
+     */
+    static class Spec {
+        final H.Method method;
+        final String url;
+        final String body;
+        final String contentType;
+
+        Spec(H.Method method, String url, String body, String contentType) {
+            this.method = method;
+            this.url = url;
+            this.body = body;
+            this.contentType = contentType;
+        }
+
+        @Override
+        public String toString() {
+            return S.concat(method.name(), " ", url);
+        }
+    }
+
+    /**
+     * The result of a warm up
+     */
+    public static class Report {
+        private int requests;
+        private int iterations;
+        private long replayed;
+        private int failures;
+        private int actions;
+        private int actionsCovered;
+        private long duration;
+
+        /**
+         * @return the number of distinct warm up requests
+         */
+        public int getRequests() {
+            return requests;
+        }
+
+        /**
+         * @return the number of iterations completed
+         */
+        public int getIterations() {
+            return iterations;
+        }
+
+        /**
+         * @return the number of requests handled
+         */
+        public long getReplayed() {
+            return replayed;
+        }
+
+        /**
+         * @return the number of warm up requests failed in the first iteration
+         */
+        public int getFailures() {
+            return failures;
+        }
+
+        /**
+         * @return the number of routed actions
+         */
+        public int getActions() {
+            return actions;
+        }
+
+        /**
+         * @return the number of routed actions handled at least one warm up request
+         */
+        public int getActionsCovered() {
+            return actionsCovered;
+        }
+
+        /**
+         * @return milliseconds spent on warm up
+         */
+        public long getDuration() {
+            return duration;
+        }
+
+        @Override
+        public String toString() {
+            return S.fmt("%s requests replayed %s times in %sms, %s of %s actions covered, %s failed",
+                    requests, iterations, duration, actionsCovered, actions, failures);
+        }
+    }
+
+    private final boolean enabled;
+    private final int iterations;
+    private final int timeout;
+    private final String requestsFile;
+    private volatile Report lastReport;
+
+    public Warmer(App app) {
+        this(app, app.config());
+    }
+
+    // for unit test
+    Warmer(App app, AppConfig config) {
+        super(app);
+        this.enabled = config.warmUpEnabled() && !Act.isDev();
+        this.iterations = config.warmUpIterations();
+        this.timeout = config.warmUpTimeout();
+        this.requestsFile = config.warmUpRequestsFile();
+    }
+
+    @Override
+    protected void releaseResources() {
+        lastReport = null;
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the result of the last warm up, or `null` if there is no warm up
+     */
+    public Report lastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Replay warm up requests through the network handler
+     *
+     * @param handler the network handler
+     * @return the warm up result, or `null` if there is nothing to warm up
+     */
+    public Report warmUp(NetworkHandler handler) {
+        if (!enabled || iterations < 1) {
+            return null;
+        }
+        long start = $.ms();
+        long deadline = start + timeout;
+        if (!awaitStarted(deadline)) {
+            LOGGER.warn("warm up skipped: app not started in %sms", timeout);
+            return null;
+        }
+        Router router = handler.router();
+        List<Spec> specs = new ArrayList<>();
+        Set<RequestHandler> actions = Collections.newSetFromMap(new IdentityHashMap<RequestHandler, Boolean>());
+        collectDeclared(router, specs, actions);
+        if (null != requestsFile) {
+            loadRequestsFile(requestsFile, specs);
+        }
+        if (specs.isEmpty()) {
+            return null;
+        }
+        LOGGER.info("warming up %s with %s requests ...", handler, specs.size());
+        Report report = new Report();
+        report.requests = specs.size();
+        report.actions = actions.size();
+        Set<RequestHandler> covered = Collections.newSetFromMap(new IdentityHashMap<RequestHandler, Boolean>());
+        AppConfig config = app().config();
+        for (int i = 0; i < iterations && !specs.isEmpty(); ++i) {
+            Iterator<Spec> itr = specs.iterator();
+            while (itr.hasNext()) {
+                Spec spec = itr.next();
+                SyntheticResponse resp = new SyntheticResponse(config);
+                RequestHandler requestHandler = replay(handler, spec, resp);
+                report.replayed++;
+                if (0 == i) {
+                    if (actions.contains(requestHandler)) {
+                        covered.add(requestHandler);
+                    }
+                    if (null == requestHandler || resp.status() >= 500) {
+                        LOGGER.warn("warm up request failed: %s", spec);
+                        report.failures++;
+                        itr.remove();
+                    }
+                }
+            }
+            report.iterations = i + 1;
+            if ($.ms() > deadline) {
+                LOGGER.warn("warm up timeout after %s iterations", report.iterations);
+                break;
+            }
+        }
+        report.actionsCovered = covered.size();
+        report.duration = $.ms() - start;
+        LOGGER.info("warm up %s: %s", handler, report);
+        lastReport = report;
+        return report;
+    }
+
+    // the app might still be waiting for db services to start
+    private boolean awaitStarted(long deadline) {
+        App app = app();
+        while (!app.isStarted()) {
+            if (app.hasBlockIssue() || $.ms() > deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private RequestHandler replay(NetworkHandler handler, Spec spec, SyntheticResponse resp) {
+        AppConfig config = app().config();
+        SyntheticRequest req = new SyntheticRequest(config, spec.method, spec.url, spec.body, spec.contentType);
+        ActionContext ctx = ActionContext.create(app(), req, resp);
+        try {
+            handler.handle(ctx, SYNC_DISPATCHER);
+            return ctx.handler();
+        } catch (RuntimeException e) {
+            LOGGER.warn(e, "error replaying warm up request: %s", spec);
+            return null;
+        } finally {
+            ActionContext.clearCurrent();
+        }
+    }
+
+    private void collectDeclared(Router router, List<Spec> specs, Set<RequestHandler> actions) {
+        for (RouteInfo route : router.debug()) {
+            RequestHandler requestHandler = route.requestHandler();
+            if (!(requestHandler instanceof RequestHandlerProxy)) {
+                continue;
+            }
+            actions.add(requestHandler);
+            RequestHandlerProxy proxy = (RequestHandlerProxy) requestHandler;
+            WarmUp warmUp = warmUpAnnotation(proxy);
+            if (null == warmUp) {
+                continue;
+            }
+            H.Method method = H.Method.valueOfIgnoreCase(route.method());
+            String[] urls = warmUp.value();
+            if (0 == urls.length) {
+                String path = route.path();
+                if (hasVariable(path)) {
+                    LOGGER.warn("URL must be specified to warm up action with path variables: %s", proxy);
+                    continue;
+                }
+                urls = new String[]{path};
+            }
+            for (String url : urls) {
+                specs.add(new Spec(method, url, warmUp.body(), warmUp.contentType()));
+            }
+        }
+    }
+
+    private WarmUp warmUpAnnotation(RequestHandlerProxy proxy) {
+        Class<?> controller;
+        try {
+            controller = $.classForName(proxy.controller(), app().classLoader());
+        } catch (RuntimeException e) {
+            return null;
+        }
+        String action = proxy.action();
+        for (Class<?> c = controller; null != c && Object.class != c; c = c.getSuperclass()) {
+            for (Method method : c.getDeclaredMethods()) {
+                if (method.getName().equals(action)) {
+                    WarmUp warmUp = method.getAnnotation(WarmUp.class);
+                    if (null != warmUp) {
+                        return warmUp;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private void loadRequestsFile(String path, List<Spec> specs) {
+        InputStream is = null;
+        try {
+            File file = new File(path);
+            if (file.exists()) {
+                is = IO.is(file);
+            } else {
+                URL url = app().classLoader().getResource(path);
+                if (null == url) {
+                    LOGGER.warn("warm up requests file not found: %s", path);
+                    return;
+                }
+                is = url.openStream();
+            }
+            for (String line : IO.readLines(is)) {
+                Spec spec = parse(line);
+                if (null != spec) {
+                    specs.add(spec);
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.warn(e, "error loading warm up requests file: %s", path);
+        } finally {
+            IO.close(is);
+        }
+    }
+
+    /**
+     * Parse a line of the requests file. Returns `null` if the line is blank,
+     * a comment, not recognized or an unsafe request.
+     */
+    static Spec parse(String line) {
+        line = line.trim();
+        if (line.isEmpty() || line.startsWith("#")) {
+            return null;
+        }
+        String method;
+        String url;
+        String body = null;
+        Matcher matcher = ACCESS_LOG.matcher(line);
+        if (matcher.find()) {
+            method = matcher.group(1);
+            url = matcher.group(2);
+        } else {
+            String[] parts = line.split("\\s+", 3);
+            if (parts.length < 2) {
+                return null;
+            }
+            method = parts[0];
+            url = parts[1];
+            if (parts.length > 2) {
+                body = parts[2];
+            }
+        }
+        if (!url.startsWith("/")) {
+            return null;
+        }
+        H.Method httpMethod;
+        try {
+            httpMethod = H.Method.valueOfIgnoreCase(method);
+        } catch (RuntimeException e) {
+            return null;
+        }
+        if (null == httpMethod || httpMethod.unsafe()) {
+            return null;
+        }
+        return new Spec(httpMethod, url, body, contentType(body));
+    }
+
+    private static String contentType(String body) {
+        if (null == body) {
+            return null;
+        }
+        char c = body.charAt(0);
+        return '{' == c || '[' == c ? H.Format.JSON.contentType() : H.Format.FORM_URL_ENCODED.contentType();
+    }
+
+    private static boolean hasVariable(String path) {
+        return path.contains("{") || path.contains(":") || path.contains("*") || path.contains("...");
+    }
+
+}
@@ -22,6 +22,7 @@ package act.xio;
 
 import act.Destroyable;
 import act.conf.AppConfig;
+import act.ws.SharedTextFrame;
 
 /**
  * A WebSocket connection
@@ -49,6 +50,25 @@ public interface WebSocketConnection extends Destroyable {
      */
     void send(String message);
 
+    /**
+     * Send a pre-encoded text frame through websocket.
+     *
+     * The implementation shall {@link SharedTextFrame#retain() retain} the frame
+     * before sending it out and {@link SharedTextFrame#release() release} the frame
+     * once the send operation is completed
+     *
+     * @param frame the text frame
+     */
+    void send(SharedTextFrame frame);
+
+    /**
+     * Returns the number of messages that have been sent to this connection
+     * but not yet written to the network
+     *
+     * @return the pending message number
+     */
+    int pendingFrames();
+
     /**
      * Close the connection. Note if there are any `IOException`
      * raised by the underline network layer, it will be ignored
@@ -0,0 +1,61 @@
+package act.xio.netty;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import io.netty.handler.codec.http.cookie.Cookie;
+import io.netty.handler.codec.http.cookie.DefaultCookie;
+import org.osgl.http.H;
+
+import java.util.Date;
+
+public enum CookieConverter {
+    ;
+
+    public static H.Cookie netty2osgl(Cookie nc) {
+        H.Cookie c = new H.Cookie(nc.name(), nc.value());
+        c.domain(nc.domain()).httpOnly(nc.isHttpOnly())
+                .path(nc.path()).secure(nc.isSecure());
+        long maxAge = nc.maxAge();
+        if (maxAge != Long.MIN_VALUE) {
+            c.maxAge((int) maxAge);
+        }
+        return c;
+    }
+
+    public static Cookie osgl2netty(H.Cookie hc) {
+        DefaultCookie c = new DefaultCookie(hc.name(), hc.value());
+        c.setDomain(hc.domain());
+        c.setPath(hc.path());
+        c.setSecure(hc.secure());
+        c.setHttpOnly(hc.httpOnly());
+        int maxAge = hc.maxAge();
+        if (maxAge > -1) {
+            c.setMaxAge(maxAge);
+        } else {
+            // netty cookie does not support `Expires` attribute, convert it to `Max-Age`
+            Date exp = hc.expires();
+            if (null != exp) {
+                c.setMaxAge(Math.max(0, (exp.getTime() - System.currentTimeMillis()) / 1000));
+            }
+        }
+        return c;
+    }
+}
@@ -0,0 +1,164 @@
+package act.xio.netty;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.app.ActionContext;
+import act.app.App;
+import act.conf.AppConfig;
+import act.xio.NetworkDispatcher;
+import act.xio.NetworkHandler;
+import act.xio.NetworkJob;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.http.*;
+import io.netty.handler.timeout.IdleState;
+import io.netty.handler.timeout.IdleStateEvent;
+import org.osgl.logging.LogManager;
+import org.osgl.logging.Logger;
+import org.osgl.util.E;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+/**
+ * Dispatch netty request to Act application.
+ *
+ * Requests on a connection are handled one after another: reading is paused
+ * once a request is received and resumed when its response is finished, and
+ * pipelined requests that have already been decoded are queued, so responses
+ * always go out in the order of requests.
+ */
+class NettyHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
+
+    private static final Logger LOGGER = LogManager.get(NettyHttpHandler.class);
+
+    private final NetworkHandler client;
+    private final Executor executor;
+    private final int bufferSize;
+
+    // the following states are only accessed in the event loop of the channel
+    private final Queue<FullHttpRequest> pending = new ArrayDeque<>();
+    private boolean inFlight;
+
+    NettyHttpHandler(NetworkHandler client, Executor executor, int bufferSize) {
+        super(false);
+        E.NPE(client);
+        this.client = client;
+        this.executor = executor;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest request) throws Exception {
+        if (!request.decoderResult().isSuccess()) {
+            request.release();
+            FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.BAD_REQUEST, Unpooled.EMPTY_BUFFER);
+            HttpUtil.setContentLength(response, 0);
+            ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+            return;
+        }
+        ctx.channel().config().setAutoRead(false);
+        if (inFlight) {
+            pending.add(request);
+            return;
+        }
+        inFlight = true;
+        handle(ctx, request);
+    }
+
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+        if (evt instanceof IdleStateEvent) {
+            IdleStateEvent event = (IdleStateEvent) evt;
+            // reader idle is the request timeout which only applies when there is no request in process
+            if (event.state() == IdleState.ALL_IDLE || !inFlight) {
+                ctx.close();
+            }
+            return;
+        }
+        super.userEventTriggered(ctx, evt);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        FullHttpRequest request = pending.poll();
+        while (null != request) {
+            request.release();
+            request = pending.poll();
+        }
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+        LOGGER.debug(cause, "error caught on netty channel");
+        ctx.close();
+    }
+
+    /**
+     * Called by {@link NettyResponse} when a response on a keep-alive connection is finished
+     */
+    void completed(final ChannelHandlerContext ctx) {
+        if (!ctx.executor().inEventLoop()) {
+            ctx.executor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    completed(ctx);
+                }
+            });
+            return;
+        }
+        FullHttpRequest next = pending.poll();
+        if (null != next) {
+            handle(ctx, next);
+        } else {
+            inFlight = false;
+            ctx.channel().config().setAutoRead(true);
+        }
+    }
+
+    void handle(ChannelHandlerContext ctx, FullHttpRequest request) {
+        App app = client.app();
+        AppConfig config = app.config();
+        NettyRequest req = new NettyRequest(ctx, request, config);
+        NettyResponse resp = new NettyResponse(ctx, request, this, bufferSize, config);
+        client.handle(ActionContext.create(app, req, resp), new NetworkDispatcher() {
+            @Override
+            public void dispatch(NetworkJob job) {
+                executor.execute(job);
+            }
+
+            @Override
+            public void keep() {
+                // the request content has been aggregated and the reading
+                // is resumed once the response is finished
+            }
+
+            @Override
+            public void suspend() {
+                // the channel is kept open until the response is finished
+            }
+        });
+    }
+}
@@ -0,0 +1,201 @@
+package act.xio.netty;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.Act;
+import act.app.AppThreadFactory;
+import act.conf.ActConfig;
+import act.controller.meta.ActionMethodMetaInfo;
+import act.ws.WebSocketConnectionManager;
+import act.xio.*;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.*;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.timeout.IdleStateHandler;
+import org.osgl.$;
+import org.osgl.logging.LogManager;
+import org.osgl.logging.Logger;
+import org.osgl.util.E;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implement {@link Network} using netty.
+ *
+ * The native epoll transport is used when it is present in the class path and
+ * supported by the platform, otherwise it falls back to the NIO transport.
+ * Express handlers are executed on the event loop while others are dispatched
+ * to a worker pool sized the same way as {@link act.xio.undertow.UndertowNetwork}.
+ *
+ * Note the request content is aggregated in memory before the request is
+ * handled, thus it is limited by `xio.max_content_length`. Requests with larger
+ * content are answered with `413 Request Entity Too Large`.
+ */
+public class NettyNetwork extends NetworkBase {
+
+    private static final Logger logger = LogManager.get(NettyNetwork.class);
+
+    private ActConfig config;
+    private EventLoopGroup bossGroup;
+    private EventLoopGroup ioGroup;
+    private Class<? extends ServerChannel> channelClass;
+    private ThreadPoolExecutor workers;
+    private int bufferSize;
+    private List<Channel> channels;
+
+    public NettyNetwork() {
+    }
+
+    // for unit test
+    NettyNetwork(ActConfig config) {
+        this.config = config;
+    }
+
+    @Override
+    protected void bootUp() {
+        if (null == config) {
+            config = Act.conf();
+        }
+        int ioThreads = config.xioIoThreads();
+        if (ioThreads <= 0) {
+            ioThreads = Runtime.getRuntime().availableProcessors() * 2;
+        }
+        if (EpollTransport.isPresent() && EpollTransport.isAvailable()) {
+            bossGroup = EpollTransport.eventLoopGroup(1, new AppThreadFactory("netty-boss"));
+            ioGroup = EpollTransport.eventLoopGroup(ioThreads, new AppThreadFactory("netty-io"));
+            channelClass = EpollTransport.serverChannelClass();
+        } else {
+            bossGroup = new NioEventLoopGroup(1, new AppThreadFactory("netty-boss"));
+            ioGroup = new NioEventLoopGroup(ioThreads, new AppThreadFactory("netty-io"));
+            channelClass = NioServerSocketChannel.class;
+        }
+        logger.debug("netty transport: %s", channelClass.getSimpleName());
+        workers = createWorkers(ioThreads);
+        bufferSize = config.xioBufferSize();
+        channels = new ArrayList<>();
+    }
+
+    @Override
+    protected void setUpClient(final NetworkHandler client, int port, boolean secure) throws IOException {
+        listen(port, secure, new $.Func0<ChannelHandler>() {
+            @Override
+            public ChannelHandler apply() {
+                return new NettyHttpHandler(client, workers, bufferSize);
+            }
+        });
+    }
+
+    /**
+     * Listen on the port with the handler created for each connection.
+     *
+     * @return the port listened, which is useful when `0` is passed in to listen on an ephemeral port
+     */
+    int listen(int port, boolean secure, final $.Func0<? extends ChannelHandler> handlerFactory) throws IOException {
+        final SSLContext sslContext;
+        try {
+            sslContext = secure ? SslContexts.serverContext(NettyNetwork.class) : null;
+        } catch (Exception e) {
+            throw E.unexpected(e);
+        }
+        final int idleTimeout = config.xioIdleTimeout();
+        final int requestTimeout = config.xioRequestTimeout();
+        final int maxContentLength = config.xioMaxContentLength();
+        ServerBootstrap bootstrap = new ServerBootstrap()
+                .group(bossGroup, ioGroup)
+                .channel(channelClass)
+                .option(ChannelOption.SO_BACKLOG, config.xioBacklog())
+                .option(ChannelOption.SO_REUSEADDR, true)
+                .childOption(ChannelOption.TCP_NODELAY, true)
+                .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+                .childHandler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel ch) throws Exception {
+                        ChannelPipeline pipeline = ch.pipeline();
+                        if (null != sslContext) {
+                            SSLEngine engine = sslContext.createSSLEngine();
+                            engine.setUseClientMode(false);
+                            pipeline.addLast("ssl", new SslHandler(engine));
+                        }
+                        if (idleTimeout > 0 || requestTimeout > 0) {
+                            pipeline.addLast("idle", new IdleStateHandler(requestTimeout, 0, idleTimeout, TimeUnit.MILLISECONDS));
+                        }
+                        pipeline.addLast("codec", new HttpServerCodec());
+                        pipeline.addLast("aggregator", new HttpObjectAggregator(maxContentLength));
+                        pipeline.addLast("act", handlerFactory.apply());
+                    }
+                });
+        ChannelFuture future = bootstrap.bind(port).awaitUninterruptibly();
+        if (!future.isSuccess()) {
+            Throwable cause = future.cause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw E.unexpected(cause);
+        }
+        Channel channel = future.channel();
+        channels.add(channel);
+        return ((InetSocketAddress) channel.localAddress()).getPort();
+    }
+
+    @Override
+    protected WebSocketConnectionHandler internalCreateWsConnHandler(ActionMethodMetaInfo methodInfo, WebSocketConnectionManager manager) {
+        return new NettyWebSocketConnectionHandler(methodInfo, manager);
+    }
+
+    @Override
+    protected void close() {
+        if (null == channels) {
+            // not booted yet
+            return;
+        }
+        for (Channel channel : channels) {
+            channel.close().awaitUninterruptibly();
+        }
+        channels.clear();
+        bossGroup.shutdownGracefully(0, 2, TimeUnit.SECONDS);
+        ioGroup.shutdownGracefully(0, 2, TimeUnit.SECONDS);
+        workers.shutdownNow();
+    }
+
+    private ThreadPoolExecutor createWorkers(int ioThreads) {
+        int workerThreads = ioThreads * 8;
+        int maxWorkerThreads = config.xioMaxWorkerThreads();
+        if (maxWorkerThreads > 0) {
+            workerThreads = Math.min(maxWorkerThreads, workerThreads);
+        }
+        return new ThreadPoolExecutor(workerThreads, workerThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new AppThreadFactory("netty-worker"));
+    }
+
+}
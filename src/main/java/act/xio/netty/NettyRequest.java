@@ -0,0 +1,176 @@
+package act.xio.netty;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.RequestImplBase;
+import act.conf.AppConfig;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import io.netty.handler.codec.http.cookie.Cookie;
+import io.netty.handler.codec.http.cookie.ServerCookieDecoder;
+import org.osgl.http.H;
+import org.osgl.util.E;
+
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+public class NettyRequest extends RequestImplBase<NettyRequest> {
+    @Override
+    protected Class<NettyRequest> _impl() {
+        return NettyRequest.class;
+    }
+
+    private ChannelHandlerContext ctx;
+    private FullHttpRequest request;
+    private String path;
+    private String query;
+    private Map<String, List<String>> queryParams;
+
+    public NettyRequest(ChannelHandlerContext ctx, FullHttpRequest request, AppConfig config) {
+        super(config);
+        E.NPE(ctx, request);
+        this.ctx = ctx;
+        this.request = request;
+        String uri = request.uri();
+        int pos = uri.indexOf('?');
+        if (pos < 0) {
+            path = decodePath(uri);
+        } else {
+            path = decodePath(uri.substring(0, pos));
+            query = uri.substring(pos + 1);
+        }
+    }
+
+    @Override
+    public String path() {
+        return path;
+    }
+
+    @Override
+    public String query() {
+        return query;
+    }
+
+    @Override
+    protected H.Method _method() {
+        return H.Method.valueOfIgnoreCase(request.method().name());
+    }
+
+    @Override
+    public String header(String name) {
+        return request.headers().get(name);
+    }
+
+    @Override
+    public Iterable<String> headers(String name) {
+        return request.headers().getAll(name);
+    }
+
+    /**
+     * The request content has been aggregated by the time the request
+     * is created, thus reading it never blocks.
+     */
+    @Override
+    public InputStream createInputStream() throws IllegalStateException {
+        return new ByteBufInputStream(request.content().duplicate());
+    }
+
+    @Override
+    public String paramVal(String name) {
+        List<String> values = queryParams().get(name);
+        return null == values || values.isEmpty() ? null : values.get(0);
+    }
+
+    @Override
+    public String[] paramVals(String name) {
+        List<String> values = queryParams().get(name);
+        if (null == values) {
+            return null;
+        }
+        return values.toArray(new String[values.size()]);
+    }
+
+    @Override
+    public Iterable<String> paramNames() {
+        return queryParams().keySet();
+    }
+
+    @Override
+    protected String _ip() {
+        SocketAddress address = ctx.channel().remoteAddress();
+        if (!(address instanceof InetSocketAddress)) {
+            return "";
+        }
+        InetSocketAddress sourceAddress = (InetSocketAddress) address;
+        InetAddress inetAddress = sourceAddress.getAddress();
+        if (null == inetAddress) {
+            return sourceAddress.getHostString();
+        }
+        return inetAddress.getHostAddress();
+    }
+
+    @Override
+    protected void _initCookieMap() {
+        String header = request.headers().get(HttpHeaderNames.COOKIE);
+        if (null == header) {
+            return;
+        }
+        for (Cookie cookie : ServerCookieDecoder.LAX.decode(header)) {
+            try {
+                _setCookie(cookie.name(), CookieConverter.netty2osgl(cookie));
+            } catch (IllegalArgumentException e) {
+                // Ignore bad cookie
+            }
+        }
+    }
+
+    ChannelHandlerContext channelContext() {
+        return ctx;
+    }
+
+    FullHttpRequest request() {
+        return request;
+    }
+
+    private Map<String, List<String>> queryParams() {
+        if (null == queryParams) {
+            queryParams = new QueryStringDecoder(request.uri()).parameters();
+        }
+        return queryParams;
+    }
+
+    // unlike query string, `+` in the path is not a space
+    private static String decodePath(String rawPath) {
+        if (rawPath.indexOf('%') < 0) {
+            return rawPath;
+        }
+        return QueryStringDecoder.decodeComponent(rawPath.replace("+", "%2B"), StandardCharsets.UTF_8);
+    }
+
+}
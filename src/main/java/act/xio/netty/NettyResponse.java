@@ -0,0 +1,407 @@
+package act.xio.netty;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.ResponseImplBase;
+import act.app.App;
+import act.conf.AppConfig;
+import act.xio.Compression;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.DateFormatter;
+import io.netty.handler.codec.http.*;
+import io.netty.handler.codec.http.cookie.ServerCookieEncoder;
+import org.osgl.http.H;
+import org.osgl.util.E;
+import org.osgl.util.IO;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Implement {@link H.Response} on a netty channel.
+ *
+ * Content is written into buffers allocated from the channel's (pooled)
+ * allocator. {@link #writeContent(ByteBuffer)} sends a full response while
+ * the output stream sends the content in chunks of the configured buffer size.
+ *
+ * Nothing is sent until the content is written or {@link #commit()} is called,
+ * no matter the request is handled on IO thread or dispatched to a worker
+ * thread, thus the response can be finished asynchronously.
+ */
+public class NettyResponse extends ResponseImplBase<NettyResponse> {
+    @Override
+    protected Class<NettyResponse> _impl() {
+        return NettyResponse.class;
+    }
+
+    private ChannelHandlerContext ctx;
+    private FullHttpRequest request;
+    private NettyHttpHandler handler;
+    private HttpHeaders headers = new DefaultHttpHeaders(false);
+    private HttpResponseStatus status = HttpResponseStatus.OK;
+    private boolean keepAlive;
+    private int bufferSize;
+    private Compression compression;
+    // set once the response head has been sent
+    private volatile boolean started;
+    // set once the response has been sent out or taken over
+    private volatile boolean committed;
+
+    NettyResponse(ChannelHandlerContext ctx, FullHttpRequest request, NettyHttpHandler handler, int bufferSize, AppConfig config) {
+        super(config);
+        E.NPE(ctx, request);
+        this.ctx = ctx;
+        this.request = request;
+        this.handler = handler;
+        this.bufferSize = bufferSize;
+        this.keepAlive = HttpUtil.isKeepAlive(request);
+        header(H.Header.Names.SERVER, config.serverHeader());
+        headers.set(HttpHeaderNames.DATE, DateFormatter.format(new Date()));
+        App app = config.app();
+        if (null != app) {
+            compression = app.compression();
+        }
+    }
+
+    @Override
+    public void addCookie(H.Cookie cookie) {
+        headers.add(HttpHeaderNames.SET_COOKIE, ServerCookieEncoder.STRICT.encode(CookieConverter.osgl2netty(cookie)));
+    }
+
+    @Override
+    public boolean containsHeader(String name) {
+        return headers.contains(name);
+    }
+
+    @Override
+    public NettyResponse contentLength(long len) {
+        headers.set(HttpHeaderNames.CONTENT_LENGTH, len);
+        return this;
+    }
+
+    @Override
+    public NettyResponse writeContent(String s) {
+        return writeContent(ByteBuffer.wrap(s.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Override
+    public NettyResponse writeContent(ByteBuffer byteBuffer) {
+        Compression.Encoding encoding = contentEncoding();
+        if (null != encoding && byteBuffer.remaining() >= compression.minSize()) {
+            byteBuffer = compression.compress(byteBuffer, encoding);
+            headers.set(HttpHeaderNames.CONTENT_ENCODING, encoding.header());
+            encodeEtag(encoding);
+        }
+        ByteBuf content = ctx.alloc().buffer(byteBuffer.remaining());
+        content.writeBytes(byteBuffer.duplicate());
+        sendFull(content);
+        return this;
+    }
+
+    @Override
+    protected OutputStream createOutputStream() {
+        OutputStream os = new ChunkedOutputStream();
+        final Compression.Encoding encoding = contentEncoding();
+        if (null == encoding) {
+            return os;
+        }
+        String len = headers.get(HttpHeaderNames.CONTENT_LENGTH);
+        if (null != len) {
+            if (Long.parseLong(len) < compression.minSize()) {
+                return os;
+            }
+            startCompression(encoding);
+            return compression.encoder(os, encoding);
+        }
+        return compression.lazyEncoder(os, encoding, new Runnable() {
+            @Override
+            public void run() {
+                startCompression(encoding);
+            }
+        });
+    }
+
+    @Override
+    protected void _setLocale(Locale loc) {
+        if (started) {
+            return;
+        }
+        locale = loc;
+        headers.set(HttpHeaderNames.CONTENT_LANGUAGE, loc.getLanguage() + "-" + loc.getCountry());
+    }
+
+    @Override
+    public Locale locale() {
+        return locale;
+    }
+
+    @Override
+    public void commit() {
+        if (committed) {
+            return;
+        }
+        if (null != writer) {
+            IO.close(writer);
+        } else if (null != outputStream) {
+            IO.close(outputStream);
+        } else {
+            sendFull(Unpooled.EMPTY_BUFFER);
+        }
+    }
+
+    @Override
+    public NettyResponse sendError(int sc, String msg) {
+        status(sc);
+        return writeContent(msg);
+    }
+
+    @Override
+    public NettyResponse sendError(int sc) {
+        status(sc);
+        commit();
+        return this;
+    }
+
+    @Override
+    public NettyResponse sendRedirect(String location) {
+        status(HttpResponseStatus.FOUND.code());
+        header(H.Header.Names.LOCATION, location);
+        commit();
+        return this;
+    }
+
+    @Override
+    public NettyResponse header(String name, String value) {
+        if (null == value) {
+            headers.remove(name);
+        } else {
+            headers.set(name, value);
+        }
+        return this;
+    }
+
+    @Override
+    public NettyResponse status(int sc) {
+        status = HttpResponseStatus.valueOf(sc);
+        return this;
+    }
+
+    @Override
+    public NettyResponse addHeader(String name, String value) {
+        headers.add(name, value);
+        return this;
+    }
+
+    /**
+     * Mark the response as committed without sending anything, e.g. when the
+     * connection has been upgraded to websocket
+     */
+    void detach() {
+        committed = true;
+        request.release();
+    }
+
+    private void sendFull(ByteBuf content) {
+        committed = true;
+        started = true;
+        FullHttpResponse response = new DefaultFullHttpResponse(request.protocolVersion(), status, content, headers, EmptyHttpHeaders.INSTANCE);
+        HttpUtil.setContentLength(response, content.readableBytes());
+        prepareKeepAlive(response);
+        finish(ctx.writeAndFlush(response));
+    }
+
+    private void sendHead() {
+        started = true;
+        HttpResponse response = new DefaultHttpResponse(request.protocolVersion(), status, headers);
+        if (!headers.contains(HttpHeaderNames.CONTENT_LENGTH)) {
+            if (request.protocolVersion() == HttpVersion.HTTP_1_1) {
+                HttpUtil.setTransferEncodingChunked(response, true);
+            } else {
+                // HTTP/1.0 client reads content till the connection closed
+                keepAlive = false;
+            }
+        }
+        prepareKeepAlive(response);
+        ctx.write(response);
+    }
+
+    private void prepareKeepAlive(HttpResponse response) {
+        if (headers.contains(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE, true)) {
+            keepAlive = false;
+        }
+        HttpUtil.setKeepAlive(response, keepAlive);
+    }
+
+    private void finish(ChannelFuture future) {
+        committed = true;
+        request.release();
+        if (keepAlive) {
+            handler.completed(ctx);
+        } else {
+            future.addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+
+    private Compression.Encoding contentEncoding() {
+        if (null == compression || !compression.enabled() || started) {
+            return null;
+        }
+        if (headers.contains(HttpHeaderNames.CONTENT_ENCODING)) {
+            return null;
+        }
+        int code = status.code();
+        if (code < 200 || code == 204 || code == 304) {
+            return null;
+        }
+        String type = headers.get(HttpHeaderNames.CONTENT_TYPE);
+        if (null == type) {
+            type = contentType;
+        }
+        if (!compression.compressible(type)) {
+            return null;
+        }
+        addVary();
+        return compression.negotiate(request.headers().get(HttpHeaderNames.ACCEPT_ENCODING));
+    }
+
+    private void startCompression(Compression.Encoding encoding) {
+        headers.set(HttpHeaderNames.CONTENT_ENCODING, encoding.header());
+        headers.remove(HttpHeaderNames.CONTENT_LENGTH);
+        encodeEtag(encoding);
+    }
+
+    private void encodeEtag(Compression.Encoding encoding) {
+        String etag = headers.get(HttpHeaderNames.ETAG);
+        if (null != etag) {
+            headers.set(HttpHeaderNames.ETAG, Compression.etag(etag, encoding));
+        }
+    }
+
+    private void addVary() {
+        List<String> values = headers.getAll(HttpHeaderNames.VARY);
+        for (String value : values) {
+            if ("*".equals(value.trim()) || value.toLowerCase().contains("accept-encoding")) {
+                return;
+            }
+        }
+        headers.add(HttpHeaderNames.VARY, HttpHeaderNames.ACCEPT_ENCODING);
+    }
+
+    /**
+     * Buffers content in a pooled buffer and sends it out as a chunk
+     * when the buffer is full or flushed. The content is sent as a full
+     * response if it fits in one buffer.
+     */
+    private class ChunkedOutputStream extends OutputStream {
+
+        private ByteBuf buffer;
+        private boolean closed;
+
+        @Override
+        public void write(int b) throws IOException {
+            ensureOpen();
+            buffer().writeByte(b);
+            if (!buffer.isWritable()) {
+                sendChunk();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            ensureOpen();
+            while (len > 0) {
+                ByteBuf buf = buffer();
+                int n = Math.min(len, buf.writableBytes());
+                buf.writeBytes(b, off, n);
+                off += n;
+                len -= n;
+                if (!buf.isWritable()) {
+                    sendChunk();
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            ensureOpen();
+            if (null != buffer && buffer.isReadable()) {
+                sendChunk();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            ByteBuf content = null == buffer ? Unpooled.EMPTY_BUFFER : buffer;
+            buffer = null;
+            if (!started) {
+                sendFull(content);
+                return;
+            }
+            LastHttpContent last;
+            if (content.isReadable()) {
+                last = new DefaultLastHttpContent(content);
+            } else {
+                content.release();
+                last = LastHttpContent.EMPTY_LAST_CONTENT;
+            }
+            finish(ctx.writeAndFlush(last));
+        }
+
+        private ByteBuf buffer() {
+            if (null == buffer) {
+                buffer = ctx.alloc().buffer(bufferSize, bufferSize);
+            }
+            return buffer;
+        }
+
+        private void sendChunk() {
+            if (!started) {
+                sendHead();
+            }
+            ChannelFuture future = ctx.writeAndFlush(new DefaultHttpContent(buffer));
+            buffer = null;
+            // apply back pressure to the worker thread when the peer is slow
+            if (!ctx.channel().isWritable() && !ctx.executor().inEventLoop()) {
+                future.awaitUninterruptibly();
+            }
+        }
+
+        private void ensureOpen() throws IOException {
+            if (closed) {
+                throw new IOException("stream closed");
+            }
+        }
+    }
+
+}
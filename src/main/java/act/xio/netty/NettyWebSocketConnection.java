@@ -0,0 +1,109 @@
+package act.xio.netty;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.Act;
+import act.util.DestroyableBase;
+import act.ws.SharedTextFrame;
+import act.xio.WebSocketConnection;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.handler.codec.http.websocketx.CloseWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import org.osgl.$;
+import org.osgl.http.H;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class NettyWebSocketConnection extends DestroyableBase implements WebSocketConnection {
+
+    private final Channel channel;
+    private final String sessionId;
+    private final String username;
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final ChannelFutureListener done = new ChannelFutureListener() {
+        @Override
+        public void operationComplete(ChannelFuture future) throws Exception {
+            pending.decrementAndGet();
+        }
+    };
+
+    public NettyWebSocketConnection(Channel channel, H.Session session) {
+        this.channel = $.notNull(channel);
+        this.sessionId = session.id();
+        this.username = session.get(Act.appConfig().sessionKeyUsername());
+    }
+
+    @Override
+    public String sessionId() {
+        return sessionId;
+    }
+
+    @Override
+    public String username() {
+        return username;
+    }
+
+    @Override
+    public void send(String message) {
+        pending.incrementAndGet();
+        channel.writeAndFlush(new TextWebSocketFrame(message)).addListener(done);
+    }
+
+    @Override
+    public void send(final SharedTextFrame frame) {
+        frame.retain();
+        pending.incrementAndGet();
+        // wrap the shared content instead of encoding the message again for each connection
+        channel.writeAndFlush(new TextWebSocketFrame(Unpooled.wrappedBuffer(frame.content()))).addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture future) throws Exception {
+                pending.decrementAndGet();
+                frame.release();
+            }
+        });
+    }
+
+    @Override
+    public int pendingFrames() {
+        return pending.get();
+    }
+
+    @Override
+    protected void releaseResources() {
+        if (channel.isActive()) {
+            channel.writeAndFlush(new CloseWebSocketFrame()).addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+
+    @Override
+    public void close() {
+        destroy();
+    }
+
+    @Override
+    public boolean closed() {
+        return isDestroyed();
+    }
+}
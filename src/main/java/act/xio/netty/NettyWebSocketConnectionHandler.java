@@ -0,0 +1,145 @@
+package act.xio.netty;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.Act;
+import act.app.ActionContext;
+import act.controller.meta.ActionMethodMetaInfo;
+import act.ws.WebSocketCloseEvent;
+import act.ws.WebSocketConnectEvent;
+import act.ws.WebSocketConnectionManager;
+import act.ws.WebSocketContext;
+import act.xio.WebSocketConnection;
+import act.xio.WebSocketConnectionHandler;
+import io.netty.channel.*;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.websocketx.*;
+import org.osgl.logging.LogManager;
+import org.osgl.logging.Logger;
+
+class NettyWebSocketConnectionHandler extends WebSocketConnectionHandler {
+
+    private static final Logger LOGGER = LogManager.get(NettyWebSocketConnectionHandler.class);
+
+    private static final int MAX_FRAME_PAYLOAD = 65536;
+
+    NettyWebSocketConnectionHandler(WebSocketConnectionManager manager) {
+        super(manager);
+    }
+
+    NettyWebSocketConnectionHandler(ActionMethodMetaInfo method, WebSocketConnectionManager manager) {
+        super(method, manager);
+    }
+
+    @Override
+    public void handle(final ActionContext context) {
+        if (LOGGER.isTraceEnabled()) {
+            LOGGER.trace("handle websocket connection request to %s", context.req().url());
+        }
+        final NettyRequest req = (NettyRequest) context.req();
+        NettyResponse resp = (NettyResponse) context.resp();
+        final Channel channel = req.channelContext().channel();
+        FullHttpRequest request = req.request();
+        WebSocketServerHandshakerFactory factory = new WebSocketServerHandshakerFactory(webSocketUrl(req, request), null, true, MAX_FRAME_PAYLOAD);
+        final WebSocketServerHandshaker handshaker = factory.newHandshaker(request);
+        if (null == handshaker) {
+            resp.detach();
+            WebSocketServerHandshakerFactory.sendUnsupportedVersionResponse(channel).addListener(ChannelFutureListener.CLOSE);
+            return;
+        }
+        ChannelFuture future = handshaker.handshake(channel, request);
+        // the handshake response has been created, the request is not needed anymore
+        resp.detach();
+        future.addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture future) throws Exception {
+                if (!future.isSuccess()) {
+                    channel.close();
+                    return;
+                }
+                final WebSocketConnection connection = new NettyWebSocketConnection(channel, context.session());
+                connectionManager.registerNewConnection(connection, context);
+                final WebSocketContext wsCtx = new WebSocketContext(req.url(), connection, connectionManager, context, connectionManager.app());
+                if (LOGGER.isTraceEnabled()) {
+                    LOGGER.trace("websocket context[%s] created for %s", connection.sessionId(), context.req().url());
+                }
+                ChannelPipeline pipeline = channel.pipeline();
+                pipeline.replace(NettyHttpHandler.class, "ws", new FrameHandler(handshaker, connection, wsCtx));
+                pipeline.addBefore("ws", "ws-aggregator", new WebSocketFrameAggregator(MAX_FRAME_PAYLOAD));
+                channel.config().setAutoRead(true);
+                Act.eventBus().trigger(new WebSocketConnectEvent(wsCtx));
+            }
+        });
+    }
+
+    private static String webSocketUrl(NettyRequest req, FullHttpRequest request) {
+        return (req.secure() ? "wss://" : "ws://") + request.headers().get(HttpHeaderNames.HOST) + req.path();
+    }
+
+    private class FrameHandler extends SimpleChannelInboundHandler<WebSocketFrame> {
+
+        private final WebSocketServerHandshaker handshaker;
+        private final WebSocketConnection connection;
+        private final WebSocketContext wsCtx;
+
+        FrameHandler(WebSocketServerHandshaker handshaker, WebSocketConnection connection, WebSocketContext wsCtx) {
+            this.handshaker = handshaker;
+            this.connection = connection;
+            this.wsCtx = wsCtx;
+        }
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, WebSocketFrame frame) throws Exception {
+            if (frame instanceof TextWebSocketFrame) {
+                String payload = ((TextWebSocketFrame) frame).text();
+                if (LOGGER.isTraceEnabled()) {
+                    LOGGER.trace("websocket message received: %s", payload);
+                }
+                wsCtx.messageReceived(payload);
+                invoke(wsCtx);
+            } else if (frame instanceof PingWebSocketFrame) {
+                ctx.writeAndFlush(new PongWebSocketFrame(frame.content().retain()));
+            } else if (frame instanceof CloseWebSocketFrame) {
+                if (LOGGER.isTraceEnabled()) {
+                    LOGGER.trace("websocket closed: %s", connection.sessionId());
+                }
+                handshaker.close(ctx.channel(), (CloseWebSocketFrame) frame.retain());
+                connection.destroy();
+                connectionManager.app().eventBus().trigger(new WebSocketCloseEvent(wsCtx));
+            }
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            // make sure the connection is removed even if the close frame is not received
+            connection.destroy();
+            connectionManager.removeConnection(connection);
+            super.channelInactive(ctx);
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+            LOGGER.debug(cause, "error caught on websocket channel");
+            ctx.close();
+        }
+    }
+}
@@ -28,6 +28,7 @@ import act.xio.NetworkHandler;
 import act.xio.NetworkJob;
 import io.undertow.server.HttpHandler;
 import io.undertow.server.HttpServerExchange;
+import io.undertow.util.SameThreadExecutor;
 import org.osgl.http.H;
 import org.osgl.util.E;
 
@@ -36,6 +37,12 @@ import org.osgl.util.E;
  */
 public class ActHttpHandler implements HttpHandler {
 
+    private static final Runnable NOOP = new Runnable() {
+        @Override
+        public void run() {
+        }
+    };
+
     private final NetworkHandler client;
 
     public ActHttpHandler(NetworkHandler client) {
@@ -56,6 +63,15 @@ public class ActHttpHandler implements HttpHandler {
             public void keep() {
                 exchange.getRequestChannel().resumeReads();
             }
+
+            @Override
+            public void suspend() {
+                if (exchange.isInIoThread()) {
+                    // handled in the IO thread: undertow ends the exchange when
+                    // the root handler returns unless it has been dispatched
+                    exchange.dispatch(SameThreadExecutor.INSTANCE, NOOP);
+                }
+            }
         });
     }
 
@@ -21,18 +21,24 @@ package act.xio.undertow;
  */
 
 import act.Act;
+import act.conf.ActConfig;
 import act.controller.meta.ActionMethodMetaInfo;
 import act.ws.WebSocketConnectionManager;
 import act.xio.Network;
 import act.xio.NetworkBase;
 import act.xio.NetworkHandler;
+import act.xio.SslContexts;
 import act.xio.WebSocketConnectionHandler;
 import io.undertow.UndertowOptions;
 import io.undertow.connector.ByteBufferPool;
 import io.undertow.protocols.ssl.UndertowXnioSsl;
 import io.undertow.server.DefaultByteBufferPool;
 import io.undertow.server.HttpHandler;
+import io.undertow.server.OpenListener;
+import io.undertow.server.protocol.http.AlpnOpenListener;
 import io.undertow.server.protocol.http.HttpOpenListener;
+import io.undertow.server.protocol.http2.Http2OpenListener;
+import io.undertow.server.protocol.http2.Http2UpgradeHandler;
 import org.osgl.logging.LogManager;
 import org.osgl.logging.Logger;
 import org.osgl.util.E;
@@ -42,45 +48,54 @@ import org.xnio.channels.AcceptingChannel;
 import org.xnio.ssl.SslConnection;
 import org.xnio.ssl.XnioSsl;
 
-import javax.net.ssl.*;
+import javax.net.ssl.SSLContext;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.InetSocketAddress;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.security.KeyStore;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Implement {@link Network} using undertow
+ * Implement {@link Network} using undertow.
+ *
+ * All ports share the same worker and buffer pool. When HTTP/2 is enabled,
+ * it is negotiated with ALPN on secure ports, while plain ports accept both
+ * h2c upgrade requests and HTTP/2 prior knowledge connections.
  */
 public class UndertowNetwork extends NetworkBase {
 
     private static final Logger logger = LogManager.get(UndertowNetwork.class);
 
+    private ActConfig config;
     private Xnio xnio;
     private int ioThreads;
     private XnioWorker worker;
+    private ByteBufferPool buffers;
     private OptionMap socketOptions;
     private OptionMap serverOptions;
+    private boolean http2;
     private List<AcceptingChannel<? extends StreamConnection>> channels;
 
+    public UndertowNetwork() {
+    }
+
+    // for unit test
+    UndertowNetwork(ActConfig config) {
+        this.config = config;
+    }
+
     @Override
     protected void bootUp() {
         try {
+            if (null == config) {
+                config = Act.conf();
+            }
             xnio = Xnio.getInstance(UndertowNetwork.class.getClassLoader());
             // abcdefgdgd1234566789(dddd)
             worker = createWorker();
             socketOptions = createSocketOptions();
-            serverOptions = OptionMap.builder()
-                    .set(UndertowOptions.BUFFER_PIPELINED_DATA, true)
-                    .set(UndertowOptions.ALWAYS_SET_KEEP_ALIVE, false)
-                    .set(UndertowOptions.ALWAYS_SET_DATE, true)
-                    .set(UndertowOptions.RECORD_REQUEST_START_TIME, false)
-                    .set(UndertowOptions.NO_REQUEST_TIMEOUT, 60 * 1000)
-                    .set(UndertowOptions.ENABLE_STATISTICS, Act.conf().xioStatistics())
-                    .getMap();
+            buffers = createBufferPool();
+            http2 = config.xioHttp2Enabled();
+            serverOptions = createServerOptions();
             channels = new ArrayList<>();
         } catch (Exception e) {
             throw E.unexpected(e, "Error booting up Undertow service: %s", e.getMessage());
@@ -89,28 +104,50 @@ public class UndertowNetwork extends NetworkBase {
 
     @Override
     protected void setUpClient(NetworkHandler client, int port, boolean secure) throws IOException {
-        HttpHandler handler = new ActHttpHandler(client);
-        ByteBufferPool buffers = new DefaultByteBufferPool(true, 16 * 1024, -1, 4);
-        HttpOpenListener openListener = new HttpOpenListener(buffers, serverOptions);
-        openListener.setRootHandler(handler);
-        ChannelListener<AcceptingChannel<StreamConnection>> acceptListener = ChannelListeners.openListenerAdapter(openListener);
+        listen(port, secure, new ActHttpHandler(client));
+    }
 
+    /**
+     * Listen on the port with the root handler specified.
+     *
+     * @return the port listened, which is useful when `0` is passed in to listen on an ephemeral port
+     */
+    int listen(int port, boolean secure, HttpHandler handler) throws IOException {
+        AcceptingChannel<? extends StreamConnection> server;
         if (!secure) {
-            AcceptingChannel<? extends StreamConnection> server = worker.createStreamConnectionServer(new InetSocketAddress(port), acceptListener, socketOptions);
-            server.resumeAccepts();
-            channels.add(server);
+            HttpOpenListener openListener = new HttpOpenListener(buffers, serverOptions);
+            openListener.setRootHandler(http2 ? new Http2UpgradeHandler(handler) : handler);
+            ChannelListener<AcceptingChannel<StreamConnection>> acceptListener = ChannelListeners.openListenerAdapter(openListener);
+            server = worker.createStreamConnectionServer(new InetSocketAddress(port), acceptListener, socketOptions);
         } else {
-            XnioSsl xnioSsl;
             try {
-                SSLContext sslContext = createSSLContext(loadKeyStore("server.keystore"), loadKeyStore("server.truststore"));
-                xnioSsl = new UndertowXnioSsl(xnio, OptionMap.create(Options.USE_DIRECT_BUFFERS, true), sslContext);
-                AcceptingChannel<SslConnection> sslServer = xnioSsl.createSslConnectionServer(worker, new InetSocketAddress(port), (ChannelListener)acceptListener, socketOptions);
-                sslServer.resumeAccepts();
-                channels.add(sslServer);
+                SSLContext sslContext = SslContexts.serverContext(UndertowNetwork.class);
+                XnioSsl xnioSsl = new UndertowXnioSsl(xnio, OptionMap.create(Options.USE_DIRECT_BUFFERS, true), sslContext);
+                ChannelListener<AcceptingChannel<StreamConnection>> acceptListener = ChannelListeners.openListenerAdapter(secureOpenListener(handler));
+                server = xnioSsl.createSslConnectionServer(worker, new InetSocketAddress(port), (ChannelListener) acceptListener, socketOptions);
+            } catch (IOException e) {
+                throw e;
             } catch (Exception e) {
                 throw E.unexpected(e);
             }
         }
+        server.resumeAccepts();
+        channels.add(server);
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    private OpenListener secureOpenListener(HttpHandler handler) {
+        HttpOpenListener httpOpenListener = new HttpOpenListener(buffers, serverOptions);
+        httpOpenListener.setRootHandler(handler);
+        if (!http2) {
+            return httpOpenListener;
+        }
+        Http2OpenListener http2OpenListener = new Http2OpenListener(buffers, serverOptions);
+        http2OpenListener.setRootHandler(handler);
+        AlpnOpenListener alpn = new AlpnOpenListener(buffers, serverOptions, httpOpenListener);
+        alpn.addProtocol(Http2OpenListener.HTTP2, http2OpenListener, 10);
+        alpn.addProtocol(Http2OpenListener.HTTP2_14, http2OpenListener, 7);
+        return alpn;
     }
 
     @Override
@@ -129,12 +166,16 @@ public class UndertowNetwork extends NetworkBase {
         }
         channels.clear();
         worker.shutdownNow();
+        buffers.close();
     }
 
     private XnioWorker createWorker() throws IOException {
-        ioThreads = Runtime.getRuntime().availableProcessors() * 2;
+        ioThreads = config.xioIoThreads();
+        if (ioThreads <= 0) {
+            ioThreads = Runtime.getRuntime().availableProcessors() * 2;
+        }
         int workerThreads = ioThreads * 8;
-        int maxWorkerThreads = Act.conf().xioMaxWorkerThreads();
+        int maxWorkerThreads = config.xioMaxWorkerThreads();
         if (maxWorkerThreads > 0) {
             workerThreads = Math.min(maxWorkerThreads, workerThreads);
         }
@@ -156,63 +197,38 @@ public class UndertowNetwork extends NetworkBase {
                 .set(Options.REUSE_ADDRESSES, true)
                 .set(Options.BALANCING_TOKENS, 1)
                 .set(Options.BALANCING_CONNECTIONS, 2)
-                .set(Options.BACKLOG, 10000)
+                .set(Options.BACKLOG, config.xioBacklog())
                 .getMap();
 
         return socketOptions;
     }
 
-    private static final char[] STORE_PASSWORD = "password".toCharArray();
-
-    private static SSLContext createSSLContext(final KeyStore keyStore, final KeyStore trustStore) throws Exception {
-        KeyManager[] keyManagers;
-        KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
-        keyManagerFactory.init(keyStore, password("key"));
-        keyManagers = keyManagerFactory.getKeyManagers();
-
-        TrustManager[] trustManagers;
-        TrustManagerFactory trustManagerFactory = TrustManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
-        trustManagerFactory.init(trustStore);
-        trustManagers = trustManagerFactory.getTrustManagers();
-
-        SSLContext sslContext;
-        sslContext = SSLContext.getInstance("TLS");
-        sslContext.init(keyManagers, trustManagers, null);
-
-        return sslContext;
+    private ByteBufferPool createBufferPool() {
+        int maxPoolSize = config.xioBufferPoolMax();
+        return new DefaultByteBufferPool(true, config.xioBufferSize(),
+                maxPoolSize > 0 ? maxPoolSize : -1, config.xioBufferPoolThreadCache());
     }
 
-    private static KeyStore loadKeyStore(String name) {
-        String storeLoc = System.getProperty(name);
-        final InputStream stream;
-        if (storeLoc == null) {
-            stream = UndertowNetwork.class.getResourceAsStream(name);
-        } else {
-            try {
-                stream = Files.newInputStream(Paths.get(storeLoc));
-            } catch (IOException e) {
-                throw E.ioException(e);
-            }
+    private OptionMap createServerOptions() {
+        OptionMap.Builder builder = OptionMap.builder()
+                .set(UndertowOptions.BUFFER_PIPELINED_DATA, true)
+                .set(UndertowOptions.ALWAYS_SET_KEEP_ALIVE, false)
+                .set(UndertowOptions.ALWAYS_SET_DATE, true)
+                .set(UndertowOptions.RECORD_REQUEST_START_TIME, false)
+                .set(UndertowOptions.NO_REQUEST_TIMEOUT, config.xioRequestTimeout())
+                .set(UndertowOptions.ENABLE_STATISTICS, config.xioStatistics());
+        int idleTimeout = config.xioIdleTimeout();
+        if (idleTimeout > 0) {
+            builder.set(UndertowOptions.IDLE_TIMEOUT, idleTimeout);
         }
-
-        if (stream == null) {
-            throw new RuntimeException("Could not load keystore");
-        }
-        try (InputStream is = stream) {
-            KeyStore loadedKeystore = KeyStore.getInstance("JKS");
-            loadedKeystore.load(is, password(name));
-            return loadedKeystore;
-        } catch (IOException e) {
-            throw E.ioException(e);
-        } catch (Exception e) {
-            throw E.unexpected(e);
+        if (http2) {
+            builder.set(UndertowOptions.ENABLE_HTTP2, true);
+            int maxStreams = config.xioHttp2MaxConcurrentStreams();
+            if (maxStreams > 0) {
+                builder.set(UndertowOptions.HTTP2_SETTINGS_MAX_CONCURRENT_STREAMS, maxStreams);
+            }
         }
-    }
-
-
-    static char[] password(String name) {
-        String pw = System.getProperty(name + ".password");
-        return pw != null ? pw.toCharArray() : STORE_PASSWORD;
+        return builder.getMap();
     }
 
 }
@@ -23,6 +23,7 @@ package act.xio.undertow;
 import act.RequestImplBase;
 import act.app.ActionContext;
 import act.conf.AppConfig;
+import act.xio.BlockingDetector;
 import io.undertow.server.HttpServerExchange;
 import io.undertow.server.handlers.Cookie;
 import io.undertow.util.HttpString;
@@ -78,6 +79,7 @@ public class UndertowRequest extends RequestImplBase<UndertowRequest> {
 
     @Override
     public InputStream createInputStream() throws IllegalStateException {
+        BlockingDetector.blocking();
         if (!hse.isBlocking()) {
             hse.startBlocking(new ActBlockingExchange(hse, ActionContext.current()));
         }
@@ -22,9 +22,13 @@ package act.xio.undertow;
 
 import act.ResponseImplBase;
 import act.app.ActionContext;
+import act.app.App;
 import act.conf.AppConfig;
+import act.xio.BlockingDetector;
+import act.xio.Compression;
 import io.undertow.server.HttpServerExchange;
 import io.undertow.util.HeaderMap;
+import io.undertow.util.HeaderValues;
 import io.undertow.util.Headers;
 import io.undertow.util.HttpString;
 import org.osgl.exception.UnexpectedIOException;
@@ -34,6 +38,7 @@ import org.osgl.util.IO;
 
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Locale;
 
 public class UndertowResponse extends ResponseImplBase<UndertowResponse> {
@@ -43,6 +48,7 @@ public class UndertowResponse extends ResponseImplBase<UndertowResponse> {
     }
 
     private HttpServerExchange hse;
+    private Compression compression;
 
 
     public UndertowResponse(HttpServerExchange exchange, AppConfig config) {
@@ -50,6 +56,10 @@ public class UndertowResponse extends ResponseImplBase<UndertowResponse> {
         E.NPE(exchange);
         hse = exchange;
         header(H.Header.Names.SERVER, config.serverHeader());
+        App app = config.app();
+        if (null != app) {
+            compression = app.compression();
+        }
     }
 
     @Override
@@ -70,20 +80,56 @@ public class UndertowResponse extends ResponseImplBase<UndertowResponse> {
 
     @Override
     public UndertowResponse writeContent(String s) {
-        hse.getResponseSender().send(s);
+        Compression.Encoding encoding = contentEncoding();
+        if (null == encoding) {
+            hse.getResponseSender().send(s);
+            return this;
+        }
+        // Sender.send(String) encodes with UTF-8 as well. The threshold
+        // applies to the encoded bytes instead of the chars
+        ByteBuffer buffer = ByteBuffer.wrap(s.getBytes(StandardCharsets.UTF_8));
+        if (buffer.remaining() >= compression.minSize()) {
+            writeContent(buffer, encoding);
+        } else {
+            hse.getResponseSender().send(buffer);
+        }
         return this;
     }
 
     @Override
     public UndertowResponse writeContent(ByteBuffer byteBuffer) {
-        hse.getResponseSender().send(byteBuffer);
+        Compression.Encoding encoding = contentEncoding();
+        if (null != encoding && byteBuffer.remaining() >= compression.minSize()) {
+            writeContent(byteBuffer, encoding);
+        } else {
+            hse.getResponseSender().send(byteBuffer);
+        }
         return this;
     }
 
     @Override
     protected OutputStream createOutputStream() {
         ensureBlocking();
-        return hse.getOutputStream();
+        final Compression.Encoding encoding = contentEncoding();
+        if (null == encoding) {
+            return hse.getOutputStream();
+        }
+        long len = hse.getResponseContentLength();
+        if (len > -1) {
+            if (len < compression.minSize()) {
+                return hse.getOutputStream();
+            }
+            // must be done before the output stream is created as
+            // it reads the content length on construction
+            startCompression(encoding);
+            return compression.encoder(hse.getOutputStream(), encoding);
+        }
+        return compression.lazyEncoder(hse.getOutputStream(), encoding, new Runnable() {
+            @Override
+            public void run() {
+                startCompression(encoding);
+            }
+        });
     }
 
     @Override
@@ -160,7 +206,69 @@ public class UndertowResponse extends ResponseImplBase<UndertowResponse> {
         }
     }
 
+    private void writeContent(ByteBuffer buffer, Compression.Encoding encoding) {
+        ByteBuffer compressed = compression.compress(buffer, encoding);
+        startCompression(encoding);
+        hse.setResponseContentLength(compressed.remaining());
+        hse.getResponseSender().send(compressed);
+    }
+
+    /**
+     * Returns the encoding to compress the response content, or `null`
+     * if the response shall not be compressed. Note the content size is not
+     * checked here.
+     *
+     * `Vary: Accept-Encoding` is added when the content type is compressible
+     * as the response varies with the encodings accepted by the client.
+     */
+    private Compression.Encoding contentEncoding() {
+        if (null == compression || !compression.enabled() || hse.isResponseStarted()) {
+            return null;
+        }
+        HeaderMap headers = hse.getResponseHeaders();
+        if (headers.contains(Headers.CONTENT_ENCODING)) {
+            return null;
+        }
+        int status = hse.getStatusCode();
+        if (status < 200 || status == 204 || status == 304) {
+            return null;
+        }
+        String type = headers.getFirst(Headers.CONTENT_TYPE);
+        if (null == type) {
+            type = contentType;
+        }
+        if (!compression.compressible(type)) {
+            return null;
+        }
+        addVary(headers);
+        return compression.negotiate(hse.getRequestHeaders().getFirst(Headers.ACCEPT_ENCODING));
+    }
+
+    private void startCompression(Compression.Encoding encoding) {
+        HeaderMap headers = hse.getResponseHeaders();
+        headers.put(Headers.CONTENT_ENCODING, encoding.header());
+        headers.remove(Headers.CONTENT_LENGTH);
+        String etag = headers.getFirst(Headers.ETAG);
+        if (null != etag) {
+            headers.put(Headers.ETAG, Compression.etag(etag, encoding));
+        }
+    }
+
+    private static void addVary(HeaderMap headers) {
+        HeaderValues values = headers.get(Headers.VARY);
+        if (null != values) {
+            for (String value : values) {
+                if ("*".equals(value.trim()) || value.toLowerCase().contains("accept-encoding")) {
+                    return;
+                }
+            }
+        }
+        headers.add(Headers.VARY, Headers.ACCEPT_ENCODING_STRING);
+    }
+
     private void ensureBlocking() {
+        // the blocking output stream cannot be used on IO thread
+        BlockingDetector.blocking();
         if (!hse.isBlocking()) {
             hse.startBlocking(new ActBlockingExchange(hse, ActionContext.current()));
         }
@@ -22,19 +22,36 @@ package act.xio.undertow;
 
 import act.Act;
 import act.util.DestroyableBase;
+import act.ws.SharedTextFrame;
 import act.xio.WebSocketConnection;
+import io.undertow.websockets.core.WebSocketCallback;
 import io.undertow.websockets.core.WebSocketChannel;
 import io.undertow.websockets.core.WebSockets;
 import org.osgl.$;
 import org.osgl.http.H;
 
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class UndertowWebSocketConnection extends DestroyableBase implements WebSocketConnection {
 
     private final WebSocketChannel channel;
     private final String sessionId;
     private final String username;
+    private final AtomicInteger pending = new AtomicInteger();
+
+    // shared by all sends on this connection, the context is the frame to be released if any
+    private final WebSocketCallback<SharedTextFrame> callback = new WebSocketCallback<SharedTextFrame>() {
+        @Override
+        public void complete(WebSocketChannel channel, SharedTextFrame frame) {
+            done(frame);
+        }
+
+        @Override
+        public void onError(WebSocketChannel channel, SharedTextFrame frame, Throwable throwable) {
+            done(frame);
+        }
+    };
 
     public UndertowWebSocketConnection(WebSocketChannel channel, H.Session session) {
         this.channel = $.notNull(channel);
@@ -54,7 +71,20 @@ public class UndertowWebSocketConnection extends DestroyableBase implements WebS
 
     @Override
     public void send(String message) {
-        WebSockets.sendText(message, channel, null);
+        pending.incrementAndGet();
+        WebSockets.sendText(message, channel, callback, null);
+    }
+
+    @Override
+    public void send(SharedTextFrame frame) {
+        frame.retain();
+        pending.incrementAndGet();
+        WebSockets.sendText(frame.content(), channel, callback, frame);
+    }
+
+    @Override
+    public int pendingFrames() {
+        return pending.get();
     }
 
     @Override
@@ -75,4 +105,11 @@ public class UndertowWebSocketConnection extends DestroyableBase implements WebS
     public boolean closed() {
         return isDestroyed();
     }
+
+    private void done(SharedTextFrame frame) {
+        pending.decrementAndGet();
+        if (null != frame) {
+            frame.release();
+        }
+    }
 }
@@ -40,6 +40,7 @@ import io.undertow.websockets.core.WebSocketChannel;
 import io.undertow.websockets.spi.WebSocketHttpExchange;
 import org.osgl.logging.LogManager;
 import org.osgl.logging.Logger;
+import org.xnio.ChannelListener;
 
 import java.io.IOException;
 
@@ -94,6 +95,14 @@ class UndertowWebSocketConnectionHandler extends WebSocketConnectionHandler {
                             context.app().eventBus().trigger(new WebSocketCloseEvent(wsCtx));
                         }
                     });
+                    channel.addCloseTask(new ChannelListener<WebSocketChannel>() {
+                        @Override
+                        public void handleEvent(WebSocketChannel channel) {
+                            // make sure the connection is removed even if the close frame is not received
+                            connection.destroy();
+                            connectionManager.removeConnection(connection);
+                        }
+                    });
                     channel.resumeReceives();
                     Act.eventBus().trigger(new WebSocketConnectEvent(wsCtx));
                 }
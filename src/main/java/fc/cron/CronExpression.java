@@ -35,9 +35,13 @@ package fc.cron;
  * #L%
  */
 
+import org.joda.time.Chronology;
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeConstants;
+import org.joda.time.DateTimeZone;
+import org.joda.time.IllegalInstantException;
 import org.joda.time.LocalDate;
-import org.joda.time.MutableDateTime;
+import org.joda.time.chrono.ISOChronology;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -143,7 +147,15 @@ import static org.joda.time.DateTimeConstants.DAYS_PER_WEEK;
  * <b>Dependencies between fields</b> Fields are always evaluated independently, but the expression doesn't match until
  * the constraints of each field are met.Feltene evalueres Overlap of intervals are not allowed. That is: for
  * Day-of-week field &quot;FRI-MON&quot; is invalid,but &quot;FRI-SUN,MON&quot; is valid
- *
+ * <P>
+ * <b>Time zone</b> The expression is evaluated in the time zone specified when it is created,
+ * or in the zone of the time passed to {@link #nextTimeAfter(DateTime)} if not specified. A
+ * local time skipped by daylight saving never matches, and a local time repeated by daylight
+ * saving matches once.
+ * <P>
+ * <b>Implementation</b> The values allowed by each field are precomputed into bit sets, thus
+ * finding the next time jumps straight to the next allowed value of each field instead of
+ * walking through the calendar second by second.
  */
 public class CronExpression {
 
@@ -172,12 +184,26 @@ public class CronExpression {
     private final DayOfWeekField dayOfWeekField;
     private final SimpleField monthField;
     private final DayOfMonthField dayOfMonthField;
+    private final DateTimeZone zone;
+
+    private static final Chronology UTC = ISOChronology.getInstanceUTC();
+
+    // the day bits of the month last visited: month key in the high 32 bits
+    private volatile long cachedDayBits = -1L;
 
     public CronExpression(final String expr) {
         this(expr, true);
     }
 
     public CronExpression(final String expr, final boolean withSeconds) {
+        this(expr, withSeconds, null);
+    }
+
+    public CronExpression(final String expr, final DateTimeZone zone) {
+        this(expr, true, zone);
+    }
+
+    public CronExpression(final String expr, final boolean withSeconds, final DateTimeZone zone) {
         if (expr == null) {
             throw new IllegalArgumentException("expr is null"); //$NON-NLS-1$
         }
@@ -198,6 +224,7 @@ public class CronExpression {
         this.dayOfMonthField = new DayOfMonthField(parts[ix++]);
         this.monthField = new SimpleField(CronFieldType.MONTH, parts[ix++]);
         this.dayOfWeekField = new DayOfWeekField(parts[ix++]);
+        this.zone = zone;
     }
 
     public static CronExpression create(final String expr) {
@@ -208,6 +235,14 @@ public class CronExpression {
         return new CronExpression(expr, false);
     }
 
+    /**
+     * Returns the time zone in which the expression is evaluated, or `null`
+     * if it is evaluated in the zone of the time passed in
+     */
+    public DateTimeZone zone() {
+        return zone;
+    }
+
     public DateTime nextTimeAfter(DateTime afterTime) {
         // will search for the next time within the next 4 years. If there is no
         // time matching, an InvalidArgumentException will be thrown (it is very
@@ -223,64 +258,149 @@ public class CronExpression {
     }
 
     public DateTime nextTimeAfter(DateTime afterTime, DateTime dateTimeBarrier) {
-        MutableDateTime nextTime = new MutableDateTime(afterTime);
-        nextTime.setMillisOfSecond(0);
-        nextTime.secondOfDay().add(1);
-
-        while (true) { // day of week
-            while (true) { // month
-                while (true) { // day of month
-                    while (true) { // hour
-                        while (true) { // minute
-                            while (true) { // second
-                                if (secondField.matches(nextTime.getSecondOfMinute())) {
-                                    break;
-                                }
-                                nextTime.secondOfDay().add(1);
-                            }
-                            if (minuteField.matches(nextTime.getMinuteOfHour())) {
-                                break;
-                            }
-                            nextTime.minuteOfDay().add(1);
-                            nextTime.secondOfMinute().set(0);
-                        }
-                        if (hourField.matches(nextTime.getHourOfDay())) {
-                            break;
-                        }
-                        nextTime.hourOfDay().add(1);
-                        nextTime.minuteOfHour().set(0);
-                        nextTime.secondOfMinute().set(0);
-                    }
-                    if (dayOfMonthField.matches(new LocalDate(nextTime))) {
-                        break;
-                    }
-                    nextTime.addDays(1);
-                    nextTime.setTime(0, 0, 0, 0);
-                    checkIfDateTimeBarrierIsReached(nextTime, dateTimeBarrier);
-                }
-                if (monthField.matches(nextTime.getMonthOfYear())) {
-                    break;
+        Chronology chronology = afterTime.getChronology();
+        if (null != zone) {
+            chronology = chronology.withZone(zone);
+        }
+        DateTimeZone tz = chronology.getZone();
+        long after = afterTime.getMillis();
+        DateTime start = new DateTime(after, chronology).withMillisOfSecond(0).plusSeconds(1);
+        LocalDate barrier = new LocalDate(dateTimeBarrier.getMillis(), chronology);
+        int limit = dateKey(barrier.getYear(), barrier.getMonthOfYear(), barrier.getDayOfMonth());
+
+        int year = start.getYear();
+        int month = start.getMonthOfYear();
+        int day = start.getDayOfMonth();
+        int hour = start.getHourOfDay();
+        int minute = start.getMinuteOfHour();
+        int second = start.getSecondOfMinute();
+        while (true) {
+            // like the original implementation the limit is checked on a day-to-day basis
+            if (dateKey(year, month, day) > limit) {
+                throw new IllegalArgumentException("No next execution time could be determined that is before the limit of " + dateTimeBarrier);
+            }
+            int next = monthField.next(month);
+            if (next < 0) {
+                year++;
+                month = 1;
+                day = 1;
+                hour = minute = second = 0;
+                continue;
+            } else if (next != month) {
+                month = next;
+                day = 1;
+                hour = minute = second = 0;
+                continue;
+            }
+            next = nextBit(dayBits(year, month), day);
+            if (next < 0) {
+                month++;
+                day = 1;
+                hour = minute = second = 0;
+                continue;
+            } else if (next != day) {
+                day = next;
+                hour = minute = second = 0;
+                continue;
+            }
+            next = hourField.next(hour);
+            if (next < 0) {
+                day++;
+                hour = minute = second = 0;
+                continue;
+            } else if (next != hour) {
+                hour = next;
+                minute = second = 0;
+            }
+            next = minuteField.next(minute);
+            if (next < 0) {
+                hour++;
+                minute = second = 0;
+                continue;
+            } else if (next != minute) {
+                minute = next;
+                second = 0;
+            }
+            next = secondField.next(second);
+            if (next < 0) {
+                minute++;
+                second = 0;
+                continue;
+            }
+            second = next;
+
+            long millis;
+            try {
+                millis = chronology.getDateTimeMillis(year, month, day, hour, minute, second, 0);
+            } catch (IllegalInstantException e) {
+                // the local time does not exist because of daylight saving,
+                // resume the search from the end of the gap. The offset is
+                // less than a day, thus the next transition after the local
+                // time minus a day is the start of the gap
+                long local = UTC.getDateTimeMillis(year, month, day, hour, minute, second, 0);
+                DateTime resume = new DateTime(tz.nextTransition(local - DateTimeConstants.MILLIS_PER_DAY), chronology);
+                year = resume.getYear();
+                month = resume.getMonthOfYear();
+                day = resume.getDayOfMonth();
+                hour = resume.getHourOfDay();
+                minute = resume.getMinuteOfHour();
+                second = resume.getSecondOfMinute();
+                continue;
+            }
+            DateTime nextTime = new DateTime(millis, chronology);
+            if (millis <= after) {
+                // the local time is repeated because of daylight saving and
+                // the earlier one has passed
+                nextTime = nextTime.withLaterOffsetAtOverlap();
+                if (nextTime.getMillis() <= after) {
+                    second++;
+                    continue;
                 }
-                nextTime.addMonths(1);
-                nextTime.setDayOfMonth(1);
-                nextTime.setTime(0, 0, 0, 0);
-                checkIfDateTimeBarrierIsReached(nextTime, dateTimeBarrier);
             }
-            if (dayOfWeekField.matches(new LocalDate(nextTime))) {
-                break;
+            return nextTime;
+        }
+    }
+
+    /**
+     * Returns the days matching both day of month and day of week fields
+     * in the given month as a bit set
+     */
+    private long dayBits(int year, int month) {
+        int key = year * 12 + month;
+        long cached = this.cachedDayBits;
+        if ((int) (cached >>> 32) == key) {
+            return cached & 0xFFFFFFFFL;
+        }
+        long firstDay = UTC.getDateTimeMillis(year, month, 1, 0);
+        int lastDayOfMonth = UTC.dayOfMonth().getMaximumValue(firstDay);
+        int lastDayOfPrevMonth = UTC.dayOfMonth().getMaximumValue(UTC.months().add(firstDay, -1));
+        int dayOfWeek = UTC.dayOfWeek().get(firstDay);
+        long bits = 0;
+        for (int day = 1; day <= lastDayOfMonth; ++day) {
+            if (dayOfMonthField.matches(day, dayOfWeek, lastDayOfMonth, lastDayOfPrevMonth)
+                    && dayOfWeekField.matches(day, dayOfWeek, lastDayOfMonth)) {
+                bits |= 1L << day;
             }
-            nextTime.addDays(1);
-            nextTime.setTime(0, 0, 0, 0);
-            checkIfDateTimeBarrierIsReached(nextTime, dateTimeBarrier);
+            dayOfWeek = dayOfWeek == DAYS_PER_WEEK ? 1 : dayOfWeek + 1;
         }
+        this.cachedDayBits = ((long) key << 32) | bits;
+        return bits;
+    }
 
-        return nextTime.toDateTime();
+    private static int dateKey(int year, int month, int day) {
+        // the order still holds when month or day overflows by one
+        return (year << 9) | (month << 5) | day;
     }
 
-    private static void checkIfDateTimeBarrierIsReached(MutableDateTime nextTime, DateTime dateTimeBarrier) {
-        if (nextTime.isAfter(dateTimeBarrier)) {
-            throw new IllegalArgumentException("No next execution time could be determined that is before the limit of " + dateTimeBarrier);
+    /**
+     * Returns the lowest bit set at or above `from`, or `-1` if there is none
+     */
+    static int nextBit(long bits, int from) {
+        if (from >= 64) {
+            return -1;
         }
+        long rest = bits & (-1L << from);
+        return 0L == rest ? -1 : Long.numberOfTrailingZeros(rest);
     }
 
     @Override
@@ -401,19 +521,32 @@ public class CronExpression {
     }
 
     static class SimpleField extends BasicField {
+        private final long bits;
+
         SimpleField(CronFieldType fieldType, String fieldExpr) {
             super(fieldType, fieldExpr);
-        }
-
-        public boolean matches(int val) {
-            if (val >= fieldType.from && val <= fieldType.to) {
+            long bits = 0;
+            for (int val = fieldType.from; val <= fieldType.to; ++val) {
                 for (FieldPart part : parts) {
                     if (matches(val, part)) {
-                        return true;
+                        bits |= 1L << val;
+                        break;
                     }
                 }
             }
-            return false;
+            this.bits = bits;
+        }
+
+        public boolean matches(int val) {
+            return val >= fieldType.from && val <= fieldType.to && (bits & (1L << val)) != 0;
+        }
+
+        /**
+         * Returns the smallest value matched that is not less than `val`, or
+         * `-1` if there is none
+         */
+        int next(int val) {
+            return nextBit(bits, val);
         }
     }
 
@@ -424,16 +557,20 @@ public class CronExpression {
         }
 
         boolean matches(LocalDate dato) {
+            return matches(dato.getDayOfMonth(), dato.getDayOfWeek(), dato.dayOfMonth().getMaximumValue());
+        }
+
+        boolean matches(int dayOfMonth, int dayOfWeek, int lastDayOfMonth) {
             for (FieldPart part : parts) {
                 if ("L".equals(part.modifier)) {
-                    return dato.getDayOfWeek() == part.from && dato.getDayOfMonth() > (dato.dayOfMonth().getMaximumValue() - DAYS_PER_WEEK);
+                    return dayOfWeek == part.from && dayOfMonth > (lastDayOfMonth - DAYS_PER_WEEK);
                 } else if ("#".equals(part.incrementModifier)) {
-                    if (dato.getDayOfWeek() == part.from) {
-                        int num = dato.getDayOfMonth() / 7;
-                        return part.increment == (dato.getDayOfMonth() % 7 == 0 ? num : num + 1);
+                    if (dayOfWeek == part.from) {
+                        int num = dayOfMonth / 7;
+                        return part.increment == (dayOfMonth % 7 == 0 ? num : num + 1);
                     }
                     return false;
-                } else if (matches(dato.getDayOfWeek(), part)) {
+                } else if (matches(dayOfWeek, part)) {
                     return true;
                 }
             }
@@ -467,20 +604,25 @@ public class CronExpression {
         }
 
         boolean matches(LocalDate dato) {
+            return matches(dato.getDayOfMonth(), dato.getDayOfWeek(), dato.dayOfMonth().getMaximumValue(),
+                    dato.withDayOfMonth(1).minusDays(1).getDayOfMonth());
+        }
+
+        boolean matches(int dayOfMonth, int dayOfWeek, int lastDayOfMonth, int lastDayOfPrevMonth) {
             for (FieldPart part : parts) {
                 if ("L".equals(part.modifier)) {
-                    return dato.getDayOfMonth() == (dato.dayOfMonth().getMaximumValue() - (part.from == null ? 0 : part.from));
+                    return dayOfMonth == (lastDayOfMonth - (part.from == null ? 0 : part.from));
                 } else if ("W".equals(part.modifier)) {
-                    if (dato.getDayOfWeek() <= 5) {
-                        if (dato.getDayOfMonth() == part.from) {
+                    if (dayOfWeek <= 5) {
+                        if (dayOfMonth == part.from) {
                             return true;
-                        } else if (dato.getDayOfWeek() == 5) {
-                            return dato.plusDays(1).getDayOfMonth() == part.from;
-                        } else if (dato.getDayOfWeek() == 1) {
-                            return dato.minusDays(1).getDayOfMonth() == part.from;
+                        } else if (dayOfWeek == 5) {
+                            return (dayOfMonth == lastDayOfMonth ? 1 : dayOfMonth + 1) == part.from;
+                        } else if (dayOfWeek == 1) {
+                            return (dayOfMonth == 1 ? lastDayOfPrevMonth : dayOfMonth - 1) == part.from;
                         }
                     }
-                } else if (matches(dato.getDayOfMonth(), part)) {
+                } else if (matches(dayOfMonth, part)) {
                     return true;
                 }
             }
@@ -0,0 +1,156 @@
+package act.app;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import act.asm.ClassWriter;
+import act.asm.Opcodes;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.util.C;
+import org.osgl.util.IO;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+public class CompiledSourceCacheTest extends TestBase {
+
+    private File root;
+    private CompiledSourceCache cache;
+    private Map<String, Source> sources;
+
+    @Before
+    public void prepare() throws Exception {
+        root = Files.createTempDirectory("act-src").toFile();
+        cache = new CompiledSourceCache();
+        sources = C.newMap();
+        // B depends on A, C depends on B, D is independent
+        source("foo.A", null);
+        source("foo.B", "foo.A");
+        source("foo.C", "foo.B");
+        source("foo.D", null);
+    }
+
+    @After
+    public void cleanup() {
+        IO.delete(root, true);
+    }
+
+    @Test
+    public void allSourcesShallBeCompiledInitially() {
+        eq(sources.keySet(), cache.restore(sources));
+    }
+
+    @Test
+    public void unchangedSourcesShallBeRestored() {
+        compileAll();
+        Map<String, Source> refreshed = refreshSources();
+        yes(cache.restore(refreshed).isEmpty());
+        for (Source source : refreshed.values()) {
+            yes(Arrays.equals(bytecode(source.className(), dependency(source.className())), source.bytes()));
+        }
+    }
+
+    @Test
+    public void changedSourceShallBeCompiledWithItsDependents() {
+        compileAll();
+        touch("foo.A");
+        Map<String, Source> refreshed = refreshSources();
+        Set<String> stale = cache.restore(refreshed);
+        eq(C.set("foo.A", "foo.B", "foo.C"), stale);
+        eq(null, refreshed.get("foo.A").bytes());
+        yes(null != refreshed.get("foo.D").bytes());
+    }
+
+    @Test
+    public void changedIndependentSourceShallBeCompiledAlone() {
+        compileAll();
+        touch("foo.D");
+        eq(C.set("foo.D"), cache.restore(refreshSources()));
+    }
+
+    @Test
+    public void dependentsOfRemovedSourceShallBeCompiled() {
+        compileAll();
+        Map<String, Source> refreshed = refreshSources();
+        refreshed.remove("foo.B");
+        eq(C.set("foo.C"), cache.restore(refreshed));
+    }
+
+    @Test
+    public void clearShallDropCachedBytecode() {
+        compileAll();
+        cache.clear();
+        eq(sources.keySet(), cache.restore(refreshSources()));
+    }
+
+    private void compileAll() {
+        cache.restore(sources);
+        for (Source source : sources.values()) {
+            source.compiled(bytecode(source.className(), dependency(source.className())));
+            cache.save(source);
+        }
+    }
+
+    private Map<String, Source> refreshSources() {
+        Map<String, Source> map = C.newMap();
+        for (String className : sources.keySet()) {
+            map.put(className, Source.ofFile(root, file(className)));
+        }
+        return map;
+    }
+
+    private void source(String className, String dependency) throws Exception {
+        File file = file(className);
+        file.getParentFile().mkdirs();
+        IO.writeContent("// " + dependency, file);
+        file.setLastModified(1000000000000L);
+        sources.put(className, Source.ofFile(root, file));
+    }
+
+    private void touch(String className) {
+        File file = file(className);
+        file.setLastModified(file.lastModified() + 10000L);
+    }
+
+    private File file(String className) {
+        return new File(root, className.replace('.', File.separatorChar) + ".java");
+    }
+
+    private static String dependency(String className) {
+        return "foo.B".equals(className) ? "foo.A" : "foo.C".equals(className) ? "foo.B" : null;
+    }
+
+    private static byte[] bytecode(String className, String dependency) {
+        ClassWriter cw = new ClassWriter(0);
+        cw.visit(Opcodes.V1_7, Opcodes.ACC_PUBLIC, className.replace('.', '/'), null, "java/lang/Object", null);
+        if (null != dependency) {
+            cw.visitField(Opcodes.ACC_PRIVATE, "dep", "L" + dependency.replace('.', '/') + ";", null, null).visitEnd();
+        }
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+}
@@ -0,0 +1,122 @@
+package act.app;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.List;
+
+public class StartupProfilerTest extends TestBase {
+
+    private StartupProfiler profiler;
+
+    @Before
+    public void prepare() {
+        profiler = new StartupProfiler();
+    }
+
+    @Test
+    public void phaseShallBeStoppedByNextPhase() throws Exception {
+        profiler.phase("a");
+        Thread.sleep(2);
+        profiler.phase("b");
+        profiler.endPhase();
+        List<StartupProfiler.Span> spans = profiler.spans();
+        eq(2, spans.size());
+        eq("a", spans.get(0).name());
+        eq("b", spans.get(1).name());
+        yes(spans.get(1).start() >= spans.get(0).start() + spans.get(0).duration());
+    }
+
+    @Test
+    public void selfTimeShallExcludeNestedSpans() throws Exception {
+        StartupProfiler.Span outer = profiler.start("event", "START");
+        StartupProfiler.Span inner = profiler.start("job", "warmUp");
+        Thread.sleep(20);
+        inner.stop();
+        outer.stop();
+        List<StartupProfiler.Summary> bySelf = profiler.report(true);
+        eq(2, bySelf.size());
+        StartupProfiler.Summary job = bySelf.get(0);
+        eq("warmUp", job.getName());
+        StartupProfiler.Summary event = bySelf.get(1);
+        yes(event.getTotal() >= job.getTotal());
+        yes(event.getSelf() < job.getSelf());
+        List<StartupProfiler.Summary> byTotal = profiler.report(false);
+        eq("START", byTotal.get(0).getName());
+    }
+
+    @Test
+    public void spansShallBeAggregatedByName() {
+        profiler.start("listener", "x").stop();
+        profiler.start("listener", "x").stop();
+        profiler.start("listener", "y").stop();
+        List<StartupProfiler.Summary> report = profiler.report(false);
+        eq(2, report.size());
+        int total = 0;
+        for (StartupProfiler.Summary summary : report) {
+            total += summary.getCount();
+        }
+        eq(3, total);
+    }
+
+    @Test
+    public void nothingShallBeRecordedAfterFinished() {
+        profiler.phase("a");
+        profiler.finish();
+        profiler.start("job", "late").stop();
+        eq(1, profiler.spans().size());
+        yes(profiler.finished());
+    }
+
+    @Test
+    public void traceShallBeInChromeTraceEventFormat() throws Exception {
+        StartupProfiler.Span span = profiler.start("scan", "com.foo.Bar");
+        span.stop();
+        StringWriter writer = new StringWriter();
+        profiler.writeTrace(writer);
+        JSONObject trace = JSON.parseObject(writer.toString());
+        JSONArray events = trace.getJSONArray("traceEvents");
+        eq(2, events.size());
+        JSONObject event = events.getJSONObject(0);
+        eq("com.foo.Bar", event.getString("name"));
+        eq("scan", event.getString("cat"));
+        eq("X", event.getString("ph"));
+        eq(Thread.currentThread().getId(), event.getLong("tid"));
+        JSONObject meta = events.getJSONObject(1);
+        eq("M", meta.getString("ph"));
+        eq(Thread.currentThread().getName(), meta.getJSONObject("args").getString("name"));
+    }
+
+    @Test
+    public void nullAppShallGetNoopSpan() {
+        StartupProfiler.Span span = StartupProfiler.start(null, "job", "x");
+        span.stop();
+        eq(0, profiler.spans().size());
+    }
+
+}
@@ -0,0 +1,209 @@
+package act.cli;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import act.app.App;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Loopback tests of {@link CliNioServer}. Commands are run by a
+ * test session instead of the CLI dispatcher
+ */
+public class CliNioServerTest extends TestBase {
+
+    private CliNioServer server;
+
+    @Before
+    public void prepare() {
+        App app = mock(App.class);
+        final AtomicInteger ids = new AtomicInteger();
+        when(app.cuid()).thenAnswer(new Answer<String>() {
+            @Override
+            public String answer(InvocationOnMock invocation) throws Throwable {
+                return "s" + ids.incrementAndGet();
+            }
+        });
+        // a single selector thread serves all sessions
+        server = new CliNioServer(app, 0, 1, 4, 300) {
+            @Override
+            CliChannelSession createSession(SocketChannel channel, SelectorLoop loop) {
+                return new TestSession(this, channel, loop);
+            }
+        };
+    }
+
+    @After
+    public void teardown() {
+        server.destroy();
+    }
+
+    @Test
+    public void itShallRunCommandsInOrderAndCloseWhenInputEnds() throws Exception {
+        try (Socket socket = connect()) {
+            send(socket, "count 3\r\ncount 2\n");
+            socket.shutdownOutput();
+            eq("line 0\nline 1\nline 2\nline 0\nline 1\n", readAll(socket));
+        }
+    }
+
+    @Test
+    public void itShallStreamOutputLargerThanPendingLimit() throws Exception {
+        int lines = 200 * 1000;
+        try (Socket socket = connect()) {
+            send(socket, "count " + lines + "\n");
+            socket.shutdownOutput();
+            String output = readAll(socket);
+            yes(output.length() > CliChannelSession.MAX_PENDING_OUTPUT);
+            yes(output.startsWith("line 0\n"));
+            yes(output.endsWith("line " + (lines - 1) + "\n"));
+            eq(lines, output.split("\n").length);
+        }
+    }
+
+    @Test
+    public void ctrlCShallCancelRunningCommand() throws Exception {
+        try (Socket socket = connect()) {
+            send(socket, "sleep\n");
+            eq("sleeping", readLine(socket));
+            socket.getOutputStream().write(3);
+            eq("cancelled", readLine(socket));
+            // the session is still alive
+            send(socket, "count 1\n");
+            eq("line 0", readLine(socket));
+        }
+    }
+
+    @Test
+    public void telnetInterruptProcessShallCancelRunningCommand() throws Exception {
+        try (Socket socket = connect()) {
+            // telnet option negotiation shall be ignored
+            socket.getOutputStream().write(new byte[]{(byte) 255, (byte) 251, 1});
+            send(socket, "sleep\n");
+            eq("sleeping", readLine(socket));
+            socket.getOutputStream().write(new byte[]{(byte) 255, (byte) 244});
+            eq("cancelled", readLine(socket));
+        }
+    }
+
+    @Test
+    public void sessionsShallBeMultiplexed() throws Exception {
+        List<Socket> sockets = new ArrayList<>();
+        try {
+            for (int i = 0; i < 20; ++i) {
+                Socket socket = connect();
+                sockets.add(socket);
+                send(socket, "count 100\n");
+            }
+            for (Socket socket : sockets) {
+                socket.shutdownOutput();
+                eq(100, readAll(socket).split("\n").length);
+            }
+        } finally {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+        }
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket("127.0.0.1", server.port());
+        socket.setSoTimeout(10 * 1000);
+        return socket;
+    }
+
+    private static void send(Socket socket, String text) throws IOException {
+        OutputStream os = socket.getOutputStream();
+        os.write(text.getBytes(StandardCharsets.UTF_8));
+        os.flush();
+    }
+
+    private static String readLine(Socket socket) throws IOException {
+        InputStream is = socket.getInputStream();
+        StringBuilder sb = new StringBuilder();
+        int b;
+        while ((b = is.read()) > -1 && b != '\n') {
+            sb.append((char) b);
+        }
+        return sb.toString();
+    }
+
+    private static String readAll(Socket socket) throws IOException {
+        InputStream is = socket.getInputStream();
+        StringBuilder sb = new StringBuilder();
+        byte[] buf = new byte[8192];
+        int n;
+        while ((n = is.read(buf)) > -1) {
+            sb.append(new String(buf, 0, n, StandardCharsets.US_ASCII));
+        }
+        return sb.toString();
+    }
+
+    private static class TestSession extends CliChannelSession {
+
+        TestSession(CliNioServer server, SocketChannel channel, CliNioServer.SelectorLoop loop) {
+            super(server, channel, loop);
+        }
+
+        @Override
+        void execute(String line) {
+            try {
+                if (line.startsWith("count ")) {
+                    int n = Integer.parseInt(line.substring(6));
+                    for (int i = 0; i < n; ++i) {
+                        print("line " + i);
+                    }
+                } else if ("sleep".equals(line)) {
+                    print("sleeping");
+                    try {
+                        Thread.sleep(60 * 1000);
+                    } catch (InterruptedException e) {
+                        print("cancelled");
+                    }
+                }
+            } catch (IOException e) {
+                // session closed
+            }
+        }
+
+        private void print(String line) throws IOException {
+            output().write((line + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+}
@@ -21,18 +21,24 @@ package act.data;
  */
 
 import act.TestBase;
+import act.util.PropertySpec;
 import org.junit.Before;
 import org.junit.Test;
+import org.osgl.util.C;
+import testapp.model.Address;
 import testapp.model.Person;
 
 import java.util.List;
 
+import static org.mockito.Mockito.when;
+
 public class DataPropertyRepositoryTest extends TestBase {
     private DataPropertyRepository repo;
 
     @Before
     public void prepare() throws Exception {
         super.setup();
+        when(mockAppConfig.propertyAccessorBytecodeEnabled()).thenReturn(true);
         repo = new DataPropertyRepository(mockApp);
     }
 
@@ -47,4 +53,76 @@ public class DataPropertyRepositoryTest extends TestBase {
         yes(ls.contains("address.city"));
     }
 
+    @Test
+    public void testProjection() {
+        PropertySpec.MetaInfo spec = new PropertySpec.MetaInfo();
+        spec.onValue("firstName,age,address.city,this");
+        PropertyProjection projection = repo.projection(spec, Person.class, mockActionContext);
+        eq(C.list("firstName", "age", "address.city", "this"), projection.properties());
+        yes(projection.compiled(0));
+        yes(projection.compiled(1));
+        yes(projection.compiled(2));
+        no(projection.compiled(3));
+
+        Person person = new Person("Tom", "Smith", new Address("1", "King St", "Sydney"), 30);
+        eq("Tom", projection.get(person, 0));
+        eq(30, projection.get(person, 1));
+        eq("Sydney", projection.get(person, 2));
+        same(person, projection.get(person, 3));
+
+        person.setAddress(null);
+        assertNull(projection.get(person, 2));
+    }
+
+    @Test
+    public void testProjectionIsCachedBySpec() {
+        PropertySpec.MetaInfo spec1 = new PropertySpec.MetaInfo();
+        spec1.onValue("firstName,lastName");
+        PropertySpec.MetaInfo spec2 = new PropertySpec.MetaInfo();
+        spec2.onValue("firstName,lastName");
+        same(repo.projection(spec1, Person.class, mockActionContext), repo.projection(spec2, Person.class, mockActionContext));
+    }
+
+    @Test
+    public void testProjectionWithExcludedFields() {
+        PropertySpec.MetaInfo spec = new PropertySpec.MetaInfo();
+        spec.onValue("-age");
+        List<String> outputs = repo.projection(spec, Person.class, mockActionContext).properties();
+        yes(outputs.contains("firstName"));
+        no(outputs.contains("age"));
+    }
+
+    @Test
+    public void testAdHocProjectionIsNotCompiled() {
+        PropertySpec.current.set("firstName,age");
+        try {
+            PropertySpec.MetaInfo spec = PropertySpec.MetaInfo.withCurrent((PropertySpec.MetaInfo) null, mockActionContext);
+            yes(spec.adHoc());
+            PropertyProjection projection = repo.projection(spec, Person.class, mockActionContext);
+            eq(C.list("firstName", "age"), projection.properties());
+            no(projection.compiled(0));
+            no(projection.compiled(1));
+            Person person = new Person("Tom", "Smith", null, 30);
+            eq("Tom", projection.get(person, 0));
+            eq(30, projection.get(person, 1));
+        } finally {
+            PropertySpec.current.remove();
+        }
+    }
+
+    @Test
+    public void testAdHocProjectionCacheIsBounded() {
+        OutputFieldsCache cache = new OutputFieldsCache(repo, true);
+        try {
+            for (int i = 0; i < OutputFieldsCache.MAX_AD_HOC_PROJECTIONS + 10; ++i) {
+                PropertySpec.current.set("firstName,f" + i);
+                PropertySpec.MetaInfo spec = PropertySpec.MetaInfo.withCurrent((PropertySpec.MetaInfo) null, mockActionContext);
+                cache.getProjection(spec, Person.class, mockActionContext);
+            }
+        } finally {
+            PropertySpec.current.remove();
+        }
+        eq(OutputFieldsCache.MAX_AD_HOC_PROJECTIONS, cache.adHocSize());
+    }
+
 }
@@ -0,0 +1,113 @@
+package act.data;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.http.H;
+import org.osgl.util.IO;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.Mockito.when;
+
+public class MultipartPartsTest extends TestBase {
+
+    static final String BOUNDARY = "----act-boundary";
+
+    @Before
+    public void prepare() throws Exception {
+        super.setup();
+        when(mockActionContext.req()).thenReturn(mockReq);
+        when(mockReq.method()).thenReturn(H.Method.POST);
+        when(mockReq.contentType()).thenReturn(H.Format.FORM_MULTIPART_DATA);
+        when(mockReq.header("content-type")).thenReturn("multipart/form-data; boundary=" + BOUNDARY);
+        when(mockReq.characterEncoding()).thenReturn("UTF-8");
+    }
+
+    @Test
+    public void itShallIterateFormFieldsAndFiles() {
+        body(field("name", "Tom"), file("doc", "a.txt", "hello world"), field("note", "你好"));
+        MultipartParts parts = new MultipartParts(mockActionContext);
+
+        yes(parts.hasNext());
+        MultipartParts.Part part = parts.next();
+        yes(part.isFormField());
+        eq("name", part.fieldName());
+        eq("Tom", part.string());
+
+        part = parts.next();
+        no(part.isFormField());
+        eq("doc", part.fieldName());
+        eq("a.txt", part.fileName());
+        eq("text/plain", part.contentType());
+        eq("hello world", IO.readContentAsString(part.stream()));
+
+        part = parts.next();
+        eq("note", part.fieldName());
+        eq("你好", part.string());
+
+        no(parts.hasNext());
+    }
+
+    @Test
+    public void itShallSkipUnreadContent() {
+        body(file("doc", "a.txt", "not read"), field("name", "Tom"));
+        int n = 0;
+        String name = null;
+        for (MultipartParts.Part part : new MultipartParts(mockActionContext)) {
+            n++;
+            if (part.isFormField()) {
+                name = part.string();
+            }
+        }
+        eq(2, n);
+        eq("Tom", name);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void itShallRejectNonMultipartRequest() {
+        when(mockReq.contentType()).thenReturn(H.Format.FORM_URL_ENCODED);
+        new MultipartParts(mockActionContext);
+    }
+
+    private void body(String... parts) {
+        StringBuilder sb = new StringBuilder();
+        for (String part : parts) {
+            sb.append("--").append(BOUNDARY).append("\r\n").append(part).append("\r\n");
+        }
+        sb.append("--").append(BOUNDARY).append("--\r\n");
+        byte[] ba = sb.toString().getBytes(StandardCharsets.UTF_8);
+        when(mockReq.inputStream()).thenReturn(new ByteArrayInputStream(ba));
+    }
+
+    static String field(String name, String value) {
+        return "Content-Disposition: form-data; name=\"" + name + "\"\r\n\r\n" + value;
+    }
+
+    static String file(String name, String fileName, String content) {
+        return "Content-Disposition: form-data; name=\"" + name + "\"; filename=\"" + fileName + "\"\r\n"
+                + "Content-Type: text/plain\r\n\r\n" + content;
+    }
+
+}
@@ -0,0 +1,131 @@
+package act.handler.builtin.controller;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.$;
+import org.osgl.http.H;
+import org.osgl.mvc.result.NotFound;
+import org.osgl.mvc.result.Result;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.Mockito.*;
+
+public class AsyncResultTest extends TestBase {
+
+    private static final $.Transformer<Object, Result> CONVERTER = new $.Transformer<Object, Result>() {
+        @Override
+        public Result transform(Object o) {
+            return (Result) o;
+        }
+    };
+
+    @Before
+    public void prepare() throws Exception {
+        super.setup();
+        when(mockAppConfig.asyncTimeout()).thenReturn(100);
+    }
+
+    @Test
+    public void testAsyncType() {
+        yes(AsyncResult.isAsyncType(CompletionStage.class));
+        yes(AsyncResult.isAsyncType(CompletableFuture.class));
+        no(AsyncResult.isAsyncType(Object.class));
+        yes(AsyncResult.isAsync(new CompletableFuture<String>()));
+        no(AsyncResult.isAsync("abc"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void itShallRejectNonStage() {
+        new AsyncResult("abc", CONVERTER);
+    }
+
+    @Test
+    public void testSubscribe() {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        AsyncResult result = new AsyncResult(future, CONVERTER);
+        final AtomicReference<Object> value = new AtomicReference<>();
+        result.subscribe(new AsyncResult.Listener() {
+            @Override
+            public void onComplete(Object v, Throwable error) {
+                value.set(v);
+            }
+        });
+        assertNull(value.get());
+        future.complete("done");
+        eq("done", value.get());
+    }
+
+    @Test
+    public void itShallUnwrapCompletionException() {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletionStage<Object> stage = future.thenApply(new java.util.function.Function<Object, Object>() {
+            @Override
+            public Object apply(Object o) {
+                return o;
+            }
+        });
+        AsyncResult result = new AsyncResult(stage, CONVERTER);
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        result.subscribe(new AsyncResult.Listener() {
+            @Override
+            public void onComplete(Object v, Throwable e) {
+                error.set(e);
+            }
+        });
+        IOException cause = new IOException();
+        future.completeExceptionally(cause);
+        same(cause, error.get());
+    }
+
+    @Test
+    public void itShallApplyCompletedValueInBlockingMode() {
+        Result value = mock(Result.class);
+        AsyncResult result = new AsyncResult(CompletableFuture.completedFuture(value), CONVERTER);
+        result.apply(mockReq, mockResp);
+        verify(value).apply(mockReq, mockResp);
+    }
+
+    @Test(expected = NotFound.class)
+    public void itShallThrowResultCompletedExceptionally() {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        future.completeExceptionally(NotFound.get());
+        new AsyncResult(future, CONVERTER).apply(mockReq, mockResp);
+    }
+
+    @Test
+    public void itShallTimeoutInBlockingMode() {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        try {
+            new AsyncResult(future, CONVERTER).apply(mockReq, mockResp);
+            fail("timeout expected");
+        } catch (Result r) {
+            eq(H.Status.SERVICE_UNAVAILABLE, r.status());
+        }
+        yes(future.isCancelled());
+    }
+}
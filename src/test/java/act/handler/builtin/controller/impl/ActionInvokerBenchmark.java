@@ -0,0 +1,169 @@
+package act.handler.builtin.controller.impl;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.BenchmarkBase;
+import act.app.ActionContext;
+import act.inject.param.ParamValueLoader;
+import act.util.ActContext;
+import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
+import com.esotericsoftware.reflectasm.MethodAccess;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+
+/**
+ * Compares the generated invoker with the reflective path used by
+ * {@link ReflectedHandlerInvoker}, i.e. loading parameters into an
+ * `Object[]` and calling {@link MethodAccess#invoke(Object, int, Object...)}
+ */
+@BenchmarkOptions(warmupRounds = 5, benchmarkRounds = 20)
+public class ActionInvokerBenchmark extends BenchmarkBase {
+
+    private static final int LOOP = 10 * 1000 * 1000;
+
+    // keeps JIT from eliminating the calls
+    private static volatile Object sink;
+
+    public static class Controller {
+        public String p0() {
+            return "";
+        }
+
+        public int p3(int a, String b, long c) {
+            return a;
+        }
+
+        public int p10(int a, String b, long c, boolean d, Integer e, int f, String g, long h, double i, Object j) {
+            return a;
+        }
+    }
+
+    private static final Controller CONTROLLER = new Controller();
+    private static final GeneratedActionInvoker.Listener LISTENER = new GeneratedActionInvoker.Listener() {
+        @Override
+        public void paramsLoaded(Object controller, ActionContext context) {
+        }
+    };
+
+    private static Case p0, p3, p10;
+
+    private static class Case {
+        ParamValueLoader[] loaders;
+        MethodAccess methodAccess;
+        int index;
+        GeneratedActionInvoker generated;
+
+        Case(String methodName, Object... values) {
+            Method method = method(methodName);
+            loaders = new ParamValueLoader[values.length];
+            for (int i = 0; i < values.length; ++i) {
+                final Object value = values[i];
+                loaders[i] = new ParamValueLoader() {
+                    @Override
+                    public Object load(Object bean, ActContext<?> context, boolean noDefaultValue) {
+                        return value;
+                    }
+
+                    @Override
+                    public String bindName() {
+                        return null;
+                    }
+                };
+            }
+            methodAccess = MethodAccess.get(Controller.class);
+            index = methodAccess.getIndex(methodName, method.getParameterTypes());
+            generated = new ActionInvokerGenerator(Controller.class, method).generate(loaders, LISTENER);
+        }
+
+        Object reflective() {
+            int sz = loaders.length;
+            Object[] params = new Object[sz];
+            for (int i = 0; i < sz; ++i) {
+                params[i] = loaders[i].load(null, null, false);
+            }
+            return methodAccess.invoke(CONTROLLER, index, params);
+        }
+
+        Object generated() throws Exception {
+            return generated.invoke(CONTROLLER, null);
+        }
+    }
+
+    @BeforeClass
+    public static void prepare() {
+        p0 = new Case("p0");
+        p3 = new Case("p3", 1, "b", 3L);
+        p10 = new Case("p10", 1, "b", 3L, true, 5, 6, "g", 8L, 9.0D, "j");
+    }
+
+    @Test
+    public void reflective0() {
+        for (int i = 0; i < LOOP; ++i) {
+            sink = p0.reflective();
+        }
+    }
+
+    @Test
+    public void generated0() throws Exception {
+        for (int i = 0; i < LOOP; ++i) {
+            sink = p0.generated();
+        }
+    }
+
+    @Test
+    public void reflective3() {
+        for (int i = 0; i < LOOP; ++i) {
+            sink = p3.reflective();
+        }
+    }
+
+    @Test
+    public void generated3() throws Exception {
+        for (int i = 0; i < LOOP; ++i) {
+            sink = p3.generated();
+        }
+    }
+
+    @Test
+    public void reflective10() {
+        for (int i = 0; i < LOOP; ++i) {
+            sink = p10.reflective();
+        }
+    }
+
+    @Test
+    public void generated10() throws Exception {
+        for (int i = 0; i < LOOP; ++i) {
+            sink = p10.generated();
+        }
+    }
+
+    private static Method method(String name) {
+        for (Method m : Controller.class.getMethods()) {
+            if (m.getName().equals(name)) {
+                return m;
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+}
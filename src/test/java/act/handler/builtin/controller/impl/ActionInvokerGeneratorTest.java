@@ -0,0 +1,178 @@
+package act.handler.builtin.controller.impl;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import act.app.ActionContext;
+import act.inject.param.ParamValueLoader;
+import act.util.ActContext;
+import org.junit.Test;
+import org.osgl.mvc.result.BadRequest;
+import org.osgl.mvc.result.Result;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ActionInvokerGeneratorTest extends TestBase {
+
+    public static class Foo {
+        public Object last;
+
+        public String hello() {
+            return "hello";
+        }
+
+        public long sum(int a, long b, double c, Integer d) {
+            return a + b + (long) c + d;
+        }
+
+        public void set(String s, boolean b, char c) {
+            last = s + b + c;
+        }
+
+        public static String upper(String s) {
+            return s.toUpperCase();
+        }
+
+        public void fail() {
+            throw new BadRequest();
+        }
+
+        private void secret() {
+        }
+    }
+
+    static class Hidden {
+        public void x() {
+        }
+    }
+
+    static class ConstLoader implements ParamValueLoader {
+        private Object value;
+
+        ConstLoader(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public Object load(Object bean, ActContext<?> context, boolean noDefaultValue) {
+            return value;
+        }
+
+        @Override
+        public String bindName() {
+            return null;
+        }
+    }
+
+    static class CountingListener implements GeneratedActionInvoker.Listener {
+        AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public void paramsLoaded(Object controller, ActionContext context) {
+            count.incrementAndGet();
+        }
+    }
+
+    private CountingListener listener = new CountingListener();
+
+    @Test
+    public void testNoParam() throws Exception {
+        eq("hello", invoker("hello").invoke(new Foo(), null));
+        eq(1, listener.count.get());
+    }
+
+    @Test
+    public void testPrimitiveParams() throws Exception {
+        GeneratedActionInvoker invoker = invoker("sum", 1, 2L, 3.5D, 4);
+        eq(10L, invoker.invoke(new Foo(), null));
+    }
+
+    @Test
+    public void testNullPrimitiveParamLoadsDefaultValue() throws Exception {
+        Foo foo = new Foo();
+        invoker("set", "x", null, null).invoke(foo, null);
+        eq("xfalse\0", foo.last);
+    }
+
+    @Test
+    public void testStaticMethod() throws Exception {
+        eq("ABC", invoker("upper", "abc").invoke(null, null));
+    }
+
+    @Test
+    public void testResultThrownOut() throws Exception {
+        try {
+            invoker("fail").invoke(new Foo(), null);
+            fail("expect BadRequest");
+        } catch (Result r) {
+            yes(r instanceof BadRequest);
+        }
+    }
+
+    @Test
+    public void testListenerCanStopInvocation() throws Exception {
+        GeneratedActionInvoker invoker = new ActionInvokerGenerator(Foo.class, method("set")).generate(loaders("x", true, 'c'), new GeneratedActionInvoker.Listener() {
+            @Override
+            public void paramsLoaded(Object controller, ActionContext context) {
+                throw new BadRequest();
+            }
+        });
+        Foo foo = new Foo();
+        try {
+            invoker.invoke(foo, null);
+            fail("expect BadRequest");
+        } catch (BadRequest r) {
+            // expected
+        }
+        assertNull(foo.last);
+    }
+
+    @Test
+    public void testUnsupported() throws Exception {
+        no(new ActionInvokerGenerator(Foo.class, Foo.class.getDeclaredMethod("secret")).supported());
+        no(new ActionInvokerGenerator(Hidden.class, Hidden.class.getMethod("x")).supported());
+        yes(new ActionInvokerGenerator(Foo.class, method("sum")).supported());
+    }
+
+    private GeneratedActionInvoker invoker(String methodName, Object... values) {
+        ActionInvokerGenerator generator = new ActionInvokerGenerator(Foo.class, method(methodName));
+        yes(generator.supported());
+        return generator.generate(loaders(values), listener);
+    }
+
+    private static ParamValueLoader[] loaders(Object... values) {
+        ParamValueLoader[] loaders = new ParamValueLoader[values.length];
+        for (int i = 0; i < values.length; ++i) {
+            loaders[i] = new ConstLoader(values[i]);
+        }
+        return loaders;
+    }
+
+    private static Method method(String name) {
+        for (Method m : Foo.class.getMethods()) {
+            if (m.getName().equals(name)) {
+                return m;
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+}
@@ -0,0 +1,196 @@
+package act.inject.genie;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import act.app.App;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.http.H;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+
+public class SessionScopeCacheTest extends TestBase {
+
+    private static final int TTL = 1800;
+
+    private H.Session session;
+    private RecordingCache cache;
+
+    @Before
+    public void prepare() {
+        session = new H.Session();
+        cache = new RecordingCache(60);
+        cache.remote.put("user", "tom");
+    }
+
+    @Test
+    public void readsShallBeServedByRequestView() {
+        SessionScopeCache.View view = cache.view(session);
+        eq("tom", view.get("user"));
+        eq("tom", view.get("user"));
+        eq(null, view.get("missing"));
+        eq(null, view.get("missing"));
+        // TTL is not refreshed until flush
+        eq(Arrays.asList("get:user", "get:missing"), cache.ops);
+        eq(2L, cache.readCount());
+        eq(2L, cache.localHitCount());
+        view.flush();
+        eq(Arrays.asList("get:user", "get:missing", "put:user=tom"), cache.ops);
+        eq(1L, cache.writeCount());
+    }
+
+    @Test
+    public void touchesShallBeCoalescedAcrossRequests() {
+        for (int i = 0; i < 5; ++i) {
+            SessionScopeCache.View view = cache.view(session);
+            eq("tom", view.get("user"));
+            view.flush();
+        }
+        eq(1, count("put:user=tom"));
+        eq(5L, cache.readCount());
+        eq(1L, cache.writeCount());
+        eq(4L, cache.skippedTouchCount());
+    }
+
+    @Test
+    public void touchesShallBeCoalescedPerSession() {
+        H.Session another = new H.Session();
+        cache.view(session).get("user");
+        SessionScopeCache.View view = cache.view(another);
+        view.get("user");
+        view.flush();
+        eq(1, count("put:user=tom"));
+        eq(0L, cache.skippedTouchCount());
+    }
+
+    @Test
+    public void zeroTouchIntervalShallTouchOnEveryRequest() {
+        cache = new RecordingCache(0);
+        cache.remote.put("user", "tom");
+        for (int i = 0; i < 3; ++i) {
+            SessionScopeCache.View view = cache.view(session);
+            view.get("user");
+            view.flush();
+        }
+        eq(3, count("put:user=tom"));
+        eq(0L, cache.skippedTouchCount());
+    }
+
+    @Test
+    public void writesShallBeDeferredToFlush() {
+        SessionScopeCache.View view = cache.view(session);
+        view.put("cart", "a");
+        view.put("cart", "b");
+        view.put("user", "jerry");
+        eq("b", view.get("cart"));
+        eq("jerry", view.get("user"));
+        yes(cache.ops.isEmpty());
+        view.flush();
+        eq(Arrays.asList("put:cart=b", "put:user=jerry"), cache.ops);
+        eq(2L, cache.writeCount());
+        eq(0L, cache.readCount());
+    }
+
+    @Test
+    public void writeShallCountAsTouch() {
+        SessionScopeCache.View view = cache.view(session);
+        view.put("user", "tom");
+        view.flush();
+        view = cache.view(session);
+        view.get("user");
+        view.flush();
+        eq(1, count("put:user=tom"));
+        eq(1L, cache.skippedTouchCount());
+    }
+
+    @Test
+    public void readThenWriteShallWriteOnce() {
+        SessionScopeCache.View view = cache.view(session);
+        eq("tom", view.get("user"));
+        view.put("user", "jerry");
+        view.flush();
+        eq(Arrays.asList("get:user", "put:user=jerry"), cache.ops);
+        eq(1L, cache.writeCount());
+    }
+
+    @Test
+    public void nullShallEvictBean() {
+        SessionScopeCache.View view = cache.view(session);
+        view.put("user", null);
+        eq(null, view.get("user"));
+        view.flush();
+        eq(Arrays.asList("evict:user"), cache.ops);
+    }
+
+    @Test
+    public void writesAfterFlushShallGoThrough() {
+        SessionScopeCache.View view = cache.view(session);
+        view.flush();
+        view.put("cart", "a");
+        eq(Arrays.asList("put:cart=a"), cache.ops);
+    }
+
+    private int count(String op) {
+        int n = 0;
+        for (String s : cache.ops) {
+            if (s.equals(op)) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    private static class RecordingCache extends SessionScopeCache {
+
+        private final Map<String, Object> remote = new HashMap<>();
+        private final List<String> ops = new ArrayList<>();
+
+        RecordingCache(int touchInterval) {
+            super(mock(App.class), TTL, touchInterval);
+        }
+
+        @Override
+        <T> T load(H.Session session, String key) {
+            ops.add("get:" + key);
+            return (T) remote.get(key);
+        }
+
+        @Override
+        void store(H.Session session, String key, Object v, int ttl) {
+            ops.add("put:" + key + "=" + v);
+            remote.put(key, v);
+        }
+
+        @Override
+        void evict(H.Session session, String key) {
+            ops.add("evict:" + key);
+            remote.remove(key);
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+package act.inject.param;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import org.junit.Test;
+import org.osgl.util.C;
+
+import java.lang.reflect.Field;
+
+public class FieldSetterTest extends TestBase {
+
+    public static class Bean {
+        public int n;
+        public long l;
+        public boolean b;
+        public String s;
+        public final String f = "f";
+        private String p;
+        public static String st;
+    }
+
+    @Test
+    public void testSet() throws Exception {
+        FieldSetter setter = FieldSetter.generate(Bean.class, C.list(field("n"), field("l"), field("b"), field("s")));
+        Bean bean = new Bean();
+        setter.set(bean, 0, 5);
+        setter.set(bean, 1, 6L);
+        setter.set(bean, 2, true);
+        setter.set(bean, 3, "x");
+        eq(5, bean.n);
+        eq(6L, bean.l);
+        yes(bean.b);
+        eq("x", bean.s);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testIndexOutOfBound() throws Exception {
+        FieldSetter.generate(Bean.class, C.list(field("n"))).set(new Bean(), 1, 1);
+    }
+
+    @Test
+    public void testSupports() throws Exception {
+        yes(FieldSetter.supports(Bean.class, field("s")));
+        no(FieldSetter.supports(Bean.class, field("f")));
+        no(FieldSetter.supports(Bean.class, field("p")));
+        no(FieldSetter.supports(Bean.class, field("st")));
+    }
+
+    private static Field field(String name) throws Exception {
+        return Bean.class.getDeclaredField(name);
+    }
+}
@@ -0,0 +1,147 @@
+package act.inject.param;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.BenchmarkBase;
+import com.alibaba.fastjson.JSON;
+import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.osgl.inject.BeanSpec;
+import org.osgl.inject.Genie;
+import org.osgl.util.C;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares {@link JsonParamBinder} with the generated {@link JsonDTO} path,
+ * i.e. parsing the body into the DTO class and getting the values out of it,
+ * with 1KB and 100KB payloads
+ */
+@BenchmarkOptions(warmupRounds = 5, benchmarkRounds = 20)
+public class JsonParamBinderBenchmark extends BenchmarkBase {
+
+    private static final int LOOP_1K = 20 * 1000;
+    private static final int LOOP_100K = 200;
+
+    // keeps JIT from eliminating the calls
+    private static volatile Object sink;
+
+    public static class Item {
+        public String name;
+        public int count;
+        public double price;
+        public List<String> tags;
+    }
+
+    public static class Params {
+        public int id;
+        public String userName;
+        public Map<String, Integer> scores;
+        public List<Item> items;
+    }
+
+    private static final String[] NAMES = {"id", "items", "scores", "userName"};
+
+    private static class DTOClassLoader extends ClassLoader {
+        DTOClassLoader() {
+            super(JsonParamBinderBenchmark.class.getClassLoader());
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+    private static List<BeanSpec> specs;
+    private static Class<? extends JsonDTO> dtoClass;
+    private static JsonParamBinder binder;
+    private static String body1k;
+    private static String body100k;
+
+    @BeforeClass
+    public static void prepare() throws Exception {
+        Genie genie = Genie.create();
+        specs = C.newList();
+        for (String name : NAMES) {
+            Field field = Params.class.getField(name);
+            specs.add(BeanSpec.of(field.getGenericType(), field.getDeclaredAnnotations(), name, genie));
+        }
+        String className = "JsonParamBinderBenchmarkDTO";
+        byte[] bytes = new JsonDTOClassGenerator(className, specs, null).generateByteCode();
+        dtoClass = (Class<? extends JsonDTO>) new DTOClassLoader().define(className, bytes);
+        binder = JsonParamBinder.of(specs);
+        body1k = body(1024);
+        body100k = body(100 * 1024);
+    }
+
+    @Test
+    public void dto1k() {
+        for (int i = 0; i < LOOP_1K; ++i) {
+            sink = load(JSON.parseObject(body1k, dtoClass));
+        }
+    }
+
+    @Test
+    public void binder1k() {
+        for (int i = 0; i < LOOP_1K; ++i) {
+            sink = load(binder.bind(body1k, null));
+        }
+    }
+
+    @Test
+    public void dto100k() {
+        for (int i = 0; i < LOOP_100K; ++i) {
+            sink = load(JSON.parseObject(body100k, dtoClass));
+        }
+    }
+
+    @Test
+    public void binder100k() {
+        for (int i = 0; i < LOOP_100K; ++i) {
+            sink = load(binder.bind(body100k, null));
+        }
+    }
+
+    // what the param value loaders do
+    private static Object load(JsonDTO dto) {
+        Object o = null;
+        for (String name : NAMES) {
+            o = dto.get(name);
+        }
+        return o;
+    }
+
+    private static String body(int size) {
+        StringBuilder sb = new StringBuilder("{\"id\": 1, \"userName\": \"benchmark\", \"scores\": {\"a\": 1, \"b\": 2}, \"items\": [");
+        for (int i = 0; sb.length() < size - 100; ++i) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append("{\"name\": \"item").append(i).append("\", \"count\": ").append(i)
+                    .append(", \"price\": ").append(i).append(".5, \"tags\": [\"x\", \"y\"]}");
+        }
+        return sb.append("], \"ignored\": {\"a\": [1, 2, 3]}}").toString();
+    }
+
+}
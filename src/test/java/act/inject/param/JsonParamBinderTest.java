@@ -0,0 +1,112 @@
+package act.inject.param;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.inject.BeanSpec;
+import org.osgl.inject.Genie;
+import org.osgl.util.C;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+
+public class JsonParamBinderTest extends TestBase {
+
+    public static class Foo {
+        public String name;
+        public int count;
+    }
+
+    public static class Params {
+        public int id;
+        public String userName;
+        public List<Foo> foos;
+        public Map<String, Integer> scores;
+        public Foo foo;
+        public long[] ids;
+        public List<? extends Foo> wildcard;
+    }
+
+    private Genie genie;
+    private JsonParamBinder binder;
+
+    @Before
+    public void prepare() throws Exception {
+        genie = Genie.create();
+        binder = JsonParamBinder.of(specs("id", "userName", "foos", "scores", "foo", "ids"));
+        assertNotNull(binder);
+    }
+
+    @Test
+    public void itShallBindMembers() {
+        String body = "{\"id\": 5, \"userName\": \"tom\", \"foos\": [{\"name\": \"a\", \"count\": 1}, {\"name\": \"b\"}]," +
+                "\"unknown\": {\"x\": [1, 2, {\"y\": null}]}, \"scores\": {\"a\": 1, \"b\": 2}," +
+                "\"foo\": {\"name\": \"c\", \"count\": 3}, \"ids\": [1, 2, 3]}";
+        JsonDTO dto = binder.bind(body, null);
+        eq(5, dto.get("id"));
+        eq("tom", dto.get("userName"));
+        List<Foo> foos = (List<Foo>) dto.get("foos");
+        eq(2, foos.size());
+        eq("b", foos.get(1).name);
+        eq(1, foos.get(0).count);
+        Map<String, Integer> scores = (Map<String, Integer>) dto.get("scores");
+        eq(2, scores.get("b"));
+        eq("c", ((Foo) dto.get("foo")).name);
+        long[] ids = (long[]) dto.get("ids");
+        eq(3, ids.length);
+        eq(3L, ids[2]);
+        assertNull(dto.get("unknown"));
+    }
+
+    @Test
+    public void itShallMatchLooseNames() {
+        JsonDTO dto = binder.bind("{\"user_name\": \"tom\", \"ID\": 7}", null);
+        eq("tom", dto.get("userName"));
+        eq(7, dto.get("id"));
+    }
+
+    @Test
+    public void itShallBindWholeBody() {
+        JsonDTO dto = binder.bind("[{\"name\": \"a\"}, {\"name\": \"b\"}]", "foos");
+        List<Foo> foos = (List<Foo>) dto.get("foos");
+        eq(2, foos.size());
+        eq("a", foos.get(0).name);
+        assertNull(dto.get("id"));
+    }
+
+    @Test
+    public void itShallLeaveExoticTypesToDTO() throws Exception {
+        assertNull(JsonParamBinder.of(specs("id", "wildcard")));
+    }
+
+    private List<BeanSpec> specs(String... names) throws Exception {
+        List<BeanSpec> list = C.newList();
+        for (String name : names) {
+            Field field = Params.class.getField(name);
+            list.add(BeanSpec.of(field.getGenericType(), field.getDeclaredAnnotations(), name, genie));
+        }
+        return list;
+    }
+
+}
@@ -0,0 +1,145 @@
+package act.job;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.util.IO;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+public class FileJobStoreTest extends TestBase {
+
+    private File file;
+    private FileJobStore store;
+
+    @Before
+    public void prepare() throws IOException {
+        file = File.createTempFile("job-store", ".log");
+        store = new FileJobStore();
+        store.open(file, false);
+    }
+
+    @After
+    public void teardown() {
+        store.close();
+        file.delete();
+    }
+
+    @Test
+    public void itShallRestoreSavedRecords() {
+        store.save(new JobRecord("a", 100, 50, MisfirePolicy.SKIP, null));
+        store.save(new JobRecord("b", 200, 0, MisfirePolicy.FIRE_NOW, "cGF5bG9hZA=="));
+        store.save(new JobRecord("a", 300, 250, MisfirePolicy.SKIP, null));
+        store.remove("b");
+        Map<String, JobRecord> records = reopen();
+        eq(1, records.size());
+        JobRecord a = records.get("a");
+        eq(300L, a.getNextFireTime());
+        eq(250L, a.getLastCompletion());
+        eq(MisfirePolicy.SKIP, a.getMisfirePolicy());
+        no(a.isOneShot());
+    }
+
+    @Test
+    public void itShallKeepPayloadOfOneShotJob() {
+        store.save(new JobRecord("x", 100, 0, MisfirePolicy.FIRE_NOW, "cGF5bG9hZA=="));
+        JobRecord x = reopen().get("x");
+        yes(x.isOneShot());
+        eq("cGF5bG9hZA==", x.getPayload());
+    }
+
+    @Test
+    public void itShallIgnoreCorruptedLine() throws IOException {
+        store.save(new JobRecord("a", 100, 0, null, null));
+        store.close();
+        OutputStream os = new FileOutputStream(file, true);
+        try {
+            os.write("{\"op\":\"put\",\"id\":\"b\",\"ne".getBytes(StandardCharsets.UTF_8));
+        } finally {
+            IO.close(os);
+        }
+        Map<String, JobRecord> records = reopen();
+        eq(1, records.size());
+        eq(MisfirePolicy.COALESCE, records.get("a").getMisfirePolicy());
+    }
+
+    @Test
+    public void itShallDefaultMissingOrUnknownMisfirePolicy() throws IOException {
+        store.close();
+        OutputStream os = new FileOutputStream(file, true);
+        try {
+            os.write(("{\"op\":\"put\",\"id\":\"a\",\"next\":100}\n" +
+                    "{\"op\":\"put\",\"id\":\"b\",\"next\":200,\"misfire\":\"later\"}\n" +
+                    "{\"op\":\"put\",\"id\":\"c\",\"next\":300,\"misfire\":\"skip\"}\n").getBytes(StandardCharsets.UTF_8));
+        } finally {
+            IO.close(os);
+        }
+        Map<String, JobRecord> records = reopen();
+        eq(3, records.size());
+        eq(MisfirePolicy.COALESCE, records.get("a").getMisfirePolicy());
+        eq(MisfirePolicy.COALESCE, records.get("b").getMisfirePolicy());
+        eq(MisfirePolicy.SKIP, records.get("c").getMisfirePolicy());
+        // the compacted file can be loaded again
+        eq(3, reopen().size());
+    }
+
+    @Test
+    public void itShallCompactOnOpen() throws IOException {
+        for (int i = 0; i < 100; ++i) {
+            store.save(new JobRecord("a", i, 0, null, null));
+        }
+        reopen();
+        eq(1, Files.readAllLines(file.toPath(), StandardCharsets.UTF_8).size());
+    }
+
+    @Test
+    public void periodicTriggerShallCountMissedRuns() {
+        JobTrigger every = JobTrigger.every(10);
+        eq(1, every.missedRuns(1000, 1000));
+        eq(3, every.missedRuns(1000, 21000));
+        eq(JobTrigger.MAX_CATCH_UP, every.missedRuns(0, 1000L * 1000 * 1000));
+        JobTrigger cron = JobTrigger.cron("0 0 * * * ?");
+        long hour = 3600 * 1000;
+        eq(4, cron.missedRuns(10 * hour, 13 * hour));
+    }
+
+    private Map<String, JobRecord> reopen() {
+        store.close();
+        store = new FileJobStore();
+        store.open(file, false);
+        Map<String, JobRecord> map = new HashMap<>();
+        for (JobRecord record : store.records()) {
+            map.put(record.getId(), record);
+        }
+        return map;
+    }
+
+}
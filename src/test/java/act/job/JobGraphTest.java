@@ -0,0 +1,145 @@
+package act.job;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.$;
+import org.osgl.exception.NotAppliedException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static act.app.event.AppEventId.START;
+import static org.mockito.Mockito.when;
+
+public class JobGraphTest extends TestBase {
+
+    private AppJobManager manager;
+    private _Job root;
+    private List<String> trace;
+
+    @Before
+    public void prepare() throws Exception {
+        setup();
+        when(mockAppConfig.jobPoolSize()).thenReturn(2);
+        when(mockAppConfig.jobDagPoolSize()).thenReturn(4);
+        manager = new AppJobManager(mockApp);
+        root = manager.jobById(AppJobManager.appEventJobId(START));
+        trace = Collections.synchronizedList(new ArrayList<String>());
+    }
+
+    @After
+    public void teardown() {
+        manager.destroy();
+    }
+
+    @Test
+    public void deterministicModeShallRunJobsInRegistrationOrder() {
+        when(mockAppConfig.jobDagEnabled()).thenReturn(false);
+        String caller = Thread.currentThread().getName();
+        JobTrigger.after(START).register(job("a", caller).setIndependent(), manager);
+        JobTrigger.after(START).register(job("b", caller).setIndependent(), manager);
+        JobTrigger.before("a").register(job("a0", caller), manager);
+        JobTrigger.after("a").register(job("a1", caller), manager);
+        JobTrigger.before(START).register(job("s0", caller), manager);
+        run();
+        eq("[s0, a0, a, a1, b]", trace.toString());
+    }
+
+    @Test
+    public void independentJobsShallRunInParallel() {
+        when(mockAppConfig.jobDagEnabled()).thenReturn(true);
+        CyclicBarrier barrier = new CyclicBarrier(3);
+        for (String id : new String[]{"x", "y", "z"}) {
+            JobTrigger.after(START).register(awaiting(id, barrier), manager);
+        }
+        run();
+        eq(3, trace.size());
+    }
+
+    @Test
+    public void dependenciesShallBeRespectedInParallelMode() {
+        when(mockAppConfig.jobDagEnabled()).thenReturn(true);
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        JobTrigger.after(START).register(awaiting("x", barrier), manager);
+        JobTrigger.after(START).register(awaiting("y", barrier), manager);
+        JobTrigger.before("x").register(job("x0", null).setIndependent(), manager);
+        JobTrigger.after("x").register(job("x1", null).setIndependent(), manager);
+        // jobs not marked as independent stay on the emitting thread
+        JobTrigger.after(START).register(job("f", Thread.currentThread().getName()), manager);
+        run();
+        yes(trace.indexOf("x0") < trace.indexOf("x"));
+        yes(trace.indexOf("x") < trace.indexOf("x1"));
+        yes(trace.contains("y"));
+        yes(trace.contains("f"));
+    }
+
+    @Test
+    public void timingShallBeRecordedForEachJob() {
+        when(mockAppConfig.jobDagEnabled()).thenReturn(false);
+        JobTrigger.after(START).register(job("a", null), manager);
+        run();
+        List<JobTiming> timings = manager.timings();
+        eq(2, timings.size());
+        eq(START, timings.get(1).getEvent());
+        eq("a", timings.get(1).getId());
+    }
+
+    private void run() {
+        new JobGraph(root, START, manager).run();
+    }
+
+    private _Job job(final String id, final String expectedThread) {
+        return new _Job(id, manager, new $.F0<Void>() {
+            @Override
+            public Void apply() throws NotAppliedException, $.Break {
+                if (null != expectedThread) {
+                    eq(expectedThread, Thread.currentThread().getName());
+                }
+                trace.add(id);
+                return null;
+            }
+        }, false);
+    }
+
+    // the job can only finish when the other parties are running at the same time
+    private _Job awaiting(final String id, final CyclicBarrier barrier) {
+        return new _Job(id, manager, new $.F0<Void>() {
+            @Override
+            public Void apply() throws NotAppliedException, $.Break {
+                try {
+                    barrier.await(5, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new IllegalStateException("jobs are not run in parallel", e);
+                }
+                trace.add(id);
+                return null;
+            }
+        }, false).setIndependent();
+    }
+
+}
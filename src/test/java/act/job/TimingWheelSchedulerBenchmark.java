@@ -0,0 +1,118 @@
+package act.job;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.BenchmarkBase;
+import act.app.AppThreadFactory;
+import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares scheduling and then cancelling pending timers, e.g. session
+ * expiry notifications, on {@link ScheduledThreadPoolExecutor} and
+ * {@link TimingWheelScheduler}
+ */
+@BenchmarkOptions(warmupRounds = 5, benchmarkRounds = 20)
+public class TimingWheelSchedulerBenchmark extends BenchmarkBase {
+
+    private static final Runnable NOOP = new Runnable() {
+        @Override
+        public void run() {
+        }
+    };
+
+    private static long[] delays;
+    private static ScheduledFuture<?>[] futures;
+    private static ScheduledThreadPoolExecutor pool;
+    private static TimingWheelScheduler wheel;
+
+    @BeforeClass
+    public static void prepare() {
+        Random random = new Random(42);
+        delays = new long[1000 * 1000];
+        for (int i = 0; i < delays.length; ++i) {
+            // 1 to 60 minutes
+            delays[i] = 60 * 1000 + random.nextInt(59 * 60 * 1000);
+        }
+        futures = new ScheduledFuture<?>[delays.length];
+        pool = new ScheduledThreadPoolExecutor(4, new AppThreadFactory("bench-pool"));
+        pool.setRemoveOnCancelPolicy(true);
+        wheel = new TimingWheelScheduler(4, 10, TimeUnit.MILLISECONDS, "bench-wheel");
+    }
+
+    @AfterClass
+    public static void release() {
+        pool.shutdownNow();
+        wheel.shutdownNow();
+    }
+
+    @Test
+    public void pool10k() {
+        scheduleAndCancel(pool, 10 * 1000);
+    }
+
+    @Test
+    public void wheel10k() {
+        scheduleAndCancel(wheel, 10 * 1000);
+    }
+
+    @Test
+    public void pool100k() {
+        scheduleAndCancel(pool, 100 * 1000);
+    }
+
+    @Test
+    public void wheel100k() {
+        scheduleAndCancel(wheel, 100 * 1000);
+    }
+
+    @Test
+    @BenchmarkOptions(warmupRounds = 2, benchmarkRounds = 5)
+    public void pool1m() {
+        scheduleAndCancel(pool, 1000 * 1000);
+    }
+
+    @Test
+    @BenchmarkOptions(warmupRounds = 2, benchmarkRounds = 5)
+    public void wheel1m() {
+        scheduleAndCancel(wheel, 1000 * 1000);
+    }
+
+    private static void scheduleAndCancel(ScheduledExecutorService scheduler, int timers) {
+        for (int i = 0; i < timers; ++i) {
+            futures[i] = scheduler.schedule(NOOP, delays[i], TimeUnit.MILLISECONDS);
+        }
+        // cancel in an order other than the expiry order
+        for (int i = timers - 1; i >= 0; --i) {
+            futures[i].cancel(false);
+            futures[i] = null;
+        }
+    }
+
+}
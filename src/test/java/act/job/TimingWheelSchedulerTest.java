@@ -0,0 +1,129 @@
+package act.job;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TimingWheelSchedulerTest extends TestBase {
+
+    private TimingWheelScheduler scheduler;
+
+    @Before
+    public void prepare() {
+        scheduler = new TimingWheelScheduler(2, 1, TimeUnit.MILLISECONDS, "test-jobs");
+    }
+
+    @After
+    public void teardown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void itShallRunDelayedCallable() throws Exception {
+        long start = System.nanoTime();
+        ScheduledFuture<String> future = scheduler.schedule(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return "done";
+            }
+        }, 30, TimeUnit.MILLISECONDS);
+        eq("done", future.get(5, TimeUnit.SECONDS));
+        yes(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 30);
+    }
+
+    @Test
+    public void itShallRunTimersAcrossWheelLevels() throws Exception {
+        // beyond the first level wheel, i.e. 256 ticks
+        final long start = System.nanoTime();
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicLong elapsed = new AtomicLong();
+        scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                elapsed.set(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                latch.countDown();
+            }
+        }, 600, TimeUnit.MILLISECONDS);
+        yes(latch.await(5, TimeUnit.SECONDS));
+        yes(elapsed.get() >= 600);
+    }
+
+    @Test
+    public void cancelledTimerShallNotRun() throws Exception {
+        final AtomicInteger counter = new AtomicInteger();
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                counter.incrementAndGet();
+            }
+        };
+        for (int i = 0; i < 1000; ++i) {
+            scheduler.schedule(task, 50, TimeUnit.MILLISECONDS).cancel(false);
+        }
+        Thread.sleep(200);
+        eq(0, counter.get());
+        eq(0L, scheduler.pendingTimers());
+    }
+
+    @Test
+    public void itShallRunPeriodicTimerTillCancelled() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(3);
+        ScheduledFuture<?> future = scheduler.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        }, 5, 5, TimeUnit.MILLISECONDS);
+        yes(latch.await(5, TimeUnit.SECONDS));
+        future.cancel(false);
+        yes(future.isCancelled());
+    }
+
+    @Test
+    public void itShallCancelPendingTimersOnShutdown() throws Exception {
+        ScheduledFuture<?> future = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }, 1, TimeUnit.HOURS);
+        eq(1, scheduler.shutdownNow().size());
+        yes(future.isCancelled());
+        yes(scheduler.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void itShallRejectTimersAfterShutdown() {
+        scheduler.shutdown();
+        scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }, 1, TimeUnit.SECONDS);
+    }
+
+}
@@ -0,0 +1,94 @@
+package act.route;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.BenchmarkBase;
+import act.app.App;
+import act.conf.AppConfig;
+import act.handler.RequestHandler;
+import act.handler.RequestHandlerResolver;
+import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.osgl.util.C;
+
+import java.util.Map;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.osgl.http.H.Method.GET;
+
+/**
+ * Measures {@link Router#reverseRoute(String, org.osgl.http.H.Method, Map)} with
+ * the typical links rendered in pages
+ */
+@BenchmarkOptions(warmupRounds = 5, benchmarkRounds = 20)
+public class ReverseRouteBenchmark extends BenchmarkBase {
+
+    private static final int LOOP = 1000 * 1000;
+
+    // keeps JIT from eliminating the calls
+    private static volatile Object sink;
+
+    private static Router router;
+    private static Map<String, Object> noArgs = C.map();
+    private static Map<String, Object> pathArgs = C.<String, Object>map("userId", 123, "orderId", "ab-456");
+    private static Map<String, Object> queryArgs = C.<String, Object>map("userId", 123, "page", 2, "q", "red shoes");
+
+    @BeforeClass
+    public static void prepare() {
+        RequestHandlerResolver resolver = mock(RequestHandlerResolver.class);
+        when(resolver.resolve(anyString(), any(App.class))).thenReturn(mock(RequestHandler.class));
+        App app = mock(App.class);
+        when(app.config()).thenReturn(new AppConfig());
+        router = new Router(resolver, app);
+        router.addMapping(GET, "/", "pkg.Home.index");
+        router.addMapping(GET, "/products/featured", "pkg.Products.featured");
+        router.addMapping(GET, "/users/{userId}/orders/{orderId}", "pkg.Orders.show");
+        router.addMapping(GET, "/users/{userId}/orders", "pkg.Orders.list");
+        router.addMapping(GET, "/files/{name}.{ext}", "pkg.Files.get");
+        router.freeze();
+    }
+
+    @Test
+    public void staticRoute() {
+        for (int i = 0; i < LOOP; ++i) {
+            sink = router.reverseRoute("pkg.Products.featured", GET, noArgs);
+        }
+    }
+
+    @Test
+    public void pathVariables() {
+        for (int i = 0; i < LOOP; ++i) {
+            sink = router.reverseRoute("pkg.Orders.show", GET, pathArgs);
+        }
+    }
+
+    @Test
+    public void pathVariablesAndQuery() {
+        for (int i = 0; i < LOOP; ++i) {
+            sink = router.reverseRoute("pkg.Orders.list", GET, queryArgs);
+        }
+    }
+
+}
@@ -33,6 +33,8 @@ import org.osgl.exception.ConfigurationException;
 import org.osgl.exception.NotAppliedException;
 import org.osgl.http.H;
 import org.osgl.util.C;
+import org.osgl.util.Codec;
+import org.osgl.util.S;
 
 import java.io.File;
 
@@ -285,6 +287,53 @@ public class RouterTest extends RouterTestBase {
         eq(router.reverseRoute("pkg.Foo.foo", C.<String, Object>map("foo", 1)), "/foo/1.htm");
     }
 
+    @Test
+    public void reverseRouteShallFollowRouteChangedConcurrently() throws Exception {
+        router.addMapping(GET, "/v0/foo", "pkg.Foo.foo", ACTION_ANNOTATION);
+        router.freeze();
+        final int n = 2000;
+        Thread writer = new Thread() {
+            @Override
+            public void run() {
+                for (int i = 1; i <= n; ++i) {
+                    router.addMapping(GET, "/v" + i + "/foo", "pkg.Foo.foo", ACTION_ANNOTATION);
+                }
+            }
+        };
+        writer.start();
+        while (writer.isAlive()) {
+            assertNotNull(router.reverseRoute("pkg.Foo.foo"));
+        }
+        writer.join();
+        eq("/v" + n + "/foo", router.reverseRoute("pkg.Foo.foo"));
+    }
+
+    @Test
+    public void testReverseRouteQueryEncoding() {
+        router.addMapping(GET, "/foo/{id}", "pkg.Foo.foo");
+        eq("/foo/1?q=a+b%26c%3D%E4%B8%AD", router.reverseRoute("pkg.Foo.foo", C.<String, Object>map("id", 1, "q", "a b&c=中")));
+        eq("/foo/1", router.reverseRoute("pkg.Foo.foo", C.<String, Object>map("id", 1, "q", null)));
+    }
+
+    @Test
+    public void testReverseRouteEncoder() {
+        String[] sa = {"", "abc", "a b", "a+b/c?d=e&f", "中文 and ü", "*-._~!", "\uD83D\uDE00 x"};
+        for (String s : sa) {
+            S.Buffer buf = S.newBuffer();
+            ReverseRouteBuilder.encode(buf, s);
+            eq(Codec.encodeUrl(s), buf.toString());
+        }
+    }
+
+    @Test
+    public void reverseRouteShallBeUpdatedWhenRoutesChange() {
+        router.addMapping(GET, "/foo/{id}", "pkg.Foo.foo");
+        router.freeze();
+        eq("/foo/1", router.reverseRoute("pkg.Foo.foo", C.<String, Object>map("id", 1)));
+        router.addMapping(GET, "/bar/{id}", "pkg.Foo.foo", ADMIN_OVERWRITE);
+        eq("/bar/1", router.reverseRoute("pkg.Foo.foo", C.<String, Object>map("id", 1)));
+    }
+
     @Test
     public void testInferFullActionPath() {
         final String currentActionPath = "com.my.comp.proj_a.controller.MyController.login";
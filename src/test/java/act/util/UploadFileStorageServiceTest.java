@@ -0,0 +1,144 @@
+package act.util;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import act.data.ApacheMultipartParser;
+import org.apache.commons.fileupload.FileItemIterator;
+import org.apache.commons.fileupload.FileItemStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.http.H;
+import org.osgl.storage.ISObject;
+import org.osgl.storage.impl.SObject;
+import org.osgl.util.C;
+import org.osgl.util.IO;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.mockito.Mockito.when;
+
+public class UploadFileStorageServiceTest extends TestBase {
+
+    private static final String BOUNDARY = "----act-boundary";
+
+    private File tmpDir;
+    private File home;
+    private UploadFileStorageService service;
+
+    @Before
+    public void prepare() throws Exception {
+        super.setup();
+        tmpDir = Files.createTempDirectory("act-tmp").toFile();
+        home = Files.createTempDirectory("act-upload").toFile();
+        when(mockApp.tmpDir()).thenReturn(tmpDir);
+        when(mockActionContext.req()).thenReturn(mockReq);
+        when(mockReq.header("content-type")).thenReturn("multipart/form-data; boundary=" + BOUNDARY);
+        when(mockReq.characterEncoding()).thenReturn("UTF-8");
+        Map<String, String> conf = C.newMap("storage.fs.home.dir", home.getAbsolutePath(), "storage.fs.home.url", "/~upload");
+        service = new UploadFileStorageService(conf);
+    }
+
+    @After
+    public void cleanup() {
+        IO.delete(tmpDir, true);
+        IO.delete(home, true);
+    }
+
+    @Test
+    public void itShallMoveTempFileIntoStore() throws Exception {
+        byte[] content = content(20000);
+        ApacheMultipartParser.AutoFileItem item = upload("big.bin", content);
+        no(item.isInMemory());
+        File temp = item.getStoreLocation();
+        yes(temp.isFile());
+
+        ISObject sobj = service.store(item);
+        // the temp file is moved rather than copied
+        no(temp.exists());
+        verify(sobj, "big.bin", content);
+    }
+
+    @Test
+    public void itShallWriteInMemoryItemIntoStore() throws Exception {
+        byte[] content = "hello world".getBytes(StandardCharsets.UTF_8);
+        ApacheMultipartParser.AutoFileItem item = upload("small.txt", content);
+        yes(item.isInMemory());
+        verify(service.store(item), "small.txt", content);
+        eq(0, tmpDir.list().length);
+    }
+
+    private void verify(ISObject sobj, String fileName, byte[] content) throws Exception {
+        String sha256 = sha256(content);
+        eq(sha256, sobj.getAttribute(UploadFileStorageService.ATTR_SHA256));
+        eq(fileName, sobj.getAttribute(SObject.ATTR_FILE_NAME));
+        yes(Arrays.equals(content, sobj.asByteArray()));
+
+        // attributes are kept in the sidecar file
+        ISObject loaded = service.get(sobj.getKey());
+        eq(sha256, loaded.getAttribute(UploadFileStorageService.ATTR_SHA256));
+        eq(fileName, loaded.getAttribute(SObject.ATTR_FILE_NAME));
+        eq("/~upload/" + sobj.getKey(), loaded.getAttribute(SObject.ATTR_URL));
+        yes(Arrays.equals(content, loaded.asByteArray()));
+    }
+
+    private ApacheMultipartParser.AutoFileItem upload(String fileName, byte[] content) throws Exception {
+        byte[] head = ("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"file\"; filename=\"" + fileName
+                + "\"\r\nContent-Type: application/octet-stream\r\n\r\n").getBytes(StandardCharsets.UTF_8);
+        byte[] tail = ("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8);
+        byte[] body = new byte[head.length + content.length + tail.length];
+        System.arraycopy(head, 0, body, 0, head.length);
+        System.arraycopy(content, 0, body, head.length, content.length);
+        System.arraycopy(tail, 0, body, head.length + content.length, tail.length);
+        when(mockReq.inputStream()).thenReturn(new ByteArrayInputStream(body));
+        when(mockReq.contentType()).thenReturn(H.Format.FORM_MULTIPART_DATA);
+
+        FileItemIterator itr = new ApacheMultipartParser().iterate(mockActionContext);
+        FileItemStream stream = itr.next();
+        ApacheMultipartParser.AutoFileItem item = new ApacheMultipartParser.AutoFileItem(stream, mockActionContext);
+        IO.copy(stream.openStream(), item.getOutputStream(), true);
+        return item;
+    }
+
+    private static byte[] content(int size) {
+        byte[] ba = new byte[size];
+        for (int i = 0; i < size; ++i) {
+            ba[i] = (byte) (i % 251);
+        }
+        return ba;
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : MessageDigest.getInstance("SHA-256").digest(content)) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+}
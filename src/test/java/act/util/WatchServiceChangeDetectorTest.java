@@ -0,0 +1,129 @@
+package act.util;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.$;
+import org.osgl.util.C;
+import org.osgl.util.IO;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+public class WatchServiceChangeDetectorTest extends TestBase {
+
+    private static final long DEBOUNCE = 200;
+
+    private File dir;
+    private WatchServiceChangeDetector detector;
+    private final List<FsEvent> events = C.newList();
+
+    @Before
+    public void prepare() throws Exception {
+        dir = Files.createTempDirectory("act-watch").toFile();
+        IO.writeContent("a", new File(dir, "a.txt"));
+        detector = new WatchServiceChangeDetector(dir, null, DEBOUNCE, new FsEventListener() {
+            @Override
+            public void on(FsEvent... fsEvents) {
+                events.addAll(C.listOf(fsEvents));
+            }
+        });
+    }
+
+    @After
+    public void cleanup() {
+        detector.close();
+        IO.delete(dir, true);
+    }
+
+    @Test
+    public void burstOfChangesShallBeFiredOnce() {
+        IO.writeContent("b", new File(dir, "b.txt"));
+        IO.writeContent("c", new File(dir, "c.txt"));
+        awaitEvents();
+        eq(1, events.size());
+        eq(FsEvent.Kind.CREATE, events.get(0).kind());
+        eq(2, events.get(0).paths().size());
+    }
+
+    @Test
+    public void detectChangesShallNotWaitForBurstToSettle() {
+        long start = $.ms();
+        for (int i = 0; i < 5; ++i) {
+            IO.writeContent("b" + i, new File(dir, "b.txt"));
+            detector.detectChanges();
+        }
+        yes($.ms() - start < DEBOUNCE);
+        eq(0, events.size());
+        awaitEvents();
+        eq(FsEvent.Kind.CREATE, events.get(0).kind());
+    }
+
+    @Test
+    public void itShallDetectModifyAndDelete() {
+        File a = new File(dir, "a.txt");
+        a.setLastModified(a.lastModified() - 10000L);
+        awaitEvents();
+        eq(FsEvent.Kind.MODIFY, events.get(0).kind());
+        events.clear();
+        yes(a.delete());
+        awaitEvents();
+        eq(FsEvent.Kind.DELETE, events.get(0).kind());
+        eq(a.getAbsolutePath(), events.get(0).paths().get(0));
+    }
+
+    @Test
+    public void itShallWatchNewSubDirectory() {
+        File sub = new File(dir, "sub");
+        yes(sub.mkdir());
+        // an empty directory does not fire any event
+        for (int i = 0; i < 2 * DEBOUNCE / 20; ++i) {
+            detector.detectChanges();
+            pause();
+        }
+        eq(0, events.size());
+        IO.writeContent("x", new File(sub, "x.txt"));
+        awaitEvents();
+        eq(FsEvent.Kind.CREATE, events.get(0).kind());
+    }
+
+    private void awaitEvents() {
+        long deadline = $.ms() + 10000;
+        while (events.isEmpty() && $.ms() < deadline) {
+            detector.detectChanges();
+            pause();
+        }
+        no(events.isEmpty());
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(20);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,135 @@
+package act.view;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.MockResponse;
+import act.TestBase;
+import act.cli.view.CliView;
+import act.data.DataPropertyRepository;
+import act.util.DisableFastJsonCircularReferenceDetect;
+import act.util.PropertySpec;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.$;
+import org.osgl.http.H;
+import org.osgl.util.C;
+import testapp.model.Address;
+import testapp.model.Person;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+
+public class StreamRenderTest extends TestBase {
+
+    private MockResponse resp;
+    private List<Person> people;
+
+    @Before
+    public void prepare() throws Exception {
+        super.setup();
+        when(mockAppConfig.encoding()).thenReturn("UTF-8");
+        when(mockAppConfig.propertyAccessorBytecodeEnabled()).thenReturn(true);
+        DataPropertyRepository repo = new DataPropertyRepository(mockApp);
+        when(mockApp.service(DataPropertyRepository.class)).thenReturn(repo);
+        resp = new MockResponse();
+        people = C.list(
+                new Person("Tom", "Smith", new Address("1", "King St", "Sydney"), 30),
+                new Person("Jack", "Lee", new Address("2", "Queen St", "Melbourne"), 25)
+        );
+    }
+
+    @Test
+    public void shouldStreamLazySourcesAndLargeCollections() {
+        yes(StreamRender.shouldStream(people.iterator(), 100));
+        yes(StreamRender.shouldStream(C.list(1, 2, 3), 3));
+        no(StreamRender.shouldStream(C.list(1, 2), 3));
+        no(StreamRender.shouldStream("abc", 1));
+    }
+
+    @Test
+    public void testCsvWithPropertySpec() {
+        PropertySpec.MetaInfo spec = new PropertySpec.MetaInfo();
+        spec.onValue("firstName as name,address.city");
+        new StreamRenderCSV(people.iterator(), spec, mockActionContext).applyMessage(mockReq, resp);
+        String sep = $.OS.lineSeparator();
+        eq("name,address.city" + sep + "Tom,Sydney" + sep + "Jack,Melbourne", output());
+    }
+
+    @Test
+    public void testJsonWithPropertySpec() {
+        PropertySpec.MetaInfo spec = new PropertySpec.MetaInfo();
+        spec.onValue("firstName,age");
+        new StreamRenderJSON(people, spec, mockActionContext).applyMessage(mockReq, resp);
+        eq("[{\"age\":30,\"firstName\":\"Tom\"},{\"age\":25,\"firstName\":\"Jack\"}]", output());
+    }
+
+    @Test
+    public void testJsonWithSharedElements() {
+        // the same instance appears twice must not be rendered as reference
+        Person tom = people.get(0);
+        Iterator<Person> itr = C.list(tom, tom).iterator();
+        StreamRender render = new StreamRenderJSON(H.Status.CREATED, itr, null, mockActionContext);
+        render.applyMessage(mockReq, resp);
+        String json = output();
+        no(json.contains("$ref"));
+        yes(json.startsWith("[{"));
+        eq(H.Status.CREATED, render.status());
+    }
+
+    @Test
+    public void testFilteredJsonWithSharedReferences() {
+        // two elements share the same address, the streamed and the
+        // buffered output shall be identical when circular reference
+        // detect is disabled
+        Address address = new Address("1", "King St", "Sydney");
+        List<Person> list = Arrays.asList(new Person("Tom", "Smith", address, 30), new Person("Jack", "Lee", address, 25));
+        PropertySpec.MetaInfo spec = new PropertySpec.MetaInfo();
+        spec.onValue("firstName,address");
+        new StreamRenderJSON(list, spec, mockActionContext).disableCircularReferenceDetect(true).applyMessage(mockReq, resp);
+        String streamed = output();
+        String rendered;
+        DisableFastJsonCircularReferenceDetect.option.set(true);
+        try {
+            rendered = CliView.JSON.render(list, spec, mockActionContext);
+        } finally {
+            DisableFastJsonCircularReferenceDetect.option.remove();
+        }
+        no(streamed.contains("$ref"));
+        no(streamed.contains("lastName"));
+        eq(2, streamed.split("Sydney").length - 1);
+        eq(rendered, streamed);
+    }
+
+    @Test
+    public void testEmptySource() {
+        new StreamRenderJSON(C.list().iterator()).applyMessage(mockReq, resp);
+        eq("[]", output());
+    }
+
+    private String output() {
+        return new String(((ByteArrayOutputStream) resp.outputStream()).toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,188 @@
+package act.view;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import act.app.App;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import org.junit.Test;
+import org.osgl.http.H;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ZXingRendererTest extends TestBase {
+
+    private static final int CACHE_SIZE = 1024 * 1024;
+
+    @Test
+    public void itShallServeCachedImage() {
+        ZXingRenderer renderer = renderer(CACHE_SIZE, 1, 1000);
+        byte[] png = renderer.render(key("hello", 128));
+        yes(png.length > 0);
+        same(png, renderer.render(key("hello", 128)));
+        eq(1L, renderer.renderCount());
+        eq(1L, renderer.hitCount());
+        eq((long) png.length, renderer.cachedBytes());
+    }
+
+    @Test
+    public void itShallEvictLeastRecentlyUsedImagesOverBudget() {
+        ZXingRenderer probe = renderer(CACHE_SIZE, 1, 1000);
+        int size = probe.render(key("a", 128)).length;
+        // room for two images of the same dimension
+        ZXingRenderer renderer = renderer(size * 2 + size / 2, 1, 1000);
+        renderer.render(key("a", 128));
+        renderer.render(key("b", 128));
+        renderer.render(key("a", 128));
+        renderer.render(key("c", 128));
+        eq(1L, renderer.evictCount());
+        yes(renderer.cachedBytes() <= size * 2 + size / 2);
+        // "b" is the least recently used one
+        renderer.render(key("a", 128));
+        eq(3L, renderer.renderCount());
+        renderer.render(key("b", 128));
+        eq(4L, renderer.renderCount());
+    }
+
+    @Test
+    public void zeroCacheSizeShallDisableCache() {
+        ZXingRenderer renderer = renderer(0, 1, 1000);
+        renderer.render(key("hello", 128));
+        renderer.render(key("hello", 128));
+        eq(2L, renderer.renderCount());
+        eq(0L, renderer.cachedBytes());
+    }
+
+    @Test
+    public void concurrentRequestsShallShareRendering() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final ZXingRenderer renderer = new BlockingRenderer(release, CACHE_SIZE, 4, 5000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (int i = 0; i < 8; ++i) {
+                results.add(executor.submit(new Callable<byte[]>() {
+                    @Override
+                    public byte[] call() throws Exception {
+                        return renderer.render(key("shared", 128));
+                    }
+                }));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            byte[] png = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<byte[]> result : results) {
+                same(png, result.get(5, TimeUnit.SECONDS));
+            }
+            eq(1L, renderer.renderCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void itShallRejectWhenNoRenderSlotAvailable() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final ZXingRenderer renderer = new BlockingRenderer(release, CACHE_SIZE, 1, 50);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<byte[]> blocked = executor.submit(new Callable<byte[]>() {
+                @Override
+                public byte[] call() throws Exception {
+                    return renderer.render(key("slow", 128));
+                }
+            });
+            Thread.sleep(100);
+            eq(null, renderer.render(key("other", 128)));
+            eq(1L, renderer.rejectCount());
+            release.countDown();
+            yes(null != blocked.get(5, TimeUnit.SECONDS));
+            yes(null != renderer.render(key("other", 128)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void etagShallIdentifyImage() {
+        String etag = key("hello", 128).etag();
+        yes(etag.startsWith("\"") && etag.endsWith("\""));
+        eq(etag, key("hello", 128).etag());
+        ne(etag, key("hello", 256).etag());
+        ne(etag, key("hello!", 128).etag());
+        ne(etag, new ZXingRenderer.Key("hello", BarcodeFormat.QR_CODE, ErrorCorrectionLevel.H, 128, 128, "UTF-8").etag());
+    }
+
+    @Test
+    public void etagShallMatchIfNoneMatchHeader() {
+        String etag = key("hello", 128).etag();
+        no(ZXingRenderer.etagMatches(request(null), etag));
+        yes(ZXingRenderer.etagMatches(request(etag), etag));
+        yes(ZXingRenderer.etagMatches(request("\"x\", W/" + etag), etag));
+        yes(ZXingRenderer.etagMatches(request("*"), etag));
+        no(ZXingRenderer.etagMatches(request("\"x\""), etag));
+    }
+
+    private static ZXingRenderer.Key key(String content, int size) {
+        return new ZXingRenderer.Key(content, BarcodeFormat.QR_CODE, null, size, size, "UTF-8");
+    }
+
+    private static ZXingRenderer renderer(int cacheSize, int renderMax, int timeout) {
+        return new ZXingRenderer(mock(App.class), cacheSize, "private, max-age=60", renderMax, timeout);
+    }
+
+    private static H.Request request(String ifNoneMatch) {
+        H.Request req = mock(H.Request.class);
+        when(req.header(H.Header.Names.IF_NONE_MATCH)).thenReturn(ifNoneMatch);
+        return req;
+    }
+
+    private static class BlockingRenderer extends ZXingRenderer {
+        private final CountDownLatch release;
+
+        BlockingRenderer(CountDownLatch release, int cacheSize, int renderMax, int timeout) {
+            super(mock(App.class), cacheSize, "private, max-age=60", renderMax, timeout);
+            this.release = release;
+        }
+
+        @Override
+        protected byte[] encode(Key key) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return super.encode(key);
+        }
+    }
+
+}
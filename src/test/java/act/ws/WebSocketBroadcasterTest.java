@@ -0,0 +1,249 @@
+package act.ws;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import act.util.DestroyableBase;
+import act.xio.WebSocketConnection;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.util.C;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.when;
+
+public class WebSocketBroadcasterTest extends TestBase {
+
+    private WebSocketBroadcaster broadcaster;
+    private WebSocketConnectionRegistry registry;
+
+    @Before
+    public void prepare() throws Exception {
+        super.setup();
+        when(mockAppConfig.wsBroadcastQueueLimit()).thenReturn(2);
+        when(mockAppConfig.wsBroadcastOverflowPolicy()).thenReturn(WebSocketBroadcaster.OverflowPolicy.DROP);
+        when(mockAppConfig.wsBroadcastParallelThreshold()).thenReturn(4);
+        broadcaster = new WebSocketBroadcaster(mockAppConfig);
+        registry = new WebSocketConnectionRegistry();
+    }
+
+    @After
+    public void teardown() {
+        broadcaster.destroy();
+    }
+
+    @Test
+    public void frameShallBeEncodedOnceAndShared() {
+        FakeConnection c1 = new FakeConnection();
+        FakeConnection c2 = new FakeConnection();
+        registry.register("foo", c1);
+        registry.register("foo", c2);
+        broadcaster.broadcast("h\u00e9llo", registry, "foo", null);
+        eq("h\u00e9llo", c1.text(0));
+        eq("h\u00e9llo", c2.text(0));
+        same(c1.frames.get(0), c2.frames.get(0));
+        eq(2, c1.frames.get(0).refCnt());
+        c1.complete();
+        c2.complete();
+        eq(0, c1.frames.get(0).refCnt());
+    }
+
+    @Test
+    public void excludedConnectionShallNotReceiveFrame() {
+        FakeConnection c1 = new FakeConnection();
+        FakeConnection c2 = new FakeConnection();
+        registry.register("foo", c1);
+        registry.register("foo", c2);
+        broadcaster.broadcast("hello", registry, "foo", c1);
+        yes(c1.frames.isEmpty());
+        eq(1, c2.frames.size());
+    }
+
+    @Test
+    public void slowConnectionShallBeDropped() {
+        FakeConnection c = new FakeConnection();
+        registry.register("foo", c);
+        for (int i = 0; i < 5; ++i) {
+            broadcaster.broadcast("msg" + i, registry, "foo", null);
+        }
+        eq(2, c.frames.size());
+        eq(2L, broadcaster.sentCount());
+        eq(3L, broadcaster.droppedCount());
+        no(c.closed());
+    }
+
+    @Test
+    public void slowConnectionShallBeClosedWithDisconnectPolicy() {
+        when(mockAppConfig.wsBroadcastOverflowPolicy()).thenReturn(WebSocketBroadcaster.OverflowPolicy.DISCONNECT);
+        broadcaster = new WebSocketBroadcaster(mockAppConfig);
+        FakeConnection c = new FakeConnection();
+        registry.register("foo", c);
+        for (int i = 0; i < 3; ++i) {
+            broadcaster.broadcast("msg" + i, registry, "foo", null);
+        }
+        yes(c.closed());
+        eq(1L, broadcaster.disconnectedCount());
+    }
+
+    @Test
+    public void largeGroupShallBeSentInParallel() throws Exception {
+        int n = 50;
+        CountDownLatch latch = new CountDownLatch(n);
+        List<FakeConnection> connections = C.newList();
+        for (int i = 0; i < n; ++i) {
+            FakeConnection c = new FakeConnection(latch);
+            connections.add(c);
+            registry.register("foo", c);
+        }
+        broadcaster.broadcast("hello", registry, "foo", null);
+        yes(latch.await(5, TimeUnit.SECONDS));
+        for (FakeConnection c : connections) {
+            eq("hello", c.text(0));
+        }
+        // the counter is updated after the frame is handed to the connection
+        long deadline = System.currentTimeMillis() + 5000;
+        while (broadcaster.sentCount() < n && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        eq((long) n, broadcaster.sentCount());
+    }
+
+    @Test
+    public void framesShallBeSentToConnectionInOrder() throws Exception {
+        when(mockAppConfig.wsBroadcastQueueLimit()).thenReturn(1000);
+        broadcaster = new WebSocketBroadcaster(mockAppConfig);
+        int n = 50, messages = 20;
+        CountDownLatch latch = new CountDownLatch(n * (messages + 1));
+        List<FakeConnection> connections = C.newList();
+        for (int i = 0; i < n; ++i) {
+            final boolean slow = 0 == i;
+            // a slow connection holds up the slice of the first broadcast so
+            // that slices of the following broadcasts could overtake it
+            FakeConnection c = new FakeConnection(latch) {
+                @Override
+                public void send(SharedTextFrame frame) {
+                    if (slow && 0 == pendingFrames()) {
+                        try {
+                            Thread.sleep(100);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    super.send(frame);
+                }
+            };
+            connections.add(c);
+            registry.register("foo", c);
+        }
+        for (int i = 0; i < messages; ++i) {
+            broadcaster.broadcast("msg" + i, registry, "foo", null);
+        }
+        // a small group broadcast shall not overtake frames pending in lanes
+        for (int i = 4; i < n; ++i) {
+            registry.deRegister("foo", connections.get(i));
+        }
+        broadcaster.broadcast("last", registry, "foo", null);
+        for (int i = 4; i < n; ++i) {
+            latch.countDown();
+        }
+        yes(latch.await(20, TimeUnit.SECONDS));
+        for (FakeConnection c : connections) {
+            for (int i = 0; i < messages; ++i) {
+                eq("msg" + i, c.text(i));
+            }
+        }
+        for (int i = 0; i < 4; ++i) {
+            eq("last", connections.get(i).text(messages));
+        }
+    }
+
+    private static class FakeConnection extends DestroyableBase implements WebSocketConnection {
+
+        private final List<SharedTextFrame> frames = C.newList();
+        private final CountDownLatch latch;
+
+        FakeConnection() {
+            this(null);
+        }
+
+        FakeConnection(CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        @Override
+        public String sessionId() {
+            return null;
+        }
+
+        @Override
+        public String username() {
+            return null;
+        }
+
+        @Override
+        public void send(String message) {
+        }
+
+        @Override
+        public synchronized void send(SharedTextFrame frame) {
+            // frames are never completed unless complete() is called
+            frames.add(frame.retain());
+            if (null != latch) {
+                latch.countDown();
+            }
+        }
+
+        @Override
+        public synchronized int pendingFrames() {
+            return frames.size();
+        }
+
+        @Override
+        public void close() {
+            destroy();
+        }
+
+        @Override
+        public boolean closed() {
+            return isDestroyed();
+        }
+
+        synchronized String text(int i) {
+            ByteBuffer buffer = frames.get(i).content();
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        synchronized void complete() {
+            for (SharedTextFrame frame : frames) {
+                frame.release();
+            }
+        }
+    }
+
+}
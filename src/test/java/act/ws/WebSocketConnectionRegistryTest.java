@@ -0,0 +1,170 @@
+package act.ws;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import act.xio.WebSocketConnection;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.osgl.util.C;
+
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class WebSocketConnectionRegistryTest extends TestBase {
+
+    private WebSocketConnectionRegistry registry;
+    private WebSocketConnection c1;
+    private WebSocketConnection c2;
+
+    @Before
+    public void prepare() {
+        registry = new WebSocketConnectionRegistry("test");
+        c1 = mock(WebSocketConnection.class);
+        c2 = mock(WebSocketConnection.class);
+    }
+
+    @Test
+    public void removeShallDetachConnectionFromAllKeys() {
+        registry.signIn("a", c1);
+        registry.signIn("b", c1);
+        registry.signIn("a", c2);
+        eq(3, registry.count());
+        eq(2, registry.keyCount());
+        registry.remove(c1);
+        eq(1, registry.count());
+        List<WebSocketConnection> list = registry.get("a");
+        eq(1, list.size());
+        same(c2, list.get(0));
+        yes(registry.get("b").isEmpty());
+        eq(1, registry.keyCount());
+        eq(3L, registry.signInCount());
+        eq(2L, registry.signOffCount());
+    }
+
+    @Test
+    public void emptyKeyShallBeRemovedOnSignOff() {
+        registry.signIn("a", c1);
+        registry.signOff("a", c1);
+        eq(0, registry.keyCount());
+        eq(0, registry.count());
+        // the connection shall be able to sign in again
+        registry.signIn("a", c1);
+        eq(1, registry.count("a"));
+    }
+
+    @Test
+    public void closedConnectionShallBeSkipped() {
+        registry.signIn("a", c1);
+        registry.signIn("a", c2);
+        when(c1.closed()).thenReturn(true);
+        final List<WebSocketConnection> visited = C.newList();
+        registry.accept("a", C.F.addTo(visited));
+        eq(1, visited.size());
+        same(c2, visited.get(0));
+    }
+
+    @Test
+    public void concurrentSignInAndSignOffShallLeaveNoStaleEntry() throws Exception {
+        race(false);
+    }
+
+    @Test
+    public void concurrentSignInAndCloseShallLeaveNoStaleEntry() throws Exception {
+        race(true);
+    }
+
+    /**
+     * Sign in a connection to a key while it is signed off from its only other
+     * key, or closed, on another thread. Once the connection is removed, it
+     * shall not be reachable from any key.
+     */
+    private void race(final boolean close) throws Exception {
+        final int rounds = 20000;
+        final CyclicBarrier barrier = new CyclicBarrier(2);
+        final WebSocketConnection[] conns = new WebSocketConnection[rounds];
+        final AtomicBoolean[] closed = new AtomicBoolean[rounds];
+        for (int i = 0; i < rounds; ++i) {
+            final AtomicBoolean flag = new AtomicBoolean();
+            WebSocketConnection conn = mock(WebSocketConnection.class);
+            when(conn.closed()).thenAnswer(new Answer<Boolean>() {
+                @Override
+                public Boolean answer(InvocationOnMock invocation) throws Throwable {
+                    return flag.get();
+                }
+            });
+            conns[i] = conn;
+            closed[i] = flag;
+        }
+        Thread other = new Thread() {
+            @Override
+            public void run() {
+                for (int i = 0; i < rounds; ++i) {
+                    await(barrier);
+                    if (close) {
+                        // what the connection close listener does
+                        closed[i].set(true);
+                        registry.remove(conns[i]);
+                    } else {
+                        registry.signOff("x", conns[i]);
+                    }
+                }
+            }
+        };
+        other.start();
+        for (int i = 0; i < rounds; ++i) {
+            registry.signIn("x", conns[i]);
+            await(barrier);
+            registry.signIn("y", conns[i]);
+        }
+        other.join();
+        for (WebSocketConnection conn : conns) {
+            registry.remove(conn);
+        }
+        eq(0, registry.count());
+        eq(0, registry.keyCount());
+        no(registry.connections("y").iterator().hasNext());
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    public void connectionsShallBeLiveView() {
+        Iterable<WebSocketConnection> view = registry.connections("a");
+        no(view.iterator().hasNext());
+        registry.signIn("a", c1);
+        view = registry.connections("a");
+        same(c1, view.iterator().next());
+    }
+
+}
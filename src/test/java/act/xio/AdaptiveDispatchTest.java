@@ -0,0 +1,153 @@
+package act.xio;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static act.xio.AdaptiveDispatch.Mode.*;
+import static org.mockito.Mockito.when;
+
+public class AdaptiveDispatchTest extends TestBase {
+
+    private static final long FAST = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long SLOW = TimeUnit.MICROSECONDS.toNanos(5000);
+
+    private AdaptiveDispatch dispatch;
+    private AdaptiveDispatch.Route route;
+
+    @Before
+    public void prepare() throws Exception {
+        super.setup();
+        when(mockAppConfig.adaptiveDispatchEnabled()).thenReturn(true);
+        when(mockAppConfig.adaptiveDispatchThreshold()).thenReturn(200);
+        when(mockAppConfig.adaptiveDispatchSamples()).thenReturn(10);
+        when(mockAppConfig.adaptiveDispatchMaxDemotions()).thenReturn(2);
+        dispatch = new AdaptiveDispatch(mockApp, mockAppConfig);
+        route = dispatch.route("foo.Bar.baz");
+    }
+
+    @Test
+    public void itShallPromoteAfterConsecutiveFastSamples() {
+        fast(9);
+        eq(WORKER, route.mode());
+        route.record(SLOW, -1, false);
+        fast(9);
+        eq(WORKER, route.mode());
+        fast(1);
+        eq(EXPRESS, route.mode());
+        yes(route.express());
+    }
+
+    @Test
+    public void itShallNotPromoteBlockingHandler() {
+        for (int i = 0; i < 20; ++i) {
+            route.record(FAST, -1, i % 5 == 0);
+        }
+        eq(WORKER, route.mode());
+    }
+
+    @Test
+    public void itShallDetectWaitingByCpuTime() {
+        for (int i = 0; i < 20; ++i) {
+            // 150us wall time with only 10us on CPU
+            route.record(FAST * 3, FAST / 5, false);
+        }
+        eq(WORKER, route.mode());
+        eq(20L, route.status().getBlocked());
+    }
+
+    @Test
+    public void itShallDemoteOnBlocking() {
+        fast(10);
+        eq(EXPRESS, route.mode());
+        route.record(FAST, -1, true);
+        eq(WORKER, route.mode());
+        eq(1, route.status().getDemotions());
+    }
+
+    @Test
+    public void itShallDemoteWhenAverageLatencyExceedsThreshold() {
+        fast(10);
+        // a single slow request does not bring the average over the threshold
+        route.record(SLOW / 10, -1, false);
+        eq(EXPRESS, route.mode());
+        for (int i = 0; i < 10; ++i) {
+            route.record(SLOW, -1, false);
+        }
+        eq(WORKER, route.mode());
+    }
+
+    @Test
+    public void itShallPinAfterMaxDemotions() {
+        fast(10);
+        route.record(FAST, -1, true);
+        fast(10);
+        eq(EXPRESS, route.mode());
+        route.record(FAST, -1, true);
+        eq(PINNED, route.mode());
+        fast(20);
+        eq(PINNED, route.mode());
+        yes(dispatch.reset("foo.Bar.baz"));
+        eq(WORKER, route.mode());
+        fast(10);
+        eq(EXPRESS, route.mode());
+    }
+
+    @Test
+    public void probeShallPickUpBlockingReport() {
+        AdaptiveDispatch.Probe probe = route.probe();
+        BlockingDetector.blocking();
+        probe.done();
+        eq(1L, route.status().getBlocked());
+        probe = route.probe();
+        probe.done();
+        eq(1L, route.status().getBlocked());
+        eq(2L, route.status().getRequests());
+    }
+
+    @Test
+    public void probeDoneOnAnotherThreadShallDemote() throws Exception {
+        fast(10);
+        eq(EXPRESS, route.mode());
+        final AdaptiveDispatch.Probe probe = route.probe();
+        Thread worker = new Thread() {
+            @Override
+            public void run() {
+                probe.done();
+            }
+        };
+        worker.start();
+        worker.join();
+        eq(WORKER, route.mode());
+        eq(1L, route.status().getBlocked());
+    }
+
+    private void fast(int times) {
+        for (int i = 0; i < times; ++i) {
+            route.record(FAST, -1, false);
+        }
+    }
+
+}
@@ -0,0 +1,127 @@
+package act.xio;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import act.handler.RequestHandler;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.http.H;
+import org.osgl.mvc.result.Result;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+public class AdmissionControlTest extends TestBase {
+
+    private AdmissionControl admissionControl;
+    private RequestHandler handler;
+
+    @Before
+    public void prepare() throws Exception {
+        super.setup();
+        when(mockAppConfig.admissionControlEnabled()).thenReturn(true);
+        when(mockAppConfig.admissionLimitInitial()).thenReturn(1);
+        when(mockAppConfig.admissionLimitGlobalInitial()).thenReturn(10);
+        when(mockAppConfig.admissionLimitMin()).thenReturn(1);
+        when(mockAppConfig.admissionLimitMax()).thenReturn(10);
+        when(mockAppConfig.admissionQueueTimeout()).thenReturn(100);
+        when(mockAppConfig.admissionRetryAfter()).thenReturn(1);
+        when(mockActionContext.resp()).thenReturn(mockResp);
+        admissionControl = new AdmissionControl(mockApp);
+        handler = mock(RequestHandler.class);
+        when(handler.toString()).thenReturn("foo.Bar.baz");
+    }
+
+    @Test
+    public void requestsExceedQueueShallBeRejectedWithoutWaiting() {
+        yes(admissionControl.tryAcquire(mockActionContext, handler).granted());
+        for (int i = 0; i < 4; ++i) {
+            no(admissionControl.tryAcquire(mockActionContext, handler).granted());
+        }
+        try {
+            admissionControl.tryAcquire(mockActionContext, handler);
+            fail("request shall be rejected");
+        } catch (Result r) {
+            eq(H.Status.SERVICE_UNAVAILABLE, r.status());
+        }
+        verify(mockResp).header(H.Header.Names.RETRY_AFTER, "1");
+        ConcurrencyLimiter.Status route = route();
+        eq(1, route.getInflight());
+        eq(4, route.getQueued());
+        eq(1L, route.getRejected());
+        // the global limiter is not touched by the rejected request
+        eq(5, global().getInflight());
+    }
+
+    @Test
+    public void queuedRequestShallGetPermitWhenReleased() throws Exception {
+        final AdmissionControl.Permit first = admissionControl.tryAcquire(mockActionContext, handler);
+        AdmissionControl.Permit second = admissionControl.tryAcquire(mockActionContext, handler);
+        no(second.granted());
+        Thread releaser = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                first.release();
+            }
+        };
+        releaser.start();
+        admissionControl.await(mockActionContext, second);
+        yes(second.granted());
+        releaser.join();
+        eq(1, route().getInflight());
+        eq(0, route().getQueued());
+        second.release();
+        eq(0, global().getInflight());
+    }
+
+    @Test
+    public void queuedRequestShallBeRejectedOnTimeout() {
+        AdmissionControl.Permit first = admissionControl.tryAcquire(mockActionContext, handler);
+        AdmissionControl.Permit second = admissionControl.tryAcquire(mockActionContext, handler);
+        try {
+            admissionControl.await(mockActionContext, second);
+            fail("request shall be rejected");
+        } catch (Result r) {
+            eq(H.Status.SERVICE_UNAVAILABLE, r.status());
+        }
+        eq(1, route().getInflight());
+        eq(0, route().getQueued());
+        eq(1, global().getInflight());
+        first.release();
+        eq(0, global().getInflight());
+    }
+
+    private ConcurrencyLimiter.Status route() {
+        return admissionControl.limiter("foo.Bar.baz", false).status();
+    }
+
+    private ConcurrencyLimiter.Status global() {
+        return admissionControl.limiter(AdmissionControl.GLOBAL, false).status();
+    }
+
+}
@@ -0,0 +1,174 @@
+package act.xio;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.util.IO;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.EnumSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static act.xio.Compression.Encoding.*;
+import static org.junit.Assert.assertArrayEquals;
+import static org.mockito.Mockito.when;
+
+public class CompressionTest extends TestBase {
+
+    private Compression compression;
+
+    @Before
+    public void prepare() throws Exception {
+        super.setup();
+        when(mockAppConfig.compressionEnabled()).thenReturn(true);
+        when(mockAppConfig.compressionLevel()).thenReturn(6);
+        when(mockAppConfig.compressionMinSize()).thenReturn(100);
+        when(mockAppConfig.compressionTypes()).thenReturn("text/*, application/json,image/svg+xml");
+        compression = new Compression(mockApp, mockAppConfig);
+    }
+
+    @Test
+    public void testNegotiate() {
+        eq(GZIP, compression.negotiate("gzip, deflate, br"));
+        eq(DEFLATE, compression.negotiate("gzip;q=0.5, deflate"));
+        eq(GZIP, compression.negotiate("x-gzip"));
+        eq(GZIP, compression.negotiate("*"));
+        eq(DEFLATE, compression.negotiate("gzip;q=0, *"));
+        assertNull(compression.negotiate("identity"));
+        assertNull(compression.negotiate("br"));
+        assertNull(compression.negotiate(""));
+        assertNull(compression.negotiate(null));
+        eq(BROTLI, Compression.negotiate("gzip, br", Compression.PRE_COMPRESSED));
+        eq(GZIP, Compression.negotiate("gzip, br;q=0.8", Compression.PRE_COMPRESSED));
+        assertNull(Compression.negotiate("gzip", EnumSet.noneOf(Compression.Encoding.class)));
+    }
+
+    @Test
+    public void encodedRepresentationShallHaveOwnEtag() {
+        eq("\"abc-gzip\"", Compression.etag("\"abc\"", GZIP));
+        eq("\"abc-br\"", Compression.etag("\"abc\"", BROTLI));
+        eq("12345-gzip", Compression.etag("12345", GZIP));
+        eq("12345", Compression.etag("12345", null));
+        assertNull(Compression.etag(null, GZIP));
+    }
+
+    @Test
+    public void testCompressible() {
+        yes(compression.compressible("text/html; charset=utf-8"));
+        yes(compression.compressible("application/json"));
+        yes(compression.compressible("image/svg+xml"));
+        no(compression.compressible("application/javascript"));
+        no(compression.compressible("image/png"));
+        no(compression.compressible(null));
+    }
+
+    @Test
+    public void alreadyCompressedFormatsShallBeBypassed() throws Exception {
+        when(mockAppConfig.compressionTypes()).thenReturn("image/*,application/zip,text/css");
+        compression = new Compression(mockApp, mockAppConfig);
+        no(compression.compressible("image/jpeg"));
+        no(compression.compressible("application/zip"));
+        yes(compression.compressible("text/css"));
+    }
+
+    @Test
+    public void testGzip() throws Exception {
+        byte[] content = content(10000);
+        ByteBuffer compressed = compression.compress(ByteBuffer.wrap(content), GZIP);
+        yes(compressed.remaining() < content.length);
+        assertArrayEquals(content, IO.readContent(new GZIPInputStream(stream(compressed))));
+    }
+
+    @Test
+    public void testDeflate() throws Exception {
+        byte[] content = content(10000);
+        ByteBuffer compressed = compression.compress(ByteBuffer.wrap(content), DEFLATE);
+        assertArrayEquals(content, IO.readContent(new InflaterInputStream(stream(compressed))));
+    }
+
+    @Test
+    public void deflaterShallBeReturnedToPool() throws Exception {
+        compression.compress(ByteBuffer.wrap(content(1000)), GZIP);
+        compression.compress(ByteBuffer.wrap(content(1000)), GZIP);
+        // the second compression reuses the deflater released by the first one
+        assertArrayEquals(content(1000), IO.readContent(new GZIPInputStream(stream(compression.compress(ByteBuffer.wrap(content(1000)), GZIP)))));
+    }
+
+    @Test
+    public void lazyEncoderShallNotCompressSmallContent() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        AtomicBoolean started = new AtomicBoolean();
+        OutputStream os = compression.lazyEncoder(baos, GZIP, flag(started));
+        byte[] content = content(100);
+        os.write(content);
+        os.flush();
+        os.close();
+        no(started.get());
+        assertArrayEquals(content, baos.toByteArray());
+    }
+
+    @Test
+    public void lazyEncoderShallCompressLargeContent() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        AtomicBoolean started = new AtomicBoolean();
+        OutputStream os = compression.lazyEncoder(baos, GZIP, flag(started));
+        byte[] content = content(5000);
+        for (int i = 0; i < content.length; i += 50) {
+            os.write(content, i, 50);
+            os.flush();
+        }
+        os.close();
+        yes(started.get());
+        assertArrayEquals(content, IO.readContent(new GZIPInputStream(new ByteArrayInputStream(baos.toByteArray()))));
+    }
+
+    private static Runnable flag(final AtomicBoolean started) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                started.set(true);
+            }
+        };
+    }
+
+    private static InputStream stream(ByteBuffer buffer) {
+        byte[] ba = new byte[buffer.remaining()];
+        buffer.duplicate().get(ba);
+        return new ByteArrayInputStream(ba);
+    }
+
+    private static byte[] content(int len) {
+        byte[] ba = new byte[len];
+        for (int i = 0; i < len; ++i) {
+            ba[i] = (byte) ('a' + (i * 7 % 13));
+        }
+        return ba;
+    }
+
+}
@@ -0,0 +1,270 @@
+package act.xio;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import act.handler.RequestPriority;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static act.handler.RequestPriority.Level.*;
+
+public class ConcurrencyLimiterTest extends TestBase {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void itShallRejectRequestsExceedLimit() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("foo", 2, 1, 10);
+        yes(limiter.acquire(NORMAL, 0) > 0);
+        yes(limiter.acquire(NORMAL, 0) > 0);
+        eq(-1L, limiter.acquire(NORMAL, 0));
+        eq(1L, limiter.status().getRejected());
+        // critical requests are always admitted
+        yes(limiter.acquire(CRITICAL, 0) > 0);
+        eq(3, limiter.status().getInflight());
+    }
+
+    @Test
+    public void lowPriorityRequestsShallUseHalfOfLimit() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("foo", 4, 1, 10);
+        yes(limiter.acquire(LOW, 0) > 0);
+        yes(limiter.acquire(LOW, 0) > 0);
+        eq(-1L, limiter.acquire(LOW, 0));
+        yes(limiter.acquire(NORMAL, 0) > 0);
+    }
+
+    @Test
+    public void queuedRequestShallBeAdmittedWhenPermitReleased() throws Exception {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter("foo", 1, 1, 10);
+        long start = limiter.acquire(NORMAL, 0);
+        final AtomicLong admitted = new AtomicLong();
+        final CountDownLatch latch = new CountDownLatch(1);
+        Thread waiter = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    admitted.set(limiter.acquire(NORMAL, TimeUnit.SECONDS.toNanos(5)));
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+                latch.countDown();
+            }
+        };
+        waiter.start();
+        while (0 == limiter.status().getQueued()) {
+            Thread.sleep(1);
+        }
+        limiter.release(start);
+        yes(latch.await(5, TimeUnit.SECONDS));
+        yes(admitted.get() > 0);
+    }
+
+    @Test
+    public void queueShallBeBounded() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("foo", 1, 1, 10);
+        limiter.acquire(NORMAL, 0);
+        for (int i = 0; i < 4; ++i) {
+            waitFor(limiter, NORMAL);
+        }
+        while (limiter.status().getQueued() < 4) {
+            Thread.sleep(1);
+        }
+        long start = System.nanoTime();
+        eq(-1L, limiter.acquire(NORMAL, TimeUnit.SECONDS.toNanos(5)));
+        yes(System.nanoTime() - start < ConcurrencyLimiter.MAX_WAIT_NANOS);
+    }
+
+    @Test
+    public void waitShallBeCapped() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("foo", 1, 1, 10);
+        limiter.acquire(NORMAL, 0);
+        long start = System.nanoTime();
+        eq(-1L, limiter.acquire(NORMAL, TimeUnit.SECONDS.toNanos(10)));
+        yes(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    public void lowPriorityRequestShallNotStarveWithLimitOne() throws Exception {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter("foo", 1, 1, 1);
+        // an idle limiter admits low priority request
+        long start = limiter.acquire(LOW, 0);
+        yes(start > 0);
+        limiter.release(start);
+
+        start = limiter.acquire(NORMAL, 0);
+        final AtomicLong low = waitFor(limiter, LOW);
+        while (0 == limiter.status().getQueued()) {
+            Thread.sleep(1);
+        }
+        // keep the limiter busy with normal requests
+        final AtomicBoolean stop = new AtomicBoolean();
+        Thread busy = new Thread() {
+            @Override
+            public void run() {
+                while (!stop.get()) {
+                    try {
+                        long start = limiter.acquire(NORMAL, ConcurrencyLimiter.MAX_WAIT_NANOS);
+                        if (start > 0) {
+                            limiter.release(start);
+                        }
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        };
+        busy.start();
+        limiter.release(start);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (0 == low.get() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        stop.set(true);
+        busy.join();
+        yes(low.get() > 0);
+    }
+
+    @Test
+    public void lowPriorityTurnShallNotStallNormalRequests() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("foo", 4, 4, 4);
+        long[] starts = new long[4];
+        for (int i = 0; i < 4; ++i) {
+            starts[i] = limiter.acquire(NORMAL, 0);
+        }
+        AtomicLong low = waitFor(limiter, LOW);
+        while (0 == limiter.status().getQueued()) {
+            Thread.sleep(1);
+        }
+        // normal requests keep the limit fully used while the low priority request waits
+        for (int i = 0; i < ConcurrencyLimiter.LOW_PRIORITY_SHARE; ++i) {
+            limiter.release(starts[i]);
+            starts[i] = limiter.acquire(NORMAL, 0);
+            yes(starts[i] > 0);
+        }
+        eq(0L, low.get());
+        // it is the turn of the low priority request, which shall take the
+        // permit though more than half of the limit is in use
+        limiter.release(starts[0]);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (0 == low.get() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        yes(low.get() > 0);
+        eq(4, limiter.status().getInflight());
+        // and normal requests are admitted again right after
+        limiter.release(starts[1]);
+        yes(limiter.acquire(NORMAL, 0) > 0);
+    }
+
+    @Test
+    public void reservedRequestShallWaitForPermit() throws Exception {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter("foo", 1, 1, 10);
+        long start = limiter.acquire(NORMAL, 0);
+        eq(-1L, limiter.tryAcquire(NORMAL));
+        eq(0L, limiter.status().getRejected());
+        yes(limiter.reserve());
+        eq(1, limiter.status().getQueued());
+        final AtomicLong admitted = new AtomicLong();
+        Thread waiter = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    admitted.set(limiter.acquireReserved(NORMAL, TimeUnit.SECONDS.toNanos(5)));
+                } catch (InterruptedException e) {
+                    admitted.set(-1);
+                }
+            }
+        };
+        waiter.start();
+        limiter.release(start);
+        waiter.join(5000);
+        yes(admitted.get() > 0);
+        eq(0, limiter.status().getQueued());
+    }
+
+    @Test
+    public void reservedSlotsShallBeBounded() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("foo", 1, 1, 10);
+        limiter.acquire(NORMAL, 0);
+        for (int i = 0; i < 4; ++i) {
+            yes(limiter.reserve());
+        }
+        no(limiter.reserve());
+        eq(1L, limiter.status().getRejected());
+        // reserved slots count into the queue of waiting requests as well
+        eq(-1L, limiter.acquire(NORMAL, TimeUnit.SECONDS.toNanos(5)));
+        limiter.unreserve();
+        yes(limiter.reserve());
+    }
+
+    @Test
+    public void limitShallFollowLatency() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("foo", 20, 1, 100);
+        for (int i = 0; i < 20; ++i) {
+            limiter.acquire(NORMAL, 0);
+        }
+        run(limiter, 1 * MS, 5);
+        int grown = limiter.limit();
+        yes(grown > 20);
+        run(limiter, 10 * MS, 5);
+        yes(limiter.limit() < grown);
+    }
+
+    @Test
+    public void limitShallBeAdjustable() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("foo", 20, 1, 100);
+        limiter.limit(50);
+        eq(50, limiter.limit());
+        limiter.range(1, 30);
+        eq(30, limiter.limit());
+        limiter.limit(0);
+        eq(1, limiter.limit());
+    }
+
+    // acquire a permit in a new thread, the result is set to the value returned, which is `0` until then
+    private AtomicLong waitFor(final ConcurrencyLimiter limiter, final RequestPriority.Level priority) {
+        final AtomicLong result = new AtomicLong();
+        new Thread() {
+            @Override
+            public void run() {
+                try {
+                    result.set(limiter.acquire(priority, TimeUnit.SECONDS.toNanos(5)));
+                } catch (InterruptedException e) {
+                    result.set(-1);
+                }
+            }
+        }.start();
+        return result;
+    }
+
+    // release and re-acquire permits with the latency specified to keep in-flight requests stable
+    private void run(ConcurrencyLimiter limiter, long latency, int windows) throws Exception {
+        for (int i = 0; i < windows * 500; ++i) {
+            limiter.release(System.nanoTime() - latency);
+            limiter.acquire(RequestPriority.Level.CRITICAL, 0);
+        }
+    }
+}
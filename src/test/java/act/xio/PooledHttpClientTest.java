@@ -0,0 +1,160 @@
+package act.xio;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.http.H;
+import org.osgl.util.C;
+import org.osgl.util.IO;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.when;
+
+public class PooledHttpClientTest extends TestBase {
+
+    private HttpServer server;
+    private String baseUrl;
+    private PooledHttpClient client;
+    private AtomicInteger concurrent = new AtomicInteger();
+    private AtomicInteger maxConcurrent = new AtomicInteger();
+
+    @Before
+    public void prepare() throws Exception {
+        super.setup();
+        when(mockAppConfig.httpClientMaxRequests()).thenReturn(64);
+        when(mockAppConfig.httpClientMaxRequestsPerHost()).thenReturn(2);
+        when(mockAppConfig.httpClientPoolMaxIdle()).thenReturn(4);
+        when(mockAppConfig.httpClientPoolKeepAlive()).thenReturn(60);
+        when(mockAppConfig.httpClientConnectTimeout()).thenReturn(1000);
+        when(mockAppConfig.httpClientReadTimeout()).thenReturn(5000);
+        when(mockAppConfig.httpClientRetryBudget()).thenReturn(20);
+        when(mockAppConfig.httpClientRetryMax()).thenReturn(2);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/echo", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                byte[] body = IO.readContent(exchange.getRequestBody());
+                exchange.getResponseHeaders().add("X-Method", exchange.getRequestMethod());
+                exchange.getResponseHeaders().add("Content-Type", "text/plain; charset=utf-8");
+                respond(exchange, 0 == body.length ? "hello".getBytes() : body);
+            }
+        });
+        server.createContext("/slow", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                int n = concurrent.incrementAndGet();
+                synchronized (maxConcurrent) {
+                    maxConcurrent.set(Math.max(n, maxConcurrent.get()));
+                }
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                concurrent.decrementAndGet();
+                respond(exchange, "ok".getBytes());
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        client = new PooledHttpClient(mockApp);
+    }
+
+    @After
+    public void teardown() {
+        client.releaseResources();
+        server.stop(0);
+    }
+
+    @Test
+    public void testGet() {
+        ClientResponse resp = (ClientResponse) client.send(new ClientRequest(baseUrl + "/echo"));
+        eq(200, resp.statusCode());
+        eq("GET", resp.header("x-method"));
+        eq("hello", resp.bodyAsString());
+        eq("utf-8", resp.characterEncoding());
+    }
+
+    @Test
+    public void testPost() {
+        ClientRequest req = new ClientRequest(H.Method.POST, baseUrl + "/echo").body("foo=bar", "text/plain");
+        ClientResponse resp = (ClientResponse) client.send(req);
+        eq("POST", resp.header("X-Method"));
+        eq("foo=bar", resp.bodyAsString());
+    }
+
+    @Test
+    public void testConnectionReuse() {
+        for (int i = 0; i < 5; ++i) {
+            client.send(new ClientRequest(baseUrl + "/echo"));
+        }
+        eq(1, client.connectionCount());
+    }
+
+    @Test
+    public void testConcurrencyPerHostIsBounded() throws Exception {
+        List<Future<H.Response>> futures = C.newList();
+        for (int i = 0; i < 6; ++i) {
+            futures.add(client.sendAsync(new ClientRequest(baseUrl + "/slow")));
+        }
+        for (Future<H.Response> future : futures) {
+            eq("ok", ((ClientResponse) future.get()).bodyAsString());
+        }
+        yes(maxConcurrent.get() <= 2, "max concurrent requests: %s", maxConcurrent.get());
+    }
+
+    @Test
+    public void testRetryBudget() {
+        PooledHttpClient.RetryBudget budget = new PooledHttpClient.RetryBudget(50);
+        int retries = 0;
+        while (budget.withdraw()) {
+            retries++;
+        }
+        eq(10, retries);
+        budget.deposit();
+        no(budget.withdraw());
+        budget.deposit();
+        yes(budget.withdraw());
+        no(new PooledHttpClient.RetryBudget(0).withdraw());
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(200, body.length);
+        OutputStream os = exchange.getResponseBody();
+        os.write(body);
+        os.close();
+    }
+
+}
@@ -0,0 +1,78 @@
+package act.xio;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import act.conf.AppConfig;
+import org.junit.Test;
+import org.osgl.http.H;
+import org.osgl.util.IO;
+
+import static org.mockito.Mockito.mock;
+
+public class WarmerTest extends TestBase {
+
+    @Test
+    public void itShallParseMethodAndUrl() {
+        Warmer.Spec spec = Warmer.parse("GET /foo?x=1");
+        eq(H.Method.GET, spec.method);
+        eq("/foo?x=1", spec.url);
+        eq(null, spec.body);
+    }
+
+    @Test
+    public void itShallParseBody() {
+        Warmer.Spec spec = Warmer.parse("POST /foo {\"x\": 1}");
+        eq(null, spec);
+        spec = Warmer.parse("get /foo a=1&b=2");
+        eq(H.Method.GET, spec.method);
+        eq("a=1&b=2", spec.body);
+        eq(H.Format.FORM_URL_ENCODED.contentType(), spec.contentType);
+    }
+
+    @Test
+    public void itShallParseAccessLog() {
+        Warmer.Spec spec = Warmer.parse("127.0.0.1 - - [19/Oct/2026:10:00:00 +0000] \"GET /bar?y=2 HTTP/1.1\" 200 12");
+        eq(H.Method.GET, spec.method);
+        eq("/bar?y=2", spec.url);
+    }
+
+    @Test
+    public void itShallSkipCommentAndUnsafeRequests() {
+        eq(null, Warmer.parse("  "));
+        eq(null, Warmer.parse("# GET /foo"));
+        eq(null, Warmer.parse("DELETE /foo/1"));
+        eq(null, Warmer.parse("\"PUT /foo HTTP/1.1\""));
+        eq(null, Warmer.parse("GET foo"));
+    }
+
+    @Test
+    public void syntheticRequestShallProvideParamsAndBody() {
+        SyntheticRequest req = new SyntheticRequest(mock(AppConfig.class), H.Method.GET, "/foo?a=1&a=2&b=x%20y", "{}", "application/json");
+        eq("/foo", req.path());
+        eq("1", req.paramVal("a"));
+        eq(2, req.paramVals("a").length);
+        eq("x y", req.paramVal("b"));
+        eq("2", req.header("content-length"));
+        eq("{}", IO.readContentAsString(req.inputStream()));
+    }
+
+}
@@ -0,0 +1,229 @@
+package act.xio.netty;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import act.conf.ActConfig;
+import act.conf.ActConfigKey;
+import act.conf.AppConfig;
+import act.xio.NetworkHandler;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.FullHttpRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgl.$;
+import org.osgl.util.IO;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Loopback tests of {@link NettyNetwork}
+ */
+public class NettyNetworkTest extends TestBase {
+
+    private static final int BUFFER_SIZE = 1024;
+    private static final int MAX_CONTENT_LENGTH = 4096;
+
+    private NettyNetwork network;
+    private ExecutorService executor;
+    private AppConfig config;
+    private int port;
+
+    @Before
+    public void prepare() throws Exception {
+        config = mock(AppConfig.class);
+        executor = Executors.newSingleThreadExecutor();
+        Map<String, Object> conf = new HashMap<>();
+        conf.put(ActConfigKey.XIO_IO_THREADS.key(), 2);
+        conf.put(ActConfigKey.XIO_MAX_WORKER_THREADS.key(), "4");
+        conf.put(ActConfigKey.XIO_MAX_CONTENT_LENGTH.key(), MAX_CONTENT_LENGTH);
+        network = new NettyNetwork(new ActConfig(conf));
+        network.bootUp();
+        port = network.listen(0, false, new $.Func0<ChannelHandler>() {
+            @Override
+            public ChannelHandler apply() {
+                return new TestHandler();
+            }
+        });
+    }
+
+    @After
+    public void teardown() {
+        network.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void itShallServeFullResponse() throws Exception {
+        HttpURLConnection conn = open("/hello?who=netty");
+        try {
+            eq(200, conn.getResponseCode());
+            eq("11", conn.getHeaderField("Content-Length"));
+            eq("hello netty", IO.readContentAsString(conn.getInputStream()));
+        } finally {
+            conn.disconnect();
+        }
+    }
+
+    @Test
+    public void itShallStreamChunkedResponse() throws Exception {
+        HttpURLConnection conn = open("/stream");
+        try {
+            eq(200, conn.getResponseCode());
+            eq("chunked", conn.getHeaderField("Transfer-Encoding"));
+            eq(content(), IO.readContentAsString(conn.getInputStream()));
+        } finally {
+            conn.disconnect();
+        }
+    }
+
+    @Test
+    public void itShallFinishResponseAsynchronously() throws Exception {
+        HttpURLConnection conn = open("/async");
+        try {
+            eq(200, conn.getResponseCode());
+            eq("async", IO.readContentAsString(conn.getInputStream()));
+        } finally {
+            conn.disconnect();
+        }
+    }
+
+    @Test
+    public void itShallSendEmptyResponseOnCommit() throws Exception {
+        HttpURLConnection conn = open("/empty");
+        try {
+            eq(204, conn.getResponseCode());
+        } finally {
+            conn.disconnect();
+        }
+    }
+
+    @Test
+    public void pipelinedResponsesShallBeInOrder() throws Exception {
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            OutputStream os = socket.getOutputStream();
+            os.write(("GET /async HTTP/1.1\r\nHost: localhost\r\n\r\n" +
+                    "GET /hello?who=b HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            os.flush();
+            String response = read(socket.getInputStream());
+            int first = response.indexOf("async");
+            int second = response.indexOf("hello b");
+            yes(first > 0);
+            yes(second > first);
+        }
+    }
+
+    @Test
+    public void itShallRejectContentExceedsMaxLength() throws Exception {
+        eq(200, post(MAX_CONTENT_LENGTH).getResponseCode());
+        eq(413, post(MAX_CONTENT_LENGTH + 1).getResponseCode());
+    }
+
+    private HttpURLConnection post(int contentLength) throws IOException {
+        HttpURLConnection conn = open("/hello?who=post");
+        conn.setDoOutput(true);
+        conn.setRequestMethod("POST");
+        conn.setFixedLengthStreamingMode(contentLength);
+        try (OutputStream os = conn.getOutputStream()) {
+            os.write(new byte[contentLength]);
+        } catch (IOException e) {
+            // the server might close the connection once the content is rejected
+        }
+        return conn;
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        return (HttpURLConnection) new URL("http://127.0.0.1:" + port + path).openConnection();
+    }
+
+    private static String read(InputStream is) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        byte[] buf = new byte[1024];
+        int n;
+        while ((n = is.read(buf)) > -1) {
+            sb.append(new String(buf, 0, n, StandardCharsets.US_ASCII));
+        }
+        return sb.toString();
+    }
+
+    private static String content() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; ++i) {
+            sb.append("line ").append(i).append(',');
+        }
+        return sb.toString();
+    }
+
+    private class TestHandler extends NettyHttpHandler {
+
+        TestHandler() {
+            super(mock(NetworkHandler.class), executor, BUFFER_SIZE);
+        }
+
+        @Override
+        void handle(ChannelHandlerContext ctx, FullHttpRequest request) {
+            NettyRequest req = new NettyRequest(ctx, request, config);
+            final NettyResponse resp = new NettyResponse(ctx, request, this, BUFFER_SIZE, config);
+            String path = req.path();
+            if ("/hello".equals(path)) {
+                resp.writeContent("hello " + req.paramVal("who"));
+            } else if ("/stream".equals(path)) {
+                try {
+                    OutputStream os = resp.outputStream();
+                    os.write(content().getBytes(StandardCharsets.UTF_8));
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+                resp.commit();
+            } else if ("/async".equals(path)) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            Thread.sleep(50);
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        resp.writeContent("async");
+                    }
+                });
+            } else {
+                resp.status(204);
+                resp.commit();
+            }
+        }
+    }
+
+}
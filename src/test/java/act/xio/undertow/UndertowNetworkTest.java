@@ -0,0 +1,338 @@
+package act.xio.undertow;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.TestBase;
+import act.app.ActionContext;
+import act.app.App;
+import act.conf.ActConfig;
+import act.conf.ActConfigKey;
+import act.view.StreamRender;
+import act.view.StreamRenderJSON;
+import act.xio.Compression;
+import act.xio.NetworkDispatcher;
+import act.xio.NetworkHandler;
+import act.xio.NetworkJob;
+import io.undertow.client.*;
+import io.undertow.connector.ByteBufferPool;
+import io.undertow.server.DefaultByteBufferPool;
+import io.undertow.server.HttpHandler;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.util.Headers;
+import io.undertow.util.Methods;
+import io.undertow.util.StringReadChannelListener;
+import org.junit.After;
+import org.junit.Test;
+import org.osgl.util.IO;
+import org.osgl.util.S;
+import org.xnio.IoUtils;
+import org.xnio.OptionMap;
+import org.xnio.Xnio;
+import org.xnio.XnioWorker;
+import org.xnio.http.UpgradeFailedException;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.Mockito.when;
+
+/**
+ * Loopback tests of {@link UndertowNetwork}
+ */
+public class UndertowNetworkTest extends TestBase {
+
+    private static final HttpHandler ECHO_PROTOCOL = new HttpHandler() {
+        @Override
+        public void handleRequest(HttpServerExchange exchange) throws Exception {
+            exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, "text/plain");
+            exchange.getResponseSender().send("hello " + exchange.getProtocol());
+        }
+    };
+
+    private UndertowNetwork network;
+    private XnioWorker clientWorker;
+    private ByteBufferPool clientBuffers;
+
+    @After
+    public void teardown() {
+        if (null != network) {
+            network.close();
+        }
+        if (null != clientWorker) {
+            clientWorker.shutdownNow();
+            clientBuffers.close();
+        }
+    }
+
+    @Test
+    public void itShallServeHttp11() throws Exception {
+        int port = start(false);
+        eq("hello HTTP/1.1", get(port));
+    }
+
+    @Test
+    public void itShallServeHttp11WhenHttp2Enabled() throws Exception {
+        int port = start(true);
+        eq("hello HTTP/1.1", get(port));
+    }
+
+    @Test
+    public void itShallServeHttp2WithPriorKnowledge() throws Exception {
+        int port = start(true);
+        eq("hello HTTP/2.0", clientGet("h2c-prior", port));
+    }
+
+    @Test
+    public void itShallUpgradeToH2c() throws Exception {
+        int port = start(true);
+        eq("hello HTTP/2.0", clientGet("h2c", port));
+    }
+
+    @Test
+    public void itShallNotUpgradeWhenHttp2Disabled() throws Exception {
+        int port = start(false);
+        try {
+            clientGet("h2c", port);
+            fail("upgrade to h2c shall fail");
+        } catch (UpgradeFailedException e) {
+            // the upgrade request is served as a normal HTTP/1.1 request
+            yes(e.getMessage().contains("200"));
+        }
+    }
+
+    @Test
+    public void portsShallShareBufferPool() throws Exception {
+        int port1 = start(true);
+        int port2 = network.listen(0, false, ECHO_PROTOCOL);
+        yes(port1 != port2);
+        eq("hello HTTP/1.1", get(port1));
+        eq("hello HTTP/2.0", clientGet("h2c-prior", port2));
+    }
+
+    @Test
+    public void suspendedRequestShallBeAnsweredOnCompletion() throws Exception {
+        int port = startSuspending(true);
+        eq("hello async", get(port));
+    }
+
+    @Test
+    public void suspendedRequestInIoThreadShallBeAnsweredOnCompletion() throws Exception {
+        int port = startSuspending(false);
+        eq("hello async", get(port));
+    }
+
+    @Test
+    public void streamedResultOfExpressRequestShallBeWrittenOnWorker() throws Exception {
+        setup();
+        when(mockAppConfig.encoding()).thenReturn("UTF-8");
+        start(false);
+        int port = network.listen(0, false, new ActHttpHandler(new StreamingHandler(mockApp)));
+        eq("[1,2,3]", get(port));
+    }
+
+    @Test
+    public void compressionThresholdShallApplyToEncodedBytes() throws Exception {
+        setup();
+        when(mockAppConfig.compressionEnabled()).thenReturn(true);
+        when(mockAppConfig.compressionLevel()).thenReturn(6);
+        when(mockAppConfig.compressionMinSize()).thenReturn(100);
+        when(mockAppConfig.compressionTypes()).thenReturn("text/*");
+        Compression compression = new Compression(mockApp);
+        when(mockApp.compression()).thenReturn(compression);
+        when(mockAppConfig.app()).thenReturn(mockApp);
+        start(false);
+        int port = network.listen(0, false, new HttpHandler() {
+            @Override
+            public void handleRequest(HttpServerExchange exchange) throws Exception {
+                UndertowResponse resp = new UndertowResponse(exchange, mockAppConfig);
+                resp.contentType("text/plain; charset=utf-8");
+                // 40 chars takes 120 bytes in UTF-8
+                resp.writeContent(S.times("\u4e2d", 40));
+            }
+        });
+        HttpURLConnection conn = (HttpURLConnection) new URL("http://localhost:" + port + "/").openConnection();
+        conn.setRequestProperty("Accept-Encoding", "gzip");
+        try {
+            eq(200, conn.getResponseCode());
+            eq("gzip", conn.getHeaderField("Content-Encoding"));
+        } finally {
+            conn.disconnect();
+        }
+    }
+
+    /*
+     * Emulates an action promoted to express execution returning a streamed
+     * result: it is handled on the IO thread and the result is applied on a
+     * worker thread
+     */
+    private static class StreamingHandler extends NetworkHandler {
+
+        StreamingHandler(App app) {
+            super(app);
+        }
+
+        @Override
+        public void handle(final ActionContext ctx, NetworkDispatcher dispatcher) {
+            ctx.dispatcher(dispatcher).express(true);
+            final StreamRender result = new StreamRenderJSON(Arrays.asList(1, 2, 3).iterator());
+            ctx.dispatch(new NetworkJob() {
+                @Override
+                public void run() {
+                    result.apply(ctx.req(), ctx.resp());
+                }
+            });
+        }
+    }
+
+    /*
+     * Emulates an action returning a `CompletionStage`: the request get
+     * suspended and the stage completes after the handler returns
+     */
+    private static class SuspendingHandler extends NetworkHandler {
+        private final boolean dispatch;
+
+        SuspendingHandler(App app, boolean dispatch) {
+            super(app);
+            this.dispatch = dispatch;
+        }
+
+        @Override
+        public void handle(final ActionContext ctx, final NetworkDispatcher dispatcher) {
+            NetworkJob job = new NetworkJob() {
+                @Override
+                public void run() {
+                    ctx.dispatcher(dispatcher).suspend();
+                    new Thread() {
+                        @Override
+                        public void run() {
+                            try {
+                                Thread.sleep(200);
+                            } catch (InterruptedException e) {
+                                return;
+                            }
+                            ctx.resp().writeContent("hello async");
+                        }
+                    }.start();
+                }
+            };
+            if (dispatch) {
+                dispatcher.dispatch(job);
+            } else {
+                job.run();
+            }
+        }
+    }
+
+    private int startSuspending(boolean dispatch) throws Exception {
+        setup();
+        when(mockAppConfig.encoding()).thenReturn("UTF-8");
+        start(false);
+        return network.listen(0, false, new ActHttpHandler(new SuspendingHandler(mockApp, dispatch)));
+    }
+
+    private int start(boolean http2) throws IOException {
+        Map<String, Object> conf = new HashMap<>();
+        conf.put(ActConfigKey.XIO_HTTP2.key(), http2);
+        conf.put(ActConfigKey.XIO_IO_THREADS.key(), 2);
+        conf.put(ActConfigKey.XIO_MAX_WORKER_THREADS.key(), "4");
+        conf.put(ActConfigKey.XIO_BUFFER_SIZE.key(), 4096);
+        conf.put(ActConfigKey.XIO_BUFFER_POOL_MAX.key(), 64);
+        conf.put(ActConfigKey.XIO_HTTP2_MAX_CONCURRENT_STREAMS.key(), 10);
+        network = new UndertowNetwork(new ActConfig(conf));
+        network.bootUp();
+        return network.listen(0, false, ECHO_PROTOCOL);
+    }
+
+    private String get(int port) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) new URL("http://127.0.0.1:" + port + "/").openConnection();
+        try {
+            eq(200, conn.getResponseCode());
+            return IO.readContentAsString(conn.getInputStream());
+        } finally {
+            conn.disconnect();
+        }
+    }
+
+    private String clientGet(String scheme, int port) throws Exception {
+        if (null == clientWorker) {
+            clientWorker = Xnio.getInstance().createWorker(OptionMap.EMPTY);
+            clientBuffers = new DefaultByteBufferPool(false, 4096);
+        }
+        URI uri = new URI(scheme + "://127.0.0.1:" + port);
+        ClientConnection connection = UndertowClient.getInstance().connect(uri, clientWorker, clientBuffers, OptionMap.EMPTY).get();
+        try {
+            final CountDownLatch latch = new CountDownLatch(1);
+            final AtomicReference<Object> result = new AtomicReference<>();
+            ClientRequest request = new ClientRequest().setMethod(Methods.GET).setPath("/");
+            request.getRequestHeaders().put(Headers.HOST, "127.0.0.1");
+            connection.sendRequest(request, new ClientCallback<ClientExchange>() {
+                @Override
+                public void completed(ClientExchange exchange) {
+                    exchange.setResponseListener(new ClientCallback<ClientExchange>() {
+                        @Override
+                        public void completed(ClientExchange exchange) {
+                            new StringReadChannelListener(clientBuffers) {
+                                @Override
+                                protected void stringDone(String string) {
+                                    result.set(string);
+                                    latch.countDown();
+                                }
+
+                                @Override
+                                protected void error(IOException e) {
+                                    failed(e);
+                                }
+                            }.setup(exchange.getResponseChannel());
+                        }
+
+                        @Override
+                        public void failed(IOException e) {
+                            result.set(e);
+                            latch.countDown();
+                        }
+                    });
+                }
+
+                @Override
+                public void failed(IOException e) {
+                    result.set(e);
+                    latch.countDown();
+                }
+            });
+            yes(latch.await(10, TimeUnit.SECONDS));
+            Object o = result.get();
+            if (o instanceof IOException) {
+                throw (IOException) o;
+            }
+            return (String) o;
+        } finally {
+            IoUtils.safeClose(connection);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package fc.cron;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import act.BenchmarkBase;
+import com.carrotsearch.junitbenchmarks.BenchmarkOptions;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Compares finding the next time of {@link CronExpression} with the
+ * calendar walking {@link LegacyCronExpression}
+ */
+@BenchmarkOptions(warmupRounds = 5, benchmarkRounds = 20)
+public class CronExpressionBenchmark extends BenchmarkBase {
+
+    // every 5 seconds, daily at noon, last friday of month, 29th of february
+    private static final String[] EXPRESSIONS = {
+            "*/5 * * * * ?",
+            "0 0 12 * * ?",
+            "0 15 10 ? * 5L",
+            "0 0 0 29 2 ?"
+    };
+
+    private static final int TIMES = 1000;
+
+    private static DateTime[] times;
+
+    private static volatile DateTime sink;
+
+    @BeforeClass
+    public static void prepare() {
+        Random random = new Random(42);
+        times = new DateTime[TIMES];
+        long from = new DateTime(2017, 1, 1, 0, 0, DateTimeZone.UTC).getMillis();
+        for (int i = 0; i < TIMES; ++i) {
+            times[i] = new DateTime(from + (long) (random.nextDouble() * 365 * 24 * 3600 * 1000L), DateTimeZone.UTC);
+        }
+    }
+
+    @Test
+    public void bitSet() {
+        for (String expr : EXPRESSIONS) {
+            CronExpression cron = new CronExpression(expr);
+            for (DateTime time : times) {
+                sink = cron.nextTimeAfter(time);
+            }
+        }
+    }
+
+    @Test
+    public void legacy() {
+        for (String expr : EXPRESSIONS) {
+            LegacyCronExpression cron = new LegacyCronExpression(expr);
+            for (DateTime time : times) {
+                sink = cron.nextTimeAfter(time);
+            }
+        }
+    }
+
+}
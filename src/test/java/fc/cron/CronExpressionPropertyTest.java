@@ -0,0 +1,208 @@
+package fc.cron;
+
+/*-
+ * #%L
+ * ACT Framework
+ * %%
+ * Copyright (C) 2014 - 2017 ActFramework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+
+/**
+ * Checks {@link CronExpression} against {@link LegacyCronExpression} with
+ * random expressions and random times
+ */
+public class CronExpressionPropertyTest {
+
+    private static final String[] MONTHS = {"JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"};
+    private static final String[] DAYS = {"MON", "TUE", "WED", "THU", "FRI", "SAT", "SUN"};
+
+    private static final DateTimeZone[] ZONES = {
+            DateTimeZone.UTC,
+            DateTimeZone.forOffsetHoursMinutes(5, 30),
+            DateTimeZone.forOffsetHours(-8)
+    };
+
+    private static final DateTimeZone OSLO = DateTimeZone.forID("Europe/Oslo");
+
+    private final Random random = new Random(20171019);
+
+    @Test
+    public void shall_find_the_same_times_as_legacy_implementation() {
+        int checked = 0;
+        // search within a year to keep the legacy implementation fast
+        // on impossible expressions
+        for (int i = 0; i < 1000; ++i) {
+            String expr = expression();
+            CronExpression cron = new CronExpression(expr);
+            LegacyCronExpression legacy = new LegacyCronExpression(expr);
+            DateTime time = time(ZONES[random.nextInt(ZONES.length)]);
+            for (int j = 0; j < 4; ++j) {
+                DateTime expected;
+                try {
+                    expected = legacy.nextTimeAfter(time, time.plusYears(1));
+                } catch (IllegalArgumentException e) {
+                    expected = null;
+                }
+                DateTime actual;
+                try {
+                    actual = cron.nextTimeAfter(time, time.plusYears(1));
+                } catch (IllegalArgumentException e) {
+                    actual = null;
+                }
+                assertThat(actual).as(expr + " after " + time).isEqualTo(expected);
+                if (null == expected) {
+                    break;
+                }
+                checked++;
+                time = expected;
+            }
+        }
+        // make sure the expressions generated are not all impossible
+        assertThat(checked).isGreaterThan(2000);
+    }
+
+    @Test
+    public void shall_evaluate_in_the_zone_specified() {
+        for (int i = 0; i < 200; ++i) {
+            String expr = expression();
+            DateTimeZone zone = ZONES[1 + random.nextInt(ZONES.length - 1)];
+            CronExpression cron = new CronExpression(expr, zone);
+            LegacyCronExpression legacy = new LegacyCronExpression(expr);
+            DateTime time = time(DateTimeZone.UTC);
+            DateTime expected;
+            try {
+                expected = legacy.nextTimeAfter(time.withZone(zone), time.plusYears(1));
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            DateTime actual = cron.nextTimeAfter(time, time.plusYears(1));
+            assertThat(actual.getMillis()).as(expr + " after " + time).isEqualTo(expected.getMillis());
+            assertThat(actual.getZone()).isEqualTo(zone);
+        }
+    }
+
+    @Test
+    public void shall_skip_local_time_in_daylight_saving_gap() {
+        // clocks jump from 02:00 to 03:00 on 2017-03-26 in Oslo
+        CronExpression cron = new CronExpression("0 30 2 * * *", OSLO);
+        assertThat(cron.nextTimeAfter(new DateTime(2017, 3, 26, 1, 0, OSLO))).isEqualTo(new DateTime(2017, 3, 27, 2, 30, OSLO));
+        cron = new CronExpression("0 * * * * *", OSLO);
+        assertThat(cron.nextTimeAfter(new DateTime(2017, 3, 26, 1, 59, 30, OSLO))).isEqualTo(new DateTime(2017, 3, 26, 3, 0, OSLO));
+        cron = new CronExpression("0 0/20 2,3 * * *", OSLO);
+        assertThat(cron.nextTimeAfter(new DateTime(2017, 3, 26, 1, 59, 30, OSLO))).isEqualTo(new DateTime(2017, 3, 26, 3, 0, OSLO));
+    }
+
+    @Test
+    public void shall_match_repeated_local_time_once() {
+        // clocks go back from 03:00 to 02:00 on 2017-10-29 in Oslo
+        CronExpression cron = new CronExpression("0 30 2 * * *", OSLO);
+        DateTime first = cron.nextTimeAfter(new DateTime(2017, 10, 29, 1, 0, OSLO));
+        assertThat(first).isEqualTo(new DateTime(2017, 10, 29, 2, 30, OSLO));
+        assertThat(cron.nextTimeAfter(first)).isEqualTo(new DateTime(2017, 10, 30, 2, 30, OSLO));
+
+        // the search starts in the repeated hour
+        DateTime repeated = new DateTime(2017, 10, 29, 2, 10, OSLO).withLaterOffsetAtOverlap();
+        DateTime next = cron.nextTimeAfter(repeated);
+        assertThat(next.getMillis()).isEqualTo(repeated.getMillis() + 20 * 60 * 1000);
+    }
+
+    private DateTime time(DateTimeZone zone) {
+        long from = new DateTime(2000, 1, 1, 0, 0, DateTimeZone.UTC).getMillis();
+        long to = new DateTime(2030, 1, 1, 0, 0, DateTimeZone.UTC).getMillis();
+        long millis = from + (long) (random.nextDouble() * (to - from));
+        return new DateTime(millis, zone);
+    }
+
+    private String expression() {
+        return simple(0, 59, null) + " " + simple(0, 59, null) + " " + simple(0, 23, null) + " "
+                + dayOfMonth() + " " + simple(1, 12, MONTHS) + " " + dayOfWeek();
+    }
+
+    private String dayOfMonth() {
+        switch (random.nextInt(8)) {
+            case 0:
+                return "?";
+            case 1:
+                return "L";
+            case 2:
+                return (1 + random.nextInt(5)) + "L";
+            case 3:
+                return (1 + random.nextInt(31)) + "W";
+            default:
+                return simple(1, 31, null);
+        }
+    }
+
+    private String dayOfWeek() {
+        switch (random.nextInt(8)) {
+            case 0:
+            case 1:
+                return "?";
+            case 2:
+                return (1 + random.nextInt(7)) + "L";
+            case 3:
+                return (1 + random.nextInt(7)) + "#" + (1 + random.nextInt(5));
+            default:
+                return simple(1, 7, DAYS);
+        }
+    }
+
+    private String simple(int min, int max, String[] names) {
+        int parts = 1 + (random.nextInt(4) == 0 ? 1 + random.nextInt(2) : 0);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < parts; ++i) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            int a = min + random.nextInt(max - min + 1);
+            int b = min + random.nextInt(max - min + 1);
+            switch (random.nextInt(6)) {
+                case 0:
+                    sb.append('*');
+                    break;
+                case 1:
+                    sb.append(value(a, names));
+                    break;
+                case 2:
+                    sb.append(value(Math.min(a, b), names)).append('-').append(value(Math.max(a, b), names));
+                    break;
+                case 3:
+                    sb.append("*/").append(1 + random.nextInt(max - min + 1));
+                    break;
+                case 4:
+                    sb.append(a).append('/').append(1 + random.nextInt(max - min + 1));
+                    break;
+                default:
+                    // bias toward dense fields so most expressions fire often enough
+                    sb.append(random.nextBoolean() ? "*" : value(a, names));
+            }
+        }
+        return sb.toString();
+    }
+
+    private String value(int val, String[] names) {
+        return null != names && random.nextBoolean() ? names[val - 1] : String.valueOf(val);
+    }
+
+}